@@ -36,6 +36,11 @@ final public class CleanUpRequirementsCore {
 
 	protected final boolean fRequiresChangedRegions;
 
+	/**
+	 * @since 1.17
+	 */
+	protected final boolean fRegionSafe;
+
 
 	/**
 	 * Create a new instance
@@ -46,11 +51,27 @@ final public class CleanUpRequirementsCore {
 	 * @param compilerOptions map of compiler options or <code>null</code> if no requirements
 	 */
 	public CleanUpRequirementsCore(boolean requiresAST, boolean requiresFreshAST, boolean requiresChangedRegions, Map<String, String> compilerOptions) {
+		this(requiresAST, requiresFreshAST, requiresChangedRegions, false, compilerOptions);
+	}
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param requiresAST <code>true</code> if an AST is required
+	 * @param requiresFreshAST <code>true</code> if a fresh AST is required
+	 * @param requiresChangedRegions <code>true</code> if changed regions are required
+	 * @param regionSafe <code>true</code> if the clean up can be restricted to the changed regions
+	 * @param compilerOptions map of compiler options or <code>null</code> if no requirements
+	 * @see #isRegionSafe()
+	 * @since 1.17
+	 */
+	public CleanUpRequirementsCore(boolean requiresAST, boolean requiresFreshAST, boolean requiresChangedRegions, boolean regionSafe, Map<String, String> compilerOptions) {
 		Assert.isLegal(!requiresFreshAST || requiresAST, "Must not request fresh AST if no AST is required"); //$NON-NLS-1$
 		Assert.isLegal(compilerOptions == null || requiresAST, "Must not provide options if no AST is required"); //$NON-NLS-1$
 		fRequiresAST= requiresAST;
 		fRequiresFreshAST= requiresFreshAST;
 		fRequiresChangedRegions= requiresChangedRegions;
+		fRegionSafe= regionSafe;
 
 		fCompilerOptions= compilerOptions;
 		// Make sure that compile warnings are not suppressed since some clean ups work on reported warnings
@@ -110,4 +131,20 @@ final public class CleanUpRequirementsCore {
 		return fRequiresChangedRegions;
 	}
 
+	/**
+	 * Tells whether this clean up is region safe. A region safe clean up only changes nodes which
+	 * overlap the regions it is asked to clean up, and it finds these changes by looking at the
+	 * statements and declarations enclosing the regions only.
+	 * <p>
+	 * When used as save action and the changed regions are known, a region safe clean up is only
+	 * run on the AST subtrees covering the changed regions instead of the whole compilation unit.
+	 * </p>
+	 *
+	 * @return <code>true</code> if the clean up can be restricted to the changed regions
+	 * @since 1.17
+	 */
+	public boolean isRegionSafe() {
+		return fRegionSafe;
+	}
+
 }
\ No newline at end of file
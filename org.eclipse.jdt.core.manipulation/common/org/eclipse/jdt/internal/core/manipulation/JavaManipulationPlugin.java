@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,7 +13,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.core.manipulation;
 
+import java.util.Hashtable;
+
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
 
 import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.service.debug.DebugOptionsListener;
@@ -43,11 +46,15 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 
 	public static boolean DEBUG_AST_PROVIDER;
 
+	public static boolean DEBUG_SUPER_TYPE_HIERARCHY_CACHE;
+
 	//The shared instance.
 	private static JavaManipulationPlugin fgDefault;
 
 	private MembersOrderPreferenceCacheCommon fMembersOrderPreferenceCacheCommon;
 
+	private ServiceRegistration<DebugOptionsListener> fDebugRegistration;
+
 	/**
 	 * The constructor.
 	 */
@@ -58,10 +65,19 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 	@Override
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
+
+		// register debug options listener
+		Hashtable<String, String> properties= new Hashtable<>(2);
+		properties.put(DebugOptions.LISTENER_SYMBOLICNAME, JavaManipulation.ID_PLUGIN);
+		fDebugRegistration= context.registerService(DebugOptionsListener.class, this, properties);
 	}
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		if (fDebugRegistration != null) {
+			fDebugRegistration.unregister();
+			fDebugRegistration= null;
+		}
 		super.stop(context);
 		fgDefault= null;
 	}
@@ -103,5 +119,6 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 	@Override
 	public void optionsChanged(DebugOptions options) {
 		DEBUG_AST_PROVIDER= options.getBooleanOption("org.eclipse.jdt.core.manipulation/debug/ASTProvider", false); //$NON-NLS-1$
+		DEBUG_SUPER_TYPE_HIERARCHY_CACHE= options.getBooleanOption("org.eclipse.jdt.core.manipulation/debug/SuperTypeHierarchyCache", false); //$NON-NLS-1$
 	}
 }
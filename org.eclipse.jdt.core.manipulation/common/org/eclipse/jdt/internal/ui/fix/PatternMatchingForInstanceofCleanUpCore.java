@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021 Fabrice TIERCELIN and others.
+ * Copyright (c) 2021, 2022 Fabrice TIERCELIN and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,16 +19,20 @@ import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.CleanUpContextCore;
 import org.eclipse.jdt.core.manipulation.CleanUpRequirementsCore;
 import org.eclipse.jdt.core.manipulation.ICleanUpFixCore;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
 import org.eclipse.jdt.internal.corext.fix.PatternMatchingForInstanceofFixCore;
+import org.eclipse.jdt.internal.corext.fix.PatternMatchingForInstanceofFixCore.PatternMatchingForInstanceofFinder;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
-public class PatternMatchingForInstanceofCleanUpCore extends AbstractCleanUpCore {
+public class PatternMatchingForInstanceofCleanUpCore extends AbstractCleanUpCore implements ISharedTraversalCleanUp {
 	public PatternMatchingForInstanceofCleanUpCore(final Map<String, String> options) {
 		super(options);
 	}
@@ -45,6 +49,14 @@ public class PatternMatchingForInstanceofCleanUpCore extends AbstractCleanUpCore
 		return isEnabled(CleanUpConstants.USE_PATTERN_MATCHING_FOR_INSTANCEOF);
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		if (isEnabled(CleanUpConstants.USE_PATTERN_MATCHING_FOR_INSTANCEOF)
+				&& JavaModelUtil.is16OrHigher(unit.getJavaElement().getJavaProject())) {
+			multiplexer.addVisitor(this, new PatternMatchingForInstanceofFinder(new ArrayList<>()), ASTNode.BLOCK);
+		}
+	}
+
 	@Override
 	public ICleanUpFixCore createFixCore(final CleanUpContextCore context) throws CoreException {
 		CompilationUnit compilationUnit= context.getAST();
@@ -55,6 +67,10 @@ public class PatternMatchingForInstanceofCleanUpCore extends AbstractCleanUpCore
 			return null;
 		}
 
+		PatternMatchingForInstanceofFinder finder= MultiplexingASTVisitor.getVisitor(compilationUnit, this, PatternMatchingForInstanceofFinder.class);
+		if (finder != null) {
+			return PatternMatchingForInstanceofFixCore.createCleanUp(compilationUnit, finder.getResult());
+		}
 		return PatternMatchingForInstanceofFixCore.createCleanUp(compilationUnit);
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021 Fabrice TIERCELIN and others.
+ * Copyright (c) 2021, 2022 Fabrice TIERCELIN and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,15 +19,19 @@ import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.CleanUpContextCore;
 import org.eclipse.jdt.core.manipulation.CleanUpRequirementsCore;
 import org.eclipse.jdt.core.manipulation.ICleanUpFixCore;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
 import org.eclipse.jdt.internal.corext.fix.PlainReplacementFixCore;
+import org.eclipse.jdt.internal.corext.fix.PlainReplacementFixCore.PlainReplacementFinder;
 
-public class PlainReplacementCleanUpCore extends AbstractCleanUpCore {
+public class PlainReplacementCleanUpCore extends AbstractCleanUpCore implements ISharedTraversalCleanUp {
 	public PlainReplacementCleanUpCore(final Map<String, String> options) {
 		super(options);
 	}
@@ -44,6 +48,13 @@ public class PlainReplacementCleanUpCore extends AbstractCleanUpCore {
 		return isEnabled(CleanUpConstants.PLAIN_REPLACEMENT);
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		if (isEnabled(CleanUpConstants.PLAIN_REPLACEMENT)) {
+			multiplexer.addVisitor(this, new PlainReplacementFinder(new ArrayList<>()), ASTNode.METHOD_INVOCATION);
+		}
+	}
+
 	@Override
 	public ICleanUpFixCore createFixCore(final CleanUpContextCore context) throws CoreException {
 		CompilationUnit compilationUnit= context.getAST();
@@ -52,6 +63,10 @@ public class PlainReplacementCleanUpCore extends AbstractCleanUpCore {
 			return null;
 		}
 
+		PlainReplacementFinder finder= MultiplexingASTVisitor.getVisitor(compilationUnit, this, PlainReplacementFinder.class);
+		if (finder != null) {
+			return PlainReplacementFixCore.createCleanUp(compilationUnit, finder.getResult());
+		}
 		return PlainReplacementFixCore.createCleanUp(compilationUnit);
 	}
 
@@ -0,0 +1,817 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.fix;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.text.edits.TextEdit;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.CleanUpContextCore;
+import org.eclipse.jdt.core.manipulation.CleanUpOptionsCore;
+import org.eclipse.jdt.core.manipulation.CleanUpRequirementsCore;
+import org.eclipse.jdt.core.manipulation.ICleanUpFixCore;
+import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation;
+import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
+
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.jdt.internal.corext.refactoring.util.TextEditUtil;
+
+import org.eclipse.jdt.internal.ui.fix.ArrayWithCurlyCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.BooleanValueRatherThanComparisonCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.CodeStyleCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.ConstantsForSystemPropertiesCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.DoWhileRatherThanWhileCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.InvertEqualsCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.LambdaExpressionsCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.OneIfRatherThanDuplicateBlocksThatFallThroughCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.PatternMatchingForInstanceofCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.PlainReplacementCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.PotentialProgrammingProblemsCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.PrimitiveComparisonCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.PrimitiveRatherThanWrapperCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.PullOutIfFromIfElseCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.RedundantComparatorCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.ReturnExpressionCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.StandardComparisonCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.StringBufferToStringBuilderCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.StringConcatToTextBlockCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.SubstringCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.SwitchCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.SwitchExpressionsCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.UnnecessaryCodeCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.UnusedCodeCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.ValueOfRatherThanInstantiationCleanUpCore;
+import org.eclipse.jdt.internal.ui.fix.VariableDeclarationCleanUpCore;
+
+/**
+ * Runs the clean ups of a clean up profile and organize imports on the compilation units of a
+ * workspace without a workbench.
+ * <p>
+ * Arguments:
+ * </p>
+ * <ul>
+ * <li><code>-profile &lt;file&gt;</code>: a clean up profile exported from the preferences, required</li>
+ * <li><code>-organizeImports</code>: organize imports even if the profile does not enable it</li>
+ * <li><code>-diff</code>: print a unified diff of the changes instead of writing them</li>
+ * <li><code>-threads &lt;count&gt;</code>: the number of compilation unit batches processed in
+ * parallel, by default the number of processors</li>
+ * <li><code>-quiet</code>: do not report the time spent on each compilation unit</li>
+ * <li>the workspace paths or file system folders to clean up, by default all Java projects of the
+ * workspace. A folder outside of the workspace which contains a <code>.project</code> file is
+ * imported into the workspace.</li>
+ * </ul>
+ * <p>
+ * Only the clean ups available in this bundle are run, enabled settings of the profile which none
+ * of them reads are reported. The exit code is <code>0</code> on success, <code>1</code> if
+ * <code>-diff</code> found changes and <code>2</code> on errors.
+ * </p>
+ */
+public class CleanUpApplication implements IApplication {
+
+	private static final class UnitResult {
+
+		private final ICompilationUnit fUnit;
+		private final String fOldSource;
+		private final String fNewSource;
+		private final long fTime;
+		private final CoreException fException;
+
+		public UnitResult(ICompilationUnit unit, String oldSource, String newSource, long time, CoreException exception) {
+			fUnit= unit;
+			fOldSource= oldSource;
+			fNewSource= newSource;
+			fTime= time;
+			fException= exception;
+		}
+
+		public boolean isChanged() {
+			return fException == null && hasChangedLines(fOldSource, fNewSource);
+		}
+	}
+
+	/**
+	 * A SAX event handler to read the settings of the first clean up profile.
+	 */
+	private static final class ProfileHandler extends DefaultHandler {
+
+		private Map<String, String> fSettings;
+		private boolean fInCleanUpProfile;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+			if (XML_NODE_PROFILE.equals(qName)) {
+				fInCleanUpProfile= fSettings == null && CLEAN_UP_PROFILE_KIND.equals(attributes.getValue(XML_ATTRIBUTE_KIND));
+				if (fInCleanUpProfile)
+					fSettings= new Hashtable<>();
+			} else if (XML_NODE_SETTING.equals(qName) && fInCleanUpProfile) {
+				String key= attributes.getValue(XML_ATTRIBUTE_ID);
+				String value= attributes.getValue(XML_ATTRIBUTE_VALUE);
+				if (key != null && value != null)
+					fSettings.put(key, value);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if (XML_NODE_PROFILE.equals(qName))
+				fInCleanUpProfile= false;
+		}
+
+		public Map<String, String> getSettings() {
+			return fSettings;
+		}
+	}
+
+	/**
+	 * Settings which remember the keys the clean ups have asked for.
+	 */
+	private static final class RecordingSettings extends Hashtable<String, String> {
+
+		private static final long serialVersionUID= 1L;
+
+		private final Set<String> fReadKeys;
+
+		public RecordingSettings(Set<String> readKeys) {
+			fReadKeys= readKeys;
+		}
+
+		@Override
+		public synchronized String get(Object key) {
+			if (key instanceof String)
+				fReadKeys.add((String) key);
+			return super.get(key);
+		}
+	}
+
+	private static final Integer EXIT_CHANGES= Integer.valueOf(1);
+	private static final Integer EXIT_ERROR= Integer.valueOf(2);
+
+	private static final String ARG_PROFILE= "-profile"; //$NON-NLS-1$
+	private static final String ARG_ORGANIZE_IMPORTS= "-organizeImports"; //$NON-NLS-1$
+	private static final String ARG_DIFF= "-diff"; //$NON-NLS-1$
+	private static final String ARG_THREADS= "-threads"; //$NON-NLS-1$
+	private static final String ARG_QUIET= "-quiet"; //$NON-NLS-1$
+
+	private static final String XML_NODE_PROFILE= "profile"; //$NON-NLS-1$
+	private static final String XML_NODE_SETTING= "setting"; //$NON-NLS-1$
+	private static final String XML_ATTRIBUTE_KIND= "kind"; //$NON-NLS-1$
+	private static final String XML_ATTRIBUTE_ID= "id"; //$NON-NLS-1$
+	private static final String XML_ATTRIBUTE_VALUE= "value"; //$NON-NLS-1$
+	private static final String CLEAN_UP_PROFILE_KIND= "CleanUpProfile"; //$NON-NLS-1$
+
+	/**
+	 * Number of compilation units parsed together, they share one binding environment.
+	 */
+	private static final int BATCH_SIZE= 50;
+
+	/**
+	 * Number of unchanged lines around each hunk of the diff.
+	 */
+	private static final int DIFF_CONTEXT= 3;
+
+	private File fProfile;
+	private boolean fOrganizeImports;
+	private boolean fDiff;
+	private int fThreads;
+	private boolean fQuiet;
+	private final List<String> fPaths= new ArrayList<>();
+
+	@Override
+	public Object start(IApplicationContext context) throws Exception {
+		String[] args= (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		if (!parseArguments(args)) {
+			System.err.println(FixMessages.CleanUpApplication_usage_message);
+			return EXIT_ERROR;
+		}
+
+		Map<String, String> settings;
+		try {
+			settings= readProfile(fProfile);
+		} catch (IOException | SAXException | ParserConfigurationException e) {
+			System.err.println(Messages.format(FixMessages.CleanUpApplication_readProfile_message, new Object[] { fProfile, e.getMessage() }));
+			return EXIT_ERROR;
+		}
+		if (settings == null) {
+			System.err.println(Messages.format(FixMessages.CleanUpApplication_invalidProfile_message, fProfile));
+			return EXIT_ERROR;
+		}
+		boolean organizeImports= fOrganizeImports || CleanUpOptionsCore.TRUE.equals(settings.get(CleanUpConstants.ORGANIZE_IMPORTS));
+		for (String key : getUnsupportedSettings(settings)) {
+			System.err.println(Messages.format(FixMessages.CleanUpApplication_unsupportedSetting_message, key));
+		}
+
+		long start= System.currentTimeMillis();
+		Map<IJavaProject, Set<ICompilationUnit>> units= collectCompilationUnits();
+
+		int processed= 0;
+		int changed= 0;
+		int failed= 0;
+		ExecutorService executor= Executors.newFixedThreadPool(fThreads);
+		try {
+			for (Map.Entry<IJavaProject, Set<ICompilationUnit>> entry : units.entrySet()) {
+				for (UnitResult result : cleanUpProject(executor, entry.getKey(), new ArrayList<>(entry.getValue()), settings, organizeImports)) {
+					processed++;
+					if (result.fException != null) {
+						failed++;
+						System.err.println(Messages.format(FixMessages.CleanUpApplication_failed_message, new Object[] { result.fUnit.getPath(), result.fException.getMessage() }));
+						continue;
+					}
+
+					if (result.isChanged()) {
+						changed++;
+						if (fDiff) {
+							writeDiff(System.out, result.fUnit.getPath().toString(), result.fOldSource, result.fNewSource);
+						} else {
+							IFile file= (IFile) result.fUnit.getResource();
+							file.setContents(new ByteArrayInputStream(result.fNewSource.getBytes(file.getCharset())), IResource.KEEP_HISTORY, null);
+						}
+					}
+					if (!fQuiet) {
+						String message= result.isChanged() ? FixMessages.CleanUpApplication_changed_message : FixMessages.CleanUpApplication_unchanged_message;
+						System.err.println(Messages.format(message, new Object[] { result.fUnit.getPath(), Long.valueOf(result.fTime) }));
+					}
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		// persist imported projects and the history of the changed files
+		ResourcesPlugin.getWorkspace().save(true, null);
+
+		System.err.println(Messages.format(FixMessages.CleanUpApplication_summary_message,
+				new Object[] { Integer.valueOf(processed), Long.valueOf(System.currentTimeMillis() - start), Integer.valueOf(changed), Integer.valueOf(failed) }));
+		if (failed > 0)
+			return EXIT_ERROR;
+		if (fDiff && changed > 0)
+			return EXIT_CHANGES;
+		return EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		// nothing to do
+	}
+
+	private boolean parseArguments(String[] args) {
+		fThreads= Runtime.getRuntime().availableProcessors();
+		if (args == null)
+			return false;
+
+		for (int i= 0; i < args.length; i++) {
+			String arg= args[i];
+			if (ARG_PROFILE.equals(arg) && i + 1 < args.length) {
+				fProfile= new File(args[++i]);
+			} else if (ARG_ORGANIZE_IMPORTS.equals(arg)) {
+				fOrganizeImports= true;
+			} else if (ARG_DIFF.equals(arg)) {
+				fDiff= true;
+			} else if (ARG_QUIET.equals(arg)) {
+				fQuiet= true;
+			} else if (ARG_THREADS.equals(arg) && i + 1 < args.length) {
+				try {
+					fThreads= Math.max(1, Integer.parseInt(args[++i]));
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			} else if (arg.startsWith("-")) { //$NON-NLS-1$
+				return false;
+			} else {
+				fPaths.add(arg);
+			}
+		}
+		return fProfile != null;
+	}
+
+	private static Map<String, String> readProfile(File file) throws IOException, SAXException, ParserConfigurationException {
+		SAXParserFactory factory= SAXParserFactory.newInstance();
+		factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+		ProfileHandler handler= new ProfileHandler();
+		factory.newSAXParser().parse(file, handler);
+		return handler.getSettings();
+	}
+
+	private static List<ICleanUpCore> createCleanUps(Map<String, String> settings) {
+		List<ICleanUpCore> result= new ArrayList<>();
+		result.add(new CodeStyleCleanUpCore(settings));
+		result.add(new ConstantsForSystemPropertiesCleanUpCore(settings));
+		result.add(new PrimitiveComparisonCleanUpCore(settings));
+		result.add(new PrimitiveRatherThanWrapperCleanUpCore(settings));
+		result.add(new InvertEqualsCleanUpCore(settings));
+		result.add(new StandardComparisonCleanUpCore(settings));
+		result.add(new BooleanValueRatherThanComparisonCleanUpCore(settings));
+		result.add(new DoWhileRatherThanWhileCleanUpCore(settings));
+		result.add(new PullOutIfFromIfElseCleanUpCore(settings));
+		result.add(new OneIfRatherThanDuplicateBlocksThatFallThroughCleanUpCore(settings));
+		result.add(new ReturnExpressionCleanUpCore(settings));
+		result.add(new RedundantComparatorCleanUpCore(settings));
+		result.add(new ArrayWithCurlyCleanUpCore(settings));
+		result.add(new SubstringCleanUpCore(settings));
+		result.add(new PlainReplacementCleanUpCore(settings));
+		result.add(new ValueOfRatherThanInstantiationCleanUpCore(settings));
+		result.add(new StringBufferToStringBuilderCleanUpCore(settings));
+		result.add(new StringConcatToTextBlockCleanUpCore(settings));
+		result.add(new PatternMatchingForInstanceofCleanUpCore(settings));
+		result.add(new SwitchCleanUpCore(settings));
+		result.add(new SwitchExpressionsCleanUpCore(settings));
+		result.add(new LambdaExpressionsCleanUpCore(settings));
+		result.add(new VariableDeclarationCleanUpCore(settings));
+		result.add(new PotentialProgrammingProblemsCleanUpCore(settings));
+		result.add(new UnnecessaryCodeCleanUpCore(settings));
+		result.add(new UnusedCodeCleanUpCore(settings));
+		return result;
+	}
+
+	/**
+	 * Returns the settings enabled in the given profile which are not read by any of the clean ups
+	 * of this bundle. The clean ups are asked for their steps and requirements with the profile
+	 * settings and with all boolean settings enabled and disabled, so that options only read in
+	 * combination with others are found, too.
+	 *
+	 * @param settings the clean up profile settings
+	 * @return the sorted keys of the unsupported enabled settings
+	 */
+	public static Set<String> getUnsupportedSettings(Map<String, String> settings) {
+		Set<String> readKeys= new HashSet<>();
+		readKeys.add(CleanUpConstants.ORGANIZE_IMPORTS);
+		for (String value : new String[] { null, CleanUpOptionsCore.TRUE, CleanUpOptionsCore.FALSE }) {
+			RecordingSettings probe= new RecordingSettings(readKeys);
+			for (Map.Entry<String, String> entry : settings.entrySet()) {
+				boolean isBoolean= CleanUpOptionsCore.TRUE.equals(entry.getValue()) || CleanUpOptionsCore.FALSE.equals(entry.getValue());
+				probe.put(entry.getKey(), value != null && isBoolean ? value : entry.getValue());
+			}
+			for (ICleanUpCore cleanUp : createCleanUps(probe)) {
+				cleanUp.getStepDescriptions();
+				cleanUp.getRequirementsCore();
+			}
+		}
+
+		Set<String> result= new TreeSet<>();
+		for (Map.Entry<String, String> entry : settings.entrySet()) {
+			if (CleanUpOptionsCore.TRUE.equals(entry.getValue()) && !readKeys.contains(entry.getKey()))
+				result.add(entry.getKey());
+		}
+		return result;
+	}
+
+	private Map<IJavaProject, Set<ICompilationUnit>> collectCompilationUnits() throws CoreException {
+		Map<IJavaProject, Set<ICompilationUnit>> result= new LinkedHashMap<>();
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		if (fPaths.isEmpty()) {
+			root.refreshLocal(IResource.DEPTH_INFINITE, null);
+			for (IJavaProject project : JavaCore.create(root).getJavaProjects()) {
+				addCompilationUnits(project, result);
+			}
+			return result;
+		}
+
+		for (String path : fPaths) {
+			IResource resource= findResource(path);
+			IJavaElement element= null;
+			if (resource != null) {
+				resource.refreshLocal(IResource.DEPTH_INFINITE, null);
+				element= JavaCore.create(resource);
+			}
+			if (element == null || !element.exists()) {
+				System.err.println(Messages.format(FixMessages.CleanUpApplication_skipped_message, path));
+				continue;
+			}
+			addCompilationUnits(element, result);
+		}
+		return result;
+	}
+
+	/*
+	 * Resolves a file system path first and a workspace path second. A folder outside of the
+	 * workspace with a .project file is imported as a project.
+	 */
+	private static IResource findResource(String path) throws CoreException {
+		IWorkspace workspace= ResourcesPlugin.getWorkspace();
+		IWorkspaceRoot root= workspace.getRoot();
+		File file= new File(path).getAbsoluteFile();
+		if (file.isFile()) {
+			IFile[] files= root.findFilesForLocationURI(file.toURI());
+			return files.length > 0 ? files[0] : null;
+		}
+		if (file.isDirectory()) {
+			IContainer[] containers= root.findContainersForLocationURI(file.toURI());
+			if (containers.length > 0)
+				return containers[0];
+
+			File descriptionFile= new File(file, IProjectDescription.DESCRIPTION_FILE_NAME);
+			if (!descriptionFile.isFile())
+				return null;
+
+			IProjectDescription description= workspace.loadProjectDescription(new Path(descriptionFile.getPath()));
+			IProject project= root.getProject(description.getName());
+			if (!project.exists())
+				project.create(description, null);
+			project.open(null);
+			return project;
+		}
+		return root.findMember(path);
+	}
+
+	private static void addCompilationUnits(IJavaElement element, Map<IJavaProject, Set<ICompilationUnit>> result) throws JavaModelException {
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				for (IPackageFragmentRoot root : ((IJavaProject) element).getPackageFragmentRoots()) {
+					if (root.getKind() == IPackageFragmentRoot.K_SOURCE)
+						addCompilationUnits(root, result);
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				for (IJavaElement child : ((IPackageFragmentRoot) element).getChildren()) {
+					addCompilationUnits(child, result);
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				for (ICompilationUnit unit : ((IPackageFragment) element).getCompilationUnits()) {
+					addCompilationUnits(unit, result);
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				result.computeIfAbsent(element.getJavaProject(), p -> new LinkedHashSet<>()).add((ICompilationUnit) element);
+				break;
+			default:
+				break;
+		}
+	}
+
+	private List<UnitResult> cleanUpProject(ExecutorService executor, IJavaProject project, List<ICompilationUnit> units, Map<String, String> settings, boolean organizeImports) throws CoreException, InterruptedException {
+		Map<String, String> compilerOptions= project.getOptions(true);
+		for (ICleanUpCore cleanUp : createCleanUps(settings)) {
+			Map<String, String> options= cleanUp.getRequirementsCore().getCompilerOptions();
+			if (options != null)
+				compilerOptions.putAll(options);
+		}
+
+		// clean ups keep state between their pre conditions, fixes and post conditions, partly in
+		// static fields, and may build the project: the conditions are checked once per project by
+		// this thread, only the fixes are created by the batches
+		List<ICleanUpCore> cleanUps= createCleanUps(settings);
+		ICompilationUnit[] unitArray= units.toArray(new ICompilationUnit[units.size()]);
+		for (ICleanUpCore cleanUp : cleanUps) {
+			RefactoringStatus status= cleanUp.checkPreConditions(project, unitArray, null);
+			if (status.hasFatalError())
+				throw new CoreException(status.getEntryWithHighestSeverity().toStatus());
+		}
+
+		List<UnitResult> result= new ArrayList<>(units.size());
+		try {
+			List<Future<List<UnitResult>>> batches= new ArrayList<>();
+			for (int i= 0; i < units.size(); i+= BATCH_SIZE) {
+				List<ICompilationUnit> batch= units.subList(i, Math.min(units.size(), i + BATCH_SIZE));
+				batches.add(executor.submit(() -> cleanUpBatch(project, batch, cleanUps, compilerOptions, organizeImports)));
+			}
+
+			for (Future<List<UnitResult>> batch : batches) {
+				result.addAll(batch.get());
+			}
+		} catch (ExecutionException e) {
+			Throwable cause= e.getCause();
+			if (cause instanceof CoreException)
+				throw (CoreException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new RuntimeException(cause);
+		} finally {
+			for (ICleanUpCore cleanUp : cleanUps) {
+				cleanUp.checkPostConditions(null);
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Processes the units of one batch on private working copies. The first AST of each unit is
+	 * created together with the ASTs of the other units of the batch.
+	 */
+	private static List<UnitResult> cleanUpBatch(IJavaProject project, List<ICompilationUnit> units, List<ICleanUpCore> cleanUps, Map<String, String> compilerOptions, boolean organizeImports) throws CoreException {
+		WorkingCopyOwner owner= new WorkingCopyOwner() {/* a private owner for this batch */};
+		Map<ICompilationUnit, UnitResult> results= new LinkedHashMap<>();
+		List<ICompilationUnit> workingCopies= new ArrayList<>(units.size());
+		try {
+			for (ICompilationUnit unit : units) {
+				workingCopies.add(unit.getWorkingCopy(owner, null));
+			}
+
+			ASTParser parser= createParser(project, compilerOptions);
+			parser.setWorkingCopyOwner(owner);
+			parser.createASTs(workingCopies.toArray(new ICompilationUnit[workingCopies.size()]), new String[0], new ASTRequestor() {
+
+				private long fStart= System.currentTimeMillis();
+
+				@Override
+				public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+					String oldSource= null;
+					String newSource= null;
+					CoreException exception= null;
+					try {
+						oldSource= source.getSource();
+						cleanUp(source, ast, project, cleanUps, compilerOptions, organizeImports);
+						newSource= source.getSource();
+					} catch (CoreException e) {
+						exception= e;
+					}
+					long end= System.currentTimeMillis();
+					results.put(source.getPrimary(), new UnitResult(source.getPrimary(), oldSource, newSource, end - fStart, exception));
+					fStart= end;
+				}
+			}, null);
+		} finally {
+			for (ICompilationUnit workingCopy : workingCopies) {
+				workingCopy.discardWorkingCopy();
+			}
+		}
+		return new ArrayList<>(results.values());
+	}
+
+	/*
+	 * Applies the fixes created on one AST together as long as their edits do not overlap. The clean
+	 * ups which could not be applied, or which need an AST of the changed source, are run on a new
+	 * AST in the next round.
+	 */
+	private static void cleanUp(ICompilationUnit workingCopy, CompilationUnit firstAST, IJavaProject project, List<ICleanUpCore> cleanUps, Map<String, String> compilerOptions, boolean organizeImports) throws CoreException {
+		CompilationUnit ast= firstAST;
+		List<ICleanUpCore> remaining= cleanUps;
+		while (!remaining.isEmpty()) {
+			if (ast == null)
+				ast= parse(workingCopy, project, compilerOptions);
+
+			TextEdit merged= null;
+			List<ICleanUpCore> deferred= new ArrayList<>();
+			for (ICleanUpCore cleanUp : remaining) {
+				CleanUpRequirementsCore requirements= cleanUp.getRequirementsCore();
+				if (!deferred.isEmpty() || merged != null && requirements.requiresFreshAST()) {
+					deferred.add(cleanUp);
+					continue;
+				}
+
+				ICleanUpFixCore fix= cleanUp.createFixCore(new CleanUpContextCore(workingCopy, requirements.requiresAST() ? ast : null));
+				if (fix == null)
+					continue;
+
+				CompilationUnitChange change= fix.createChange(null);
+				TextEdit edit= change != null ? change.getEdit() : null;
+				if (edit == null)
+					continue;
+
+				if (merged == null) {
+					merged= edit;
+				} else if (TextEditUtil.overlaps(merged, edit)) {
+					deferred.add(cleanUp);
+				} else {
+					merged= TextEditUtil.merge(merged, edit);
+				}
+			}
+
+			if (merged == null)
+				break;
+
+			workingCopy.applyTextEdit(merged, null);
+			ast= null;
+			remaining= deferred;
+		}
+
+		if (organizeImports) {
+			if (ast == null)
+				ast= parse(workingCopy, project, compilerOptions);
+			TextEdit edit= new OrganizeImportsOperation(workingCopy, ast, true, false, true, null).createTextEdit(null);
+			if (edit != null)
+				workingCopy.applyTextEdit(edit, null);
+		}
+	}
+
+	private static CompilationUnit parse(ICompilationUnit workingCopy, IJavaProject project, Map<String, String> compilerOptions) {
+		ASTParser parser= createParser(project, compilerOptions);
+		parser.setWorkingCopyOwner(workingCopy.getOwner());
+		parser.setSource(workingCopy);
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	private static ASTParser createParser(IJavaProject project, Map<String, String> compilerOptions) {
+		ASTParser result= ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		result.setResolveBindings(true);
+		result.setStatementsRecovery(IASTSharedValues.SHARED_AST_STATEMENT_RECOVERY);
+		result.setBindingsRecovery(IASTSharedValues.SHARED_BINDING_RECOVERY);
+		result.setProject(project);
+		result.setCompilerOptions(compilerOptions);
+		return result;
+	}
+
+	/**
+	 * Tells whether the lines of the given sources differ. Sources which only differ in their line
+	 * delimiters have an empty diff and are not changed.
+	 *
+	 * @param oldSource the source before the clean up
+	 * @param newSource the source after the clean up
+	 * @return <code>true</code> if a line has been changed, added or removed
+	 */
+	public static boolean hasChangedLines(String oldSource, String newSource) {
+		return !oldSource.equals(newSource) && !Arrays.equals(splitLines(oldSource), splitLines(newSource));
+	}
+
+	/**
+	 * Writes the unified diff between the given sources, with {@value #DIFF_CONTEXT} lines of
+	 * context around each hunk. The edit script is computed with the greedy algorithm of Myers on
+	 * the lines between the common prefix and suffix.
+	 *
+	 * @param out the stream to write to
+	 * @param path the path of the compilation unit, used in the file headers
+	 * @param oldSource the source before the clean up
+	 * @param newSource the source after the clean up
+	 */
+	public static void writeDiff(PrintStream out, String path, String oldSource, String newSource) {
+		String[] oldLines= splitLines(oldSource);
+		String[] newLines= splitLines(newSource);
+
+		int prefix= 0;
+		while (prefix < oldLines.length && prefix < newLines.length && oldLines[prefix].equals(newLines[prefix]))
+			prefix++;
+		int suffix= 0;
+		while (suffix < oldLines.length - prefix && suffix < newLines.length - prefix
+				&& oldLines[oldLines.length - 1 - suffix].equals(newLines[newLines.length - 1 - suffix]))
+			suffix++;
+
+		// each operation is {kind, old line, new line} with kind ' ', '-' or '+'
+		List<int[]> operations= new ArrayList<>();
+		for (int i= 0; i < prefix; i++)
+			operations.add(new int[] { ' ', i, i });
+		computeEditScript(oldLines, newLines, prefix, oldLines.length - suffix, newLines.length - suffix, operations);
+		for (int i= suffix; i > 0; i--)
+			operations.add(new int[] { ' ', oldLines.length - i, newLines.length - i });
+
+		out.println("--- a" + path); //$NON-NLS-1$
+		out.println("+++ b" + path); //$NON-NLS-1$
+		int i= 0;
+		while (i < operations.size()) {
+			if (operations.get(i)[0] == ' ') {
+				i++;
+				continue;
+			}
+
+			int start= Math.max(0, i - DIFF_CONTEXT);
+			int lastChange= i;
+			for (int j= i; j < operations.size() && j - lastChange <= 2 * DIFF_CONTEXT; j++) {
+				if (operations.get(j)[0] != ' ')
+					lastChange= j;
+			}
+			int end= Math.min(operations.size(), lastChange + DIFF_CONTEXT + 1);
+
+			int oldCount= 0;
+			int newCount= 0;
+			for (int j= start; j < end; j++) {
+				int kind= operations.get(j)[0];
+				if (kind != '+')
+					oldCount++;
+				if (kind != '-')
+					newCount++;
+			}
+			int oldStart= operations.get(start)[1] + (oldCount > 0 ? 1 : 0);
+			int newStart= operations.get(start)[2] + (newCount > 0 ? 1 : 0);
+			out.println("@@ -" + oldStart + ',' + oldCount + " +" + newStart + ',' + newCount + " @@"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+			for (int j= start; j < end; j++) {
+				int[] operation= operations.get(j);
+				String line= operation[0] == '+' ? newLines[operation[2]] : oldLines[operation[1]];
+				out.println((char) operation[0] + line);
+			}
+			i= end;
+		}
+	}
+
+	private static void computeEditScript(String[] oldLines, String[] newLines, int start, int oldEnd, int newEnd, List<int[]> operations) {
+		int n= oldEnd - start;
+		int m= newEnd - start;
+		int max= n + m;
+		int offset= max + 1;
+		int[] v= new int[2 * max + 3];
+		List<int[]> trace= new ArrayList<>();
+
+		search: for (int d= 0; d <= max; d++) {
+			trace.add(v.clone());
+			for (int k= -d; k <= d; k+= 2) {
+				int x;
+				if (k == -d || k != d && v[offset + k - 1] < v[offset + k + 1]) {
+					x= v[offset + k + 1];
+				} else {
+					x= v[offset + k - 1] + 1;
+				}
+				int y= x - k;
+				while (x < n && y < m && oldLines[start + x].equals(newLines[start + y])) {
+					x++;
+					y++;
+				}
+				v[offset + k]= x;
+				if (x >= n && y >= m)
+					break search;
+			}
+		}
+
+		List<int[]> reversed= new ArrayList<>();
+		int x= n;
+		int y= m;
+		for (int d= trace.size() - 1; d >= 0; d--) {
+			int[] previous= trace.get(d);
+			int k= x - y;
+			int previousK;
+			if (k == -d || k != d && previous[offset + k - 1] < previous[offset + k + 1]) {
+				previousK= k + 1;
+			} else {
+				previousK= k - 1;
+			}
+			int previousX= d == 0 ? 0 : previous[offset + previousK];
+			int previousY= d == 0 ? 0 : previousX - previousK;
+			while (x > previousX && y > previousY) {
+				x--;
+				y--;
+				reversed.add(new int[] { ' ', start + x, start + y });
+			}
+			if (d > 0) {
+				if (x == previousX) {
+					reversed.add(new int[] { '+', start + x, start + y - 1 });
+				} else {
+					reversed.add(new int[] { '-', start + x - 1, start + y });
+				}
+			}
+			x= previousX;
+			y= previousY;
+		}
+		for (int i= reversed.size() - 1; i >= 0; i--)
+			operations.add(reversed.get(i));
+	}
+
+	private static String[] splitLines(String source) {
+		String[] lines= source.split("\r\n|\r|\n", -1); //$NON-NLS-1$
+		if (lines.length > 0 && lines[lines.length - 1].isEmpty()) {
+			String[] result= new String[lines.length - 1];
+			System.arraycopy(lines, 0, result, 0, result.length);
+			return result;
+		}
+		return lines;
+	}
+}
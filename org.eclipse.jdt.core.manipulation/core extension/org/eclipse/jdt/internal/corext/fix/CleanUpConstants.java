@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -2223,6 +2223,74 @@ public class CleanUpConstants {
 	 */
 	public static final String SHOW_CLEAN_UP_WIZARD= "cleanup.showwizard"; //$NON-NLS-1$
 
+	/**
+	 * The number of worker threads used to compute clean up changes when executing the Clean Up
+	 * Action on more than one compilation unit. A value of <code>1</code> computes all changes on
+	 * the calling thread.<br>
+	 * <br>
+	 * Possible values: Integer value greater than <code>0</code><br>
+	 * Default value: <code><b>1</b></code><br>
+	 * <br>
+	 *
+	 * @since 4.24
+	 */
+	public static final String CLEANUP_WORKER_COUNT= "cleanup.worker_count"; //$NON-NLS-1$
+
+	/**
+	 * The maximum number of compilation units parsed together in one batch when clean up changes are
+	 * computed by more than one worker thread.<br>
+	 * <br>
+	 * Possible values: Integer value greater than <code>0</code><br>
+	 * Default value: <code><b>200</b></code><br>
+	 * <br>
+	 *
+	 * @since 4.24
+	 */
+	public static final String CLEANUP_BATCH_SIZE= "cleanup.batch_size"; //$NON-NLS-1$
+
+	/**
+	 * Should the changes computed by the Clean Up Action be applied batch by batch when the Clean
+	 * Up Wizard is not shown? The changes are then written to the files as soon as a batch is
+	 * computed, which bounds the memory consumption by the batch size, but the clean up can not be
+	 * undone.<br>
+	 * <br>
+	 * Possible values: {<code><b>true</b></code>, <code><b>false</b></code>} <br>
+	 * Default value: <code><b>false</b></code><br>
+	 * <br>
+	 *
+	 * @see #CLEANUP_BATCH_SIZE
+	 * @since 4.24
+	 */
+	public static final String CLEANUP_APPLY_IN_BATCHES= "cleanup.apply_in_batches"; //$NON-NLS-1$
+
+	/**
+	 * Should the Clean Up Action remember the compilation units for which a clean up profile
+	 * produced no change? Such units are skipped when the same profile is run again on unchanged
+	 * content, as long as the signatures of the types they reference did not change. The results are
+	 * stored in the state location of the plug-in.<br>
+	 * <br>
+	 * Possible values: {<code><b>true</b></code>, <code><b>false</b></code>} <br>
+	 * Default value: <code><b>false</b></code><br>
+	 * <br>
+	 *
+	 * @see #CLEANUP_RESULT_CACHE_SIZE
+	 * @since 4.24
+	 */
+	public static final String CLEANUP_RESULT_CACHE= "cleanup.result_cache"; //$NON-NLS-1$
+
+	/**
+	 * The maximum number of results remembered by the Clean Up Action. The least recently used
+	 * results are discarded first.<br>
+	 * <br>
+	 * Possible values: Integer value greater than <code>0</code><br>
+	 * Default value: <code><b>10000</b></code><br>
+	 * <br>
+	 *
+	 * @see #CLEANUP_RESULT_CACHE
+	 * @since 4.24
+	 */
+	public static final String CLEANUP_RESULT_CACHE_SIZE= "cleanup.result_cache_size"; //$NON-NLS-1$
+
 	/**
 	 * A key to a serialized string in the <code>InstanceScope</code> containing all the profiles.<br>
 	 * Following code snippet can load the profiles:
@@ -2283,6 +2351,20 @@ public class CleanUpConstants {
 
 	public static final String CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS= "cleanup.on_save_use_additional_actions"; //$NON-NLS-1$
 
+	/**
+	 * If true then the additional save actions which support it only clean up the changed regions
+	 * on save. Only has an effect if {@link #CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS} is TRUE <br>
+	 * <br>
+	 * Possible values: {TRUE, FALSE}<br>
+	 *
+	 * <br>
+	 *
+	 * @see CleanUpOptionsCore#TRUE
+	 * @see CleanUpOptionsCore#FALSE
+	 * @since 4.24
+	 */
+	public static final String CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS_CHANGES_ONLY= "cleanup.on_save_additional_actions_changes_only"; //$NON-NLS-1$
+
 	/**
 	 * The id of the profile used as a default profile when executing clean up.<br>
 	 * <br>
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -39,9 +39,21 @@ public final class FixMessages extends NLS {
 	public static String CleanUpRefactoring_Parser_Startup_message;
 	public static String CleanUpRefactoring_Refactoring_name;
 	public static String CleanUpRefactoring_ProcessingCompilationUnit_message;
+	public static String CleanUpRefactoring_ProcessingBatch_message;
+	public static String CleanUpRefactoring_ParsingBatch_message;
 	public static String CleanUpRefactoring_Initialize_message;
 	public static String CleanUpRefactoring_exception;
 
+	public static String CleanUpApplication_usage_message;
+	public static String CleanUpApplication_invalidProfile_message;
+	public static String CleanUpApplication_readProfile_message;
+	public static String CleanUpApplication_skipped_message;
+	public static String CleanUpApplication_unsupportedSetting_message;
+	public static String CleanUpApplication_changed_message;
+	public static String CleanUpApplication_unchanged_message;
+	public static String CleanUpApplication_failed_message;
+	public static String CleanUpApplication_summary_message;
+
 	public static String CleanUpRegistry_ErrorTabPage_description;
 	public static String CleanUpRegistry_ErrorTabPage_preview;
 	public static String CleanUpRegistry_UnknownInitializerKind_errorMessage;
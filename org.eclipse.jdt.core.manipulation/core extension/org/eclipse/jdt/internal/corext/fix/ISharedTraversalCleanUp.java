@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.fix;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * A clean up which finds the nodes to fix with {@link org.eclipse.jdt.core.dom.ASTVisitor}s that
+ * can share one traversal of the compilation unit with the visitors of other clean ups.
+ * <p>
+ * Before the fixes for a compilation unit are created, the clean up registers its visitors with
+ * {@link #registerVisitors(CompilationUnit, MultiplexingASTVisitor)}. When the fix is created, the
+ * clean up retrieves the visitors with
+ * {@link MultiplexingASTVisitor#getVisitor(CompilationUnit, Object, Class)}. If that returns
+ * <code>null</code>, there was no shared traversal and the clean up has to visit the compilation
+ * unit itself.
+ * </p>
+ */
+public interface ISharedTraversalCleanUp {
+
+	/**
+	 * Registers the visitors of this clean up for a shared traversal of <code>unit</code>. Nothing
+	 * is registered if the clean up is disabled.
+	 *
+	 * @param unit the compilation unit which is going to be visited
+	 * @param multiplexer the visitor to register with
+	 */
+	void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer);
+}
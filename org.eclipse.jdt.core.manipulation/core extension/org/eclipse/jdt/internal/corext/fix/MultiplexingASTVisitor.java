@@ -0,0 +1,872 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.fix;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.jface.text.IRegion;
+
+import org.eclipse.jdt.core.dom.*;
+
+/**
+ * Walks an AST once and fans every node out to a number of registered visitors.
+ * <p>
+ * Each registered visitor sees exactly the calls it would see if it was accepted by the visited
+ * node on its own: {@link ASTVisitor#preVisit2(ASTNode)}, the type specific <code>visit</code>,
+ * <code>endVisit</code> and {@link ASTVisitor#postVisit(ASTNode)}. If a visitor decides to not
+ * visit the children of a node, only that visitor skips the subtree. The traversal itself only
+ * skips a subtree if all visitors skip it.
+ * </p>
+ * <p>
+ * A visitor can be restricted to a set of node types. It is then only called for nodes of these
+ * types, which saves the dispatch for all other nodes. Returning <code>false</code> from
+ * <code>visit</code> still skips the children of the node for that visitor.
+ * </p>
+ * <p>
+ * Clean ups implementing {@link ISharedTraversalCleanUp} register their visitors with
+ * {@link #runSharedTraversal(CompilationUnit, Collection)}, and retrieve them after the shared
+ * traversal with {@link #getVisitor(CompilationUnit, Object, Class)}. Region safe clean ups can
+ * be run on the subtrees covering a set of regions only with
+ * {@link #runSharedTraversal(CompilationUnit, Collection, IRegion[])}.
+ * </p>
+ */
+public class MultiplexingASTVisitor extends ASTVisitor {
+
+	private static final Map<CompilationUnit, MultiplexingASTVisitor> fgSharedTraversals= Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final List<ASTVisitor> fVisitors;
+	private final List<BitSet> fNodeTypes;
+	private final Map<Object, ASTVisitor> fVisitorsByKey;
+
+	/**
+	 * For each visitor the node whose subtree is skipped by the visitor, or <code>null</code> if
+	 * the visitor is visiting.
+	 */
+	private ASTNode[] fSkippedAt;
+
+	/**
+	 * For each visitor whether <code>endVisit</code> has to be called for the node in
+	 * {@link #fSkippedAt}, which is the case if the visitor returned <code>false</code> from
+	 * <code>visit</code>, but not if it returned <code>false</code> from <code>preVisit2</code>.
+	 * <code>postVisit</code> is called in both cases, like {@link ASTNode#accept(ASTVisitor)} does.
+	 */
+	private boolean[] fEndSkipped;
+
+	public MultiplexingASTVisitor() {
+		super(true);
+		fVisitors= new ArrayList<>();
+		fNodeTypes= new ArrayList<>();
+		fVisitorsByKey= new HashMap<>();
+	}
+
+	/**
+	 * Registers a visitor.
+	 *
+	 * @param key the key to retrieve the visitor with {@link #getVisitor(Object)}, can be
+	 *            <code>null</code>
+	 * @param visitor the visitor to register
+	 * @param nodeTypes the node types as defined in {@link ASTNode#getNodeType()} the visitor is
+	 *            interested in, if empty the visitor is called for all nodes
+	 */
+	public void addVisitor(Object key, ASTVisitor visitor, int... nodeTypes) {
+		BitSet types= null;
+		if (nodeTypes.length > 0) {
+			types= new BitSet();
+			for (int nodeType : nodeTypes) {
+				types.set(nodeType);
+			}
+		}
+		fVisitors.add(visitor);
+		fNodeTypes.add(types);
+		if (key != null)
+			fVisitorsByKey.put(key, visitor);
+	}
+
+	/**
+	 * @param key the key the visitor has been registered with
+	 * @return the visitor or <code>null</code> if no visitor was registered for the key
+	 */
+	public ASTVisitor getVisitor(Object key) {
+		return fVisitorsByKey.get(key);
+	}
+
+	/**
+	 * @return <code>true</code> if no visitor is registered
+	 */
+	public boolean isEmpty() {
+		return fVisitors.isEmpty();
+	}
+
+	/**
+	 * Visits <code>node</code> with all registered visitors.
+	 *
+	 * @param node the root of the AST to visit
+	 */
+	public void run(ASTNode node) {
+		fSkippedAt= new ASTNode[fVisitors.size()];
+		fEndSkipped= new boolean[fVisitors.size()];
+		try {
+			node.accept(this);
+		} finally {
+			fSkippedAt= null;
+			fEndSkipped= null;
+		}
+	}
+
+	@Override
+	public boolean preVisit2(ASTNode node) {
+		int nodeType= node.getNodeType();
+		boolean visitChildren= false;
+		for (int i= 0; i < fVisitors.size(); i++) {
+			if (fSkippedAt[i] != null)
+				continue;
+
+			BitSet types= fNodeTypes.get(i);
+			if (types != null && !types.get(nodeType)) {
+				visitChildren= true;
+				continue;
+			}
+
+			ASTVisitor visitor= fVisitors.get(i);
+			if (!visitor.preVisit2(node)) {
+				fSkippedAt[i]= node;
+				fEndSkipped[i]= false;
+			} else if (!dispatchVisit(visitor, node)) {
+				fSkippedAt[i]= node;
+				fEndSkipped[i]= true;
+			} else {
+				visitChildren= true;
+			}
+		}
+
+		// postVisit is called by the node also if its children are skipped
+		return visitChildren;
+	}
+
+	@Override
+	public void postVisit(ASTNode node) {
+		int nodeType= node.getNodeType();
+		for (int i= 0; i < fVisitors.size(); i++) {
+			ASTNode skippedAt= fSkippedAt[i];
+			if (skippedAt == node) {
+				fSkippedAt[i]= null;
+				if (!fEndSkipped[i]) {
+					fVisitors.get(i).postVisit(node);
+					continue;
+				}
+			} else if (skippedAt != null) {
+				continue;
+			}
+
+			BitSet types= fNodeTypes.get(i);
+			if (types != null && !types.get(nodeType))
+				continue;
+
+			ASTVisitor visitor= fVisitors.get(i);
+			dispatchEndVisit(visitor, node);
+			visitor.postVisit(node);
+		}
+	}
+
+	/**
+	 * Runs the visitors of the given clean ups with one traversal of <code>unit</code>. The
+	 * visitors are available through {@link #getVisitor(CompilationUnit, Object, Class)} until
+	 * {@link #disposeSharedTraversal(CompilationUnit)} is called.
+	 *
+	 * @param unit the compilation unit to visit
+	 * @param cleanUps the clean ups to register the visitors of
+	 */
+	public static void runSharedTraversal(CompilationUnit unit, Collection<? extends ISharedTraversalCleanUp> cleanUps) {
+		MultiplexingASTVisitor multiplexer= new MultiplexingASTVisitor();
+		for (ISharedTraversalCleanUp cleanUp : cleanUps) {
+			cleanUp.registerVisitors(unit, multiplexer);
+		}
+		if (multiplexer.isEmpty())
+			return;
+
+		multiplexer.run(unit);
+		fgSharedTraversals.put(unit, multiplexer);
+	}
+
+	/**
+	 * Runs the visitors of the given clean ups on the subtrees of <code>unit</code> covering the
+	 * given regions. Each subtree is the innermost statement or body declaration covering a region
+	 * and is visited once, even if it covers several regions. The visitors are available through
+	 * {@link #getVisitor(CompilationUnit, Object, Class)} until
+	 * {@link #disposeSharedTraversal(CompilationUnit)} is called.
+	 *
+	 * @param unit the compilation unit to visit
+	 * @param cleanUps the region safe clean ups to register the visitors of
+	 * @param regions the regions to visit, if <code>null</code> the whole unit is visited
+	 */
+	public static void runSharedTraversal(CompilationUnit unit, Collection<? extends ISharedTraversalCleanUp> cleanUps, IRegion[] regions) {
+		if (regions == null) {
+			runSharedTraversal(unit, cleanUps);
+			return;
+		}
+
+		MultiplexingASTVisitor multiplexer= new MultiplexingASTVisitor();
+		for (ISharedTraversalCleanUp cleanUp : cleanUps) {
+			cleanUp.registerVisitors(unit, multiplexer);
+		}
+		if (multiplexer.isEmpty())
+			return;
+
+		for (ASTNode node : getCoveringNodes(unit, regions)) {
+			multiplexer.run(node);
+		}
+		fgSharedTraversals.put(unit, multiplexer);
+	}
+
+	private static List<ASTNode> getCoveringNodes(CompilationUnit unit, IRegion[] regions) {
+		List<ASTNode> result= new ArrayList<>();
+		for (IRegion region : regions) {
+			ASTNode node= NodeFinder.perform(unit, region.getOffset(), region.getLength());
+			while (node != null && !(node instanceof Statement) && !(node instanceof BodyDeclaration)) {
+				node= node.getParent();
+			}
+			if (node == null)
+				node= unit;
+
+			if (isCovered(node, result))
+				continue;
+			for (int i= result.size() - 1; i >= 0; i--) {
+				if (isAncestor(node, result.get(i)))
+					result.remove(i);
+			}
+			result.add(node);
+		}
+		return result;
+	}
+
+	private static boolean isCovered(ASTNode node, List<ASTNode> coveringNodes) {
+		for (ASTNode coveringNode : coveringNodes) {
+			if (isAncestor(coveringNode, node))
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean isAncestor(ASTNode ancestor, ASTNode node) {
+		for (ASTNode current= node; current != null; current= current.getParent()) {
+			if (current == ancestor)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Releases the visitors of the shared traversal of <code>unit</code>.
+	 *
+	 * @param unit the visited compilation unit
+	 */
+	public static void disposeSharedTraversal(CompilationUnit unit) {
+		fgSharedTraversals.remove(unit);
+	}
+
+	/**
+	 * Returns the visitor registered with <code>key</code> which already visited <code>unit</code>
+	 * in a shared traversal.
+	 *
+	 * @param unit the visited compilation unit
+	 * @param key the key the visitor has been registered with
+	 * @param type the type of the visitor
+	 * @return the visitor or <code>null</code> if there was no shared traversal of
+	 *         <code>unit</code> with a visitor for <code>key</code>
+	 */
+	public static <T extends ASTVisitor> T getVisitor(CompilationUnit unit, Object key, Class<T> type) {
+		MultiplexingASTVisitor multiplexer= fgSharedTraversals.get(unit);
+		if (multiplexer == null)
+			return null;
+
+		ASTVisitor visitor= multiplexer.getVisitor(key);
+		return type.isInstance(visitor) ? type.cast(visitor) : null;
+	}
+
+	private static boolean dispatchVisit(ASTVisitor visitor, ASTNode node) {
+		switch (node.getNodeType()) {
+			case ASTNode.ANNOTATION_TYPE_DECLARATION:
+				return visitor.visit((AnnotationTypeDeclaration) node);
+			case ASTNode.ANNOTATION_TYPE_MEMBER_DECLARATION:
+				return visitor.visit((AnnotationTypeMemberDeclaration) node);
+			case ASTNode.ANONYMOUS_CLASS_DECLARATION:
+				return visitor.visit((AnonymousClassDeclaration) node);
+			case ASTNode.ARRAY_ACCESS:
+				return visitor.visit((ArrayAccess) node);
+			case ASTNode.ARRAY_CREATION:
+				return visitor.visit((ArrayCreation) node);
+			case ASTNode.ARRAY_INITIALIZER:
+				return visitor.visit((ArrayInitializer) node);
+			case ASTNode.ARRAY_TYPE:
+				return visitor.visit((ArrayType) node);
+			case ASTNode.ASSERT_STATEMENT:
+				return visitor.visit((AssertStatement) node);
+			case ASTNode.ASSIGNMENT:
+				return visitor.visit((Assignment) node);
+			case ASTNode.BLOCK:
+				return visitor.visit((Block) node);
+			case ASTNode.BLOCK_COMMENT:
+				return visitor.visit((BlockComment) node);
+			case ASTNode.BOOLEAN_LITERAL:
+				return visitor.visit((BooleanLiteral) node);
+			case ASTNode.BREAK_STATEMENT:
+				return visitor.visit((BreakStatement) node);
+			case ASTNode.CASE_DEFAULT_EXPRESSION:
+				return visitor.visit((CaseDefaultExpression) node);
+			case ASTNode.CAST_EXPRESSION:
+				return visitor.visit((CastExpression) node);
+			case ASTNode.CATCH_CLAUSE:
+				return visitor.visit((CatchClause) node);
+			case ASTNode.CHARACTER_LITERAL:
+				return visitor.visit((CharacterLiteral) node);
+			case ASTNode.CLASS_INSTANCE_CREATION:
+				return visitor.visit((ClassInstanceCreation) node);
+			case ASTNode.COMPILATION_UNIT:
+				return visitor.visit((CompilationUnit) node);
+			case ASTNode.CONDITIONAL_EXPRESSION:
+				return visitor.visit((ConditionalExpression) node);
+			case ASTNode.CONSTRUCTOR_INVOCATION:
+				return visitor.visit((ConstructorInvocation) node);
+			case ASTNode.CONTINUE_STATEMENT:
+				return visitor.visit((ContinueStatement) node);
+			case ASTNode.CREATION_REFERENCE:
+				return visitor.visit((CreationReference) node);
+			case ASTNode.DIMENSION:
+				return visitor.visit((Dimension) node);
+			case ASTNode.DO_STATEMENT:
+				return visitor.visit((DoStatement) node);
+			case ASTNode.EMPTY_STATEMENT:
+				return visitor.visit((EmptyStatement) node);
+			case ASTNode.ENHANCED_FOR_STATEMENT:
+				return visitor.visit((EnhancedForStatement) node);
+			case ASTNode.ENUM_CONSTANT_DECLARATION:
+				return visitor.visit((EnumConstantDeclaration) node);
+			case ASTNode.ENUM_DECLARATION:
+				return visitor.visit((EnumDeclaration) node);
+			case ASTNode.EXPORTS_DIRECTIVE:
+				return visitor.visit((ExportsDirective) node);
+			case ASTNode.EXPRESSION_METHOD_REFERENCE:
+				return visitor.visit((ExpressionMethodReference) node);
+			case ASTNode.EXPRESSION_STATEMENT:
+				return visitor.visit((ExpressionStatement) node);
+			case ASTNode.FIELD_ACCESS:
+				return visitor.visit((FieldAccess) node);
+			case ASTNode.FIELD_DECLARATION:
+				return visitor.visit((FieldDeclaration) node);
+			case ASTNode.FOR_STATEMENT:
+				return visitor.visit((ForStatement) node);
+			case ASTNode.GUARDED_PATTERN:
+				return visitor.visit((GuardedPattern) node);
+			case ASTNode.IF_STATEMENT:
+				return visitor.visit((IfStatement) node);
+			case ASTNode.IMPORT_DECLARATION:
+				return visitor.visit((ImportDeclaration) node);
+			case ASTNode.INFIX_EXPRESSION:
+				return visitor.visit((InfixExpression) node);
+			case ASTNode.INITIALIZER:
+				return visitor.visit((Initializer) node);
+			case ASTNode.INSTANCEOF_EXPRESSION:
+				return visitor.visit((InstanceofExpression) node);
+			case ASTNode.INTERSECTION_TYPE:
+				return visitor.visit((IntersectionType) node);
+			case ASTNode.JAVADOC:
+				return visitor.visit((Javadoc) node);
+			case ASTNode.JAVADOC_REGION:
+				return visitor.visit((JavaDocRegion) node);
+			case ASTNode.LABELED_STATEMENT:
+				return visitor.visit((LabeledStatement) node);
+			case ASTNode.LAMBDA_EXPRESSION:
+				return visitor.visit((LambdaExpression) node);
+			case ASTNode.LINE_COMMENT:
+				return visitor.visit((LineComment) node);
+			case ASTNode.MARKER_ANNOTATION:
+				return visitor.visit((MarkerAnnotation) node);
+			case ASTNode.MEMBER_REF:
+				return visitor.visit((MemberRef) node);
+			case ASTNode.MEMBER_VALUE_PAIR:
+				return visitor.visit((MemberValuePair) node);
+			case ASTNode.METHOD_DECLARATION:
+				return visitor.visit((MethodDeclaration) node);
+			case ASTNode.METHOD_INVOCATION:
+				return visitor.visit((MethodInvocation) node);
+			case ASTNode.METHOD_REF:
+				return visitor.visit((MethodRef) node);
+			case ASTNode.METHOD_REF_PARAMETER:
+				return visitor.visit((MethodRefParameter) node);
+			case ASTNode.MODIFIER:
+				return visitor.visit((Modifier) node);
+			case ASTNode.MODULE_DECLARATION:
+				return visitor.visit((ModuleDeclaration) node);
+			case ASTNode.MODULE_MODIFIER:
+				return visitor.visit((ModuleModifier) node);
+			case ASTNode.MODULE_QUALIFIED_NAME:
+				return visitor.visit((ModuleQualifiedName) node);
+			case ASTNode.NAME_QUALIFIED_TYPE:
+				return visitor.visit((NameQualifiedType) node);
+			case ASTNode.NORMAL_ANNOTATION:
+				return visitor.visit((NormalAnnotation) node);
+			case ASTNode.NULL_LITERAL:
+				return visitor.visit((NullLiteral) node);
+			case ASTNode.NULL_PATTERN:
+				return visitor.visit((NullPattern) node);
+			case ASTNode.NUMBER_LITERAL:
+				return visitor.visit((NumberLiteral) node);
+			case ASTNode.OPENS_DIRECTIVE:
+				return visitor.visit((OpensDirective) node);
+			case ASTNode.PACKAGE_DECLARATION:
+				return visitor.visit((PackageDeclaration) node);
+			case ASTNode.PARAMETERIZED_TYPE:
+				return visitor.visit((ParameterizedType) node);
+			case ASTNode.PARENTHESIZED_EXPRESSION:
+				return visitor.visit((ParenthesizedExpression) node);
+			case ASTNode.PATTERN_INSTANCEOF_EXPRESSION:
+				return visitor.visit((PatternInstanceofExpression) node);
+			case ASTNode.POSTFIX_EXPRESSION:
+				return visitor.visit((PostfixExpression) node);
+			case ASTNode.PREFIX_EXPRESSION:
+				return visitor.visit((PrefixExpression) node);
+			case ASTNode.PRIMITIVE_TYPE:
+				return visitor.visit((PrimitiveType) node);
+			case ASTNode.PROVIDES_DIRECTIVE:
+				return visitor.visit((ProvidesDirective) node);
+			case ASTNode.QUALIFIED_NAME:
+				return visitor.visit((QualifiedName) node);
+			case ASTNode.QUALIFIED_TYPE:
+				return visitor.visit((QualifiedType) node);
+			case ASTNode.RECORD_DECLARATION:
+				return visitor.visit((RecordDeclaration) node);
+			case ASTNode.REQUIRES_DIRECTIVE:
+				return visitor.visit((RequiresDirective) node);
+			case ASTNode.RETURN_STATEMENT:
+				return visitor.visit((ReturnStatement) node);
+			case ASTNode.SIMPLE_NAME:
+				return visitor.visit((SimpleName) node);
+			case ASTNode.SIMPLE_TYPE:
+				return visitor.visit((SimpleType) node);
+			case ASTNode.SINGLE_MEMBER_ANNOTATION:
+				return visitor.visit((SingleMemberAnnotation) node);
+			case ASTNode.SINGLE_VARIABLE_DECLARATION:
+				return visitor.visit((SingleVariableDeclaration) node);
+			case ASTNode.STRING_LITERAL:
+				return visitor.visit((StringLiteral) node);
+			case ASTNode.SUPER_CONSTRUCTOR_INVOCATION:
+				return visitor.visit((SuperConstructorInvocation) node);
+			case ASTNode.SUPER_FIELD_ACCESS:
+				return visitor.visit((SuperFieldAccess) node);
+			case ASTNode.SUPER_METHOD_INVOCATION:
+				return visitor.visit((SuperMethodInvocation) node);
+			case ASTNode.SUPER_METHOD_REFERENCE:
+				return visitor.visit((SuperMethodReference) node);
+			case ASTNode.SWITCH_CASE:
+				return visitor.visit((SwitchCase) node);
+			case ASTNode.SWITCH_EXPRESSION:
+				return visitor.visit((SwitchExpression) node);
+			case ASTNode.SWITCH_STATEMENT:
+				return visitor.visit((SwitchStatement) node);
+			case ASTNode.SYNCHRONIZED_STATEMENT:
+				return visitor.visit((SynchronizedStatement) node);
+			case ASTNode.TAG_ELEMENT:
+				return visitor.visit((TagElement) node);
+			case ASTNode.TAG_PROPERTY:
+				return visitor.visit((TagProperty) node);
+			case ASTNode.TEXT_BLOCK:
+				return visitor.visit((TextBlock) node);
+			case ASTNode.TEXT_ELEMENT:
+				return visitor.visit((TextElement) node);
+			case ASTNode.THIS_EXPRESSION:
+				return visitor.visit((ThisExpression) node);
+			case ASTNode.THROW_STATEMENT:
+				return visitor.visit((ThrowStatement) node);
+			case ASTNode.TRY_STATEMENT:
+				return visitor.visit((TryStatement) node);
+			case ASTNode.TYPE_DECLARATION:
+				return visitor.visit((TypeDeclaration) node);
+			case ASTNode.TYPE_DECLARATION_STATEMENT:
+				return visitor.visit((TypeDeclarationStatement) node);
+			case ASTNode.TYPE_LITERAL:
+				return visitor.visit((TypeLiteral) node);
+			case ASTNode.TYPE_METHOD_REFERENCE:
+				return visitor.visit((TypeMethodReference) node);
+			case ASTNode.TYPE_PARAMETER:
+				return visitor.visit((TypeParameter) node);
+			case ASTNode.TYPE_PATTERN:
+				return visitor.visit((TypePattern) node);
+			case ASTNode.UNION_TYPE:
+				return visitor.visit((UnionType) node);
+			case ASTNode.USES_DIRECTIVE:
+				return visitor.visit((UsesDirective) node);
+			case ASTNode.VARIABLE_DECLARATION_EXPRESSION:
+				return visitor.visit((VariableDeclarationExpression) node);
+			case ASTNode.VARIABLE_DECLARATION_FRAGMENT:
+				return visitor.visit((VariableDeclarationFragment) node);
+			case ASTNode.VARIABLE_DECLARATION_STATEMENT:
+				return visitor.visit((VariableDeclarationStatement) node);
+			case ASTNode.WHILE_STATEMENT:
+				return visitor.visit((WhileStatement) node);
+			case ASTNode.WILDCARD_TYPE:
+				return visitor.visit((WildcardType) node);
+			case ASTNode.YIELD_STATEMENT:
+				return visitor.visit((YieldStatement) node);
+			default:
+				return true;
+		}
+	}
+
+	private static void dispatchEndVisit(ASTVisitor visitor, ASTNode node) {
+		switch (node.getNodeType()) {
+			case ASTNode.ANNOTATION_TYPE_DECLARATION:
+				visitor.endVisit((AnnotationTypeDeclaration) node);
+				break;
+			case ASTNode.ANNOTATION_TYPE_MEMBER_DECLARATION:
+				visitor.endVisit((AnnotationTypeMemberDeclaration) node);
+				break;
+			case ASTNode.ANONYMOUS_CLASS_DECLARATION:
+				visitor.endVisit((AnonymousClassDeclaration) node);
+				break;
+			case ASTNode.ARRAY_ACCESS:
+				visitor.endVisit((ArrayAccess) node);
+				break;
+			case ASTNode.ARRAY_CREATION:
+				visitor.endVisit((ArrayCreation) node);
+				break;
+			case ASTNode.ARRAY_INITIALIZER:
+				visitor.endVisit((ArrayInitializer) node);
+				break;
+			case ASTNode.ARRAY_TYPE:
+				visitor.endVisit((ArrayType) node);
+				break;
+			case ASTNode.ASSERT_STATEMENT:
+				visitor.endVisit((AssertStatement) node);
+				break;
+			case ASTNode.ASSIGNMENT:
+				visitor.endVisit((Assignment) node);
+				break;
+			case ASTNode.BLOCK:
+				visitor.endVisit((Block) node);
+				break;
+			case ASTNode.BLOCK_COMMENT:
+				visitor.endVisit((BlockComment) node);
+				break;
+			case ASTNode.BOOLEAN_LITERAL:
+				visitor.endVisit((BooleanLiteral) node);
+				break;
+			case ASTNode.BREAK_STATEMENT:
+				visitor.endVisit((BreakStatement) node);
+				break;
+			case ASTNode.CASE_DEFAULT_EXPRESSION:
+				visitor.endVisit((CaseDefaultExpression) node);
+				break;
+			case ASTNode.CAST_EXPRESSION:
+				visitor.endVisit((CastExpression) node);
+				break;
+			case ASTNode.CATCH_CLAUSE:
+				visitor.endVisit((CatchClause) node);
+				break;
+			case ASTNode.CHARACTER_LITERAL:
+				visitor.endVisit((CharacterLiteral) node);
+				break;
+			case ASTNode.CLASS_INSTANCE_CREATION:
+				visitor.endVisit((ClassInstanceCreation) node);
+				break;
+			case ASTNode.COMPILATION_UNIT:
+				visitor.endVisit((CompilationUnit) node);
+				break;
+			case ASTNode.CONDITIONAL_EXPRESSION:
+				visitor.endVisit((ConditionalExpression) node);
+				break;
+			case ASTNode.CONSTRUCTOR_INVOCATION:
+				visitor.endVisit((ConstructorInvocation) node);
+				break;
+			case ASTNode.CONTINUE_STATEMENT:
+				visitor.endVisit((ContinueStatement) node);
+				break;
+			case ASTNode.CREATION_REFERENCE:
+				visitor.endVisit((CreationReference) node);
+				break;
+			case ASTNode.DIMENSION:
+				visitor.endVisit((Dimension) node);
+				break;
+			case ASTNode.DO_STATEMENT:
+				visitor.endVisit((DoStatement) node);
+				break;
+			case ASTNode.EMPTY_STATEMENT:
+				visitor.endVisit((EmptyStatement) node);
+				break;
+			case ASTNode.ENHANCED_FOR_STATEMENT:
+				visitor.endVisit((EnhancedForStatement) node);
+				break;
+			case ASTNode.ENUM_CONSTANT_DECLARATION:
+				visitor.endVisit((EnumConstantDeclaration) node);
+				break;
+			case ASTNode.ENUM_DECLARATION:
+				visitor.endVisit((EnumDeclaration) node);
+				break;
+			case ASTNode.EXPORTS_DIRECTIVE:
+				visitor.endVisit((ExportsDirective) node);
+				break;
+			case ASTNode.EXPRESSION_METHOD_REFERENCE:
+				visitor.endVisit((ExpressionMethodReference) node);
+				break;
+			case ASTNode.EXPRESSION_STATEMENT:
+				visitor.endVisit((ExpressionStatement) node);
+				break;
+			case ASTNode.FIELD_ACCESS:
+				visitor.endVisit((FieldAccess) node);
+				break;
+			case ASTNode.FIELD_DECLARATION:
+				visitor.endVisit((FieldDeclaration) node);
+				break;
+			case ASTNode.FOR_STATEMENT:
+				visitor.endVisit((ForStatement) node);
+				break;
+			case ASTNode.GUARDED_PATTERN:
+				visitor.endVisit((GuardedPattern) node);
+				break;
+			case ASTNode.IF_STATEMENT:
+				visitor.endVisit((IfStatement) node);
+				break;
+			case ASTNode.IMPORT_DECLARATION:
+				visitor.endVisit((ImportDeclaration) node);
+				break;
+			case ASTNode.INFIX_EXPRESSION:
+				visitor.endVisit((InfixExpression) node);
+				break;
+			case ASTNode.INITIALIZER:
+				visitor.endVisit((Initializer) node);
+				break;
+			case ASTNode.INSTANCEOF_EXPRESSION:
+				visitor.endVisit((InstanceofExpression) node);
+				break;
+			case ASTNode.INTERSECTION_TYPE:
+				visitor.endVisit((IntersectionType) node);
+				break;
+			case ASTNode.JAVADOC:
+				visitor.endVisit((Javadoc) node);
+				break;
+			case ASTNode.JAVADOC_REGION:
+				visitor.endVisit((JavaDocRegion) node);
+				break;
+			case ASTNode.LABELED_STATEMENT:
+				visitor.endVisit((LabeledStatement) node);
+				break;
+			case ASTNode.LAMBDA_EXPRESSION:
+				visitor.endVisit((LambdaExpression) node);
+				break;
+			case ASTNode.LINE_COMMENT:
+				visitor.endVisit((LineComment) node);
+				break;
+			case ASTNode.MARKER_ANNOTATION:
+				visitor.endVisit((MarkerAnnotation) node);
+				break;
+			case ASTNode.MEMBER_REF:
+				visitor.endVisit((MemberRef) node);
+				break;
+			case ASTNode.MEMBER_VALUE_PAIR:
+				visitor.endVisit((MemberValuePair) node);
+				break;
+			case ASTNode.METHOD_DECLARATION:
+				visitor.endVisit((MethodDeclaration) node);
+				break;
+			case ASTNode.METHOD_INVOCATION:
+				visitor.endVisit((MethodInvocation) node);
+				break;
+			case ASTNode.METHOD_REF:
+				visitor.endVisit((MethodRef) node);
+				break;
+			case ASTNode.METHOD_REF_PARAMETER:
+				visitor.endVisit((MethodRefParameter) node);
+				break;
+			case ASTNode.MODIFIER:
+				visitor.endVisit((Modifier) node);
+				break;
+			case ASTNode.MODULE_DECLARATION:
+				visitor.endVisit((ModuleDeclaration) node);
+				break;
+			case ASTNode.MODULE_MODIFIER:
+				visitor.endVisit((ModuleModifier) node);
+				break;
+			case ASTNode.MODULE_QUALIFIED_NAME:
+				visitor.endVisit((ModuleQualifiedName) node);
+				break;
+			case ASTNode.NAME_QUALIFIED_TYPE:
+				visitor.endVisit((NameQualifiedType) node);
+				break;
+			case ASTNode.NORMAL_ANNOTATION:
+				visitor.endVisit((NormalAnnotation) node);
+				break;
+			case ASTNode.NULL_LITERAL:
+				visitor.endVisit((NullLiteral) node);
+				break;
+			case ASTNode.NULL_PATTERN:
+				visitor.endVisit((NullPattern) node);
+				break;
+			case ASTNode.NUMBER_LITERAL:
+				visitor.endVisit((NumberLiteral) node);
+				break;
+			case ASTNode.OPENS_DIRECTIVE:
+				visitor.endVisit((OpensDirective) node);
+				break;
+			case ASTNode.PACKAGE_DECLARATION:
+				visitor.endVisit((PackageDeclaration) node);
+				break;
+			case ASTNode.PARAMETERIZED_TYPE:
+				visitor.endVisit((ParameterizedType) node);
+				break;
+			case ASTNode.PARENTHESIZED_EXPRESSION:
+				visitor.endVisit((ParenthesizedExpression) node);
+				break;
+			case ASTNode.PATTERN_INSTANCEOF_EXPRESSION:
+				visitor.endVisit((PatternInstanceofExpression) node);
+				break;
+			case ASTNode.POSTFIX_EXPRESSION:
+				visitor.endVisit((PostfixExpression) node);
+				break;
+			case ASTNode.PREFIX_EXPRESSION:
+				visitor.endVisit((PrefixExpression) node);
+				break;
+			case ASTNode.PRIMITIVE_TYPE:
+				visitor.endVisit((PrimitiveType) node);
+				break;
+			case ASTNode.PROVIDES_DIRECTIVE:
+				visitor.endVisit((ProvidesDirective) node);
+				break;
+			case ASTNode.QUALIFIED_NAME:
+				visitor.endVisit((QualifiedName) node);
+				break;
+			case ASTNode.QUALIFIED_TYPE:
+				visitor.endVisit((QualifiedType) node);
+				break;
+			case ASTNode.RECORD_DECLARATION:
+				visitor.endVisit((RecordDeclaration) node);
+				break;
+			case ASTNode.REQUIRES_DIRECTIVE:
+				visitor.endVisit((RequiresDirective) node);
+				break;
+			case ASTNode.RETURN_STATEMENT:
+				visitor.endVisit((ReturnStatement) node);
+				break;
+			case ASTNode.SIMPLE_NAME:
+				visitor.endVisit((SimpleName) node);
+				break;
+			case ASTNode.SIMPLE_TYPE:
+				visitor.endVisit((SimpleType) node);
+				break;
+			case ASTNode.SINGLE_MEMBER_ANNOTATION:
+				visitor.endVisit((SingleMemberAnnotation) node);
+				break;
+			case ASTNode.SINGLE_VARIABLE_DECLARATION:
+				visitor.endVisit((SingleVariableDeclaration) node);
+				break;
+			case ASTNode.STRING_LITERAL:
+				visitor.endVisit((StringLiteral) node);
+				break;
+			case ASTNode.SUPER_CONSTRUCTOR_INVOCATION:
+				visitor.endVisit((SuperConstructorInvocation) node);
+				break;
+			case ASTNode.SUPER_FIELD_ACCESS:
+				visitor.endVisit((SuperFieldAccess) node);
+				break;
+			case ASTNode.SUPER_METHOD_INVOCATION:
+				visitor.endVisit((SuperMethodInvocation) node);
+				break;
+			case ASTNode.SUPER_METHOD_REFERENCE:
+				visitor.endVisit((SuperMethodReference) node);
+				break;
+			case ASTNode.SWITCH_CASE:
+				visitor.endVisit((SwitchCase) node);
+				break;
+			case ASTNode.SWITCH_EXPRESSION:
+				visitor.endVisit((SwitchExpression) node);
+				break;
+			case ASTNode.SWITCH_STATEMENT:
+				visitor.endVisit((SwitchStatement) node);
+				break;
+			case ASTNode.SYNCHRONIZED_STATEMENT:
+				visitor.endVisit((SynchronizedStatement) node);
+				break;
+			case ASTNode.TAG_ELEMENT:
+				visitor.endVisit((TagElement) node);
+				break;
+			case ASTNode.TAG_PROPERTY:
+				visitor.endVisit((TagProperty) node);
+				break;
+			case ASTNode.TEXT_BLOCK:
+				visitor.endVisit((TextBlock) node);
+				break;
+			case ASTNode.TEXT_ELEMENT:
+				visitor.endVisit((TextElement) node);
+				break;
+			case ASTNode.THIS_EXPRESSION:
+				visitor.endVisit((ThisExpression) node);
+				break;
+			case ASTNode.THROW_STATEMENT:
+				visitor.endVisit((ThrowStatement) node);
+				break;
+			case ASTNode.TRY_STATEMENT:
+				visitor.endVisit((TryStatement) node);
+				break;
+			case ASTNode.TYPE_DECLARATION:
+				visitor.endVisit((TypeDeclaration) node);
+				break;
+			case ASTNode.TYPE_DECLARATION_STATEMENT:
+				visitor.endVisit((TypeDeclarationStatement) node);
+				break;
+			case ASTNode.TYPE_LITERAL:
+				visitor.endVisit((TypeLiteral) node);
+				break;
+			case ASTNode.TYPE_METHOD_REFERENCE:
+				visitor.endVisit((TypeMethodReference) node);
+				break;
+			case ASTNode.TYPE_PARAMETER:
+				visitor.endVisit((TypeParameter) node);
+				break;
+			case ASTNode.TYPE_PATTERN:
+				visitor.endVisit((TypePattern) node);
+				break;
+			case ASTNode.UNION_TYPE:
+				visitor.endVisit((UnionType) node);
+				break;
+			case ASTNode.USES_DIRECTIVE:
+				visitor.endVisit((UsesDirective) node);
+				break;
+			case ASTNode.VARIABLE_DECLARATION_EXPRESSION:
+				visitor.endVisit((VariableDeclarationExpression) node);
+				break;
+			case ASTNode.VARIABLE_DECLARATION_FRAGMENT:
+				visitor.endVisit((VariableDeclarationFragment) node);
+				break;
+			case ASTNode.VARIABLE_DECLARATION_STATEMENT:
+				visitor.endVisit((VariableDeclarationStatement) node);
+				break;
+			case ASTNode.WHILE_STATEMENT:
+				visitor.endVisit((WhileStatement) node);
+				break;
+			case ASTNode.WILDCARD_TYPE:
+				visitor.endVisit((WildcardType) node);
+				break;
+			case ASTNode.YIELD_STATEMENT:
+				visitor.endVisit((YieldStatement) node);
+				break;
+			default:
+				break;
+		}
+	}
+}
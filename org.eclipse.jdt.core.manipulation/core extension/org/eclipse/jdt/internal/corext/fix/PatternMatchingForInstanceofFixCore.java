@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021 Fabrice TIERCELIN and others.
+ * Copyright (c) 2021, 2022 Fabrice TIERCELIN and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -54,6 +54,13 @@ public class PatternMatchingForInstanceofFixCore extends CompilationUnitRewriteO
 			fResult= ops;
 		}
 
+		/**
+		 * @return the operations found so far
+		 */
+		public List<PatternMatchingForInstanceofFixOperation> getResult() {
+			return fResult;
+		}
+
 		@Override
 		public boolean visit(final Block visited) {
 			InstanceofVisitor instanceofVisitor= new InstanceofVisitor(visited);
@@ -219,6 +226,18 @@ public class PatternMatchingForInstanceofFixCore extends CompilationUnitRewriteO
 		PatternMatchingForInstanceofFinder finder= new PatternMatchingForInstanceofFinder(operations);
 		compilationUnit.accept(finder);
 
+		return createCleanUp(compilationUnit, operations);
+	}
+
+	/**
+	 * Creates the fix for the operations found by a {@link PatternMatchingForInstanceofFinder} which already visited the
+	 * compilation unit.
+	 *
+	 * @param compilationUnit the visited compilation unit
+	 * @param operations the operations found by the finder
+	 * @return the fix or <code>null</code> if there is nothing to fix
+	 */
+	public static ICleanUpFixCore createCleanUp(final CompilationUnit compilationUnit, final List<PatternMatchingForInstanceofFixOperation> operations) {
 		if (operations.isEmpty()) {
 			return null;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021 Fabrice TIERCELIN and others.
+ * Copyright (c) 2021, 2022 Fabrice TIERCELIN and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -48,6 +48,13 @@ public class PlainReplacementFixCore extends CompilationUnitRewriteOperationsFix
 			fResult= ops;
 		}
 
+		/**
+		 * @return the operations found so far
+		 */
+		public List<PlainReplacementFixOperation> getResult() {
+			return fResult;
+		}
+
 		@Override
 		public boolean visit(final MethodInvocation visited) {
 			if (ASTNodes.usesGivenSignature(visited, String.class.getCanonicalName(), "replaceAll", String.class.getCanonicalName(), String.class.getCanonicalName()) //$NON-NLS-1$
@@ -166,6 +173,18 @@ public class PlainReplacementFixCore extends CompilationUnitRewriteOperationsFix
 		PlainReplacementFinder finder= new PlainReplacementFinder(operations);
 		compilationUnit.accept(finder);
 
+		return createCleanUp(compilationUnit, operations);
+	}
+
+	/**
+	 * Creates the fix for the operations found by a {@link PlainReplacementFinder} which already visited the
+	 * compilation unit.
+	 *
+	 * @param compilationUnit the visited compilation unit
+	 * @param operations the operations found by the finder
+	 * @return the fix or <code>null</code> if there is nothing to fix
+	 */
+	public static ICleanUpFixCore createCleanUp(final CompilationUnit compilationUnit, final List<PlainReplacementFixOperation> operations) {
 		if (operations.isEmpty()) {
 			return null;
 		}
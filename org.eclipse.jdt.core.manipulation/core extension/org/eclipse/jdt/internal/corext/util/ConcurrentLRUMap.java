@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe least-recently-used cache. When the map tops the maximum size configured in the
+ * constructor, it removes an old entry in terms of last access.
+ * <p>
+ * Unlike {@link LRUMap}, this map can be shared by several threads without external
+ * synchronization. It is backed by a {@link ConcurrentHashMap}, so reads and writes of different
+ * keys don't block each other. The eviction is approximate: the entry with the oldest access among
+ * a sample of entries at a random position is removed. For maps with at most {@value #SAMPLE_SIZE}
+ * entries, this is the least recently used entry.
+ * </p>
+ * <p>
+ * Invoking the <tt>put</tt> or <tt>get</tt> method results in an access to the corresponding entry.
+ * Keys and values must not be <code>null</code>.
+ * </p>
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class ConcurrentLRUMap<K, V> extends AbstractMap<K, V> {
+
+	private static final class Node<V> {
+
+		final V fValue;
+		volatile long fLastAccess;
+
+		Node(V value, long access) {
+			fValue= value;
+			fLastAccess= access;
+		}
+	}
+
+	private static final int SAMPLE_SIZE= 16;
+
+	private final int fMaxSize;
+	private final ConcurrentHashMap<K, Node<V>> fMap;
+	private final AtomicLong fClock= new AtomicLong();
+
+	private final LongAdder fHits= new LongAdder();
+	private final LongAdder fMisses= new LongAdder();
+	private final LongAdder fEvictions= new LongAdder();
+
+	/**
+	 * Creates an empty LRU map with the given maximum size.
+	 *
+	 * @param maxSize the maximum number of elements in the cache
+	 */
+	public ConcurrentLRUMap(int maxSize) {
+		fMaxSize= maxSize;
+		fMap= new ConcurrentHashMap<>(Math.min(maxSize, 256));
+	}
+
+	@Override
+	public V get(Object key) {
+		Node<V> node= fMap.get(key);
+		if (node == null) {
+			fMisses.increment();
+			return null;
+		}
+		fHits.increment();
+		node.fLastAccess= fClock.incrementAndGet();
+		return node.fValue;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return fMap.containsKey(key);
+	}
+
+	@Override
+	public V put(K key, V value) {
+		Node<V> old= fMap.put(key, new Node<>(value, fClock.incrementAndGet()));
+		if (old == null && fMap.size() > fMaxSize)
+			evict();
+		return old != null ? old.fValue : null;
+	}
+
+	@Override
+	public V remove(Object key) {
+		Node<V> old= fMap.remove(key);
+		return old != null ? old.fValue : null;
+	}
+
+	@Override
+	public int size() {
+		return fMap.size();
+	}
+
+	@Override
+	public void clear() {
+		fMap.clear();
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<Map.Entry<K, V>>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				Iterator<Map.Entry<K, Node<V>>> iterator= fMap.entrySet().iterator();
+				return new Iterator<Map.Entry<K, V>>() {
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Map.Entry<K, V> next() {
+						Map.Entry<K, Node<V>> entry= iterator.next();
+						return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().fValue);
+					}
+
+					@Override
+					public void remove() {
+						iterator.remove();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return fMap.size();
+			}
+
+			@Override
+			public void clear() {
+				fMap.clear();
+			}
+		};
+	}
+
+	/*
+	 * Removes the entry with the oldest access among a sample of consecutive entries, starting at a
+	 * random position, until the map is within its maximum size. The iteration order of the backing
+	 * map doesn't depend on the accesses, so every entry can be sampled. Evictions are serialized,
+	 * reads and writes are not blocked.
+	 */
+	private synchronized void evict() {
+		while (fMap.size() > fMaxSize) {
+			int size= fMap.size();
+			int skip= size > SAMPLE_SIZE ? ThreadLocalRandom.current().nextInt(size) : 0;
+			K oldestKey= null;
+			Node<V> oldest= null;
+			int sampled= 0;
+			Iterator<Map.Entry<K, Node<V>>> iter= fMap.entrySet().iterator();
+			for (int skipped= 0; skipped < skip && iter.hasNext(); skipped++) {
+				iter.next();
+			}
+			while (sampled < SAMPLE_SIZE) {
+				if (!iter.hasNext()) {
+					if (skip == 0)
+						break;
+					// wrap around to the first entries
+					iter= fMap.entrySet().iterator();
+					skip= 0;
+					continue;
+				}
+				Map.Entry<K, Node<V>> entry= iter.next();
+				Node<V> node= entry.getValue();
+				if (oldest == null || node.fLastAccess < oldest.fLastAccess) {
+					oldestKey= entry.getKey();
+					oldest= node;
+				}
+				sampled++;
+			}
+			if (oldest == null)
+				return;
+			if (fMap.remove(oldestKey, oldest))
+				fEvictions.increment();
+		}
+	}
+
+	/**
+	 * @return the number of <tt>get</tt> calls which found a value
+	 */
+	public long getHits() {
+		return fHits.sum();
+	}
+
+	/**
+	 * @return the number of <tt>get</tt> calls which didn't find a value
+	 */
+	public long getMisses() {
+		return fMisses.sum();
+	}
+
+	/**
+	 * @return the number of entries removed because the map exceeded its maximum size
+	 */
+	public long getEvictions() {
+		return fEvictions.sum();
+	}
+
+	/**
+	 * @return the ratio of hits to all <tt>get</tt> calls, or <code>0</code> if there was no call
+	 */
+	public double getHitRate() {
+		long hits= fHits.sum();
+		long total= hits + fMisses.sum();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+}
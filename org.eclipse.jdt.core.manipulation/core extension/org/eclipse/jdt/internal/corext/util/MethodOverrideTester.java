@@ -82,8 +82,9 @@ public class MethodOverrideTester {
 	private final IType fFocusType;
 	private final ITypeHierarchy fHierarchy;
 
-	private Map <IMethod, Substitutions> fMethodSubstitutions;
-	private Map<IType, Substitutions> fTypeVariableSubstitutions;
+	private final Map<IMethod, Substitutions> fMethodSubstitutions;
+	private volatile Map<IType, Substitutions> fTypeVariableSubstitutions; // published once computed, never modified afterwards
+	private Map<IType, Substitutions> fPendingTypeVariableSubstitutions; // guarded by this, only set while computing
 
 	public MethodOverrideTester(IType focusType, ITypeHierarchy hierarchy) {
 		if (focusType == null || hierarchy == null) {
@@ -92,7 +93,7 @@ public class MethodOverrideTester {
 		fFocusType= focusType;
 		fHierarchy= hierarchy;
 		fTypeVariableSubstitutions= null;
-		fMethodSubstitutions= null;
+		fMethodSubstitutions= new ConcurrentLRUMap<>(3);
 	}
 
 	public IType getFocusType() {
@@ -412,10 +413,6 @@ public class MethodOverrideTester {
 	 * Returns the substitutions for a method's type parameters
 	 */
 	private Substitutions getMethodSubstitions(IMethod method) throws JavaModelException {
-		if (fMethodSubstitutions == null) {
-			fMethodSubstitutions= new LRUMap<>(3);
-		}
-
 		Substitutions s= fMethodSubstitutions.get(method);
 		if (s == null) {
 			ITypeParameter[] typeParameters= method.getTypeParameters();
@@ -438,20 +435,38 @@ public class MethodOverrideTester {
 	 * Returns the substitutions for a type's type parameters
 	 */
 	private Substitutions getTypeSubstitions(IType type) throws JavaModelException {
-		if (fTypeVariableSubstitutions == null) {
-			fTypeVariableSubstitutions= new HashMap<>();
-			computeSubstitutions(fFocusType, null, null);
+		Map<IType, Substitutions> substitutions= fTypeVariableSubstitutions;
+		if (substitutions == null) {
+			// testers are shared between threads: compute the substitutions once, then publish them
+			synchronized (this) {
+				substitutions= fTypeVariableSubstitutions;
+				if (substitutions == null) {
+					if (fPendingTypeVariableSubstitutions != null) {
+						// called while computing the substitutions
+						substitutions= fPendingTypeVariableSubstitutions;
+					} else {
+						substitutions= new HashMap<>();
+						fPendingTypeVariableSubstitutions= substitutions;
+						try {
+							computeSubstitutions(substitutions, fFocusType, null, null);
+						} finally {
+							fPendingTypeVariableSubstitutions= null;
+						}
+						fTypeVariableSubstitutions= substitutions;
+					}
+				}
+			}
 		}
-		Substitutions subst= fTypeVariableSubstitutions.get(type);
+		Substitutions subst= substitutions.get(type);
 		if (subst == null) {
 			return Substitutions.EMPTY_SUBST;
 		}
 		return subst;
 	}
 
-	private void computeSubstitutions(IType instantiatedType, IType instantiatingType, String[] typeArguments) throws JavaModelException {
+	private void computeSubstitutions(Map<IType, Substitutions> substitutions, IType instantiatedType, IType instantiatingType, String[] typeArguments) throws JavaModelException {
 		Substitutions s= new Substitutions();
-		fTypeVariableSubstitutions.put(instantiatedType, s);
+		substitutions.put(instantiatedType, s);
 
 		ITypeParameter[] typeParameters= instantiatedType.getTypeParameters();
 
@@ -481,8 +496,8 @@ public class MethodOverrideTester {
 		if (superclassTypeSignature != null) {
 			String[] superTypeArguments= Signature.getTypeArguments(superclassTypeSignature);
 			IType superclass= fHierarchy.getSuperclass(instantiatedType);
-			if (superclass != null && !fTypeVariableSubstitutions.containsKey(superclass)) {
-				computeSubstitutions(superclass, instantiatedType, superTypeArguments);
+			if (superclass != null && !substitutions.containsKey(superclass)) {
+				computeSubstitutions(substitutions, superclass, instantiatedType, superTypeArguments);
 			}
 		}
 		String[] superInterfacesTypeSignature;
@@ -499,8 +514,8 @@ public class MethodOverrideTester {
 				for (int i= 0; i < nInterfaces; i++) {
 					String[] superTypeArguments= Signature.getTypeArguments(superInterfacesTypeSignature[i]);
 					IType superInterface= superInterfaces[i];
-					if (!fTypeVariableSubstitutions.containsKey(superInterface)) {
-						computeSubstitutions(superInterface, instantiatedType, superTypeArguments);
+					if (!substitutions.containsKey(superInterface)) {
+						computeSubstitutions(substitutions, superInterface, instantiatedType, superTypeArguments);
 					}
 				}
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,29 +13,51 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.util;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
 import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 
+import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
+
 /**
  * A thread-safe cache for super type hierarchies.
+ * <p>
+ * Every type of a cached hierarchy is indexed, so lookups don't depend on the number of cached
+ * hierarchies. The cache is bounded by the total number of types in the cached hierarchies (see
+ * {@link #getBudget()}). When the budget is exceeded, the least recently used hierarchies are
+ * only softly referenced. Softly referenced hierarchies are not notified of changes, so they are
+ * dropped as soon as the Java model changes.
+ * </p>
  */
 // @see JDTUIHelperClasses
 public class SuperTypeHierarchyCache {
 
 	private static class HierarchyCacheEntry implements ITypeHierarchyChangedListener {
 
-		private ITypeHierarchy fTypeHierarchy;
-		private long fLastAccess;
+		private final IType fFocus;
+		private final IType[] fTypes;
+		private volatile ITypeHierarchy fTypeHierarchy;
+		private SoftReference<ITypeHierarchy> fSoftTypeHierarchy;
+		private volatile long fLastAccess;
+		private boolean fRemoved;
+		private final Map<IType, MethodOverrideTester> fMethodOverrideTesters= new ConcurrentHashMap<>();
 
 		public HierarchyCacheEntry(ITypeHierarchy hierarchy) {
+			fFocus= hierarchy.getType();
+			fTypes= hierarchy.getAllTypes();
 			fTypeHierarchy= hierarchy;
 			fTypeHierarchy.addTypeHierarchyChangedListener(this);
 			markAsAccessed();
@@ -50,36 +72,87 @@ public class SuperTypeHierarchyCache {
 			return fTypeHierarchy;
 		}
 
+		public int getWeight() {
+			return fTypes.length;
+		}
+
 		public void markAsAccessed() {
-			fLastAccess= System.currentTimeMillis();
+			fLastAccess= fgAccessClock.incrementAndGet();
 		}
 
 		public long getLastAccess() {
 			return fLastAccess;
 		}
 
+		/**
+		 * Only keeps a soft reference to the hierarchy and stops listening to its changes.
+		 */
+		public void demote() {
+			ITypeHierarchy hierarchy= fTypeHierarchy;
+			hierarchy.removeTypeHierarchyChangedListener(this);
+			fSoftTypeHierarchy= new SoftReference<>(hierarchy);
+			fTypeHierarchy= null;
+			fMethodOverrideTesters.clear();
+		}
+
+		/**
+		 * @return the hierarchy if it was still softly reachable, <code>null</code> otherwise
+		 */
+		public ITypeHierarchy promote() {
+			ITypeHierarchy hierarchy= fSoftTypeHierarchy != null ? fSoftTypeHierarchy.get() : null;
+			if (hierarchy != null) {
+				fSoftTypeHierarchy= null;
+				fTypeHierarchy= hierarchy;
+				hierarchy.addTypeHierarchyChangedListener(this);
+			}
+			return hierarchy;
+		}
+
+		public boolean isSoftReferenceCleared() {
+			return fSoftTypeHierarchy != null && fSoftTypeHierarchy.get() == null;
+		}
+
 		public void dispose() {
 			if (fTypeHierarchy != null) {
 				fTypeHierarchy.removeTypeHierarchyChangedListener(this);
 				fTypeHierarchy= null;
 			}
+			fSoftTypeHierarchy= null;
+			fMethodOverrideTesters.clear();
 		}
 
 		@Override
 		public String toString() {
-			return "Super hierarchy of: " + fTypeHierarchy.getType().getElementName(); //$NON-NLS-1$
+			return "Super hierarchy of: " + fFocus.getElementName(); //$NON-NLS-1$
 		}
 
 	}
 
+	/**
+	 * System property for the maximal number of types in strongly referenced hierarchies.
+	 */
+	private static final String BUDGET_PROPERTY= "jdt.superTypeHierarchyCacheBudget"; //$NON-NLS-1$
+
+	private static final int DEFAULT_BUDGET= 2000;
 
-	private static final int CACHE_SIZE= 8;
+	/**
+	 * The maximal number of softly referenced hierarchies.
+	 */
+	private static final int SOFT_CACHE_SIZE= 64;
 
-	private static ArrayList<HierarchyCacheEntry> fgHierarchyCache= new ArrayList<>(CACHE_SIZE);
-	private static Map<IType, MethodOverrideTester> fgMethodOverrideTesterCache= new LRUMap<>(CACHE_SIZE);
+	private static final Object fgLock= new Object();
+	private static final Map<IType, HierarchyCacheEntry> fgHierarchyCache= new ConcurrentHashMap<>();
+	private static final ArrayList<HierarchyCacheEntry> fgStrongEntries= new ArrayList<>();
+	private static final ArrayList<HierarchyCacheEntry> fgSoftEntries= new ArrayList<>();
+	private static int fgWeight= 0;
 
-	private static int fgCacheHits= 0;
-	private static int fgCacheMisses= 0;
+	private static final IElementChangedListener fgSoftEntriesFlusher= event -> flushSoftEntries();
+	private static boolean fgSoftEntriesFlusherInstalled= false;
+
+	private static final AtomicLong fgAccessClock= new AtomicLong();
+	private static final AtomicInteger fgCacheHits= new AtomicInteger();
+	private static final AtomicInteger fgCacheMisses= new AtomicInteger();
+	private static final AtomicInteger fgEvictions= new AtomicInteger();
 
 	/**
 	 * Returns a super type hierarchy that contains the given type.
@@ -97,32 +170,12 @@ public class SuperTypeHierarchyCache {
 	}
 
 	public static MethodOverrideTester getMethodOverrideTester(IType type) throws JavaModelException {
-		MethodOverrideTester test= null;
-		synchronized (fgMethodOverrideTesterCache) {
-			test= fgMethodOverrideTesterCache.get(type);
-		}
-		if (test == null) {
-			ITypeHierarchy hierarchy= getTypeHierarchy(type); // don't nest the locks
-			synchronized (fgMethodOverrideTesterCache) {
-				test= fgMethodOverrideTesterCache.get(type); // test again after waiting a long time for 'getTypeHierarchy'
-				if (test == null) {
-					test= new MethodOverrideTester(type, hierarchy);
-					fgMethodOverrideTesterCache.put(type, test);
-				}
-			}
-		}
-		return test;
-	}
-
-	private static void removeMethodOverrideTester(ITypeHierarchy hierarchy) {
-		synchronized (fgMethodOverrideTesterCache) {
-			for (Iterator<MethodOverrideTester> iter= fgMethodOverrideTesterCache.values().iterator(); iter.hasNext();) {
-				MethodOverrideTester curr= iter.next();
-				if (curr.getTypeHierarchy().equals(hierarchy)) {
-					iter.remove();
-				}
-			}
+		ITypeHierarchy hierarchy= getTypeHierarchy(type);
+		HierarchyCacheEntry entry= fgHierarchyCache.get(type);
+		if (entry != null && entry.getTypeHierarchy() == hierarchy) {
+			return entry.fMethodOverrideTesters.computeIfAbsent(type, t -> new MethodOverrideTester(t, hierarchy));
 		}
+		return new MethodOverrideTester(type, hierarchy);
 	}
 
 	/**
@@ -140,42 +193,73 @@ public class SuperTypeHierarchyCache {
 	public static ITypeHierarchy getTypeHierarchy(IType type, IProgressMonitor progressMonitor) throws JavaModelException {
 		ITypeHierarchy hierarchy= findTypeHierarchyInCache(type);
 		if (hierarchy == null) {
-			fgCacheMisses++;
+			fgCacheMisses.incrementAndGet();
+			if (JavaManipulationPlugin.DEBUG_SUPER_TYPE_HIERARCHY_CACHE)
+				trace("miss: " + type.getFullyQualifiedName()); //$NON-NLS-1$
 			hierarchy= type.newSupertypeHierarchy(progressMonitor);
 			addTypeHierarchyToCache(hierarchy);
 		} else {
-			fgCacheHits++;
+			fgCacheHits.incrementAndGet();
 		}
 		return hierarchy;
 	}
 
 	private static void addTypeHierarchyToCache(ITypeHierarchy hierarchy) {
-		synchronized (fgHierarchyCache) {
-			int nEntries= fgHierarchyCache.size();
-			if (nEntries >= CACHE_SIZE) {
-				// find obsolete entries or remove entry that was least recently accessed
-				HierarchyCacheEntry oldest= null;
-				ArrayList<HierarchyCacheEntry> obsoleteHierarchies= new ArrayList<>(CACHE_SIZE);
-				for (HierarchyCacheEntry entry : fgHierarchyCache) {
-					ITypeHierarchy curr= entry.getTypeHierarchy();
-					if (!curr.exists() || hierarchy.contains(curr.getType())) {
-						obsoleteHierarchies.add(entry);
-					} else {
-						if (oldest == null || entry.getLastAccess() < oldest.getLastAccess()) {
-							oldest= entry;
-						}
-					}
-				}
-				if (!obsoleteHierarchies.isEmpty()) {
-					for (HierarchyCacheEntry obsoleteHierarchie : obsoleteHierarchies) {
-						removeHierarchyEntryFromCache(obsoleteHierarchie);
-					}
-				} else if (oldest != null) {
-					removeHierarchyEntryFromCache(oldest);
-				}
-			}
+		synchronized (fgLock) {
 			HierarchyCacheEntry newEntry= new HierarchyCacheEntry(hierarchy);
-			fgHierarchyCache.add(newEntry);
+			// hierarchies based on a type of the new hierarchy are obsolete
+			for (IType type : newEntry.fTypes) {
+				HierarchyCacheEntry curr= fgHierarchyCache.get(type);
+				if (curr != null && curr.fFocus.equals(type))
+					removeHierarchyEntryFromCache(curr);
+			}
+			for (IType type : newEntry.fTypes) {
+				fgHierarchyCache.put(type, newEntry);
+			}
+			fgStrongEntries.add(newEntry);
+			fgWeight+= newEntry.getWeight();
+			evict();
+		}
+	}
+
+	/**
+	 * Demotes the least recently accessed hierarchies until the budget is met. Always keeps the
+	 * most recently accessed hierarchy.
+	 */
+	private static void evict() {
+		int budget= getBudget();
+		while (fgWeight > budget && fgStrongEntries.size() > 1) {
+			HierarchyCacheEntry oldest= null;
+			for (HierarchyCacheEntry entry : fgStrongEntries) {
+				if (oldest == null || entry.getLastAccess() < oldest.getLastAccess())
+					oldest= entry;
+			}
+			fgStrongEntries.remove(oldest);
+			fgWeight-= oldest.getWeight();
+			oldest.demote();
+			fgSoftEntries.add(oldest);
+			fgEvictions.incrementAndGet();
+			if (JavaManipulationPlugin.DEBUG_SUPER_TYPE_HIERARCHY_CACHE)
+				trace("evicted: " + oldest); //$NON-NLS-1$
+		}
+		for (HierarchyCacheEntry entry : new ArrayList<>(fgSoftEntries)) {
+			if (entry.isSoftReferenceCleared())
+				removeHierarchyEntryFromCache(entry);
+		}
+		while (fgSoftEntries.size() > SOFT_CACHE_SIZE) {
+			removeHierarchyEntryFromCache(fgSoftEntries.get(0));
+		}
+		if (!fgSoftEntries.isEmpty() && !fgSoftEntriesFlusherInstalled) {
+			JavaCore.addElementChangedListener(fgSoftEntriesFlusher, ElementChangedEvent.POST_CHANGE);
+			fgSoftEntriesFlusherInstalled= true;
+		}
+	}
+
+	private static void flushSoftEntries() {
+		synchronized (fgLock) {
+			for (HierarchyCacheEntry entry : new ArrayList<>(fgSoftEntries)) {
+				removeHierarchyEntryFromCache(entry);
+			}
 		}
 	}
 
@@ -191,38 +275,77 @@ public class SuperTypeHierarchyCache {
 
 
 	private static ITypeHierarchy findTypeHierarchyInCache(IType type) {
-		synchronized (fgHierarchyCache) {
-			for (int i= fgHierarchyCache.size() - 1; i>= 0; i--) {
-				HierarchyCacheEntry curr= fgHierarchyCache.get(i);
-				ITypeHierarchy hierarchy= curr.getTypeHierarchy();
-				if (!hierarchy.exists()) {
-					removeHierarchyEntryFromCache(curr);
-				} else {
-					if (hierarchy.contains(type)) {
+		HierarchyCacheEntry curr= fgHierarchyCache.get(type);
+		if (curr == null)
+			return null;
+
+		ITypeHierarchy hierarchy= curr.getTypeHierarchy();
+		if (hierarchy == null) {
+			synchronized (fgLock) {
+				hierarchy= curr.getTypeHierarchy();
+				if (hierarchy == null && !curr.fRemoved) {
+					hierarchy= curr.promote();
+					if (hierarchy != null) {
+						fgSoftEntries.remove(curr);
+						fgStrongEntries.add(curr);
+						fgWeight+= curr.getWeight();
 						curr.markAsAccessed();
-						return hierarchy;
+						evict();
+					} else {
+						removeHierarchyEntryFromCache(curr);
 					}
 				}
 			}
+			if (hierarchy == null)
+				return null;
 		}
-		return null;
+		if (!hierarchy.exists()) {
+			removeHierarchyEntryFromCache(curr);
+			return null;
+		}
+		curr.markAsAccessed();
+		return hierarchy;
 	}
 
 	private static void removeHierarchyEntryFromCache(HierarchyCacheEntry entry) {
-		synchronized (fgHierarchyCache) {
-			removeMethodOverrideTester(entry.getTypeHierarchy());
+		synchronized (fgLock) {
+			if (entry.fRemoved)
+				return;
+			entry.fRemoved= true;
+			if (fgStrongEntries.remove(entry))
+				fgWeight-= entry.getWeight();
+			else
+				fgSoftEntries.remove(entry);
 			entry.dispose();
-			fgHierarchyCache.remove(entry);
+			for (IType type : entry.fTypes) {
+				fgHierarchyCache.remove(type, entry);
+			}
+			if (fgSoftEntries.isEmpty() && fgSoftEntriesFlusherInstalled) {
+				JavaCore.removeElementChangedListener(fgSoftEntriesFlusher);
+				fgSoftEntriesFlusherInstalled= false;
+			}
 		}
 	}
 
+	private static void trace(String message) {
+		int weight;
+		synchronized (fgLock) {
+			weight= fgWeight;
+		}
+		System.out.println("SuperTypeHierarchyCache - " + message //$NON-NLS-1$
+				+ " (hits: " + fgCacheHits.get() //$NON-NLS-1$
+				+ ", misses: " + fgCacheMisses.get() //$NON-NLS-1$
+				+ ", evictions: " + fgEvictions.get() //$NON-NLS-1$
+				+ ", weight: " + weight + '/' + getBudget() + ')'); //$NON-NLS-1$
+	}
+
 
 	/**
 	 * Gets the number of times the hierarchy could be taken from the hierarchy.
 	 * @return Returns a int
 	 */
 	public static int getCacheHits() {
-		return fgCacheHits;
+		return fgCacheHits.get();
 	}
 
 	/**
@@ -230,7 +353,26 @@ public class SuperTypeHierarchyCache {
 	 * @return Returns a int
 	 */
 	public static int getCacheMisses() {
-		return fgCacheMisses;
+		return fgCacheMisses.get();
+	}
+
+	/**
+	 * Gets the number of times a hierarchy was demoted to a soft reference. Used for testing.
+	 * @return the number of evictions
+	 */
+	public static int getEvictions() {
+		return fgEvictions.get();
+	}
+
+	/**
+	 * Returns the maximal number of types in the strongly referenced hierarchies. The budget can be
+	 * configured with the system property <code>jdt.superTypeHierarchyCacheBudget</code>, which is
+	 * read whenever a hierarchy is added or promoted.
+	 *
+	 * @return the budget of the cache
+	 */
+	public static int getBudget() {
+		return Math.max(1, Integer.getInteger(BUDGET_PROPERTY, DEFAULT_BUDGET).intValue());
 	}
 
 	private SuperTypeHierarchyCache() {
@@ -62,6 +62,15 @@ public class JUnitPreferencesConstants {
 	 */
 	public static final String MAX_TEST_RUNS= JUnitCorePlugin.PLUGIN_ID + ".max_test_runs"; //$NON-NLS-1$
 
+	/**
+	 * Minimal interval in milliseconds between two updates of the JUnit view while tests are
+	 * running. The events of the tests within an interval are published together. <code>0</code>
+	 * updates the view for every event.
+	 */
+	public static final String MODEL_UPDATE_INTERVAL= JUnitCorePlugin.PLUGIN_ID + ".model_update_interval"; //$NON-NLS-1$
+
+	public static final int MODEL_UPDATE_INTERVAL_DEFAULT= 100;
+
 	/**
 	 * Javadoc location for JUnit 3
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2021 IBM Corporation and others.
+ * Copyright (c) 2006, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -207,41 +207,47 @@ public class JUnit4TestFinder implements ITestFinder {
 			if (CoreTestSearchEngine.hasSuiteMethod(type)) { // since JUnit 4.3.1
 				return true;
 			}
-			ASTParser parser= ASTParser.newParser(AST.getJLSLatest());
-			/* TODO: When bug 156352 is fixed:
+			TestTypeIndex index= JUnitCorePlugin.getTestTypeIndex();
+			Boolean result= index.get(TestKindRegistry.JUNIT4_TEST_KIND_ID, type);
+			if (result == null) {
+				ITypeBinding binding= resolveBinding(type, monitor);
+				result= Boolean.valueOf(binding != null && isTest(binding));
+				index.put(TestKindRegistry.JUNIT4_TEST_KIND_ID, type, result.booleanValue(), binding);
+			}
+			return result.booleanValue();
+		}
+		return false;
+	}
+
+	private static ITypeBinding resolveBinding(IType type, IProgressMonitor monitor) throws JavaModelException {
+		ASTParser parser= ASTParser.newParser(AST.getJLSLatest());
+		/* TODO: When bug 156352 is fixed:
+		parser.setProject(type.getJavaProject());
+		IBinding[] bindings= parser.createBindings(new IJavaElement[] { type }, monitor);
+		if (bindings.length == 1 && bindings[0] instanceof ITypeBinding) {
+			return (ITypeBinding) bindings[0];
+		}*/
+
+		if (type.getCompilationUnit() != null) {
+			parser.setSource(type.getCompilationUnit());
+		} else if (!isAvailable(type.getSourceRange())) { // class file with no source
 			parser.setProject(type.getJavaProject());
 			IBinding[] bindings= parser.createBindings(new IJavaElement[] { type }, monitor);
 			if (bindings.length == 1 && bindings[0] instanceof ITypeBinding) {
-				ITypeBinding binding= (ITypeBinding) bindings[0];
-				return isTest(binding);
-			}*/
-
-			if (type.getCompilationUnit() != null) {
-				parser.setSource(type.getCompilationUnit());
-			} else if (!isAvailable(type.getSourceRange())) { // class file with no source
-				parser.setProject(type.getJavaProject());
-				IBinding[] bindings= parser.createBindings(new IJavaElement[] { type }, monitor);
-				if (bindings.length == 1 && bindings[0] instanceof ITypeBinding) {
-					ITypeBinding binding= (ITypeBinding) bindings[0];
-					return isTest(binding);
-				}
-				return false;
-			} else {
-				parser.setSource(type.getClassFile());
-			}
-			parser.setFocalPosition(0);
-			parser.setResolveBindings(true);
-			CompilationUnit root= (CompilationUnit) parser.createAST(monitor);
-			ASTNode node= root.findDeclaringNode(type.getKey());
-			if (node instanceof TypeDeclaration || node instanceof RecordDeclaration) {
-				ITypeBinding binding= ((AbstractTypeDeclaration) node).resolveBinding();
-				if (binding != null) {
-					return isTest(binding);
-				}
+				return (ITypeBinding) bindings[0];
 			}
+			return null;
+		} else {
+			parser.setSource(type.getClassFile());
 		}
-		return false;
-
+		parser.setFocalPosition(0);
+		parser.setResolveBindings(true);
+		CompilationUnit root= (CompilationUnit) parser.createAST(monitor);
+		ASTNode node= root.findDeclaringNode(type.getKey());
+		if (node instanceof TypeDeclaration || node instanceof RecordDeclaration) {
+			return ((AbstractTypeDeclaration) node).resolveBinding();
+		}
+		return null;
 	}
 
     private static boolean isAvailable(ISourceRange range) {
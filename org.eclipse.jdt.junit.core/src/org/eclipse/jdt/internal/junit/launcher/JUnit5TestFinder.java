@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2021 IBM Corporation and others.
+ * Copyright (c) 2016, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.launcher;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
 import org.eclipse.jdt.core.IJavaElement;
@@ -222,8 +227,9 @@ public class JUnit5TestFinder implements ITestFinder {
 			IType[] allClasses= hierarchy.getAllClasses();
 
 			// search for all types with references to RunWith and Test and all subclasses
+			Set<IType> tests= findTests(allClasses, region, new SubProgressMonitor(pm, 2));
 			for (IType type : allClasses) {
-				if (internalIsTest(type, pm) && region.contains(type)) {
+				if (tests.contains(type)) {
 					addTypeAndSubtypes(type, result, hierarchy);
 				}
 			}
@@ -241,6 +247,58 @@ public class JUnit5TestFinder implements ITestFinder {
 		}
 	}
 
+	/*
+	 * Checks the classes of the region in parallel, since most of them have to be parsed with
+	 * bindings unless they are in the test type index. Each check gets its own monitor, which only
+	 * forwards cancellation, since progress monitors are not thread safe; the work is reported to
+	 * the given monitor under its lock.
+	 */
+	private Set<IType> findTests(IType[] classes, IRegion region, IProgressMonitor pm) throws JavaModelException {
+		List<IType> candidates= new ArrayList<>(classes.length);
+		for (IType type : classes) {
+			if (region.contains(type)) {
+				candidates.add(type);
+			}
+		}
+
+		Set<IType> tests= ConcurrentHashMap.newKeySet();
+		AtomicReference<JavaModelException> exception= new AtomicReference<>();
+		try {
+			pm.beginTask(JUnitMessages.JUnit5TestFinder_searching_description, candidates.size());
+			candidates.parallelStream().forEach(type -> {
+				if (pm.isCanceled() || exception.get() != null) {
+					return;
+				}
+				IProgressMonitor monitor= new NullProgressMonitor() {
+					@Override
+					public boolean isCanceled() {
+						return pm.isCanceled();
+					}
+				};
+				try {
+					if (internalIsTest(type, monitor)) {
+						tests.add(type);
+					}
+				} catch (JavaModelException e) {
+					exception.compareAndSet(null, e);
+				} finally {
+					synchronized (pm) {
+						pm.worked(1);
+					}
+				}
+			});
+		} finally {
+			pm.done();
+		}
+		if (pm.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		if (exception.get() != null) {
+			throw exception.get();
+		}
+		return tests;
+	}
+
 	private void addTypeAndSubtypes(IType type, Set<IType> result, ITypeHierarchy hierarchy) {
 		if (result.add(type)) {
 			IType[] subclasses= hierarchy.getSubclasses(type);
@@ -260,33 +318,40 @@ public class JUnit5TestFinder implements ITestFinder {
 			if (CoreTestSearchEngine.hasSuiteMethod(type)) { // since JUnit 4.3.1
 				return true;
 			}
-			ASTParser parser= ASTParser.newParser(AST.getJLSLatest());
-			if (type.getCompilationUnit() != null) {
-				parser.setSource(type.getCompilationUnit());
-			} else if (!isAvailable(type.getSourceRange())) { // class file with no source
-				parser.setProject(type.getJavaProject());
-				IBinding[] bindings= parser.createBindings(new IJavaElement[] { type }, monitor);
-				if (bindings.length == 1 && bindings[0] instanceof ITypeBinding) {
-					ITypeBinding binding= (ITypeBinding) bindings[0];
-					return isTest(binding);
-				}
-				return false;
-			} else {
-				parser.setSource(type.getClassFile());
-			}
-			parser.setFocalPosition(0);
-			parser.setResolveBindings(true);
-			CompilationUnit root= (CompilationUnit) parser.createAST(monitor);
-			ASTNode node= root.findDeclaringNode(type.getKey());
-			if (node instanceof TypeDeclaration || node instanceof RecordDeclaration) {
-				ITypeBinding binding= ((AbstractTypeDeclaration) node).resolveBinding();
-				if (binding != null) {
-					return isTest(binding);
-				}
+			TestTypeIndex index= JUnitCorePlugin.getTestTypeIndex();
+			Boolean result= index.get(TestKindRegistry.JUNIT5_TEST_KIND_ID, type);
+			if (result == null) {
+				ITypeBinding binding= resolveBinding(type, monitor);
+				result= Boolean.valueOf(binding != null && isTest(binding));
+				index.put(TestKindRegistry.JUNIT5_TEST_KIND_ID, type, result.booleanValue(), binding);
 			}
+			return result.booleanValue();
 		}
 		return false;
+	}
 
+	private static ITypeBinding resolveBinding(IType type, IProgressMonitor monitor) throws JavaModelException {
+		ASTParser parser= ASTParser.newParser(AST.getJLSLatest());
+		if (type.getCompilationUnit() != null) {
+			parser.setSource(type.getCompilationUnit());
+		} else if (!isAvailable(type.getSourceRange())) { // class file with no source
+			parser.setProject(type.getJavaProject());
+			IBinding[] bindings= parser.createBindings(new IJavaElement[] { type }, monitor);
+			if (bindings.length == 1 && bindings[0] instanceof ITypeBinding) {
+				return (ITypeBinding) bindings[0];
+			}
+			return null;
+		} else {
+			parser.setSource(type.getClassFile());
+		}
+		parser.setFocalPosition(0);
+		parser.setResolveBindings(true);
+		CompilationUnit root= (CompilationUnit) parser.createAST(monitor);
+		ASTNode node= root.findDeclaringNode(type.getKey());
+		if (node instanceof TypeDeclaration || node instanceof RecordDeclaration) {
+			return ((AbstractTypeDeclaration) node).resolveBinding();
+		}
+		return null;
 	}
 
 	private static boolean isAvailable(ISourceRange range) {
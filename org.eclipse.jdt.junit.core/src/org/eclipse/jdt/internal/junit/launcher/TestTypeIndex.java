@@ -0,0 +1,509 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.IAnnotationBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+
+
+/**
+ * Records which types are tests for a test kind, so that the test finders do not have to resolve
+ * the bindings of all types in a container again on each launch.
+ * <p>
+ * Each entry remembers the compilation units the result depends on: the compilation unit of the
+ * type, of its super types and of the annotations on them and their meta-annotations, together
+ * with their modification stamps. An entry is only used while all stamps are unchanged. The simple
+ * names of super types and annotations which can not be resolved are remembered as well, since the
+ * result changes when such a type appears. An {@link IElementChangedListener} removes the entries
+ * of changed and removed compilation units and the entries with an unresolved name of a type in an
+ * added or changed compilation unit, and removes all entries when a classpath or a package
+ * fragment root changes. Binary types and types with unsaved changes are not recorded.
+ * </p>
+ * <p>
+ * The index is loaded from the plug-in state location when it is first used and saved on
+ * shutdown.
+ * </p>
+ */
+public class TestTypeIndex implements IElementChangedListener {
+
+	private static final String INDEX_FILE_NAME= "testTypeIndex.bin"; //$NON-NLS-1$
+
+	/**
+	 * The version of the saved index. Must be incremented when the format or the test finders
+	 * change.
+	 */
+	private static final int VERSION= 2;
+
+	private static final int CLASSPATH_FLAGS= IJavaElementDelta.F_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_ADDED_TO_CLASSPATH
+			| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+			| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+			| IJavaElementDelta.F_CLOSED;
+
+	/* The delimiters in the handle identifiers of Java elements */
+	private static final char ROOT_DELIMITER= '/';
+	private static final char COMPILATION_UNIT_DELIMITER= '{';
+	private static final char TYPE_DELIMITER= '[';
+
+	private static class Entry {
+		final boolean fIsTest;
+		/** The full paths of the compilation units the result depends on */
+		final String[] fDependencies;
+		/** The modification stamps of the dependencies */
+		final long[] fStamps;
+		/** The simple names of the super types and annotations which can not be resolved */
+		final String[] fUnresolvedNames;
+
+		Entry(boolean isTest, String[] dependencies, long[] stamps, String[] unresolvedNames) {
+			fIsTest= isTest;
+			fDependencies= dependencies;
+			fStamps= stamps;
+			fUnresolvedNames= unresolvedNames;
+		}
+	}
+
+	/** Test kind id -> type handle identifier -> entry */
+	private final Map<String, Map<String, Entry>> fEntries= new ConcurrentHashMap<>();
+
+	private File fIndexFile;
+
+	private volatile boolean fLoaded;
+
+	private volatile boolean fChanged;
+
+	/**
+	 * Starts tracking changes.
+	 *
+	 * @param indexFile the file to load the index from and save it to
+	 */
+	public void start(File indexFile) {
+		fIndexFile= indexFile;
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Stops tracking changes and saves the index.
+	 */
+	public void stop() {
+		JavaCore.removeElementChangedListener(this);
+		if (fChanged) {
+			try {
+				save();
+			} catch (IOException e) {
+				JUnitCorePlugin.log(e);
+			}
+		}
+	}
+
+	/**
+	 * @return the file of the index in the state location of the JUnit core plug-in
+	 */
+	public static File getDefaultIndexFile() {
+		return JUnitCorePlugin.getDefault().getStateLocation().append(INDEX_FILE_NAME).toFile();
+	}
+
+	/**
+	 * Returns whether a type has been found to be a test.
+	 *
+	 * @param testKindId the test kind id
+	 * @param type the type
+	 * @return {@link Boolean#TRUE} or {@link Boolean#FALSE}, or <code>null</code> if the type has
+	 *         to be checked
+	 */
+	public Boolean get(String testKindId, IType type) {
+		ICompilationUnit cu= type.getCompilationUnit();
+		if (cu == null || cu.hasUnsavedChanges())
+			return null;
+
+		Entry entry= getEntries(testKindId).get(type.getHandleIdentifier());
+		if (entry == null)
+			return null;
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		for (int i= 0; i < entry.fDependencies.length; i++) {
+			IResource resource= root.findMember(entry.fDependencies[i]);
+			if (resource == null || resource.getModificationStamp() != entry.fStamps[i])
+				return null;
+		}
+		return Boolean.valueOf(entry.fIsTest);
+	}
+
+	/**
+	 * Records whether a type is a test.
+	 *
+	 * @param testKindId the test kind id
+	 * @param type the type
+	 * @param isTest whether the type is a test
+	 * @param binding the binding from which the result was computed, or <code>null</code> if the
+	 *            result only depends on the compilation unit of the type
+	 */
+	public void put(String testKindId, IType type, boolean isTest, ITypeBinding binding) {
+		ICompilationUnit cu= type.getCompilationUnit();
+		if (cu == null || cu.hasUnsavedChanges())
+			return;
+
+		Set<IResource> dependencies= new HashSet<>();
+		Set<String> unresolvedNames= new HashSet<>();
+		if (!addDependency(cu, dependencies))
+			return;
+		try {
+			if (binding != null && !addDependencies(binding, dependencies, unresolvedNames, new HashSet<>()))
+				return;
+		} catch (JavaModelException e) {
+			return;
+		}
+
+		String[] paths= new String[dependencies.size()];
+		long[] stamps= new long[paths.length];
+		int i= 0;
+		for (IResource resource : dependencies) {
+			paths[i]= resource.getFullPath().toString();
+			stamps[i]= resource.getModificationStamp();
+			i++;
+		}
+		getEntries(testKindId).put(type.getHandleIdentifier(), new Entry(isTest, paths, stamps, unresolvedNames.toArray(new String[unresolvedNames.size()])));
+		fChanged= true;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		fEntries.clear();
+		if (!fLoaded) {
+			// the saved entries can depend on the old classpath
+			fLoaded= true;
+			if (fIndexFile != null)
+				fIndexFile.delete();
+		}
+		fChanged= true;
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (fLoaded && fEntries.isEmpty())
+			return;
+		processDelta(event.getDelta());
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		int elementType= element.getElementType();
+		if ((delta.getFlags() & CLASSPATH_FLAGS) != 0
+				|| elementType == IJavaElement.PACKAGE_FRAGMENT_ROOT && delta.getKind() != IJavaElementDelta.CHANGED) {
+			clear();
+			return;
+		}
+		if (elementType == IJavaElement.JAVA_PROJECT && delta.getKind() == IJavaElementDelta.REMOVED) {
+			removeEntries(element.getHandleIdentifier() + ROOT_DELIMITER);
+			return;
+		}
+		if (elementType == IJavaElement.COMPILATION_UNIT) {
+			// subtypes in other compilation units are checked with the stamps
+			if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_PRIMARY_RESOURCE)) != 0)
+				removeEntries(element.getHandleIdentifier() + TYPE_DELIMITER);
+			if (delta.getKind() != IJavaElementDelta.REMOVED)
+				removeUnresolvedEntries((ICompilationUnit) element);
+			return;
+		}
+		if (elementType == IJavaElement.PACKAGE_FRAGMENT && delta.getKind() == IJavaElementDelta.REMOVED) {
+			removeEntries(element.getHandleIdentifier() + COMPILATION_UNIT_DELIMITER);
+			return;
+		}
+		if (elementType == IJavaElement.PACKAGE_FRAGMENT && delta.getKind() == IJavaElementDelta.ADDED) {
+			// the compilation units of an added package are not reported
+			removeUnresolvedEntries(null);
+			return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	private void removeEntries(String handlePrefix) {
+		for (Map<String, Entry> entries : fEntries.values()) {
+			if (entries.keySet().removeIf(handle -> handle.startsWith(handlePrefix)))
+				fChanged= true;
+		}
+	}
+
+	/*
+	 * Removes the entries with an unresolved name of a type declared in the compilation unit, or all
+	 * entries with unresolved names if the compilation unit is null or can not be read.
+	 */
+	private void removeUnresolvedEntries(ICompilationUnit cu) {
+		if (!hasUnresolvedEntries())
+			return;
+		Set<String> names= null;
+		if (cu != null) {
+			try {
+				names= new HashSet<>();
+				for (IType type : cu.getAllTypes()) {
+					names.add(type.getElementName());
+				}
+			} catch (JavaModelException e) {
+				names= null;
+			}
+		}
+		for (Map<String, Entry> entries : fEntries.values()) {
+			Set<String> typeNames= names;
+			if (entries.values().removeIf(entry -> isUnresolved(entry, typeNames)))
+				fChanged= true;
+		}
+	}
+
+	private boolean hasUnresolvedEntries() {
+		for (Map<String, Entry> entries : fEntries.values()) {
+			for (Entry entry : entries.values()) {
+				if (entry.fUnresolvedNames.length > 0)
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isUnresolved(Entry entry, Set<String> typeNames) {
+		for (String name : entry.fUnresolvedNames) {
+			if (typeNames == null || typeNames.contains(name))
+				return true;
+		}
+		return false;
+	}
+
+	private Map<String, Entry> getEntries(String testKindId) {
+		if (!fLoaded) {
+			synchronized (this) {
+				if (!fLoaded) {
+					if (fIndexFile != null && fIndexFile.isFile()) {
+						try {
+							load();
+						} catch (IOException e) {
+							// outdated or damaged: start over
+							fEntries.clear();
+							fIndexFile.delete();
+						}
+					}
+					fLoaded= true;
+				}
+			}
+		}
+		return fEntries.computeIfAbsent(testKindId, id -> new ConcurrentHashMap<>());
+	}
+
+	/*
+	 * Adds the compilation units of the type, its super types and the annotations on them and their
+	 * methods, and the simple names of those which can not be resolved. Returns false if the result
+	 * must not be recorded.
+	 */
+	private static boolean addDependencies(ITypeBinding binding, Set<IResource> dependencies, Set<String> unresolvedNames, Set<String> visited) throws JavaModelException {
+		if (binding == null || !visited.add(binding.getKey()))
+			return true;
+		if (!addDependency(binding, dependencies))
+			return false;
+		Set<String> annotationNames= new HashSet<>();
+		if (!addAnnotationDependencies(binding.getAnnotations(), dependencies, annotationNames, unresolvedNames, visited))
+			return false;
+		for (IMethodBinding method : binding.getDeclaredMethods()) {
+			if (!addAnnotationDependencies(method.getAnnotations(), dependencies, annotationNames, unresolvedNames, visited))
+				return false;
+		}
+		Set<String> superTypeNames= new HashSet<>();
+		ITypeBinding superclass= binding.getSuperclass();
+		if (superclass != null)
+			superTypeNames.add(superclass.getErasure().getName());
+		if (!addDependencies(superclass, dependencies, unresolvedNames, visited))
+			return false;
+		for (ITypeBinding superInterface : binding.getInterfaces()) {
+			superTypeNames.add(superInterface.getErasure().getName());
+			if (!addDependencies(superInterface, dependencies, unresolvedNames, visited))
+				return false;
+		}
+
+		IJavaElement element= binding.getJavaElement();
+		if (element instanceof IType && ((IType) element).getCompilationUnit() != null) {
+			IType type= (IType) element;
+			addUnresolvedName(type.getSuperclassName(), superTypeNames, unresolvedNames);
+			for (String name : type.getSuperInterfaceNames()) {
+				addUnresolvedName(name, superTypeNames, unresolvedNames);
+			}
+			addUnresolvedAnnotationNames(type.getAnnotations(), annotationNames, unresolvedNames);
+			for (IMethod method : type.getMethods()) {
+				addUnresolvedAnnotationNames(method.getAnnotations(), annotationNames, unresolvedNames);
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Adds the compilation units of the annotation type and of its meta-annotations.
+	 */
+	private static boolean addAnnotationDependencies(ITypeBinding binding, Set<IResource> dependencies, Set<String> unresolvedNames, Set<String> visited) throws JavaModelException {
+		if (binding == null || !visited.add(binding.getKey()))
+			return true;
+		if (!addDependency(binding, dependencies))
+			return false;
+		Set<String> annotationNames= new HashSet<>();
+		if (!addAnnotationDependencies(binding.getAnnotations(), dependencies, annotationNames, unresolvedNames, visited))
+			return false;
+		IJavaElement element= binding.getJavaElement();
+		if (element instanceof IType && ((IType) element).getCompilationUnit() != null)
+			addUnresolvedAnnotationNames(((IType) element).getAnnotations(), annotationNames, unresolvedNames);
+		return true;
+	}
+
+	private static boolean addAnnotationDependencies(IAnnotationBinding[] annotations, Set<IResource> dependencies, Set<String> annotationNames, Set<String> unresolvedNames, Set<String> visited) throws JavaModelException {
+		for (IAnnotationBinding annotation : annotations) {
+			ITypeBinding annotationType= annotation != null ? annotation.getAnnotationType() : null;
+			if (annotationType != null) {
+				annotationNames.add(annotationType.getName());
+				if (!addAnnotationDependencies(annotationType, dependencies, unresolvedNames, visited))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private static void addUnresolvedAnnotationNames(IAnnotation[] annotations, Set<String> resolvedNames, Set<String> unresolvedNames) {
+		for (IAnnotation annotation : annotations) {
+			addUnresolvedName(annotation.getElementName(), resolvedNames, unresolvedNames);
+		}
+	}
+
+	/*
+	 * Adds the simple name of a type referenced in the source, unless a binding has been found for it.
+	 */
+	private static void addUnresolvedName(String name, Set<String> resolvedNames, Set<String> unresolvedNames) {
+		if (name == null)
+			return;
+		int end= name.indexOf('<');
+		if (end >= 0)
+			name= name.substring(0, end);
+		String simpleName= name.substring(name.lastIndexOf('.') + 1).trim();
+		if (!resolvedNames.contains(simpleName))
+			unresolvedNames.add(simpleName);
+	}
+
+	private static boolean addDependency(ITypeBinding binding, Set<IResource> dependencies) {
+		if (binding == null)
+			return true;
+		IJavaElement element= binding.getJavaElement();
+		if (element instanceof IType) {
+			ICompilationUnit cu= ((IType) element).getCompilationUnit();
+			// binary types only change with the classpath
+			return cu == null || addDependency(cu, dependencies);
+		}
+		return true;
+	}
+
+	private static boolean addDependency(ICompilationUnit cu, Set<IResource> dependencies) {
+		if (cu.hasUnsavedChanges())
+			return false;
+		IResource resource= cu.getResource();
+		if (resource == null)
+			return false;
+		dependencies.add(resource);
+		return true;
+	}
+
+	private void load() throws IOException {
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(fIndexFile)))) {
+			if (in.readInt() != VERSION)
+				throw new IOException("Outdated test type index"); //$NON-NLS-1$
+			int kindCount= in.readInt();
+			for (int k= 0; k < kindCount; k++) {
+				String testKindId= in.readUTF();
+				Map<String, Entry> entries= new ConcurrentHashMap<>();
+				int entryCount= in.readInt();
+				for (int e= 0; e < entryCount; e++) {
+					String handle= in.readUTF();
+					boolean isTest= in.readBoolean();
+					String[] dependencies= new String[in.readInt()];
+					long[] stamps= new long[dependencies.length];
+					for (int i= 0; i < dependencies.length; i++) {
+						dependencies[i]= in.readUTF();
+						stamps[i]= in.readLong();
+					}
+					String[] unresolvedNames= new String[in.readInt()];
+					for (int i= 0; i < unresolvedNames.length; i++) {
+						unresolvedNames[i]= in.readUTF();
+					}
+					entries.put(handle, new Entry(isTest, dependencies, stamps, unresolvedNames));
+				}
+				fEntries.put(testKindId, entries);
+			}
+		}
+	}
+
+	private void save() throws IOException {
+		File file= fIndexFile;
+		if (file == null)
+			return;
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(VERSION);
+			out.writeInt(fEntries.size());
+			for (Map.Entry<String, Map<String, Entry>> kind : fEntries.entrySet()) {
+				out.writeUTF(kind.getKey());
+				List<Map.Entry<String, Entry>> entries= new ArrayList<>(kind.getValue().entrySet());
+				out.writeInt(entries.size());
+				for (Map.Entry<String, Entry> typeEntry : entries) {
+					Entry entry= typeEntry.getValue();
+					out.writeUTF(typeEntry.getKey());
+					out.writeBoolean(entry.fIsTest);
+					out.writeInt(entry.fDependencies.length);
+					for (int i= 0; i < entry.fDependencies.length; i++) {
+						out.writeUTF(entry.fDependencies[i]);
+						out.writeLong(entry.fStamps[i]);
+					}
+					out.writeInt(entry.fUnresolvedNames.length);
+					for (String name : entry.fUnresolvedNames) {
+						out.writeUTF(name);
+					}
+				}
+			}
+		}
+		fChanged= false;
+	}
+}
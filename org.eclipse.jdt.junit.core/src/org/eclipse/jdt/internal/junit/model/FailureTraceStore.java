@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+
+
+/**
+ * Stores the failure traces, expected and actual values of the tests of a {@link TestRoot}. The
+ * test elements only keep the <code>int</code> handles returned by {@link #set(int, String)}.
+ * <p>
+ * The values are kept in memory until they exceed {@link #MAX_MEMORY_CHARS} characters. Further
+ * values are appended to a spill file in the history directory and read back when they are
+ * requested. The handles index parallel arrays with the value, the file offset and the length of
+ * each entry.
+ * </p>
+ * <p>
+ * Values of a session which has been swapped in are not read up front. They are added with
+ * {@link #addFromFile(long, int)} and read from the swap file attached with {@link #attach(File)}
+ * when they are requested.
+ * </p>
+ * <p>
+ * After {@link #dispose()}, the spill file is deleted and all values are <code>null</code>. The
+ * attached swap file is closed, but not deleted.
+ * </p>
+ */
+public class FailureTraceStore {
+
+	/**
+	 * The handle of a <code>null</code> value.
+	 */
+	public static final int NONE= -1;
+
+	/**
+	 * The number of characters kept in memory before values are spilled to disk.
+	 */
+	public static final int MAX_MEMORY_CHARS= 512 * 1024;
+
+	private static final String SPILL_FILE_PREFIX= "traces"; //$NON-NLS-1$
+
+	private static final String SPILL_FILE_SUFFIX= ".bin"; //$NON-NLS-1$
+
+	private final File fDirectory;
+
+	private final int fMaxMemoryChars;
+
+	/** The values kept in memory, or <code>null</code> for spilled entries */
+	private String[] fValues= new String[16];
+
+	/** The offsets of the spilled entries in the spill file or the swap file */
+	private long[] fOffsets= new long[16];
+
+	/** The byte lengths of the spilled entries, or -1 for entries in memory */
+	private int[] fLengths= new int[16];
+
+	/** The entries which are stored in the swap file */
+	private final BitSet fInSwapFile= new BitSet();
+
+	private int fSize;
+
+	private long fMemoryChars;
+
+	private File fSpillFile;
+
+	private RandomAccessFile fSpillAccess;
+
+	private File fSwapFile;
+
+	private RandomAccessFile fSwapAccess;
+
+	private boolean fDisposed;
+
+	/**
+	 * Creates a store which spills to the JUnit history directory.
+	 */
+	public FailureTraceStore() {
+		this(null, MAX_MEMORY_CHARS);
+	}
+
+	/**
+	 * @param directory the directory for the spill file, or <code>null</code> for the JUnit
+	 *            history directory
+	 * @param maxMemoryChars the number of characters to keep in memory
+	 */
+	public FailureTraceStore(File directory, int maxMemoryChars) {
+		fDirectory= directory;
+		fMaxMemoryChars= maxMemoryChars;
+	}
+
+	/**
+	 * Deletes the spill files left in a directory by a workbench which has not been shut down
+	 * properly.
+	 *
+	 * @param directory the directory to clean up
+	 */
+	public static void deleteSpillFiles(File directory) {
+		File[] spillFiles= directory.listFiles((dir, name) -> name.startsWith(SPILL_FILE_PREFIX) && name.endsWith(SPILL_FILE_SUFFIX));
+		if (spillFiles != null) {
+			for (File spillFile : spillFiles) {
+				spillFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Stores a value.
+	 *
+	 * @param handle the handle of the value to replace, or {@link #NONE} to add a value
+	 * @param value the value, may be <code>null</code>
+	 * @return the handle of the value, or {@link #NONE} if the value is <code>null</code>
+	 */
+	public synchronized int set(int handle, String value) {
+		if (value == null || fDisposed) {
+			if (handle != NONE && !fDisposed)
+				remove(handle);
+			return NONE;
+		}
+
+		if (handle == NONE) {
+			handle= newHandle();
+		} else {
+			remove(handle);
+		}
+
+		if (fMemoryChars + value.length() <= fMaxMemoryChars || !spill(handle, value)) {
+			fValues[handle]= value;
+			fLengths[handle]= -1;
+			fMemoryChars+= value.length();
+		}
+		return handle;
+	}
+
+	/**
+	 * Sets the swap file from which the entries added by {@link #addFromFile(long, int)} are read.
+	 *
+	 * @param swapFile the swap file
+	 */
+	public synchronized void attach(File swapFile) {
+		fSwapFile= swapFile;
+	}
+
+	/**
+	 * Adds a value which is read from the attached swap file when it is requested.
+	 *
+	 * @param offset the offset of the UTF-8 encoded value in the swap file
+	 * @param length the byte length of the value
+	 * @return the handle of the value
+	 */
+	public synchronized int addFromFile(long offset, int length) {
+		if (fDisposed)
+			return NONE;
+		int handle= newHandle();
+		fOffsets[handle]= offset;
+		fLengths[handle]= length;
+		fInSwapFile.set(handle);
+		return handle;
+	}
+
+	/**
+	 * Returns a stored value.
+	 *
+	 * @param handle the handle returned by {@link #set(int, String)}
+	 * @return the value, or <code>null</code> for {@link #NONE} or if the store has been disposed
+	 */
+	public synchronized String get(int handle) {
+		if (handle == NONE || fDisposed)
+			return null;
+
+		String value= fValues[handle];
+		if (value != null || fLengths[handle] < 0)
+			return value;
+
+		try {
+			byte[] bytes= new byte[fLengths[handle]];
+			RandomAccessFile access= fInSwapFile.get(handle) ? getSwapAccess() : getSpillAccess();
+			access.seek(fOffsets[handle]);
+			access.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return the number of characters of the values kept in memory
+	 */
+	public synchronized long getMemoryChars() {
+		return fMemoryChars;
+	}
+
+	/**
+	 * Releases all values, deletes the spill file and closes the swap file.
+	 */
+	public synchronized void dispose() {
+		fDisposed= true;
+		fValues= new String[0];
+		fOffsets= new long[0];
+		fLengths= new int[0];
+		fInSwapFile.clear();
+		fSize= 0;
+		fMemoryChars= 0;
+		if (fSwapAccess != null) {
+			try {
+				fSwapAccess.close();
+			} catch (IOException e) {
+				// only read from
+			}
+			fSwapAccess= null;
+		}
+		if (fSpillAccess != null) {
+			try {
+				fSpillAccess.close();
+			} catch (IOException e) {
+				// the file is deleted anyway
+			}
+			fSpillAccess= null;
+		}
+		if (fSpillFile != null) {
+			fSpillFile.delete();
+			fSpillFile= null;
+		}
+	}
+
+	private int newHandle() {
+		if (fSize == fValues.length) {
+			int capacity= fSize * 2;
+			fValues= Arrays.copyOf(fValues, capacity);
+			fOffsets= Arrays.copyOf(fOffsets, capacity);
+			fLengths= Arrays.copyOf(fLengths, capacity);
+		}
+		return fSize++;
+	}
+
+	private void remove(int handle) {
+		String value= fValues[handle];
+		if (value != null) {
+			fMemoryChars-= value.length();
+			fValues[handle]= null;
+		}
+		// the bytes of a spilled value remain unused in the spill file
+		fLengths[handle]= -1;
+		fInSwapFile.clear(handle);
+	}
+
+	/*
+	 * Appends the value to the spill file. Returns false if the value has to be kept in memory.
+	 */
+	private boolean spill(int handle, String value) {
+		try {
+			byte[] bytes= value.getBytes(StandardCharsets.UTF_8);
+			RandomAccessFile spillAccess= getSpillAccess();
+			long offset= spillAccess.length();
+			spillAccess.seek(offset);
+			spillAccess.write(bytes);
+			fOffsets[handle]= offset;
+			fLengths[handle]= bytes.length;
+			fValues[handle]= null;
+			return true;
+		} catch (IOException | IllegalStateException e) {
+			// no history directory (e.g. during shutdown), or the disk is full
+			return false;
+		}
+	}
+
+	private RandomAccessFile getSpillAccess() throws IOException {
+		if (fSpillAccess == null) {
+			File directory= fDirectory;
+			if (directory == null) {
+				if (JUnitCorePlugin.getDefault() == null)
+					throw new IOException("JUnit core plug-in is not active"); //$NON-NLS-1$
+				directory= JUnitCorePlugin.getHistoryDirectory();
+			}
+			fSpillFile= File.createTempFile(SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX, directory);
+			fSpillAccess= new RandomAccessFile(fSpillFile, "rw"); //$NON-NLS-1$
+		}
+		return fSpillAccess;
+	}
+
+	private RandomAccessFile getSwapAccess() throws IOException {
+		if (fSwapAccess == null) {
+			if (fSwapFile == null)
+				throw new IOException("No swap file attached"); //$NON-NLS-1$
+			fSwapAccess= new RandomAccessFile(fSwapFile, "r"); //$NON-NLS-1$
+		}
+		return fSwapAccess;
+	}
+}
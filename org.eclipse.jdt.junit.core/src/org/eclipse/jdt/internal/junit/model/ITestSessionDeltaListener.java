@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+
+/**
+ * A test session listener which can be notified through a {@link TestSessionEventCoalescer}.
+ * Instead of {@link #testAdded(TestElement)}, {@link #testStarted(TestCaseElement)},
+ * {@link #testEnded(TestCaseElement)} and
+ * {@link #testFailed(TestElement, TestElement.Status, String, String, String)}, the coalescer
+ * calls {@link #testsChanged(TestSessionDelta)} with the aggregated changes. All other events are
+ * forwarded after the pending changes.
+ */
+public interface ITestSessionDeltaListener extends ITestSessionListener {
+
+	/**
+	 * Tests have been added, started, ended or have failed since the last notification.
+	 *
+	 * @param delta the aggregated changes, never empty
+	 */
+	void testsChanged(TestSessionDelta delta);
+
+}
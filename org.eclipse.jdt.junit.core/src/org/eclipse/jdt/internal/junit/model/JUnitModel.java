@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -264,6 +264,12 @@ public final class JUnitModel {
 		ILaunchManager launchManager= DebugPlugin.getDefault().getLaunchManager();
 		launchManager.addLaunchListener(fLaunchListener);
 
+		try {
+			FailureTraceStore.deleteSpillFiles(JUnitCorePlugin.getHistoryDirectory());
+		} catch (IllegalStateException e) {
+			// no instance location, nothing has been spilled
+		}
+
 /*
  * TODO: restore on restart:
  * - only import headers!
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.model;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -30,6 +31,8 @@ import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
 
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageReader;
+import org.eclipse.jdt.internal.junit.runner.IMessageReceiver;
 import org.eclipse.jdt.internal.junit.runner.MessageIds;
 import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
 
@@ -89,11 +92,13 @@ public class RemoteTestRunnerClient {
 	            return this;
 	        }
 	        if (message.startsWith(MessageIds.TEST_START)) {
-	            notifyTestStarted(arg);
+	            String s[]= extractTestId(arg);
+	            notifyTestStarted(s[0], s[1]);
 	            return this;
 	        }
 	        if (message.startsWith(MessageIds.TEST_END)) {
-	            notifyTestEnded(arg);
+	            String s[]= extractTestId(arg);
+	            notifyTestEnded(s[0], s[1]);
 	            return this;
 	        }
 	        if (message.startsWith(MessageIds.TEST_ERROR)) {
@@ -190,6 +195,37 @@ public class RemoteTestRunnerClient {
 	    }
 	}
 
+	/**
+	 * Dispatches the test records of the binary protocol directly, the other messages go through
+	 * the state machine.
+	 */
+	class BinaryMessageReceiver implements IMessageReceiver {
+		@Override
+		public void receiveMessage(String message) {
+			RemoteTestRunnerClient.this.receiveMessage(message);
+		}
+
+		@Override
+		public void testStarted(String testId, String testName) {
+			notifyTestStarted(testId, testName);
+		}
+
+		@Override
+		public void testEnded(String testId, String testName) {
+			notifyTestEnded(testId, testName);
+		}
+
+		@Override
+		public void testError(String testId, String testName) {
+			setFailure(testId, testName, ITestRunListener2.STATUS_ERROR);
+		}
+
+		@Override
+		public void testFailed(String testId, String testName) {
+			setFailure(testId, testName, ITestRunListener2.STATUS_FAILURE);
+		}
+	}
+
 	/**
 	 * The failed trace that is currently reported from the RemoteTestRunner
 	 */
@@ -228,6 +264,10 @@ public class RemoteTestRunnerClient {
 	private int fPort= -1;
 	private PrintWriter fWriter;
 	private PushbackReader fPushbackReader;
+	/**
+	 * The reader for the binary protocol, or <code>null</code> if the RemoteTestRunner sends text
+	 */
+	private BinaryMessageReader fBinaryReader;
 	private String fLastLineDelimiter;
 	/**
 	 * The protocol version
@@ -266,11 +306,22 @@ public class RemoteTestRunnerClient {
 					System.out.println("Creating server socket "+fServerPort); //$NON-NLS-1$
 				fServerSocket= new ServerSocket(fServerPort);
 				fSocket= fServerSocket.accept();
-				fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(fSocket.getInputStream(), StandardCharsets.UTF_8)));
 				fWriter= new PrintWriter(new OutputStreamWriter(fSocket.getOutputStream(), StandardCharsets.UTF_8), true);
-				String message;
-				while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
-					receiveMessage(message);
+				BufferedInputStream input= new BufferedInputStream(fSocket.getInputStream());
+				if (BinaryMessageReader.readProtocolHeader(input)) {
+					// multi-line messages like traces arrive as one message
+					fLastLineDelimiter= "\n"; //$NON-NLS-1$
+					fBinaryReader= new BinaryMessageReader(input);
+					BinaryMessageReceiver receiver= new BinaryMessageReceiver();
+					while(fBinaryReader != null && fBinaryReader.readRecord(receiver)) {
+						// dispatched by the receiver
+					}
+				} else {
+					fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+					String message;
+					while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
+						receiveMessage(message);
+				}
 			} catch (SocketException e) {
 				notifyTestRunTerminated();
 			} catch (IOException e) {
@@ -326,6 +377,13 @@ public class RemoteTestRunnerClient {
 			}
 		} catch(IOException e) {
 		}
+		try {
+			if (fBinaryReader != null) {
+				fBinaryReader.close();
+				fBinaryReader= null;
+			}
+		} catch(IOException e) {
+		}
 		try {
 			if (fSocket != null) {
 				fSocket.close();
@@ -429,8 +487,12 @@ public class RemoteTestRunnerClient {
 
 	private void extractFailure(String arg, int status) {
 		String s[]= extractTestId(arg);
-		fFailedTestId= s[0];
-		fFailedTest= s[1];
+		setFailure(s[0], s[1], status);
+	}
+
+	private void setFailure(String testId, String testName, int status) {
+		fFailedTestId= testId;
+		fFailedTest= testName;
 		fFailureKind= status;
 	}
 
@@ -512,29 +574,27 @@ public class RemoteTestRunnerClient {
 		}
 	}
 
-	private void notifyTestEnded(final String test) {
+	private void notifyTestEnded(final String testId, final String testName) {
 		if (JUnitCorePlugin.isStopped())
 			return;
 		for (ITestRunListener2 listener : fListeners) {
 			SafeRunner.run(new ListenerSafeRunnable() {
 				@Override
 				public void run() {
-					String s[]= extractTestId(test);
-					listener.testEnded(s[0], s[1]);
+					listener.testEnded(testId, testName);
 				}
 			});
 		}
 	}
 
-	private void notifyTestStarted(final String test) {
+	private void notifyTestStarted(final String testId, final String testName) {
 		if (JUnitCorePlugin.isStopped())
 			return;
 		for (ITestRunListener2 listener : fListeners) {
 			SafeRunner.run(new ListenerSafeRunnable() {
 				@Override
 				public void run() {
-					String s[]= extractTestId(test);
-					listener.testStarted(s[0], s[1]);
+					listener.testStarted(testId, testName);
 				}
 			});
 		}
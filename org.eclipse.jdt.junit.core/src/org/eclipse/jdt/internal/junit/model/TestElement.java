@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -190,9 +190,13 @@ public abstract class TestElement implements ITestElement {
 	private String fUniqueId;
 
 	private Status fStatus;
-	private String fTrace;
-	private String fExpected;
-	private String fActual;
+
+	/*
+	 * Handles of the failure trace, expected and actual value in the FailureTraceStore of the root
+	 */
+	private int fTrace= FailureTraceStore.NONE;
+	private int fExpected= FailureTraceStore.NONE;
+	private int fActual= FailureTraceStore.NONE;
 
 	private boolean fAssumptionFailed;
 
@@ -262,8 +266,8 @@ public abstract class TestElement implements ITestElement {
 	public FailureTrace getFailureTrace() {
 		Result testResult= getTestResult(false);
 		if (testResult == Result.ERROR || testResult == Result.FAILURE
-				|| (testResult == Result.IGNORED && fTrace != null)) {
-			return new FailureTrace(fTrace, fExpected, fActual);
+				|| (testResult == Result.IGNORED && fTrace != FailureTraceStore.NONE)) {
+			return new FailureTrace(getTrace(), getExpected(), getActual());
 		}
 		return null;
 	}
@@ -304,35 +308,48 @@ public abstract class TestElement implements ITestElement {
 	}
 
 	public void setStatus(Status status, String trace, String expected, String actual) {
-		if (trace != null && fTrace != null) {
+		FailureTraceStore failureTraces= getRoot().getFailureTraces();
+		if (trace != null && fTrace != FailureTraceStore.NONE) {
 			//don't overwrite first trace if same test run logs multiple errors
-			fTrace= fTrace + trace;
+			String previousTrace= failureTraces.get(fTrace);
+			fTrace= failureTraces.set(fTrace, previousTrace != null ? previousTrace + trace : trace);
 		} else {
-			fTrace= trace;
-			fExpected= expected;
-			fActual= actual;
+			fTrace= failureTraces.set(fTrace, trace);
+			fExpected= failureTraces.set(fExpected, expected);
+			fActual= failureTraces.set(fActual, actual);
 		}
 		setStatus(status);
 	}
 
+	/*
+	 * Sets the status of a test which is swapped in. The values are already in the failure traces
+	 * of the root.
+	 */
+	void setStatus(Status status, int trace, int expected, int actual) {
+		fTrace= trace;
+		fExpected= expected;
+		fActual= actual;
+		setStatus(status);
+	}
+
 	public Status getStatus() {
 		return fStatus;
 	}
 
 	public String getTrace() {
-		return fTrace;
+		return getRoot().getFailureTraces().get(fTrace);
 	}
 
 	public String getExpected() {
-		return fExpected;
+		return getRoot().getFailureTraces().get(fExpected);
 	}
 
 	public String getActual() {
-		return fActual;
+		return getRoot().getFailureTraces().get(fActual);
 	}
 
 	public boolean isComparisonFailure() {
-		return fExpected != null && fActual != null;
+		return fExpected != FailureTraceStore.NONE && fActual != FailureTraceStore.NONE;
 	}
 
 	/**
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+
+/**
+ * Maps test ids to test elements. The RemoteTestRunner numbers the tests, so the elements with a
+ * non-negative numeric id are kept in an array indexed by the id. Other ids are kept in a map.
+ */
+public class TestElementIndex {
+
+	/** The largest id stored in the array, to bound its size for sparse ids */
+	private static final int MAX_ARRAY_ID= 1 << 24;
+
+	private TestElement[] fElements= new TestElement[256];
+
+	private HashMap<String, TestElement> fOtherElements;
+
+	public void put(String id, TestElement testElement) {
+		int index= toIndex(id);
+		if (index < 0) {
+			if (fOtherElements == null)
+				fOtherElements= new HashMap<>();
+			fOtherElements.put(id, testElement);
+			return;
+		}
+		if (index >= fElements.length)
+			fElements= Arrays.copyOf(fElements, Math.max(index + 1, fElements.length * 2));
+		fElements[index]= testElement;
+	}
+
+	public TestElement get(String id) {
+		int index= toIndex(id);
+		if (index < 0)
+			return fOtherElements != null ? fOtherElements.get(id) : null;
+		return index < fElements.length ? fElements[index] : null;
+	}
+
+	/*
+	 * Returns the array index for a canonical decimal id, or -1 if the id is kept in the map.
+	 */
+	private static int toIndex(String id) {
+		int length= id.length();
+		if (length == 0 || length > 8 || length > 1 && id.charAt(0) == '0')
+			return -1;
+		int index= 0;
+		for (int i= 0; i < length; i++) {
+			char c= id.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+			index= index * 10 + c - '0';
+		}
+		return index <= MAX_ARRAY_ID ? index : -1;
+	}
+}
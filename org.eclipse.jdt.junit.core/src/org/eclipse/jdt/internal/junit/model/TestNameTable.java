@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+
+/**
+ * Interns the display names and parameter types of the tests of a {@link TestRoot}, so that
+ * the tests of a parameterized or dynamic test share one instance of each.
+ */
+public class TestNameTable {
+
+	private final HashMap<String, String> fNames= new HashMap<>();
+
+	private final HashMap<List<String>, String[]> fParameterTypes= new HashMap<>();
+
+	/**
+	 * @param name a name, may be <code>null</code>
+	 * @return the shared instance of the name
+	 */
+	public synchronized String intern(String name) {
+		if (name == null)
+			return null;
+		String interned= fNames.putIfAbsent(name, name);
+		return interned != null ? interned : name;
+	}
+
+	/**
+	 * @param parameterTypes parameter types, may be <code>null</code>
+	 * @return the shared instance of the parameter types, which must not be modified
+	 */
+	public synchronized String[] intern(String[] parameterTypes) {
+		if (parameterTypes == null)
+			return null;
+		for (int i= 0; i < parameterTypes.length; i++)
+			parameterTypes[i]= intern(parameterTypes[i]);
+		String[] interned= fParameterTypes.putIfAbsent(Arrays.asList(parameterTypes), parameterTypes);
+		return interned != null ? interned : parameterTypes;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,11 +19,29 @@ public class TestRoot extends TestSuiteElement {
 
 	private final ITestRunSession fSession;
 
+	private final FailureTraceStore fFailureTraces= new FailureTraceStore();
+
+	private final TestNameTable fNameTable= new TestNameTable();
+
 	public TestRoot(ITestRunSession session) {
 		super(null, "-1", session.getTestRunName(), 1, session.getTestRunName(), null, null); //$NON-NLS-1$
 		fSession= session;
 	}
 
+	/**
+	 * @return the store for the failure traces of the tests in this tree
+	 */
+	public FailureTraceStore getFailureTraces() {
+		return fFailureTraces;
+	}
+
+	/**
+	 * @return the table for the names shared by the tests in this tree
+	 */
+	public TestNameTable getNameTable() {
+		return fNameTable;
+	}
+
 	@Override
 	public TestRoot getRoot() {
 		return this;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,12 +16,14 @@
 package org.eclipse.jdt.internal.junit.model;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 
 import org.eclipse.jdt.junit.model.ITestElement;
@@ -86,7 +88,7 @@ public class TestRunSession implements ITestRunSession {
 	/**
 	 * Map from testId to testElement.
 	 */
-	private HashMap<String, TestElement> fIdToTest;
+	private TestElementIndex fIdToTest;
 
 	/**
 	 * The TestSuites for which additional children are expected.
@@ -167,7 +169,7 @@ public class TestRunSession implements ITestRunSession {
 		fTestRunnerKind= ITestKind.NULL; //TODO
 
 		fTestRoot= new TestRoot(this);
-		fIdToTest= new HashMap<>();
+		fIdToTest= new TestElementIndex();
 
 		fTestRunnerClient= null;
 
@@ -191,7 +193,7 @@ public class TestRunSession implements ITestRunSession {
 		}
 
 		fTestRoot= new TestRoot(this);
-		fIdToTest= new HashMap<>();
+		fIdToTest= new TestElementIndex();
 
 		fTestRunnerClient= new RemoteTestRunnerClient();
 		fTestRunnerClient.startListening(new ITestRunListener2[] { new TestSessionNotifier() }, port);
@@ -236,9 +238,11 @@ public class TestRunSession implements ITestRunSession {
 		fIgnoredCount= 0;
 		fTotalCount= 0;
 
+		if (fTestRoot != null)
+			fTestRoot.getFailureTraces().dispose();
 		fTestRoot= new TestRoot(this);
 		fTestResult= null;
-		fIdToTest= new HashMap<>();
+		fIdToTest= new TestElementIndex();
 	}
 
 	@Override
@@ -367,19 +371,30 @@ public class TestRunSession implements ITestRunSession {
 				return;
 		}
 
+		File swapFile;
+		File newSwapFile;
 		try {
-			File swapFile= getSwapFile();
-
-			JUnitModel.exportTestRunSession(this, swapFile);
-			fTestResult= fTestRoot.getTestResult(true);
-			fTestRoot= null;
-			fTestRunnerClient= null;
-			fIdToTest= new HashMap<>();
-			fIncompleteTestSuites= null;
-			fFactoryTestSuites= null;
-			fUnrootedSuite= null;
-
-		} catch (IllegalStateException | CoreException e) {
+			swapFile= getSwapFile();
+			// the failure traces of a swapped in session are still read from the previous swap file
+			newSwapFile= new File(swapFile.getPath() + ".tmp"); //$NON-NLS-1$
+			TestRunSessionSwapFormat.write(this, newSwapFile);
+		} catch (IllegalStateException | IOException e) {
+			JUnitCorePlugin.log(e);
+			return;
+		}
+
+		fTestResult= fTestRoot.getTestResult(true);
+		fTestRoot.getFailureTraces().dispose();
+		fTestRoot= null;
+		fTestRunnerClient= null;
+		fIdToTest= new TestElementIndex();
+		fIncompleteTestSuites= null;
+		fFactoryTestSuites= null;
+		fUnrootedSuite= null;
+
+		try {
+			Files.move(newSwapFile.toPath(), swapFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
 			JUnitCorePlugin.log(e);
 		}
 	}
@@ -389,7 +404,14 @@ public class TestRunSession implements ITestRunSession {
 	}
 
 
+	/**
+	 * Removes the swap file and the failure traces spilled to disk.
+	 */
 	public void removeSwapFile() {
+		TestRoot testRoot= fTestRoot;
+		if (testRoot != null)
+			testRoot.getFailureTraces().dispose();
+
 		File swapFile= getSwapFile();
 		if (swapFile.exists())
 			swapFile.delete();
@@ -398,7 +420,7 @@ public class TestRunSession implements ITestRunSession {
 	private File getSwapFile() throws IllegalStateException {
 		File historyDir= JUnitCorePlugin.getHistoryDirectory();
 		String isoTime= new SimpleDateFormat("yyyyMMdd-HHmmss.SSS").format(new Date(getStartTime())); //$NON-NLS-1$
-		String swapFileName= isoTime + ".xml"; //$NON-NLS-1$
+		String swapFileName= isoTime + ".bin"; //$NON-NLS-1$
 		return new File(historyDir, swapFileName);
 	}
 
@@ -408,9 +430,11 @@ public class TestRunSession implements ITestRunSession {
 			return;
 
 		try {
-			JUnitModel.importIntoTestRunSession(getSwapFile(), this);
-		} catch (IllegalStateException | CoreException e) {
+			TestRunSessionSwapFormat.read(getSwapFile(), this);
+		} catch (IllegalStateException | IOException e) {
 			JUnitCorePlugin.log(e);
+			if (fTestRoot != null)
+				fTestRoot.getFailureTraces().dispose();
 			fTestRoot= new TestRoot(this);
 			fTestResult= null;
 		}
@@ -568,6 +592,9 @@ public class TestRunSession implements ITestRunSession {
 		if (parameterTypes != null && parameterTypes.length > 1) {
 			parameterTypes= Arrays.stream(parameterTypes).map(String::trim).toArray(String[]::new);
 		}
+		TestNameTable nameTable= parent.getRoot().getNameTable();
+		displayName= testName.equals(displayName) ? testName : nameTable.intern(displayName);
+		parameterTypes= nameTable.intern(parameterTypes);
 		if (isSuite) {
 			TestSuiteElement testSuiteElement= new TestSuiteElement(parent, id, testName, testCount, displayName, parameterTypes, uniqueId);
 			testElement= testSuiteElement;
@@ -814,6 +841,19 @@ public class TestRunSession implements ITestRunSession {
 
 	public void registerTestFailureStatus(TestElement testElement, Status status, String trace, String expected, String actual) {
 		testElement.setStatus(status, trace, expected, actual);
+		registerTestFailureCount(testElement, status);
+	}
+
+	/*
+	 * Registers the failure of a test which is swapped in. The values are handles in the failure
+	 * traces of the test root.
+	 */
+	void registerTestFailureStatus(TestElement testElement, Status status, int trace, int expected, int actual) {
+		testElement.setStatus(status, trace, expected, actual);
+		registerTestFailureCount(testElement, status);
+	}
+
+	private void registerTestFailureCount(TestElement testElement, Status status) {
 		if (!testElement.isAssumptionFailure()) {
 			if (status.isError()) {
 				fErrorCount++;
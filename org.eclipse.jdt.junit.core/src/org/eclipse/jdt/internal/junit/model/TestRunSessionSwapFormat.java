@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.junit.model.ITestElement.ProgressState;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+
+
+/**
+ * Reads and writes the swap files of {@link TestRunSession#swapOut()} and
+ * {@link TestRunSession#swapIn()}. The XML format of {@link TestRunSessionSerializer} is only used
+ * to export and import test runs.
+ * <p>
+ * A swap file consists of
+ * </p>
+ * <ol>
+ * <li>the header: {@link #MAGIC} and {@link #VERSION}</li>
+ * <li>the failure section: the UTF-8 encoded traces, expected and actual values</li>
+ * <li>the string table: the names, display names, parameter types and unique ids</li>
+ * <li>the failure index: the offset and byte length of each value in the failure section</li>
+ * <li>the test tree in pre-order, with references into the string table and the failure index</li>
+ * <li>the offset of the string table</li>
+ * </ol>
+ * <p>
+ * Swapping in only reads the string table, the failure index and the tree. The failure values are
+ * read from the swap file by the {@link FailureTraceStore} of the test root when they are
+ * requested.
+ * </p>
+ */
+public class TestRunSessionSwapFormat {
+
+	/**
+	 * The first bytes of a swap file ("JUSW").
+	 */
+	public static final int MAGIC= 0x4A555357;
+
+	/**
+	 * The version of the swap format. Must be incremented when the format changes.
+	 */
+	public static final int VERSION= 1;
+
+	private static final int NONE= -1;
+
+	private static final byte KIND_TEST_CASE= 0;
+	private static final byte KIND_TEST_SUITE= 1;
+
+	private static final byte FLAG_INCOMPLETE= 1;
+	private static final byte FLAG_IGNORED= 1 << 1;
+	private static final byte FLAG_DYNAMIC= 1 << 2;
+	private static final byte FLAG_ASSUMPTION_FAILED= 1 << 3;
+	private static final byte FLAG_FAILURE= 1 << 4;
+
+	private TestRunSessionSwapFormat() {
+	}
+
+	/**
+	 * Writes the test tree of a session to a swap file.
+	 *
+	 * @param session the session, must not be swapped out
+	 * @param file the swap file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(TestRunSession session, File file) throws IOException {
+		new Writer().write(session.getTestRoot(), file);
+	}
+
+	/**
+	 * Replaces the test tree of a session with the tree in a swap file.
+	 *
+	 * @param file the swap file
+	 * @param session the session
+	 * @throws IOException if the file cannot be read or has another format or version
+	 */
+	public static void read(File file, TestRunSession session) throws IOException {
+		long stringTableOffset;
+		try (RandomAccessFile access= new RandomAccessFile(file, "r")) { //$NON-NLS-1$
+			if (access.length() < 16 || access.readInt() != MAGIC)
+				throw new IOException("Not a test run swap file: " + file); //$NON-NLS-1$
+			int version= access.readInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported test run swap file version " + version + ": " + file); //$NON-NLS-1$ //$NON-NLS-2$
+			access.seek(access.length() - 8);
+			stringTableOffset= access.readLong();
+		}
+
+		try (FileInputStream input= new FileInputStream(file)) {
+			input.getChannel().position(stringTableOffset);
+			DataInputStream in= new DataInputStream(new BufferedInputStream(input));
+			new Reader(in, session).read(file);
+		}
+	}
+
+	private static class Writer {
+
+		private final HashMap<String, Integer> fStringIndices= new HashMap<>();
+
+		private final List<String> fStrings= new ArrayList<>();
+
+		private final List<long[]> fFailures= new ArrayList<>();
+
+		private final HashMap<TestElement, int[]> fFailureIndices= new HashMap<>();
+
+		private DataOutputStream fOut;
+
+		private long fOffset;
+
+		void write(TestRoot testRoot, File file) throws IOException {
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024))) {
+				fOut= out;
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				fOffset= 8;
+
+				for (ITestElement child : testRoot.getChildren())
+					writeFailures((TestElement) child);
+
+				long stringTableOffset= fOffset;
+				out.writeInt(fStrings.size());
+				for (String string : fStrings)
+					writeString(string);
+
+				out.writeInt(fFailures.size());
+				for (long[] failure : fFailures) {
+					out.writeLong(failure[0]);
+					out.writeInt((int) failure[1]);
+				}
+
+				ITestElement[] children= testRoot.getChildren();
+				out.writeInt(children.length);
+				for (ITestElement child : children)
+					writeElement((TestElement) child);
+
+				out.writeLong(stringTableOffset);
+			}
+		}
+
+		/*
+		 * Writes the failure values of the tests in pre-order and collects their strings.
+		 */
+		private void writeFailures(TestElement testElement) throws IOException {
+			addString(testElement.getTestName());
+			addString(testElement.getDisplayName());
+			addString(testElement.getUniqueId());
+			String[] parameterTypes= testElement.getParameterTypes();
+			if (parameterTypes != null) {
+				for (String parameterType : parameterTypes)
+					addString(parameterType);
+			}
+
+			if (testElement.getFailureTrace() != null) {
+				int trace= writeFailure(testElement.getTrace());
+				int expected= writeFailure(testElement.getExpected());
+				int actual= writeFailure(testElement.getActual());
+				fFailureIndices.put(testElement, new int[] { trace, expected, actual });
+			}
+
+			if (testElement instanceof TestSuiteElement) {
+				for (ITestElement child : ((TestSuiteElement) testElement).getChildren())
+					writeFailures((TestElement) child);
+			}
+		}
+
+		private int writeFailure(String value) throws IOException {
+			if (value == null)
+				return NONE;
+			byte[] bytes= value.getBytes(StandardCharsets.UTF_8);
+			fOut.write(bytes);
+			fFailures.add(new long[] { fOffset, bytes.length });
+			fOffset+= bytes.length;
+			return fFailures.size() - 1;
+		}
+
+		private void writeElement(TestElement testElement) throws IOException {
+			boolean isSuite= testElement instanceof TestSuiteElement;
+			fOut.writeByte(isSuite ? KIND_TEST_SUITE : KIND_TEST_CASE);
+			writeString(testElement.getId());
+			fOut.writeInt(getStringIndex(testElement.getTestName()));
+			fOut.writeInt(getStringIndex(testElement.getDisplayName()));
+			fOut.writeInt(getStringIndex(testElement.getUniqueId()));
+			String[] parameterTypes= testElement.getParameterTypes();
+			if (parameterTypes == null) {
+				fOut.writeInt(NONE);
+			} else {
+				fOut.writeInt(parameterTypes.length);
+				for (String parameterType : parameterTypes)
+					fOut.writeInt(getStringIndex(parameterType));
+			}
+			fOut.writeDouble(testElement.getElapsedTimeInSeconds());
+
+			int[] failure= fFailureIndices.get(testElement);
+			byte flags= 0;
+			if (testElement.getProgressState() != ProgressState.COMPLETED
+					|| isSuite && testElement.getTestResult(false) != Result.UNDEFINED)
+				flags|= FLAG_INCOMPLETE;
+			if (testElement instanceof TestCaseElement) {
+				TestCaseElement testCaseElement= (TestCaseElement) testElement;
+				if (testCaseElement.isIgnored())
+					flags|= FLAG_IGNORED;
+				if (testCaseElement.isDynamicTest())
+					flags|= FLAG_DYNAMIC;
+			}
+			if (testElement.isAssumptionFailure())
+				flags|= FLAG_ASSUMPTION_FAILED;
+			if (failure != null)
+				flags|= FLAG_FAILURE;
+			fOut.writeByte(flags);
+
+			if (failure != null) {
+				Status status;
+				if (testElement.isAssumptionFailure())
+					status= Status.OK;
+				else
+					status= testElement.getTestResult(false) == Result.ERROR ? Status.ERROR : Status.FAILURE;
+				fOut.writeByte(status.getOldCode());
+				fOut.writeInt(failure[0]);
+				fOut.writeInt(failure[1]);
+				fOut.writeInt(failure[2]);
+			}
+
+			if (isSuite) {
+				ITestElement[] children= ((TestSuiteElement) testElement).getChildren();
+				fOut.writeInt(children.length);
+				for (ITestElement child : children)
+					writeElement((TestElement) child);
+			}
+		}
+
+		private void addString(String string) {
+			if (string != null && !fStringIndices.containsKey(string)) {
+				fStringIndices.put(string, Integer.valueOf(fStrings.size()));
+				fStrings.add(string);
+			}
+		}
+
+		private int getStringIndex(String string) {
+			return string == null ? NONE : fStringIndices.get(string).intValue();
+		}
+
+		private void writeString(String string) throws IOException {
+			byte[] bytes= string.getBytes(StandardCharsets.UTF_8);
+			fOut.writeInt(bytes.length);
+			fOut.write(bytes);
+			fOffset+= 4 + bytes.length;
+		}
+	}
+
+	private static class Reader {
+
+		private final DataInputStream fIn;
+
+		private final TestRunSession fSession;
+
+		private String[] fStrings;
+
+		private int[] fFailureHandles;
+
+		Reader(DataInputStream in, TestRunSession session) {
+			fIn= in;
+			fSession= session;
+		}
+
+		void read(File file) throws IOException {
+			fSession.reset();
+			TestRoot testRoot= fSession.getTestRoot();
+			FailureTraceStore failureTraces= testRoot.getFailureTraces();
+			failureTraces.attach(file);
+
+			fStrings= new String[fIn.readInt()];
+			for (int i= 0; i < fStrings.length; i++)
+				fStrings[i]= readString();
+
+			fFailureHandles= new int[fIn.readInt()];
+			for (int i= 0; i < fFailureHandles.length; i++) {
+				long offset= fIn.readLong();
+				int length= fIn.readInt();
+				fFailureHandles[i]= failureTraces.addFromFile(offset, length);
+			}
+
+			int childCount= fIn.readInt();
+			for (int i= 0; i < childCount; i++)
+				readElement(testRoot);
+		}
+
+		/*
+		 * Creates the tests in the same order as the TestRunHandler does for the XML format.
+		 */
+		private void readElement(TestSuiteElement parent) throws IOException {
+			byte kind= fIn.readByte();
+			if (kind != KIND_TEST_CASE && kind != KIND_TEST_SUITE)
+				throw new IOException("Unknown test kind " + kind); //$NON-NLS-1$
+			boolean isSuite= kind == KIND_TEST_SUITE;
+			String id= readString();
+			String testName= getString(fIn.readInt());
+			String displayName= getString(fIn.readInt());
+			String uniqueId= getString(fIn.readInt());
+			String[] parameterTypes= null;
+			int parameterCount= fIn.readInt();
+			if (parameterCount != NONE) {
+				parameterTypes= new String[parameterCount];
+				for (int i= 0; i < parameterCount; i++)
+					parameterTypes[i]= getString(fIn.readInt());
+			}
+			double time= fIn.readDouble();
+			byte flags= fIn.readByte();
+
+			TestElement testElement= fSession.createTestElement(parent, id, testName, isSuite, 0, (flags & FLAG_DYNAMIC) != 0, displayName, parameterTypes, uniqueId);
+			if ((flags & FLAG_IGNORED) != 0)
+				((TestCaseElement) testElement).setIgnored(true);
+			if (!Double.isNaN(time))
+				testElement.setElapsedTimeInSeconds(time);
+
+			if ((flags & FLAG_FAILURE) != 0) {
+				byte statusCode= fIn.readByte();
+				if (statusCode != Status.OK.getOldCode() && statusCode != Status.ERROR.getOldCode() && statusCode != Status.FAILURE.getOldCode())
+					throw new IOException("Unknown failure status " + statusCode); //$NON-NLS-1$
+				Status status= Status.convert(statusCode);
+				int trace= getFailureHandle(fIn.readInt());
+				int expected= getFailureHandle(fIn.readInt());
+				int actual= getFailureHandle(fIn.readInt());
+				fSession.registerTestFailureStatus(testElement, status, trace, expected, actual);
+			}
+			if ((flags & FLAG_ASSUMPTION_FAILED) != 0)
+				testElement.setAssumptionFailed(true);
+
+			if (isSuite) {
+				int childCount= fIn.readInt();
+				for (int i= 0; i < childCount; i++)
+					readElement((TestSuiteElement) testElement);
+			}
+
+			fSession.registerTestEnded(testElement, (flags & FLAG_INCOMPLETE) == 0);
+		}
+
+		private String getString(int index) {
+			return index == NONE ? null : fStrings[index];
+		}
+
+		private int getFailureHandle(int index) {
+			return index == NONE ? FailureTraceStore.NONE : fFailureHandles[index];
+		}
+
+		private String readString() throws IOException {
+			byte[] bytes= new byte[fIn.readInt()];
+			fIn.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+
+/**
+ * The changes of a test session collected by a {@link TestSessionEventCoalescer} between two
+ * notifications of its {@link ITestSessionDeltaListener}.
+ */
+public class TestSessionDelta {
+
+	private final List<TestElement> fAddedTests= new ArrayList<>();
+
+	private final LinkedHashSet<TestElement> fChangedTests= new LinkedHashSet<>();
+
+	private final LinkedHashSet<TestElement> fFailedTests= new LinkedHashSet<>();
+
+	private TestCaseElement fLastStartedTest;
+
+	private int fEventCount;
+
+	void testAdded(TestElement testElement) {
+		fAddedTests.add(testElement);
+		fEventCount++;
+	}
+
+	void testStarted(TestCaseElement testCaseElement) {
+		fChangedTests.add(testCaseElement);
+		fLastStartedTest= testCaseElement;
+		fEventCount++;
+	}
+
+	void testEnded(TestCaseElement testCaseElement) {
+		fChangedTests.add(testCaseElement);
+		fEventCount++;
+	}
+
+	void testFailed(TestElement testElement) {
+		fChangedTests.add(testElement);
+		fFailedTests.add(testElement);
+		fEventCount++;
+	}
+
+	/**
+	 * @return the tests added to the plan, in the order they were added
+	 */
+	public List<TestElement> getAddedTests() {
+		return fAddedTests;
+	}
+
+	/**
+	 * @return the tests which have been started, ended or failed, each of them once
+	 */
+	public Collection<TestElement> getChangedTests() {
+		return fChangedTests;
+	}
+
+	/**
+	 * @return the tests which have failed, each of them once
+	 */
+	public Collection<TestElement> getFailedTests() {
+		return fFailedTests;
+	}
+
+	/**
+	 * @return the test that has been started last, or <code>null</code> if no test has been started
+	 */
+	public TestCaseElement getLastStartedTest() {
+		return fLastStartedTest;
+	}
+
+	/**
+	 * @return the number of events aggregated in this delta
+	 */
+	public int getEventCount() {
+		return fEventCount;
+	}
+
+	/**
+	 * @return <code>true</code> if no events have been aggregated in this delta
+	 */
+	public boolean isEmpty() {
+		return fEventCount == 0;
+	}
+}
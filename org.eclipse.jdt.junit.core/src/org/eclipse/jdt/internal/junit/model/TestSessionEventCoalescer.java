@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+
+/**
+ * A test session listener which aggregates the events of individual tests and publishes them to
+ * an {@link ITestSessionDeltaListener} at most once per interval.
+ * <p>
+ * The delta is published by a system job, at the latest <code>interval</code> milliseconds after
+ * the first event it contains. Session events and reruns first publish the pending delta and are
+ * then forwarded on the thread that reported them, so the listener sees all events in their
+ * original order. An interval of <code>0</code> forwards every event immediately.
+ * </p>
+ */
+public class TestSessionEventCoalescer implements ITestSessionListener {
+
+	private class PublishJob extends Job {
+		public PublishJob() {
+			super(ModelMessages.TestSessionEventCoalescer_job_name);
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			flush();
+			return Status.OK_STATUS;
+		}
+	}
+
+	private final ITestSessionDeltaListener fListener;
+
+	private final long fInterval;
+
+	private final Job fPublishJob;
+
+	/**
+	 * Lock held while notifying the listener, so that deltas and forwarded events don't overtake
+	 * each other.
+	 */
+	private final Object fNotificationLock= new Object();
+
+	/**
+	 * The pending changes, guarded by <code>this</code>.
+	 */
+	private TestSessionDelta fDelta= new TestSessionDelta();
+
+	private boolean fScheduled;
+
+	private volatile boolean fDisposed;
+
+	/**
+	 * @param listener the listener to notify
+	 * @param interval the minimal interval in milliseconds between two deltas, or <code>0</code>
+	 *            to forward each event immediately
+	 */
+	public TestSessionEventCoalescer(ITestSessionDeltaListener listener, long interval) {
+		fListener= listener;
+		fInterval= Math.max(0, interval);
+		fPublishJob= new PublishJob();
+	}
+
+	/**
+	 * @return the listener notified by this coalescer
+	 */
+	public ITestSessionDeltaListener getListener() {
+		return fListener;
+	}
+
+	/**
+	 * Publishes the pending changes, if there are any.
+	 */
+	public void flush() {
+		synchronized (fNotificationLock) {
+			TestSessionDelta delta;
+			synchronized (this) {
+				delta= fDelta;
+				fDelta= new TestSessionDelta();
+				fScheduled= false;
+			}
+			if (!delta.isEmpty() && !fDisposed)
+				fListener.testsChanged(delta);
+		}
+	}
+
+	/**
+	 * Discards the pending changes and stops notifying the listener.
+	 */
+	public void dispose() {
+		fDisposed= true;
+		fPublishJob.cancel();
+		synchronized (this) {
+			fDelta= new TestSessionDelta();
+		}
+	}
+
+	@Override
+	public void sessionStarted() {
+		synchronized (fNotificationLock) {
+			flush();
+			fListener.sessionStarted();
+		}
+	}
+
+	@Override
+	public void sessionEnded(long elapsedTime) {
+		synchronized (fNotificationLock) {
+			flush();
+			fListener.sessionEnded(elapsedTime);
+		}
+	}
+
+	@Override
+	public void sessionStopped(long elapsedTime) {
+		synchronized (fNotificationLock) {
+			flush();
+			fListener.sessionStopped(elapsedTime);
+		}
+	}
+
+	@Override
+	public void sessionTerminated() {
+		synchronized (fNotificationLock) {
+			flush();
+			fListener.sessionTerminated();
+		}
+	}
+
+	@Override
+	public void runningBegins() {
+		synchronized (fNotificationLock) {
+			flush();
+			fListener.runningBegins();
+		}
+	}
+
+	@Override
+	public void testAdded(TestElement testElement) {
+		if (fInterval == 0) {
+			fListener.testAdded(testElement);
+			return;
+		}
+		synchronized (this) {
+			fDelta.testAdded(testElement);
+			schedule();
+		}
+	}
+
+	@Override
+	public void testStarted(TestCaseElement testCaseElement) {
+		if (fInterval == 0) {
+			fListener.testStarted(testCaseElement);
+			return;
+		}
+		synchronized (this) {
+			fDelta.testStarted(testCaseElement);
+			schedule();
+		}
+	}
+
+	@Override
+	public void testEnded(TestCaseElement testCaseElement) {
+		if (fInterval == 0) {
+			fListener.testEnded(testCaseElement);
+			return;
+		}
+		synchronized (this) {
+			fDelta.testEnded(testCaseElement);
+			schedule();
+		}
+	}
+
+	@Override
+	public void testFailed(TestElement testElement, TestElement.Status status, String trace, String expected, String actual) {
+		if (fInterval == 0) {
+			fListener.testFailed(testElement, status, trace, expected, actual);
+			return;
+		}
+		synchronized (this) {
+			fDelta.testFailed(testElement);
+			schedule();
+		}
+	}
+
+	@Override
+	public void testReran(TestCaseElement testCaseElement, TestElement.Status status, String trace, String expectedResult, String actualResult) {
+		synchronized (fNotificationLock) {
+			flush();
+			fListener.testReran(testCaseElement, status, trace, expectedResult, actualResult);
+		}
+	}
+
+	@Override
+	public boolean acceptsSwapToDisk() {
+		return fListener.acceptsSwapToDisk();
+	}
+
+	/*
+	 * Must be called while holding the lock on this.
+	 */
+	private void schedule() {
+		if (!fScheduled && !fDisposed) {
+			fScheduled= true;
+			fPublishJob.schedule(fInterval);
+		}
+	}
+}
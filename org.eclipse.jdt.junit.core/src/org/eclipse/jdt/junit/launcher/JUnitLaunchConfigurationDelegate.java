@@ -439,6 +439,12 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		programArguments.add("-port"); //$NON-NLS-1$
 		programArguments.add(String.valueOf(fPort));
 
+		/*
+		 * Runtimes which know the binary protocol confirm it with MessageIds.PROTOCOL,
+		 * older ones ignore the argument and keep sending text messages.
+		 */
+		programArguments.add("-binaryprotocol"); //$NON-NLS-1$
+
 		if (fKeepAlive)
 			programArguments.add(0, "-keepalive"); //$NON-NLS-1$
 
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the frames written by a {@link BinaryMessageWriter} and passes the records they contain
+ * to an {@link IMessageReceiver}.
+ */
+public class BinaryMessageReader {
+
+	/**
+	 * Frames larger than this are rejected as corrupt
+	 */
+	private static final int MAX_FRAME_LENGTH= 256 * 1024 * 1024;
+
+	private final DataInputStream fInput;
+
+	private byte[] fFrame= new byte[BinaryMessageWriter.MAX_FRAME_SIZE];
+
+	private int fFrameLength;
+
+	private int fPosition;
+
+	private String[] fNames= new String[256];
+
+	private String[] fIds= new String[256];
+
+	public BinaryMessageReader(InputStream input) {
+		fInput= new DataInputStream(input);
+	}
+
+	/**
+	 * Tells whether the stream starts with the notification to switch to the binary protocol, and
+	 * consumes the notification if it does. Otherwise the stream is left unchanged.
+	 *
+	 * @param input the stream from the RemoteTestRunner
+	 * @return <code>true</code> if the RemoteTestRunner sends binary frames
+	 * @throws IOException if reading fails or the runner uses an unknown binary protocol
+	 */
+	public static boolean readProtocolHeader(BufferedInputStream input) throws IOException {
+		byte[] header= (MessageIds.PROTOCOL + MessageIds.BINARY_PROTOCOL_VERSION + '\n').getBytes(StandardCharsets.UTF_8);
+		input.mark(header.length);
+		int read= 0;
+		while (read < header.length) {
+			int b= input.read();
+			if (b == -1 || b != (header[read] & 0xFF)) {
+				input.reset();
+				if (read >= MessageIds.MSG_HEADER_LENGTH)
+					throw new IOException("Unsupported protocol version"); //$NON-NLS-1$
+				return false;
+			}
+			read++;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the next record and passes it to the receiver.
+	 *
+	 * @param receiver the receiver of the record
+	 * @return <code>false</code> if the stream has ended
+	 * @throws IOException if reading fails or the frame is corrupt
+	 */
+	public boolean readRecord(IMessageReceiver receiver) throws IOException {
+		while (true) {
+			if (fPosition == fFrameLength && !readFrame())
+				return false;
+
+			int record= fFrame[fPosition++];
+			switch (record) {
+				case BinaryMessageWriter.RECORD_MESSAGE:
+					receiver.receiveMessage(readString());
+					return true;
+				case BinaryMessageWriter.RECORD_TEST_NAME:
+					int id= readInt();
+					String name= readString();
+					if (id >= fNames.length) {
+						int length= Math.max(id + 1, fNames.length * 2);
+						String[] names= new String[length];
+						System.arraycopy(fNames, 0, names, 0, fNames.length);
+						fNames= names;
+						String[] ids= new String[length];
+						System.arraycopy(fIds, 0, ids, 0, fIds.length);
+						fIds= ids;
+					}
+					fNames[id]= name;
+					if (fIds[id] == null)
+						fIds[id]= Integer.toString(id);
+					break;
+				case BinaryMessageWriter.RECORD_TEST_START:
+					id= readTestId();
+					receiver.testStarted(fIds[id], fNames[id]);
+					return true;
+				case BinaryMessageWriter.RECORD_TEST_END:
+					id= readTestId();
+					receiver.testEnded(fIds[id], fNames[id]);
+					return true;
+				case BinaryMessageWriter.RECORD_TEST_ERROR:
+					id= readTestId();
+					receiver.testError(fIds[id], fNames[id]);
+					return true;
+				case BinaryMessageWriter.RECORD_TEST_FAILED:
+					id= readTestId();
+					receiver.testFailed(fIds[id], fNames[id]);
+					return true;
+				default:
+					throw new IOException("Unknown record type: " + record); //$NON-NLS-1$
+			}
+		}
+	}
+
+	public void close() throws IOException {
+		fInput.close();
+	}
+
+	private boolean readFrame() throws IOException {
+		do {
+			int length;
+			try {
+				length= fInput.readInt();
+			} catch (EOFException e) {
+				return false;
+			}
+			if (length < 0 || length > MAX_FRAME_LENGTH)
+				throw new IOException("Invalid frame length: " + length); //$NON-NLS-1$
+			if (length > fFrame.length)
+				fFrame= new byte[length];
+			fInput.readFully(fFrame, 0, length);
+			fFrameLength= length;
+			fPosition= 0;
+		} while (fFrameLength == 0);
+		return true;
+	}
+
+	private int readTestId() throws IOException {
+		int id= readInt();
+		if (id < 0 || id >= fNames.length || fNames[id] == null)
+			throw new IOException("Undefined test id: " + id); //$NON-NLS-1$
+		return id;
+	}
+
+	private String readString() throws IOException {
+		int length= readInt();
+		if (length > fFrameLength - fPosition)
+			throw new IOException("Truncated record"); //$NON-NLS-1$
+		String value= new String(fFrame, fPosition, length, StandardCharsets.UTF_8);
+		fPosition+= length;
+		return value;
+	}
+
+	private int readInt() throws IOException {
+		int value= 0;
+		for (int shift= 0; shift < 32; shift+= 7) {
+			if (fPosition == fFrameLength)
+				throw new IOException("Truncated record"); //$NON-NLS-1$
+			int b= fFrame[fPosition++];
+			value|= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Invalid integer"); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the messages of the RemoteTestRunner in the binary protocol.
+ * <p>
+ * The messages are batched into frames. A frame is an <code>int</code> with the length of the
+ * payload followed by the payload, a sequence of records. Each record starts with a record type
+ * byte:
+ * </p>
+ * <pre>
+ * RECORD_MESSAGE      length, UTF-8 bytes   any text message of {@link MessageIds}
+ * RECORD_TEST_NAME    testId, length, UTF-8 bytes   defines the name of a test id
+ * RECORD_TEST_START   testId   {@link MessageIds#TEST_START} + testId + "," + name
+ * RECORD_TEST_END     testId   {@link MessageIds#TEST_END} + testId + "," + name
+ * RECORD_TEST_ERROR   testId   {@link MessageIds#TEST_ERROR} + testId + "," + name
+ * RECORD_TEST_FAILED  testId   {@link MessageIds#TEST_FAILED} + testId + "," + name
+ * </pre>
+ * <p>
+ * Lengths and test ids are written as variable length integers with 7 bits per byte. The name of
+ * a test is sent once, the start, end and failure records only refer to its id.
+ * </p>
+ * <p>
+ * Frames are written when the buffer reaches {@link #MAX_FRAME_SIZE}, which blocks the sender if
+ * the receiver falls behind, or at the latest {@link #FLUSH_INTERVAL} milliseconds after a message
+ * has been written. {@link #flush()} doesn't write the frame immediately, so that a run with many
+ * short tests doesn't send one packet per test.
+ * </p>
+ *
+ * @see BinaryMessageReader
+ */
+public class BinaryMessageWriter {
+
+	public static final int RECORD_MESSAGE= 0;
+	public static final int RECORD_TEST_NAME= 1;
+	public static final int RECORD_TEST_START= 2;
+	public static final int RECORD_TEST_END= 3;
+	public static final int RECORD_TEST_ERROR= 4;
+	public static final int RECORD_TEST_FAILED= 5;
+
+	/**
+	 * The size of the buffer at which a frame is written
+	 */
+	public static final int MAX_FRAME_SIZE= 64 * 1024;
+
+	/**
+	 * The maximal delay in milliseconds between writing a message and sending it
+	 */
+	public static final int FLUSH_INTERVAL= 50;
+
+	private static final String[] TEST_MESSAGES= { MessageIds.TEST_START, MessageIds.TEST_END, MessageIds.TEST_ERROR, MessageIds.TEST_FAILED };
+
+	private static final int[] TEST_RECORDS= { RECORD_TEST_START, RECORD_TEST_END, RECORD_TEST_ERROR, RECORD_TEST_FAILED };
+
+	/**
+	 * Thread sending the buffered messages at least every {@link BinaryMessageWriter#FLUSH_INTERVAL} milliseconds.
+	 */
+	private class FlushThread extends Thread {
+		public FlushThread() {
+			super("BinaryMessageWriter"); //$NON-NLS-1$
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			synchronized (BinaryMessageWriter.this) {
+				while (!fClosed) {
+					try {
+						BinaryMessageWriter.this.wait(FLUSH_INTERVAL);
+					} catch (InterruptedException e) {
+						return;
+					}
+					if (fFrame.size() > 0)
+						writeFrame();
+				}
+			}
+		}
+	}
+
+	private final OutputStream fOutput;
+
+	private final ByteArrayOutputStream fFrame= new ByteArrayOutputStream(MAX_FRAME_SIZE);
+
+	/**
+	 * The names of the test ids sent to the receiver
+	 */
+	private String[] fNames= new String[256];
+
+	private boolean fClosed;
+
+	/**
+	 * Has writing to the stream failed? Like a PrintWriter, the writer then discards all further
+	 * messages.
+	 */
+	private boolean fFailed;
+
+	public BinaryMessageWriter(OutputStream output) {
+		fOutput= output;
+		new FlushThread().start();
+	}
+
+	/**
+	 * Writes the protocol notification which tells the receiver to switch to the binary protocol.
+	 *
+	 * @param output the stream to write to
+	 * @throws IOException if writing fails
+	 */
+	public static void writeProtocolHeader(OutputStream output) throws IOException {
+		output.write((MessageIds.PROTOCOL + MessageIds.BINARY_PROTOCOL_VERSION + '\n').getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Buffers a message.
+	 *
+	 * @param message a message of {@link MessageIds}
+	 */
+	public synchronized void writeMessage(String message) {
+		if (fClosed || fFailed)
+			return;
+
+		if (!writeTestMessage(message)) {
+			fFrame.write(RECORD_MESSAGE);
+			writeString(message);
+		}
+		if (fFrame.size() >= MAX_FRAME_SIZE)
+			writeFrame();
+	}
+
+	/**
+	 * Does nothing, the buffered messages are sent by the flush thread within
+	 * {@link #FLUSH_INTERVAL} milliseconds.
+	 */
+	public void flush() {
+		// see FlushThread
+	}
+
+	/**
+	 * Sends the buffered messages and closes the stream.
+	 */
+	public synchronized void close() {
+		if (fClosed)
+			return;
+		if (fFrame.size() > 0)
+			writeFrame();
+		fClosed= true;
+		notifyAll();
+		try {
+			fOutput.close();
+		} catch (IOException e) {
+			// the receiver is gone
+		}
+	}
+
+	/*
+	 * Writes the test message as test record, if it is one with a test id.
+	 */
+	private boolean writeTestMessage(String message) {
+		for (int i= 0; i < TEST_MESSAGES.length; i++) {
+			if (!message.startsWith(TEST_MESSAGES[i]))
+				continue;
+
+			int comma= message.indexOf(',', MessageIds.MSG_HEADER_LENGTH);
+			if (comma == -1)
+				return false;
+			int id;
+			try {
+				id= Integer.parseInt(message.substring(MessageIds.MSG_HEADER_LENGTH, comma));
+			} catch (NumberFormatException e) {
+				return false;
+			}
+			if (id < 0)
+				return false;
+
+			String name= message.substring(comma + 1);
+			if (id >= fNames.length) {
+				String[] names= new String[Math.max(id + 1, fNames.length * 2)];
+				System.arraycopy(fNames, 0, names, 0, fNames.length);
+				fNames= names;
+			}
+			if (!name.equals(fNames[id])) {
+				fNames[id]= name;
+				fFrame.write(RECORD_TEST_NAME);
+				writeInt(id);
+				writeString(name);
+			}
+			fFrame.write(TEST_RECORDS[i]);
+			writeInt(id);
+			return true;
+		}
+		return false;
+	}
+
+	private void writeString(String value) {
+		byte[] bytes= value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		fFrame.write(bytes, 0, bytes.length);
+	}
+
+	private void writeInt(int value) {
+		while ((value & ~0x7F) != 0) {
+			fFrame.write((value & 0x7F) | 0x80);
+			value>>>= 7;
+		}
+		fFrame.write(value);
+	}
+
+	private void writeFrame() {
+		if (fFailed) {
+			fFrame.reset();
+			return;
+		}
+		try {
+			int length= fFrame.size();
+			fOutput.write(new byte[] { (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length });
+			fFrame.writeTo(fOutput);
+			fOutput.flush();
+		} catch (IOException e) {
+			fFailed= true;
+		}
+		fFrame.reset();
+	}
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.runner;
+
+/**
+ * Receives the records read by a {@link BinaryMessageReader}. The test records are passed
+ * decoded, all other messages are passed as text messages of {@link MessageIds}.
+ */
+public interface IMessageReceiver {
+
+	void receiveMessage(String message);
+
+	void testStarted(String testId, String testName);
+
+	void testEnded(String testId, String testName);
+
+	void testError(String testId, String testName);
+
+	void testFailed(String testId, String testName);
+
+}
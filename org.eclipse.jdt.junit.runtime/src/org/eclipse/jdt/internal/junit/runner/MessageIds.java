@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -124,6 +124,18 @@ public class MessageIds {
 	 *
 	 */
 	public static final String TEST_TREE= "%TSTTREE"; //$NON-NLS-1$
+	/**
+	 * Notification that the runner switches to the binary protocol, sent as the first line if
+	 * the runner has been started with <code>-binaryprotocol</code>.
+	 * PROTOCOL + version <br>
+	 * All further messages from the runner are sent in frames of {@link BinaryMessageWriter}.
+	 * Runners which don't know the binary protocol keep sending text messages.
+	 */
+	public static final String PROTOCOL= "%PROTOCL"; //$NON-NLS-1$
+	/**
+	 * The version of the binary protocol sent with {@link #PROTOCOL}.
+	 */
+	public static final String BINARY_PROTOCOL_VERSION= "b1"; //$NON-NLS-1$
 	/**
 	 * Request to stop the current test run.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,12 +14,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.runner;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -90,6 +92,11 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Print writer for sending messages
 	 */
 	private PrintWriter fWriter;
+	/**
+	 * Writer for sending messages in the binary protocol, or <code>null</code> if
+	 * messages are sent as text
+	 */
+	private BinaryMessageWriter fBinaryWriter;
 	/**
 	 * Reader for incoming messages
 	 */
@@ -106,6 +113,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Is the debug mode enabled?
 	 */
 	private boolean fDebugMode= false;
+	/**
+	 * Has the client asked for the binary protocol?
+	 */
+	private boolean fBinaryProtocol= false;
 	/**
 	 * Keep the test run server alive after a test run has finished.
 	 * This allows to rerun tests.
@@ -201,6 +212,7 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * -host: the host to connect to default local host
 	 * -port: the port to connect to, mandatory argument
 	 * -keepalive: keep the process alive after a test run
+	 * -binaryprotocol: send the messages in the binary protocol
      * </pre>
      */
 	public static void main(String[] args) {
@@ -300,6 +312,9 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 			else if("-keepalive".equals(args[i].toLowerCase())) { //$NON-NLS-1$
 				fKeepAlive= true;
 			}
+			else if("-binaryprotocol".equals(args[i].toLowerCase())) { //$NON-NLS-1$
+				fBinaryProtocol= true;
+			}
 			else if("-debugging".equals(args[i].toLowerCase()) || "-debug".equals(args[i].toLowerCase())){ //$NON-NLS-1$ //$NON-NLS-2$
 			    fDebugMode= true;
 
@@ -647,11 +662,17 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		for (int i= 1; i < 20; i++) {
 			try{
 				fClientSocket= new Socket(fHost, fPort);
-				try {
-				    fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream(), "UTF-8")), false/*true*/); //$NON-NLS-1$
-	            } catch (UnsupportedEncodingException e1) {
-	                fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream())), false/*true*/);
-	            }
+				if (fBinaryProtocol) {
+					OutputStream output= new BufferedOutputStream(fClientSocket.getOutputStream());
+					BinaryMessageWriter.writeProtocolHeader(output);
+					fBinaryWriter= new BinaryMessageWriter(output);
+				} else {
+					try {
+					    fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream(), "UTF-8")), false/*true*/); //$NON-NLS-1$
+		            } catch (UnsupportedEncodingException e1) {
+		                fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream())), false/*true*/);
+		            }
+				}
 				try {
 				    fReader= new BufferedReader(new InputStreamReader(fClientSocket.getInputStream(), "UTF-8")); //$NON-NLS-1$
                 } catch (UnsupportedEncodingException e1) {
@@ -676,6 +697,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Shutsdown the connection to the remote test listener.
 	 */
 	private void shutDown() {
+		if (fBinaryWriter != null) {
+			fBinaryWriter.close();
+			fBinaryWriter= null;
+		}
 		if (fWriter != null) {
 			fWriter.close();
 			fWriter= null;
@@ -709,6 +734,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	@Override
 	public void sendMessage(String msg) {
+		if (fBinaryWriter != null) {
+			fBinaryWriter.writeMessage(msg);
+			return;
+		}
 		if(fWriter == null)
 			return;
 		fWriter.println(msg);
@@ -749,6 +778,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	@Override
 	public void flush() {
+		if (fBinaryWriter != null) {
+			fBinaryWriter.flush();
+			return;
+		}
 	    fWriter.flush();
 	}
 
@@ -146,11 +146,13 @@ import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
 import org.eclipse.jdt.internal.junit.model.ITestRunSessionListener;
-import org.eclipse.jdt.internal.junit.model.ITestSessionListener;
+import org.eclipse.jdt.internal.junit.model.ITestSessionDeltaListener;
 import org.eclipse.jdt.internal.junit.model.JUnitModel;
 import org.eclipse.jdt.internal.junit.model.TestCaseElement;
 import org.eclipse.jdt.internal.junit.model.TestElement;
 import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSessionDelta;
+import org.eclipse.jdt.internal.junit.model.TestSessionEventCoalescer;
 
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 
@@ -244,7 +246,7 @@ public class TestRunnerViewPart extends ViewPart {
 	private ToggleSortingAction[] fToggleSortingActions;
 
 	private TestRunSession fTestRunSession;
-	private TestSessionListener fTestSessionListener;
+	private TestSessionEventCoalescer fTestSessionListener;
 
 	private RunnerViewHistory fViewHistory;
 	private TestRunSessionListener fTestRunSessionListener;
@@ -727,7 +729,7 @@ public class TestRunnerViewPart extends ViewPart {
 		}
 	}
 
-	private class TestSessionListener implements ITestSessionListener {
+	private class TestSessionListener implements ITestSessionDeltaListener {
 		@Override
 		public void sessionStarted(){
 			fTestViewer.registerViewersRefresh();
@@ -814,7 +816,10 @@ public class TestRunnerViewPart extends ViewPart {
 		public void testStarted(TestCaseElement testCaseElement) {
 			fTestViewer.registerAutoScrollTarget(testCaseElement);
 			fTestViewer.registerViewerUpdate(testCaseElement);
+			registerStartedMessage(testCaseElement);
+		}
 
+		private void registerStartedMessage(TestCaseElement testCaseElement) {
 			String className= BasicElementLabels.getJavaElementName(testCaseElement.getClassName());
 			String method= BasicElementLabels.getJavaElementName(testCaseElement.getTestMethodName());
 			String status= Messages.format(JUnitMessages.TestRunnerViewPart_message_started, new String[] { className, method });
@@ -859,6 +864,34 @@ public class TestRunnerViewPart extends ViewPart {
 			fTestViewer.registerTestAdded(testElement);
 		}
 
+		@Override
+		public void testsChanged(TestSessionDelta delta) {
+			for (TestElement testElement : delta.getAddedTests()) {
+				fTestViewer.registerTestAdded(testElement);
+			}
+			if (isAutoScroll()) {
+				for (TestElement testElement : delta.getFailedTests()) {
+					fTestViewer.registerFailedForAutoScroll(testElement);
+				}
+			}
+			for (TestElement testElement : delta.getChangedTests()) {
+				fTestViewer.registerViewerUpdate(testElement);
+			}
+
+			TestCaseElement lastStarted= delta.getLastStartedTest();
+			if (lastStarted != null) {
+				fTestViewer.registerAutoScrollTarget(lastStarted);
+				registerStartedMessage(lastStarted);
+			}
+
+			// show the view on the first error only
+			if (fShowOnErrorOnly && !delta.getFailedTests().isEmpty()) {
+				int errorsPlusFailures= getErrorsPlusFailures();
+				if (errorsPlusFailures > 0 && errorsPlusFailures <= delta.getFailedTests().size())
+					postShowTestResultsView();
+			}
+		}
+
 		@Override
 		public boolean acceptsSwapToDisk() {
 			return false;
@@ -1630,7 +1663,7 @@ action enablement
 
 		} else {
 			if (fTestRunSession.isStarting() || fTestRunSession.isRunning() || fTestRunSession.isKeptAlive()) {
-				fTestSessionListener= new TestSessionListener();
+				fTestSessionListener= new TestSessionEventCoalescer(new TestSessionListener(), getModelUpdateInterval());
 				fTestRunSession.addTestSessionListener(fTestSessionListener);
 			}
 			if (!fTestRunSession.isStarting() && !fShowOnErrorOnly)
@@ -1665,6 +1698,7 @@ action enablement
 	private void deregisterTestSessionListener(boolean force) {
 		if (fTestRunSession != null && fTestSessionListener != null && (force || !fTestRunSession.isKeptAlive())) {
 			fTestRunSession.removeTestSessionListener(fTestSessionListener);
+			fTestSessionListener.dispose();
 			fTestSessionListener= null;
 		}
 	}
@@ -2308,6 +2342,10 @@ action enablement
 		return Platform.getPreferencesService().getBoolean(JUnitCorePlugin.CORE_PLUGIN_ID, JUnitPreferencesConstants.SHOW_ON_ERROR_ONLY, false, null);
 	}
 
+	private static int getModelUpdateInterval() {
+		return Platform.getPreferencesService().getInt(JUnitCorePlugin.CORE_PLUGIN_ID, JUnitPreferencesConstants.MODEL_UPDATE_INTERVAL, JUnitPreferencesConstants.MODEL_UPDATE_INTERVAL_DEFAULT, null);
+	}
+
 	static void importTestRunSession(final String url) {
 		try {
 			PlatformUI.getWorkbench().getProgressService().busyCursorWhile(monitor -> JUnitModel.importTestRunSession(url, monitor));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,8 @@ import org.junit.runners.Suite;
 import org.eclipse.jdt.text.tests.codemining.CodeMiningTriggerTest;
 import org.eclipse.jdt.text.tests.codemining.ParameterNamesCodeMiningTest;
 import org.eclipse.jdt.text.tests.contentassist.ContentAssistTestSuite;
+import org.eclipse.jdt.text.tests.spelling.CompactDictionaryFileTest;
+import org.eclipse.jdt.text.tests.spelling.EditDistanceIndexTest;
 import org.eclipse.jdt.text.tests.spelling.SpellCheckEngineTestCase;
 import org.eclipse.jdt.text.tests.templates.TemplatesTestSuite;
 
@@ -58,6 +60,8 @@ import org.eclipse.jdt.text.tests.templates.TemplatesTestSuite;
 //			});
 	BracketInserterTest.class,
 	SpellCheckEngineTestCase.class,
+	CompactDictionaryFileTest.class,
+	EditDistanceIndexTest.class,
 	SemanticHighlightingTest.class,
 	AutoboxingSemanticHighlightingTest.class,
 	NewForLoopJavaContextTest.class,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 IBM Corporation and others.
+ * Copyright (c) 2010, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,8 @@ import org.eclipse.core.filebuffers.LocationKind;
 
 import org.eclipse.jface.preference.IPreferenceStore;
 
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
 
 import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
@@ -40,7 +42,12 @@ import org.eclipse.ui.texteditor.spelling.SpellingService;
 
 import org.eclipse.ui.editors.text.EditorsUI;
 
+import org.eclipse.jdt.core.JavaCore;
+
 import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 
 
 /**
@@ -62,6 +69,8 @@ public class SpellCheckingTest extends TextPerformanceTestCase {
 
 	private SpellingContext fSpellingContext;
 
+	private SpellingContext fJavaSpellingContext;
+
 
 	public static Test suite() {
 		return new PerformanceTestSetup(new TestSuite(THIS));
@@ -79,6 +88,9 @@ public class SpellCheckingTest extends TextPerformanceTestCase {
 		fSpellingContext= new SpellingContext();
 		fSpellingContext.setContentType(Platform.getContentTypeManager().getContentType(IContentTypeManager.CT_TEXT));
 
+		fJavaSpellingContext= new SpellingContext();
+		fJavaSpellingContext.setContentType(Platform.getContentTypeManager().getContentType(JavaCore.JAVA_SOURCE_CONTENT_TYPE));
+
 		IFile file= ResourceTestHelper.findFile(FILE);
 		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
 		try {
@@ -107,6 +119,78 @@ public class SpellCheckingTest extends TextPerformanceTestCase {
 		assertAllPerformance();
 	}
 
+	/**
+	 * Measures the Java spelling engine on a new document in every run, so that no partition
+	 * results can be reused.
+	 *
+	 * @throws Exception if something goes wrong
+	 * @since 3.27
+	 */
+	public void testJavaFullCheck() throws Exception {
+		measureJava(getNullPerformanceMeter(), getWarmUpRuns(), false);
+		PerformanceMeter performanceMeter= createPerformanceMeter("Java Editor: Java spell checking");
+		measureJava(performanceMeter, getMeasuredRuns(), false);
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	/**
+	 * Measures the Java spelling engine on one document in which a single Javadoc comment changes
+	 * before every run, so that only that partition has to be checked again.
+	 *
+	 * @throws Exception if something goes wrong
+	 * @since 3.27
+	 */
+	public void testJavaIncrementalCheck() throws Exception {
+		IDocument document= createJavaDocument();
+		SpellingProblemCollector full= new SpellingProblemCollector(false);
+		EditorsUI.getSpellingService().check(document, fJavaSpellingContext, full, null);
+
+		measureJava(document, getNullPerformanceMeter(), getWarmUpRuns());
+		PerformanceMeter performanceMeter= createPerformanceMeter("Java Editor: Incremental Java spell checking");
+		measureJava(document, performanceMeter, getMeasuredRuns());
+		commitAllMeasurements();
+		assertAllPerformance();
+
+		// the incremental check must report the same problems as a full check plus the misspelled insertions
+		SpellingProblemCollector incremental= new SpellingProblemCollector(false);
+		EditorsUI.getSpellingService().check(document, fJavaSpellingContext, incremental, null);
+		SpellingProblemCollector fresh= new SpellingProblemCollector(false);
+		EditorsUI.getSpellingService().check(createJavaDocument(document.get()), fJavaSpellingContext, fresh, null);
+		assertEquals(fresh.fProblemCount, incremental.fProblemCount);
+	}
+
+	private void measureJava(PerformanceMeter performanceMeter, int runs, boolean printDebugInfo) {
+		SpellingService spellingService= EditorsUI.getSpellingService();
+		for (int i= 0; i < runs; i++) {
+			IDocument document= createJavaDocument();
+			performanceMeter.start();
+			spellingService.check(document, fJavaSpellingContext, new SpellingProblemCollector(printDebugInfo && i == 0), null);
+			performanceMeter.stop();
+		}
+	}
+
+	private void measureJava(IDocument document, PerformanceMeter performanceMeter, int runs) throws BadLocationException {
+		SpellingService spellingService= EditorsUI.getSpellingService();
+		int offset= document.get().indexOf("/**") + 3;
+		for (int i= 0; i < runs; i++) {
+			document.replace(offset, 0, " speling");
+			performanceMeter.start();
+			spellingService.check(document, fJavaSpellingContext, new SpellingProblemCollector(false), null);
+			performanceMeter.stop();
+		}
+	}
+
+	private IDocument createJavaDocument() {
+		return createJavaDocument(fDocument.get());
+	}
+
+	private IDocument createJavaDocument(String content) {
+		IDocument document= new Document(content);
+		JavaPlugin.getDefault().getJavaTextTools().setupJavaDocumentPartitioner(document, IJavaPartitions.JAVA_PARTITIONING);
+		return document;
+	}
+
 	private void measure(PerformanceMeter performanceMeter, int runs, boolean printDebugInfo) {
 		SpellingService spellingService= EditorsUI.getSpellingService();
 		for (int i= 0; i < runs; i++) {
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+
+
+/**
+ * Compares the time to compute correction proposals with the phonetic and the edit distance
+ * proposal engines.
+ *
+ * @since 3.27
+ */
+public class SpellingProposalTest extends TextPerformanceTestCase {
+
+	private static final Class<SpellingProposalTest> THIS= SpellingProposalTest.class;
+
+	private static final int WARM_UP_RUNS= 3;
+
+	private static final int MEASURED_RUNS= 20;
+
+	private static final String[] MISSPELLINGS= { "recieve", "definately", "seperate", "occured", "accomodate", "existance", "independant", "begining", "untill", "wich", "teh", "adress", "paramter", "retrun", "implmentation", "exeption", "sucessful", "refrence", "enviroment", "compatable" };
+
+	private ISpellChecker fChecker;
+
+
+	public static Test suite() {
+		return new PerformanceTestSetup(new TestSuite(THIS));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		setWarmUpRuns(WARM_UP_RUNS);
+		setMeasuredRuns(MEASURED_RUNS);
+
+		fChecker= SpellCheckEngine.getInstance().getSpellChecker();
+		assertNotNull(fChecker);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		PreferenceConstants.getPreferenceStore().setToDefault(PreferenceConstants.SPELLING_PROPOSAL_ENGINE);
+	}
+
+	public void testPhoneticProposals() throws Exception {
+		measure(PreferenceConstants.SPELLING_PROPOSAL_ENGINE_PHONETIC, "Spelling: Phonetic proposals");
+	}
+
+	public void testEditDistanceProposals() throws Exception {
+		measure(PreferenceConstants.SPELLING_PROPOSAL_ENGINE_EDIT_DISTANCE, "Spelling: Edit distance proposals");
+	}
+
+	private void measure(String engine, String name) {
+		PreferenceConstants.getPreferenceStore().setValue(PreferenceConstants.SPELLING_PROPOSAL_ENGINE, engine);
+
+		// the warm up runs also build the index of the edit distance engine
+		measure(getNullPerformanceMeter(), getWarmUpRuns());
+		PerformanceMeter performanceMeter= createPerformanceMeter(name);
+		measure(performanceMeter, getMeasuredRuns());
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	private void measure(PerformanceMeter performanceMeter, int runs) {
+		for (int run= 0; run < runs; run++) {
+			performanceMeter.start();
+			for (String word : MISSPELLINGS)
+				assertFalse(fChecker.getProposals(word, false).isEmpty());
+			performanceMeter.stop();
+		}
+	}
+}
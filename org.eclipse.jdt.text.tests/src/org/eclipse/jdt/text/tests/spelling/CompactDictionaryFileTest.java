@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.spelling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.ui.text.spelling.engine.CompactDictionaryFile;
+
+public class CompactDictionaryFileTest {
+
+	private File fFile;
+
+	@Before
+	public void setUp() throws Exception {
+		fFile= File.createTempFile("dictionary", ".dictionary");
+		fFile.delete();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fFile.delete();
+	}
+
+	private static byte[] utf8(String word) {
+		return word.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testLookup() throws Exception {
+		Map<String, List<String>> blocks= new HashMap<>();
+		blocks.put("TRK", Arrays.asList("truck", "trick", "track"));
+		blocks.put("LR", Arrays.asList("lorry"));
+		blocks.put("\u00DCBR", Arrays.asList("\u00FCber"));
+		CompactDictionaryFile.write(fFile, 42, blocks);
+
+		CompactDictionaryFile dictionary= CompactDictionaryFile.open(fFile, 42);
+		assertNotNull(dictionary);
+		assertFalse(dictionary.isEmpty());
+
+		int block= dictionary.findBlock("TRK");
+		assertTrue(block > 0);
+		assertEquals(3, dictionary.getWords(block, Integer.MAX_VALUE).size());
+		assertEquals(2, dictionary.getWords(block, 2).size());
+		assertTrue(dictionary.contains(block, utf8("truck")));
+		assertTrue(dictionary.contains(block, utf8("track")));
+		assertFalse(dictionary.contains(block, utf8("trunk")));
+
+		block= dictionary.findBlock("\u00DCBR");
+		assertTrue(dictionary.contains(block, utf8("\u00FCber")));
+		assertEquals("\u00FCber", new String(dictionary.getWords(block, 1).get(0), StandardCharsets.UTF_8));
+
+		assertEquals(-1, dictionary.findBlock("XYZ"));
+	}
+
+	@Test
+	public void testStamp() throws Exception {
+		CompactDictionaryFile.write(fFile, 1, new HashMap<>());
+		assertNull(CompactDictionaryFile.open(fFile, 2));
+		CompactDictionaryFile dictionary= CompactDictionaryFile.open(fFile, 1);
+		assertNotNull(dictionary);
+		assertTrue(dictionary.isEmpty());
+		assertEquals(-1, dictionary.findBlock("A"));
+	}
+
+	@Test
+	public void testRewriteAfterClose() throws Exception {
+		Map<String, List<String>> blocks= new HashMap<>();
+		blocks.put("TRK", Arrays.asList("truck"));
+		CompactDictionaryFile.write(fFile, 1, blocks);
+		CompactDictionaryFile dictionary= CompactDictionaryFile.open(fFile, 1);
+		int block= dictionary.findBlock("TRK");
+		assertTrue(dictionary.contains(block, utf8("truck")));
+
+		dictionary.close();
+		assertEquals(-1, dictionary.findBlock("TRK"));
+		assertFalse(dictionary.contains(block, utf8("truck")));
+		assertTrue(dictionary.getWords(block, 1).isEmpty());
+
+		// the file can be replaced once the mapping is released
+		blocks.put("TRK", Arrays.asList("track"));
+		CompactDictionaryFile.write(fFile, 2, blocks);
+		dictionary= CompactDictionaryFile.open(fFile, 2);
+		block= dictionary.findBlock("TRK");
+		assertTrue(dictionary.contains(block, utf8("track")));
+		assertFalse(dictionary.contains(block, utf8("truck")));
+		dictionary.close();
+	}
+
+	@Test
+	public void testMissingFile() throws Exception {
+		assertNull(CompactDictionaryFile.open(fFile, 1));
+	}
+}
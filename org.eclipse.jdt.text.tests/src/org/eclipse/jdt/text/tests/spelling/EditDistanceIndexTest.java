@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.spelling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.ui.text.spelling.engine.EditDistanceIndex;
+
+public class EditDistanceIndexTest {
+
+	private static Map<String, Integer> search(EditDistanceIndex index, String word, int maxDistance) {
+		Map<String, Integer> matches= new HashMap<>();
+		index.search(word, maxDistance, matches::put);
+		return matches;
+	}
+
+	private static EditDistanceIndex createIndex(String... words) {
+		EditDistanceIndex index= new EditDistanceIndex();
+		for (String word : words)
+			index.add(word);
+		return index;
+	}
+
+	@Test
+	public void testSearch() throws Exception {
+		EditDistanceIndex index= createIndex("truck", "trick", "track", "lorry", "trunk", "receive", "deceive", "relieve", "tree");
+
+		Map<String, Integer> matches= search(index, "truk", 1);
+		assertEquals(2, matches.size());
+		assertEquals(Integer.valueOf(1), matches.get("truck"));
+		assertEquals(Integer.valueOf(1), matches.get("trunk"));
+
+		matches= search(index, "recieve", 2);
+		assertEquals(Integer.valueOf(1), matches.get("receive"));
+		assertEquals(Integer.valueOf(1), matches.get("relieve"));
+		assertEquals(Integer.valueOf(2), matches.get("deceive"));
+		assertEquals(3, matches.size());
+
+		matches= search(index, "trcuk", 1);
+		assertEquals(Integer.valueOf(1), matches.get("truck"));
+
+		assertTrue(search(index, "xylophone", 2).isEmpty());
+	}
+
+	@Test
+	public void testCaseInsensitive() throws Exception {
+		EditDistanceIndex index= createIndex("Java", "lava", "Eclipse");
+
+		Map<String, Integer> matches= search(index, "JAVA", 0);
+		assertEquals(1, matches.size());
+		assertEquals(Integer.valueOf(0), matches.get("Java"));
+
+		matches= search(index, "ecilpse", 2);
+		assertEquals(Integer.valueOf(1), matches.get("Eclipse"));
+	}
+
+	@Test
+	public void testEncodedWords() throws Exception {
+		EditDistanceIndex index= createIndex("caf\u00e9", "na\u00efve");
+		index.add("r\u00e9sum\u00e9".getBytes(StandardCharsets.UTF_8));
+
+		Map<String, Integer> matches= search(index, "cafe", 1);
+		assertEquals(1, matches.size());
+		assertEquals(Integer.valueOf(1), matches.get("caf\u00e9"));
+
+		matches= search(index, "resume", 2);
+		assertEquals(Integer.valueOf(2), matches.get("r\u00e9sum\u00e9"));
+
+		index.add("na\u00efvet\u00e9".getBytes(StandardCharsets.UTF_8));
+		matches= search(index, "naive", 0);
+		assertTrue(matches.isEmpty());
+		matches= search(index, "na\u00efvete", 1);
+		assertEquals(1, matches.size());
+		assertEquals(Integer.valueOf(1), matches.get("na\u00efvet\u00e9"));
+	}
+
+	@Test
+	public void testWordsAddedAfterSearch() throws Exception {
+		EditDistanceIndex index= createIndex("truck");
+		assertEquals(1, search(index, "truk", 1).size());
+
+		index.add("trunk");
+		assertEquals(2, search(index, "truk", 1).size());
+	}
+
+	@Test
+	public void testMatchesLinearScan() throws Exception {
+		String[] words= new String[2000];
+		StringBuilder word= new StringBuilder();
+		for (int i= 0; i < words.length; i++) {
+			word.setLength(0);
+			for (int n= i * 7919 + 13; word.length() < 3 + i % 6; n/= 5)
+				word.append((char) ('a' + n % 5));
+			words[i]= word.toString();
+		}
+		EditDistanceIndex index= createIndex(words);
+
+		for (String query : new String[] { "abc", "eddac", "bbbbbb", "acedbca", "abcdeabcde" }) {
+			Map<String, Integer> matches= search(index, query, 2);
+			for (String candidate : words) {
+				int distance= getDistance(query, candidate);
+				if (distance <= 2)
+					assertEquals(candidate, Integer.valueOf(distance), matches.get(candidate));
+			}
+		}
+	}
+
+	private static int getDistance(String from, String to) {
+		int[][] distances= new int[from.length() + 1][to.length() + 1];
+		for (int i= 0; i <= from.length(); i++) {
+			for (int j= 0; j <= to.length(); j++) {
+				if (i == 0 || j == 0)
+					distances[i][j]= i + j;
+				else
+					distances[i][j]= Math.min(Math.min(distances[i - 1][j], distances[i][j - 1]) + 1, distances[i - 1][j - 1] + (from.charAt(i - 1) == to.charAt(j - 1) ? 0 : 1));
+				if (i > 1 && j > 1 && from.charAt(i - 1) == to.charAt(j - 2) && from.charAt(i - 2) == to.charAt(j - 1))
+					distances[i][j]= Math.min(distances[i][j], distances[i - 2][j - 2] + 1);
+			}
+		}
+		return distances[from.length()][to.length()];
+	}
+}
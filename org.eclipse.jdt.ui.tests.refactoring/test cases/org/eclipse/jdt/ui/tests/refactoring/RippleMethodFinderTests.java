@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,8 @@ import static org.junit.Assert.assertTrue;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import org.junit.Rule;
@@ -32,6 +34,7 @@ import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IPackageFragment;
 
 import org.eclipse.jdt.internal.corext.refactoring.rename.RippleMethodFinder2;
+import org.eclipse.jdt.internal.corext.refactoring.rename.TypeHierarchyGraph;
 
 import org.eclipse.jdt.ui.tests.refactoring.infra.AbstractJunit4CUTestCase;
 import org.eclipse.jdt.ui.tests.refactoring.infra.RefactoringTestPlugin;
@@ -136,4 +139,36 @@ public class RippleMethodFinderTests extends AbstractJunit4CUTestCase {
 		perform();
 	}
 
+	@Test
+	public void testCachedHierarchy() throws Exception {
+		String contents= "package p;\n"
+				+ "interface I { void m(); }\n"
+				+ "class A implements I { public void m() {} }\n"
+				+ "class B extends A { public void m() {} }\n"
+				+ "class C { public void m() {} }\n";
+		ICompilationUnit cu= createCU(rts.getPackageP(), "A.java", contents);
+		IMethod target= cu.getType("A").getMethod("m", new String[0]);
+		IMethod[] expected= { cu.getType("I").getMethod("m", new String[0]), target, cu.getType("B").getMethod("m", new String[0]) };
+
+		TypeHierarchyGraph graph= TypeHierarchyGraph.getDefault();
+		graph.clear();
+		IMethod[] first= RippleMethodFinder2.getRelatedMethods(target, new NullProgressMonitor(), null);
+		assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(Arrays.asList(first)));
+
+		int misses= graph.getCacheMisses();
+		int hits= graph.getCacheHits();
+		IMethod[] second= RippleMethodFinder2.getRelatedMethods(target, new NullProgressMonitor(), null);
+		assertEquals(new HashSet<>(Arrays.asList(first)), new HashSet<>(Arrays.asList(second)));
+		assertEquals("hierarchies created again", misses, graph.getCacheMisses());
+		assertTrue("no cache hits", graph.getCacheHits() > hits);
+
+		// changing the hierarchy must invalidate the cached hierarchies
+		cu.getBuffer().setContents(contents.replace("class C {", "class C extends A {"));
+		cu.save(new NullProgressMonitor(), true);
+		IMethod[] third= RippleMethodFinder2.getRelatedMethods(target, new NullProgressMonitor(), null);
+		List<IMethod> expectedThird= new ArrayList<>(Arrays.asList(expected));
+		expectedThird.add(cu.getType("C").getMethod("m", new String[0]));
+		assertEquals(new HashSet<>(expectedThird), new HashSet<>(Arrays.asList(third)));
+	}
+
 }
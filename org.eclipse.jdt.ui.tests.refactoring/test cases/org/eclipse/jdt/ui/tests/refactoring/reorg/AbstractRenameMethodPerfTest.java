@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,9 +30,22 @@ public abstract class AbstractRenameMethodPerfTest extends RepeatingRefactoringP
 		IMethod method= cunit.findPrimaryType().getMethod("foo", new String[0]);
 		RenameVirtualMethodProcessor processor= new RenameVirtualMethodProcessor(method);
 		processor.setNewElementName("foo2");
+		configureProcessor(processor);
 		executeRefactoring(new RenameRefactoring(processor), measure);
 	}
 
+	protected void configureProcessor(RenameVirtualMethodProcessor processor) {
+		// use the default configuration
+	}
+
+	/**
+	 * @return <code>true</code> if every reference class extends <code>A</code> and overrides
+	 *         <code>foo()</code>, so that the method is also declared in every compilation unit
+	 */
+	protected boolean overrideInReferences() {
+		return false;
+	}
+
 	private ICompilationUnit generateSources(int numberOfCus, int numberOfRefs) throws Exception {
 		IPackageFragment definition= fTestProject.getSourceFolder().createPackageFragment("def", false, null);
 		StringBuilder buf= new StringBuilder();
@@ -54,7 +67,13 @@ public abstract class AbstractRenameMethodPerfTest extends RepeatingRefactoringP
 		StringBuilder buf= new StringBuilder();
 		buf.append("package " + pack.getElementName() + ";\n");
 		buf.append("import def.A;\n");
-		buf.append("public class Ref" + index + " {\n");
+		if (overrideInReferences()) {
+			buf.append("public class Ref" + index + " extends A {\n");
+			buf.append("    public void foo() {\n");
+			buf.append("    }\n");
+		} else {
+			buf.append("public class Ref" + index + " {\n");
+		}
 		buf.append("    public void ref(A a) {\n");
 		for (int i= 0; i < numberOfRefs; i++) {
 			buf.append("        a.foo();\n");
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,7 @@ import org.junit.runners.Suite;
 	RenameMethodPerfTests1.class,
 	RenameMethodPerfTests2.class,
 	RenameMethodWithOverloadPerfTests.class,
+	RenameMethodScalingPerfTests.class,
 
 	MoveCompilationUnitPerfTests1.class,
 	MoveCompilationUnitPerfTests2.class,
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.reorg;
+
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import org.eclipse.test.performance.Dimension;
+
+import org.eclipse.jdt.internal.corext.refactoring.rename.RenameVirtualMethodProcessor;
+
+import org.eclipse.jdt.ui.tests.refactoring.rules.RefactoringPerformanceTestSetup;
+
+/**
+ * Measures how renaming a method overridden in many compilation units and keeping the original
+ * methods as delegates scales with the number of threads creating the delegates.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class RenameMethodScalingPerfTests extends AbstractRenameMethodPerfTest {
+
+	@Rule
+	public RefactoringPerformanceTestSetup rpts= new RefactoringPerformanceTestSetup();
+
+	private int fParallelism= 1;
+
+	@Override
+	protected void configureProcessor(RenameVirtualMethodProcessor processor) {
+		processor.setDelegateUpdating(true);
+		processor.setParallelism(fParallelism);
+	}
+
+	@Override
+	protected boolean overrideInReferences() {
+		return true;
+	}
+
+	@Test
+	public void testACold_100_10() throws Exception {
+		executeRefactoring(100, 10, false, 3);
+	}
+
+	@Test
+	public void testB_1200_4_1Thread() throws Exception {
+		fParallelism= 1;
+		executeRefactoring(1200, 4, true, 5);
+	}
+
+	@Test
+	public void testC_1200_4_2Threads() throws Exception {
+		fParallelism= 2;
+		executeRefactoring(1200, 4, true, 5);
+	}
+
+	@Test
+	public void testD_1200_4_4Threads() throws Exception {
+		fParallelism= 4;
+		executeRefactoring(1200, 4, true, 5);
+	}
+
+	@Test
+	public void testE_1200_4_AllProcessors() throws Exception {
+		tagAsSummary("Rename method with delegates - 1200 CUs, 4 Refs, all processors", Dimension.ELAPSED_PROCESS);
+		fParallelism= Runtime.getRuntime().availableProcessors();
+		executeRefactoring(1200, 4, true, 5);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,7 @@ import org.eclipse.jdt.testplugin.JavaTestPlugin;
 import org.eclipse.test.performance.Dimension;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
@@ -39,6 +40,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.ltk.core.refactoring.CheckConditionsOperation;
 import org.eclipse.ltk.core.refactoring.PerformRefactoringOperation;
 import org.eclipse.ltk.core.refactoring.RefactoringCore;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -52,9 +54,11 @@ import org.eclipse.jdt.internal.corext.fix.CleanUpPreferenceUtil;
 import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
 
 import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jdt.ui.cleanup.CleanUpContext;
 import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
 import org.eclipse.jdt.ui.cleanup.CleanUpRequirements;
 import org.eclipse.jdt.ui.cleanup.ICleanUp;
+import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
 import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCaseCommon;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
@@ -86,6 +90,8 @@ import org.eclipse.jdt.internal.ui.fix.JoinCleanUp;
 import org.eclipse.jdt.internal.ui.fix.LazyLogicalCleanUp;
 import org.eclipse.jdt.internal.ui.fix.MapCloningCleanUp;
 import org.eclipse.jdt.internal.ui.fix.MergeConditionalBlocksCleanUp;
+import org.eclipse.jdt.internal.ui.fix.NoStringCreationCleanUp;
+import org.eclipse.jdt.internal.ui.fix.NumberSuffixCleanUp;
 import org.eclipse.jdt.internal.ui.fix.OneIfRatherThanDuplicateBlocksThatFallThroughCleanUp;
 import org.eclipse.jdt.internal.ui.fix.PlainReplacementCleanUp;
 import org.eclipse.jdt.internal.ui.fix.PrimitiveComparisonCleanUp;
@@ -99,6 +105,7 @@ import org.eclipse.jdt.internal.ui.fix.SortMembersCleanUp;
 import org.eclipse.jdt.internal.ui.fix.StandardComparisonCleanUp;
 import org.eclipse.jdt.internal.ui.fix.StringCleanUp;
 import org.eclipse.jdt.internal.ui.fix.SwitchExpressionsCleanUp;
+import org.eclipse.jdt.internal.ui.fix.UnboxingCleanUp;
 import org.eclipse.jdt.internal.ui.fix.UnloopedWhileCleanUp;
 import org.eclipse.jdt.internal.ui.fix.UnnecessaryCodeCleanUp;
 import org.eclipse.jdt.internal.ui.fix.UnusedCodeCleanUp;
@@ -264,6 +271,87 @@ public class CleanUpPerfTest extends JdtPerformanceTestCaseCommon {
 		doCleanUp(cleanUpRefactoring);
 	}
 
+	/**
+	 * Hides that the wrapped clean up can share a traversal, so that it visits the AST on its own.
+	 */
+	private static final class SeparateTraversalCleanUp implements ICleanUp {
+
+		private final ICleanUp fCleanUp;
+
+		public SeparateTraversalCleanUp(ICleanUp cleanUp) {
+			fCleanUp= cleanUp;
+		}
+
+		@Override
+		public void setOptions(CleanUpOptions options) {
+			fCleanUp.setOptions(options);
+		}
+
+		@Override
+		public String[] getStepDescriptions() {
+			return fCleanUp.getStepDescriptions();
+		}
+
+		@Override
+		public CleanUpRequirements getRequirements() {
+			return fCleanUp.getRequirements();
+		}
+
+		@Override
+		public RefactoringStatus checkPreConditions(IJavaProject project, ICompilationUnit[] compilationUnits, IProgressMonitor monitor) throws CoreException {
+			return fCleanUp.checkPreConditions(project, compilationUnits, monitor);
+		}
+
+		@Override
+		public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
+			return fCleanUp.createFix(context);
+		}
+
+		@Override
+		public RefactoringStatus checkPostConditions(IProgressMonitor monitor) throws CoreException {
+			return fCleanUp.checkPostConditions(monitor);
+		}
+	}
+
+	private void addSharedTraversalCleanUps(CleanUpRefactoring cleanUpRefactoring, boolean shared) throws Exception {
+		addAllCUs(cleanUpRefactoring, MyTestSetup.fJProject1.getChildren());
+
+		Map<String, String> node= getNullSettings();
+
+		node.put(CleanUpConstants.NO_STRING_CREATION, CleanUpOptions.TRUE);
+		node.put(CleanUpConstants.NUMBER_SUFFIX, CleanUpOptions.TRUE);
+		node.put(CleanUpConstants.PREFER_BOOLEAN_LITERAL, CleanUpOptions.TRUE);
+		node.put(CleanUpConstants.USE_AUTOBOXING, CleanUpOptions.TRUE);
+		node.put(CleanUpConstants.USE_UNBOXING, CleanUpOptions.TRUE);
+
+		storeSettings(node);
+
+		ICleanUp[] cleanUps= { new NoStringCreationCleanUp(), new NumberSuffixCleanUp(), new BooleanLiteralCleanUp(), new AutoboxingCleanUp(), new UnboxingCleanUp() };
+		for (ICleanUp cleanUp : cleanUps) {
+			cleanUpRefactoring.addCleanUp(shared ? cleanUp : new SeparateTraversalCleanUp(cleanUp));
+		}
+	}
+
+	@Test
+	public void testSharedTraversalCleanUps() throws Exception {
+		CleanUpRefactoring cleanUpRefactoring= new CleanUpRefactoring();
+		addSharedTraversalCleanUps(cleanUpRefactoring, true);
+
+		doCleanUp(cleanUpRefactoring);
+	}
+
+	/**
+	 * Baseline for {@link #testSharedTraversalCleanUps()}: the same clean ups, each visiting the
+	 * AST on its own.
+	 */
+	@Test
+	public void testSeparateTraversalCleanUps() throws Exception {
+		CleanUpRefactoring cleanUpRefactoring= new CleanUpRefactoring();
+		addSharedTraversalCleanUps(cleanUpRefactoring, false);
+
+		doCleanUp(cleanUpRefactoring);
+	}
+
 	@Test
 	public void testSingleUsedFieldCleanUp() throws Exception {
 		CleanUpRefactoring cleanUpRefactoring= new CleanUpRefactoring();
@@ -1058,6 +1146,8 @@ public class CleanUpPerfTest extends JdtPerformanceTestCaseCommon {
 
 	private void clearOptions(ICleanUp[] cleanUps) {
 		for (ICleanUp cleanUp : cleanUps) {
+			if (cleanUp instanceof SeparateTraversalCleanUp)
+				cleanUp= ((SeparateTraversalCleanUp) cleanUp).fCleanUp;
 			if (cleanUp instanceof AbstractCleanUp) {
 				Accessor<AbstractCleanUp> accessor= new Accessor<>(cleanUp, AbstractCleanUp.class);
 				accessor.set("fOptions", null);
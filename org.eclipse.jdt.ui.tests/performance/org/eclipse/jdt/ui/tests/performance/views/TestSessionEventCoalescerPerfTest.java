@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.test.performance.Dimension;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCaseCommon;
+
+import org.eclipse.jdt.internal.junit.model.ITestSessionDeltaListener;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSessionDelta;
+import org.eclipse.jdt.internal.junit.model.TestSessionEventCoalescer;
+
+/**
+ * Feeds the events of a synthetic session with 100'000 tests through a
+ * {@link TestSessionEventCoalescer} and reports the events per second and the number of deltas
+ * published by the coalescer.
+ */
+public class TestSessionEventCoalescerPerfTest extends JdtPerformanceTestCaseCommon {
+
+	private static final int TEST_COUNT= 100000;
+
+	/**
+	 * The events of one session: every test is added, started and ended, every tenth test fails.
+	 */
+	private static final int EVENT_COUNT= 3 * TEST_COUNT + TEST_COUNT / 10;
+
+	private static final int RUNS= 5;
+
+	/**
+	 * Counts the deltas and the events they contain. Events forwarded one by one are not
+	 * expected with a non zero interval.
+	 */
+	private static class CountingListener implements ITestSessionDeltaListener {
+		private int fBatches;
+		private int fEvents;
+		private int fForwardedEvents;
+
+		@Override
+		public void sessionStarted() {
+			// not counted
+		}
+
+		@Override
+		public void sessionEnded(long elapsedTime) {
+			// not counted
+		}
+
+		@Override
+		public void sessionStopped(long elapsedTime) {
+			// not counted
+		}
+
+		@Override
+		public void sessionTerminated() {
+			// not counted
+		}
+
+		@Override
+		public void runningBegins() {
+			// not counted
+		}
+
+		@Override
+		public synchronized void testAdded(TestElement testElement) {
+			fForwardedEvents++;
+		}
+
+		@Override
+		public synchronized void testStarted(TestCaseElement testCaseElement) {
+			fForwardedEvents++;
+		}
+
+		@Override
+		public synchronized void testEnded(TestCaseElement testCaseElement) {
+			fForwardedEvents++;
+		}
+
+		@Override
+		public synchronized void testFailed(TestElement testElement, Status status, String trace, String expected, String actual) {
+			fForwardedEvents++;
+		}
+
+		@Override
+		public synchronized void testReran(TestCaseElement testCaseElement, Status status, String trace, String expectedResult, String actualResult) {
+			fForwardedEvents++;
+		}
+
+		@Override
+		public synchronized void testsChanged(TestSessionDelta delta) {
+			fBatches++;
+			fEvents+= delta.getEventCount();
+		}
+
+		@Override
+		public boolean acceptsSwapToDisk() {
+			return false;
+		}
+	}
+
+	private TestCaseElement[] fTests;
+
+	@Before
+	public void setUp() {
+		TestRunSession session= new TestRunSession("Coalescer", null);
+		fTests= new TestCaseElement[TEST_COUNT];
+		for (int i= 0; i < TEST_COUNT; i++)
+			fTests[i]= new TestCaseElement(session.getTestRoot(), Integer.toString(i), "test" + i + "(pack.ATest" + i / 100 + ")", null, false, null, null);
+	}
+
+	@Test
+	public void testCoalesce1ms() throws Exception {
+		tagAsSummary("JUnit view: coalesce events of 100'000 tests, 1 ms interval", Dimension.ELAPSED_PROCESS);
+		measureCoalescing(1);
+		assertPerformanceInRelativeBand(Dimension.ELAPSED_PROCESS, -100, +10);
+	}
+
+	@Test
+	public void testCoalesce10ms() throws Exception {
+		tagAsSummary("JUnit view: coalesce events of 100'000 tests, 10 ms interval", Dimension.ELAPSED_PROCESS);
+		measureCoalescing(10);
+		assertPerformanceInRelativeBand(Dimension.ELAPSED_PROCESS, -100, +10);
+	}
+
+	private void measureCoalescing(long interval) {
+		for (int run= 0; run < RUNS; run++) {
+			CountingListener listener= new CountingListener();
+			TestSessionEventCoalescer coalescer= new TestSessionEventCoalescer(listener, interval);
+
+			long start= System.nanoTime();
+			startMeasuring();
+			coalescer.sessionStarted();
+			replay(coalescer);
+			// publishes the last delta
+			coalescer.sessionEnded(0);
+			stopMeasuring();
+			long nanos= System.nanoTime() - start;
+			coalescer.dispose();
+
+			synchronized (listener) {
+				assertEquals(0, listener.fForwardedEvents);
+				assertEquals(EVENT_COUNT, listener.fEvents);
+				assertTrue(listener.fBatches >= 1);
+				System.out.println(tn.getMethodName() + ": " + EVENT_COUNT * 1000000000L / Math.max(1, nanos) + " events/s, " + listener.fBatches + " deltas");
+			}
+		}
+		commitMeasurements();
+	}
+
+	private void replay(TestSessionEventCoalescer coalescer) {
+		for (TestCaseElement test : fTests)
+			coalescer.testAdded(test);
+		coalescer.runningBegins();
+		for (int i= 0; i < TEST_COUNT; i++) {
+			TestCaseElement test= fTests[i];
+			coalescer.testStarted(test);
+			if (i % 10 == 0)
+				coalescer.testFailed(test, Status.FAILURE, "trace", null, null);
+			coalescer.testEnded(test);
+		}
+	}
+}
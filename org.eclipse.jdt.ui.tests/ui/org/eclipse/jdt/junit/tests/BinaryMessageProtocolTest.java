@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageReader;
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageWriter;
+import org.eclipse.jdt.internal.junit.runner.IMessageReceiver;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+
+public class BinaryMessageProtocolTest {
+
+	/**
+	 * Turns the received records back into text messages.
+	 */
+	private static class TextMessageReceiver implements IMessageReceiver {
+		private final List<String> fMessages= new ArrayList<>();
+
+		@Override
+		public void receiveMessage(String message) {
+			fMessages.add(message);
+		}
+
+		@Override
+		public void testStarted(String testId, String testName) {
+			fMessages.add(MessageIds.TEST_START + testId + ',' + testName);
+		}
+
+		@Override
+		public void testEnded(String testId, String testName) {
+			fMessages.add(MessageIds.TEST_END + testId + ',' + testName);
+		}
+
+		@Override
+		public void testError(String testId, String testName) {
+			fMessages.add(MessageIds.TEST_ERROR + testId + ',' + testName);
+		}
+
+		@Override
+		public void testFailed(String testId, String testName) {
+			fMessages.add(MessageIds.TEST_FAILED + testId + ',' + testName);
+		}
+	}
+
+	private static List<String> roundTrip(List<String> messages) throws Exception {
+		ByteArrayOutputStream output= new ByteArrayOutputStream();
+		BinaryMessageWriter.writeProtocolHeader(output);
+		BinaryMessageWriter writer= new BinaryMessageWriter(output);
+		for (String message : messages)
+			writer.writeMessage(message);
+		writer.close();
+
+		BufferedInputStream input= new BufferedInputStream(new ByteArrayInputStream(output.toByteArray()));
+		assertTrue(BinaryMessageReader.readProtocolHeader(input));
+		BinaryMessageReader reader= new BinaryMessageReader(input);
+		TextMessageReceiver receiver= new TextMessageReceiver();
+		while (reader.readRecord(receiver)) {
+			// collected by the receiver
+		}
+		reader.close();
+		return receiver.fMessages;
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		List<String> messages= Arrays.asList(
+				MessageIds.TEST_RUN_START + "2 v2",
+				MessageIds.TEST_TREE + "1,pack.ATest,true,2,false,-1,pack.ATest,,",
+				MessageIds.TEST_START + "2,testSucceeds(pack.ATest)",
+				MessageIds.TEST_END + "2,testSucceeds(pack.ATest)",
+				MessageIds.TEST_START + "3,testFails(pack.ATest)",
+				MessageIds.TEST_FAILED + "3,testFails(pack.ATest)",
+				MessageIds.TRACE_START,
+				"junit.framework.AssertionFailedError: expected\n\tat pack.ATest.testFails(ATest.java:10)\n",
+				MessageIds.TRACE_END,
+				MessageIds.TEST_END + "3,testFails(pack.ATest)",
+				MessageIds.TEST_START + "4,testErrs(pack.ATest)",
+				MessageIds.TEST_ERROR + "4,testErrs(pack.ATest)",
+				MessageIds.TRACE_START,
+				"java.lang.NullPointerException\n\tat pack.ATest.testErrs(ATest.java:20)\n",
+				MessageIds.TRACE_END,
+				MessageIds.TEST_END + "4,testErrs(pack.ATest)",
+				MessageIds.TEST_START + "2,testRenamed(pack.ATest)",
+				MessageIds.TEST_END + "2,testRenamed(pack.ATest)",
+				MessageIds.TEST_RUN_END + "42");
+		assertEquals(messages, roundTrip(messages));
+	}
+
+	@Test
+	public void testLargeRun() throws Exception {
+		List<String> messages= new ArrayList<>();
+		for (int id= 0; id < 20000; id++) {
+			messages.add(MessageIds.TEST_START + id + ",test" + id + "(pack.\u00C4Test)");
+			messages.add(MessageIds.TEST_END + id + ",test" + id + "(pack.\u00C4Test)");
+		}
+		assertEquals(messages, roundTrip(messages));
+	}
+
+	@Test
+	public void testTextProtocol() throws Exception {
+		String text= MessageIds.TEST_RUN_START + "1 v2\n" + MessageIds.TEST_START + "2,testSucceeds(pack.ATest)\n";
+		BufferedInputStream input= new BufferedInputStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+		assertFalse(BinaryMessageReader.readProtocolHeader(input));
+
+		try (BufferedReader reader= new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			assertEquals(MessageIds.TEST_RUN_START + "1 v2", reader.readLine());
+			assertEquals(MessageIds.TEST_START + "2,testSucceeds(pack.ATest)", reader.readLine());
+			assertNull(reader.readLine());
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.junit.model.FailureTraceStore;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestElementIndex;
+import org.eclipse.jdt.internal.junit.model.TestNameTable;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+
+public class TestRunSessionStoreTest {
+
+	private File fDirectory;
+
+	@Before
+	public void setUp() throws Exception {
+		fDirectory= Files.createTempDirectory("traces").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		for (File file : fDirectory.listFiles())
+			file.delete();
+		fDirectory.delete();
+	}
+
+	@Test
+	public void testTracesInMemory() throws Exception {
+		FailureTraceStore store= new FailureTraceStore(fDirectory, 1000);
+		int trace= store.set(FailureTraceStore.NONE, "trace");
+		int expected= store.set(FailureTraceStore.NONE, "expected");
+
+		assertEquals("trace", store.get(trace));
+		assertEquals("expected", store.get(expected));
+		assertNull(store.get(FailureTraceStore.NONE));
+		assertEquals(FailureTraceStore.NONE, store.set(FailureTraceStore.NONE, null));
+		assertEquals(13, store.getMemoryChars());
+		assertEquals(0, fDirectory.listFiles().length);
+	}
+
+	@Test
+	public void testSpilledTraces() throws Exception {
+		FailureTraceStore store= new FailureTraceStore(fDirectory, 10);
+		int first= store.set(FailureTraceStore.NONE, "in memory");
+		int second= store.set(FailureTraceStore.NONE, "spilled \u00E4\u00F6\u00FC");
+		int third= store.set(FailureTraceStore.NONE, "also spilled");
+
+		assertEquals(9, store.getMemoryChars());
+		assertEquals(1, fDirectory.listFiles().length);
+		assertEquals("in memory", store.get(first));
+		assertEquals("spilled \u00E4\u00F6\u00FC", store.get(second));
+		assertEquals("also spilled", store.get(third));
+
+		second= store.set(second, "replaced");
+		assertEquals("replaced", store.get(second));
+		assertEquals("also spilled", store.get(third));
+
+		assertEquals(FailureTraceStore.NONE, store.set(first, null));
+		assertEquals(0, store.getMemoryChars());
+
+		store.dispose();
+		assertEquals(0, fDirectory.listFiles().length);
+		assertNull(store.get(third));
+	}
+
+	@Test
+	public void testDeleteSpillFiles() throws Exception {
+		// the spill file of a store which has never been disposed
+		File.createTempFile("traces", ".bin", fDirectory);
+		File swapFile= new File(fDirectory, "123.xml");
+		assertTrue(swapFile.createNewFile());
+		assertEquals(2, fDirectory.listFiles().length);
+
+		FailureTraceStore.deleteSpillFiles(fDirectory);
+		assertArrayEquals(new File[] { swapFile }, fDirectory.listFiles());
+	}
+
+	@Test
+	public void testTestElementTraces() throws Exception {
+		TestRunSession session= new TestRunSession("Store", null);
+		TestCaseElement test= new TestCaseElement(session.getTestRoot(), "1", "test1(pack.ATest)", null, false, null, null);
+		test.setStatus(Status.FAILURE, "first trace\n", "expected", "actual");
+		test.setStatus(Status.FAILURE, "second trace\n", null, null);
+
+		assertEquals("first trace\nsecond trace\n", test.getTrace());
+		assertEquals("expected", test.getExpected());
+		assertEquals("actual", test.getActual());
+		assertTrue(test.isComparisonFailure());
+		assertEquals("first trace\nsecond trace\n", test.getFailureTrace().getTrace());
+	}
+
+	@Test
+	public void testElementIndex() throws Exception {
+		TestRunSession session= new TestRunSession("Index", null);
+		TestElementIndex index= new TestElementIndex();
+		TestElement[] tests= new TestElement[1000];
+		for (int i= 0; i < tests.length; i++) {
+			tests[i]= new TestCaseElement(session.getTestRoot(), Integer.toString(i), "test" + i + "(pack.ATest)", null, false, null, null);
+			index.put(tests[i].getId(), tests[i]);
+		}
+		TestElement other= new TestCaseElement(session.getTestRoot(), "-2", "other", null, false, null, null);
+		index.put("-2", other);
+		index.put("007", other);
+
+		for (int i= 0; i < tests.length; i++)
+			assertSame(tests[i], index.get(Integer.toString(i)));
+		assertSame(other, index.get("-2"));
+		assertSame(other, index.get("007"));
+		assertSame(tests[7], index.get("7"));
+		assertNull(index.get("1000"));
+		assertNull(index.get("x"));
+	}
+
+	@Test
+	public void testNameTable() throws Exception {
+		TestNameTable table= new TestNameTable();
+		String name= table.intern(new String("[1] a, b"));
+		assertSame(name, table.intern(new String("[1] a, b")));
+		assertNull(table.intern((String) null));
+
+		String[] types= table.intern(new String[] { new String("int"), new String("java.lang.String") });
+		String[] sameTypes= table.intern(new String[] { new String("int"), new String("java.lang.String") });
+		assertSame(types, sameTypes);
+		assertSame(types[0], table.intern(new String[] { new String("int") })[0]);
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestRunSessionSwapFormat;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+public class TestRunSessionSwapFormatTest {
+
+	private File fSwapFile;
+
+	@Before
+	public void setUp() throws Exception {
+		fSwapFile= File.createTempFile("swap", ".bin");
+	}
+
+	@After
+	public void tearDown() {
+		fSwapFile.delete();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		TestRunSession session= new TestRunSession("Swap", null);
+		TestSuiteElement suite= (TestSuiteElement) session.createTestElement(session.getTestRoot(), "1", "pack.ATest", true, 0, false, null, null, "[engine:junit-jupiter]/[class:pack.ATest]");
+		TestElement ok= session.createTestElement(suite, "2", "testOk(pack.ATest)", false, 0, false, "ok \u00E4", new String[] { "int", "java.lang.String" }, null);
+		ok.setElapsedTimeInSeconds(0.5);
+		session.registerTestEnded(ok, true);
+		TestElement failed= session.createTestElement(suite, "3", "testFailed(pack.ATest)", false, 0, true, "[1] \u00F6", new String[] { "int", "java.lang.String" }, null);
+		session.registerTestFailureStatus(failed, Status.FAILURE, "trace \u00FC\n", "expected", "actual");
+		session.registerTestEnded(failed, true);
+		TestElement error= session.createTestElement(suite, "4", "testError(pack.ATest)", false, 0, false, null, null, null);
+		session.registerTestFailureStatus(error, Status.ERROR, "error trace\n", null, null);
+		session.registerTestEnded(error, true);
+		TestCaseElement ignored= (TestCaseElement) session.createTestElement(suite, "5", "testIgnored(pack.ATest)", false, 0, false, null, null, null);
+		ignored.setIgnored(true);
+		session.registerTestEnded(ignored, true);
+		TestElement notRun= session.createTestElement(suite, "6", "testNotRun(pack.ATest)", false, 0, false, null, null, null);
+		session.registerTestEnded(notRun, false);
+		session.registerTestEnded(suite, false);
+
+		TestRunSessionSwapFormat.write(session, fSwapFile);
+		TestRunSession swapped= new TestRunSession("Swap", null);
+		TestRunSessionSwapFormat.read(fSwapFile, swapped);
+
+		assertEquals(session.getTotalCount(), swapped.getTotalCount());
+		assertEquals(session.getStartedCount(), swapped.getStartedCount());
+		assertEquals(session.getFailureCount(), swapped.getFailureCount());
+		assertEquals(session.getErrorCount(), swapped.getErrorCount());
+		assertEquals(session.getIgnoredCount(), swapped.getIgnoredCount());
+		assertEquals(0, swapped.getTestRoot().getFailureTraces().getMemoryChars());
+
+		ITestElement[] suites= swapped.getTestRoot().getChildren();
+		assertEquals(1, suites.length);
+		assertElementEquals(suite, (TestElement) suites[0]);
+		assertEquals(suite.getTestResult(true), ((TestElement) suites[0]).getTestResult(true));
+
+		ITestElement[] children= ((TestSuiteElement) suites[0]).getChildren();
+		assertEquals(5, children.length);
+		assertElementEquals(ok, (TestElement) children[0]);
+		assertEquals(0.5, ((TestElement) children[0]).getElapsedTimeInSeconds(), 0);
+		assertElementEquals(failed, (TestElement) children[1]);
+		assertTrue(((TestCaseElement) children[1]).isDynamicTest());
+		assertTrue(((TestElement) children[1]).isComparisonFailure());
+		assertElementEquals(error, (TestElement) children[2]);
+		assertElementEquals(ignored, (TestElement) children[3]);
+		assertTrue(((TestCaseElement) children[3]).isIgnored());
+		assertElementEquals(notRun, (TestElement) children[4]);
+		assertEquals(Result.UNDEFINED, children[4].getTestResult(false));
+	}
+
+	@Test
+	public void testSwapOutAgain() throws Exception {
+		TestRunSession session= new TestRunSession("Swap", null);
+		TestElement failed= session.createTestElement(session.getTestRoot(), "1", "testFailed(pack.ATest)", false, 0, false, null, null, null);
+		session.registerTestFailureStatus(failed, Status.FAILURE, "trace\n", null, null);
+		session.registerTestEnded(failed, true);
+
+		TestRunSessionSwapFormat.write(session, fSwapFile);
+		TestRunSession swapped= new TestRunSession("Swap", null);
+		TestRunSessionSwapFormat.read(fSwapFile, swapped);
+
+		// the traces of the swapped in session are read from the first swap file
+		File secondSwapFile= File.createTempFile("swap", ".bin");
+		try {
+			TestRunSessionSwapFormat.write(swapped, secondSwapFile);
+			swapped.getTestRoot().getFailureTraces().dispose();
+			TestRunSessionSwapFormat.read(secondSwapFile, swapped);
+			TestElement test= (TestElement) swapped.getTestRoot().getChildren()[0];
+			assertEquals("trace\n", test.getTrace());
+			assertNull(test.getExpected());
+			assertFalse(test.isComparisonFailure());
+			swapped.getTestRoot().getFailureTraces().dispose();
+		} finally {
+			secondSwapFile.delete();
+		}
+	}
+
+	@Test
+	public void testOtherVersion() throws Exception {
+		try (DataOutputStream out= new DataOutputStream(new FileOutputStream(fSwapFile))) {
+			out.writeInt(TestRunSessionSwapFormat.MAGIC);
+			out.writeInt(TestRunSessionSwapFormat.VERSION + 1);
+			out.writeLong(8);
+		}
+		try {
+			TestRunSessionSwapFormat.read(fSwapFile, new TestRunSession("Swap", null));
+			fail("Read swap file of another version");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("version"));
+		}
+	}
+
+	private static void assertElementEquals(TestElement expected, TestElement actual) {
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getTestName(), actual.getTestName());
+		assertEquals(expected.getDisplayName(), actual.getDisplayName());
+		assertArrayEquals(expected.getParameterTypes(), actual.getParameterTypes());
+		assertEquals(expected.getUniqueId(), actual.getUniqueId());
+		assertEquals(expected.getStatus(), actual.getStatus());
+		assertEquals(expected.getTestResult(false), actual.getTestResult(false));
+		assertEquals(expected.getTrace(), actual.getTrace());
+		assertEquals(expected.getExpected(), actual.getExpected());
+		assertEquals(expected.getActual(), actual.getActual());
+	}
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.junit.model.ITestSessionDeltaListener;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSessionDelta;
+import org.eclipse.jdt.internal.junit.model.TestSessionEventCoalescer;
+
+public class TestSessionEventCoalescerTest {
+
+	private static class RecordingListener implements ITestSessionDeltaListener {
+		final List<String> fLog= new ArrayList<>();
+		final CountDownLatch fDelta= new CountDownLatch(1);
+
+		@Override
+		public synchronized void sessionStarted() {
+			fLog.add("sessionStarted");
+		}
+
+		@Override
+		public synchronized void sessionEnded(long elapsedTime) {
+			fLog.add("sessionEnded");
+		}
+
+		@Override
+		public synchronized void sessionStopped(long elapsedTime) {
+			fLog.add("sessionStopped");
+		}
+
+		@Override
+		public synchronized void sessionTerminated() {
+			fLog.add("sessionTerminated");
+		}
+
+		@Override
+		public synchronized void testAdded(TestElement testElement) {
+			fLog.add("testAdded " + testElement.getTestName());
+		}
+
+		@Override
+		public synchronized void runningBegins() {
+			fLog.add("runningBegins");
+		}
+
+		@Override
+		public synchronized void testStarted(TestCaseElement testCaseElement) {
+			fLog.add("testStarted " + testCaseElement.getTestName());
+		}
+
+		@Override
+		public synchronized void testEnded(TestCaseElement testCaseElement) {
+			fLog.add("testEnded " + testCaseElement.getTestName());
+		}
+
+		@Override
+		public synchronized void testFailed(TestElement testElement, Status status, String trace, String expected, String actual) {
+			fLog.add("testFailed " + testElement.getTestName());
+		}
+
+		@Override
+		public synchronized void testReran(TestCaseElement testCaseElement, Status status, String trace, String expectedResult, String actualResult) {
+			fLog.add("testReran " + testCaseElement.getTestName());
+		}
+
+		@Override
+		public synchronized void testsChanged(TestSessionDelta delta) {
+			TestCaseElement lastStarted= delta.getLastStartedTest();
+			fLog.add("testsChanged added=" + delta.getAddedTests().size()
+					+ " changed=" + delta.getChangedTests().size()
+					+ " failed=" + delta.getFailedTests().size()
+					+ " last=" + (lastStarted != null ? lastStarted.getTestName() : null)
+					+ " events=" + delta.getEventCount());
+			fDelta.countDown();
+		}
+
+		@Override
+		public boolean acceptsSwapToDisk() {
+			return false;
+		}
+
+		synchronized List<String> getLog() {
+			return new ArrayList<>(fLog);
+		}
+	}
+
+	private TestCaseElement fTest1;
+	private TestCaseElement fTest2;
+	private RecordingListener fListener;
+
+	@Before
+	public void setUp() {
+		TestRunSession session= new TestRunSession("Coalescer", null);
+		fTest1= new TestCaseElement(session.getTestRoot(), "1", "test1(pack.ATest)", null, false, null, null);
+		fTest2= new TestCaseElement(session.getTestRoot(), "2", "test2(pack.ATest)", null, false, null, null);
+		fListener= new RecordingListener();
+	}
+
+	private void runTests(TestSessionEventCoalescer coalescer) {
+		coalescer.testAdded(fTest1);
+		coalescer.testAdded(fTest2);
+		coalescer.runningBegins();
+		coalescer.testStarted(fTest1);
+		coalescer.testEnded(fTest1);
+		coalescer.testStarted(fTest2);
+		coalescer.testFailed(fTest2, Status.FAILURE, "trace", null, null);
+		coalescer.testEnded(fTest2);
+	}
+
+	@Test
+	public void testCoalescedEvents() throws Exception {
+		TestSessionEventCoalescer coalescer= new TestSessionEventCoalescer(fListener, 60000);
+		coalescer.sessionStarted();
+		runTests(coalescer);
+		coalescer.sessionEnded(0);
+
+		assertEquals(Arrays.asList(
+				"sessionStarted",
+				"testsChanged added=2 changed=0 failed=0 last=null events=2",
+				"runningBegins",
+				"testsChanged added=0 changed=2 failed=1 last=test2(pack.ATest) events=5",
+				"sessionEnded"),
+				fListener.getLog());
+	}
+
+	@Test
+	public void testPublishedAfterInterval() throws Exception {
+		TestSessionEventCoalescer coalescer= new TestSessionEventCoalescer(fListener, 10);
+		coalescer.testStarted(fTest1);
+		coalescer.testEnded(fTest1);
+
+		assertTrue(fListener.fDelta.await(10, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("testsChanged added=0 changed=1 failed=0 last=test1(pack.ATest) events=2"), fListener.getLog());
+	}
+
+	@Test
+	public void testUncoalescedEvents() throws Exception {
+		TestSessionEventCoalescer coalescer= new TestSessionEventCoalescer(fListener, 0);
+		runTests(coalescer);
+		coalescer.testReran(fTest2, Status.OK, "", null, null);
+
+		assertEquals(Arrays.asList(
+				"testAdded test1(pack.ATest)",
+				"testAdded test2(pack.ATest)",
+				"runningBegins",
+				"testStarted test1(pack.ATest)",
+				"testEnded test1(pack.ATest)",
+				"testStarted test2(pack.ATest)",
+				"testFailed test2(pack.ATest)",
+				"testEnded test2(pack.ATest)",
+				"testReran test2(pack.ATest)"),
+				fListener.getLog());
+	}
+
+	@Test
+	public void testDispose() throws Exception {
+		TestSessionEventCoalescer coalescer= new TestSessionEventCoalescer(fListener, 60000);
+		coalescer.testStarted(fTest1);
+		coalescer.dispose();
+		coalescer.flush();
+
+		assertEquals(Arrays.asList(), fListener.getLog());
+	}
+}
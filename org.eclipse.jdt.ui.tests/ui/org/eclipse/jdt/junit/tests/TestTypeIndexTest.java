@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.junit.JUnitCore;
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.launcher.JUnit5TestFinder;
+import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
+import org.eclipse.jdt.internal.junit.launcher.TestTypeIndex;
+
+public class TestTypeIndexTest {
+
+	private static final String KIND= TestKindRegistry.JUNIT5_TEST_KIND_ID;
+
+	private IJavaProject fProject;
+	private IPackageFragment fPackage;
+
+	@Before
+	public void setUp() throws Exception {
+		fProject= JavaProjectHelper.createJavaProject("TestTypeIndexProject", "bin");
+		JavaProjectHelper.addToClasspath(fProject, JavaCore.newContainerEntry(JUnitCore.JUNIT5_CONTAINER_PATH));
+		JavaProjectHelper.addRTJar18(fProject);
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fProject, "src");
+		fPackage= root.createPackageFragment("p", true, null);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		JavaProjectHelper.delete(fProject);
+	}
+
+	@Test
+	public void testSuperclassChanged() throws Exception {
+		IType base= createBase(true);
+		IType sub= fPackage.createCompilationUnit("Sub.java", "package p;\npublic class Sub extends Base {\n}\n", false, null).findPrimaryType();
+		IType noTest= fPackage.createCompilationUnit("NoTest.java", "package p;\npublic class NoTest {\n}\n", false, null).findPrimaryType();
+
+		assertEquals(Set.of(base, sub), findTests());
+		TestTypeIndex index= JUnitCorePlugin.getTestTypeIndex();
+		assertEquals(Boolean.TRUE, index.get(KIND, sub));
+		assertEquals(Boolean.FALSE, index.get(KIND, noTest));
+
+		createBase(false);
+		assertNull(index.get(KIND, base));
+		assertNull(index.get(KIND, sub));
+		assertEquals(Boolean.FALSE, index.get(KIND, noTest));
+		assertEquals(Set.of(), findTests());
+		assertEquals(Boolean.FALSE, index.get(KIND, sub));
+	}
+
+	@Test
+	public void testClasspathChanged() throws Exception {
+		IType base= createBase(true);
+		assertEquals(Set.of(base), findTests());
+		TestTypeIndex index= JUnitCorePlugin.getTestTypeIndex();
+		assertEquals(Boolean.TRUE, index.get(KIND, base));
+
+		JavaProjectHelper.addSourceContainer(fProject, "src2");
+		assertNull(index.get(KIND, base));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		IType base= createBase(true);
+		File file= File.createTempFile("testTypeIndex", ".bin");
+		try {
+			TestTypeIndex index= new TestTypeIndex();
+			index.start(file);
+			index.put(KIND, base, true, null);
+			index.stop();
+
+			TestTypeIndex loaded= new TestTypeIndex();
+			loaded.start(file);
+			assertEquals(Boolean.TRUE, loaded.get(KIND, base));
+			assertNull(loaded.get(TestKindRegistry.JUNIT4_TEST_KIND_ID, base));
+			loaded.stop();
+
+			createBase(false);
+			loaded= new TestTypeIndex();
+			loaded.start(file);
+			assertNull(loaded.get(KIND, base));
+			loaded.stop();
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testUnresolvedSuperclassAppears() throws Exception {
+		IType sub= fPackage.createCompilationUnit("Sub.java", "package p;\npublic class Sub extends Base {\n}\n", false, null).findPrimaryType();
+		assertEquals(Set.of(), findTests());
+		TestTypeIndex index= JUnitCorePlugin.getTestTypeIndex();
+		assertEquals(Boolean.FALSE, index.get(KIND, sub));
+
+		IType base= createBase(true);
+		assertNull(index.get(KIND, sub));
+		assertEquals(Set.of(base, sub), findTests());
+	}
+
+	@Test
+	public void testMetaAnnotationChanged() throws Exception {
+		createMetaAnnotation(true);
+		fPackage.createCompilationUnit("MyTest.java", "package p;\n@MyMeta\npublic @interface MyTest {\n}\n", false, null);
+		IType usesMyTest= fPackage.createCompilationUnit("UsesMyTest.java", "package p;\npublic class UsesMyTest {\n    @MyTest\n    public void testIt() { }\n}\n", false, null).findPrimaryType();
+		assertEquals(Set.of(usesMyTest), findTests());
+		TestTypeIndex index= JUnitCorePlugin.getTestTypeIndex();
+		assertEquals(Boolean.TRUE, index.get(KIND, usesMyTest));
+
+		createMetaAnnotation(false);
+		assertNull(index.get(KIND, usesMyTest));
+		assertEquals(Set.of(), findTests());
+	}
+
+	private void createMetaAnnotation(boolean withTest) throws Exception {
+		String source= "package p;\n"
+				+ "import java.lang.annotation.Retention;\n"
+				+ "import java.lang.annotation.RetentionPolicy;\n"
+				+ "@Retention(RetentionPolicy.RUNTIME)\n"
+				+ (withTest ? "@org.junit.jupiter.api.Test\n" : "")
+				+ "public @interface MyMeta {\n"
+				+ "}\n";
+		fPackage.createCompilationUnit("MyMeta.java", source, true, null);
+	}
+
+	private IType createBase(boolean withTest) throws Exception {
+		String source= "package p;\n"
+				+ "import org.junit.jupiter.api.Test;\n"
+				+ "public class Base {\n"
+				+ (withTest ? "    @Test\n" : "")
+				+ "    public void testBase() { }\n"
+				+ "}\n";
+		return fPackage.createCompilationUnit("Base.java", source, true, null).findPrimaryType();
+	}
+
+	private Set<IType> findTests() throws Exception {
+		Set<IType> result= new HashSet<>();
+		new JUnit5TestFinder().findTestsInContainer(fProject, result, null);
+		return result;
+	}
+}
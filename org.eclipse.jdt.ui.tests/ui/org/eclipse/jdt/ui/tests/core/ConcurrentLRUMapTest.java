@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.corext.util.ConcurrentLRUMap;
+
+public class ConcurrentLRUMapTest {
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		ConcurrentLRUMap<String, Integer> map= new ConcurrentLRUMap<>(3);
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+		assertEquals(Integer.valueOf(1), map.get("a"));
+		map.put("d", 4);
+
+		assertEquals(3, map.size());
+		assertTrue(map.containsKey("a"));
+		assertFalse(map.containsKey("b"));
+		assertTrue(map.containsKey("c"));
+		assertTrue(map.containsKey("d"));
+		assertEquals(1, map.getEvictions());
+	}
+
+	@Test
+	public void evictsStaleEntriesAnywhere() {
+		ConcurrentLRUMap<Integer, Integer> map= new ConcurrentLRUMap<>(100);
+		for (int i= 0; i < 100; i++) {
+			map.put(Integer.valueOf(i), Integer.valueOf(i));
+		}
+		for (int i= 100; i < 10000; i++) {
+			Integer key= Integer.valueOf(i);
+			map.put(key, key);
+			map.get(key);
+		}
+
+		assertEquals(100, map.size());
+		for (int i= 0; i < 100; i++) {
+			assertFalse("stale entry " + i, map.containsKey(Integer.valueOf(i)));
+		}
+	}
+
+	@Test
+	public void statistics() {
+		ConcurrentLRUMap<String, Integer> map= new ConcurrentLRUMap<>(10);
+		map.put("a", 1);
+		map.get("a");
+		map.get("a");
+		map.get("a");
+		assertNull(map.get("b"));
+
+		assertEquals(3, map.getHits());
+		assertEquals(1, map.getMisses());
+		assertEquals(0.75, map.getHitRate(), 0.0001);
+	}
+
+	@Test
+	public void concurrentAccess() throws Exception {
+		ConcurrentLRUMap<Integer, Integer> map= new ConcurrentLRUMap<>(50);
+		List<Thread> threads= new ArrayList<>();
+		for (int t= 0; t < 4; t++) {
+			int offset= t * 1000;
+			Thread thread= new Thread(() -> {
+				for (int i= 0; i < 1000; i++) {
+					Integer key= Integer.valueOf(offset + i);
+					map.put(key, key);
+					map.get(Integer.valueOf(offset + i / 2));
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue("size: " + map.size(), map.size() <= 50);
+		assertEquals(4000, map.getHits() + map.getMisses());
+	}
+}
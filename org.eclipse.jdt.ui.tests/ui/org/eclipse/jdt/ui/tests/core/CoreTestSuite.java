@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020 IBM Corporation and others.
+ * Copyright (c) 2020, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,7 @@ CodeFormatterUtilTest.class,
 CodeFormatterTest.class,
 CodeFormatterTest9.class,
 CodeFormatterMigrationTest.class,
+ConcurrentLRUMapTest.class,
 HierarchicalASTVisitorTest.class,
 ImportOrganizeTest.class,
 ImportOrganizeTest1d8.class,
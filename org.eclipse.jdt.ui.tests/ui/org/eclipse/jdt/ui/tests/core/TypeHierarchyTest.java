@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,11 @@
 package org.eclipse.jdt.ui.tests.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.After;
 import org.junit.Before;
@@ -36,6 +40,7 @@ import org.eclipse.jdt.core.ITypeHierarchy;
 import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
 
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
 
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
@@ -268,4 +273,75 @@ public class TypeHierarchyTest {
 		assertEquals("Should contain 3 types, contains: " + allTypes.length, 3, allTypes.length);
 		assertEquals("Update count should be 1, is: " + updateCount[0], 1, updateCount[0]);
 	}
+
+	@Test
+	public void superTypeHierarchyCache() throws Exception {
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJavaProject1, "src");
+		IPackageFragment pack1= root1.createPackageFragment("pack1", true, null);
+
+		ICompilationUnit cu1= pack1.getCompilationUnit("A.java");
+		IType type1= cu1.createType("public class A {\n}\n", null, true, null);
+		ICompilationUnit cu2= pack1.getCompilationUnit("B.java");
+		IType type2= cu2.createType("public class B extends A {\n}\n", null, true, null);
+
+		int misses= SuperTypeHierarchyCache.getCacheMisses();
+		int hits= SuperTypeHierarchyCache.getCacheHits();
+		ITypeHierarchy hierarchy= SuperTypeHierarchyCache.getTypeHierarchy(type2);
+		assertEquals(misses + 1, SuperTypeHierarchyCache.getCacheMisses());
+
+		// the hierarchy of B contains A
+		assertSame(hierarchy, SuperTypeHierarchyCache.getTypeHierarchy(type1));
+		assertSame(hierarchy, SuperTypeHierarchyCache.getTypeHierarchy(type2));
+		assertEquals(misses + 1, SuperTypeHierarchyCache.getCacheMisses());
+		assertEquals(hits + 2, SuperTypeHierarchyCache.getCacheHits());
+		assertSame(SuperTypeHierarchyCache.getMethodOverrideTester(type2), SuperTypeHierarchyCache.getMethodOverrideTester(type2));
+
+		// changing a type of the hierarchy removes it from the cache
+		cu1.getBuffer().setContents("package pack1;\npublic class A implements Runnable {\n public void run() {}\n}\n");
+		cu1.save(null, true);
+		assertFalse(SuperTypeHierarchyCache.hasInCache(type2));
+		assertTrue(SuperTypeHierarchyCache.getTypeHierarchy(type2).contains(fJavaProject1.findType("java.lang.Runnable")));
+	}
+
+	@Test
+	public void superTypeHierarchyCacheBudget() throws Exception {
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJavaProject1, "src");
+		IPackageFragment pack1= root1.createPackageFragment("pack1", true, null);
+
+		IType typeC= pack1.getCompilationUnit("C.java").createType("public class C {\n}\n", null, true, null);
+		IType typeD= pack1.getCompilationUnit("D.java").createType("public class D {\n}\n", null, true, null);
+
+		String budget= System.getProperty("jdt.superTypeHierarchyCacheBudget");
+		// only the most recently accessed hierarchy stays strongly referenced
+		System.setProperty("jdt.superTypeHierarchyCacheBudget", "1");
+		try {
+			assertEquals(1, SuperTypeHierarchyCache.getBudget());
+			ITypeHierarchy hierarchyC= SuperTypeHierarchyCache.getTypeHierarchy(typeC);
+			int evictions= SuperTypeHierarchyCache.getEvictions();
+			int misses= SuperTypeHierarchyCache.getCacheMisses();
+			int hits= SuperTypeHierarchyCache.getCacheHits();
+
+			// adding the hierarchy of D exceeds the budget and demotes the one of C
+			ITypeHierarchy hierarchyD= SuperTypeHierarchyCache.getTypeHierarchy(typeD);
+			assertEquals(misses + 1, SuperTypeHierarchyCache.getCacheMisses());
+			assertEquals(evictions + 1, SuperTypeHierarchyCache.getEvictions());
+
+			// the demoted hierarchy is still softly reachable and is promoted again, demoting the one of D
+			assertSame(hierarchyC, SuperTypeHierarchyCache.getTypeHierarchy(typeC));
+			assertEquals(misses + 1, SuperTypeHierarchyCache.getCacheMisses());
+			assertEquals(hits + 1, SuperTypeHierarchyCache.getCacheHits());
+			assertEquals(evictions + 2, SuperTypeHierarchyCache.getEvictions());
+
+			// softly referenced hierarchies are dropped as soon as the Java model changes
+			pack1.getCompilationUnit("E.java").createType("public class E {\n}\n", null, true, null);
+			assertFalse(SuperTypeHierarchyCache.hasInCache(typeD));
+			assertNotSame(hierarchyD, SuperTypeHierarchyCache.getTypeHierarchy(typeD));
+			assertEquals(misses + 2, SuperTypeHierarchyCache.getCacheMisses());
+		} finally {
+			if (budget != null)
+				System.setProperty("jdt.superTypeHierarchyCacheBudget", budget);
+			else
+				System.clearProperty("jdt.superTypeHierarchyCacheBudget");
+		}
+	}
 }
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.quickfix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.core.manipulation.CleanUpOptionsCore;
+
+import org.eclipse.jdt.internal.corext.fix.CleanUpApplication;
+import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+
+public class CleanUpApplicationTest {
+
+	private static String diff(String oldSource, String newSource) {
+		ByteArrayOutputStream bytes= new ByteArrayOutputStream();
+		PrintStream out= new PrintStream(bytes, true);
+		CleanUpApplication.writeDiff(out, "/P/src/A.java", oldSource, newSource);
+		return bytes.toString().replace(System.lineSeparator(), "\n");
+	}
+
+	private static String lines(int from, int to) {
+		StringBuilder buf= new StringBuilder();
+		for (int i= from; i <= to; i++) {
+			buf.append(i).append('\n');
+		}
+		return buf.toString();
+	}
+
+	@Test
+	public void diffOfChangedLine() {
+		String expected= ""
+				+ "--- a/P/src/A.java\n"
+				+ "+++ b/P/src/A.java\n"
+				+ "@@ -2,7 +2,7 @@\n"
+				+ " b\n"
+				+ " c\n"
+				+ " d\n"
+				+ "-e\n"
+				+ "+E\n"
+				+ " f\n"
+				+ " g\n"
+				+ " h\n";
+		assertEquals(expected, diff("a\nb\nc\nd\ne\nf\ng\nh\n", "a\nb\nc\nd\nE\nf\ng\nh\n"));
+	}
+
+	@Test
+	public void diffOfDistantChangesHasTwoHunks() {
+		String oldSource= lines(1, 20);
+		String newSource= oldSource.replace("\n2\n", "\ntwo\n").replace("\n18\n", "\neighteen\n");
+		String expected= ""
+				+ "--- a/P/src/A.java\n"
+				+ "+++ b/P/src/A.java\n"
+				+ "@@ -1,5 +1,5 @@\n"
+				+ " 1\n"
+				+ "-2\n"
+				+ "+two\n"
+				+ " 3\n"
+				+ " 4\n"
+				+ " 5\n"
+				+ "@@ -15,6 +15,6 @@\n"
+				+ " 15\n"
+				+ " 16\n"
+				+ " 17\n"
+				+ "-18\n"
+				+ "+eighteen\n"
+				+ " 19\n"
+				+ " 20\n";
+		assertEquals(expected, diff(oldSource, newSource));
+	}
+
+	@Test
+	public void diffOfInsertedAndRemovedLines() {
+		String expected= ""
+				+ "--- a/P/src/A.java\n"
+				+ "+++ b/P/src/A.java\n"
+				+ "@@ -1,3 +1,3 @@\n"
+				+ "+0\n"
+				+ " 1\n"
+				+ " 2\n"
+				+ "-3\n";
+		assertEquals(expected, diff(lines(1, 3), lines(0, 2)));
+	}
+
+	@Test
+	public void diffIgnoresLineDelimiters() {
+		String expected= ""
+				+ "--- a/P/src/A.java\n"
+				+ "+++ b/P/src/A.java\n";
+		assertEquals(expected, diff("a\r\nb\r\n", "a\nb\n"));
+	}
+
+	@Test
+	public void lineDelimitersOnlyAreNoChange() {
+		assertFalse(CleanUpApplication.hasChangedLines("a\r\nb\r\n", "a\nb\n"));
+		assertFalse(CleanUpApplication.hasChangedLines("a\nb\n", "a\nb\n"));
+		assertTrue(CleanUpApplication.hasChangedLines("a\r\nb\r\n", "a\nB\n"));
+		assertTrue(CleanUpApplication.hasChangedLines("a\nb\n", "a\n"));
+	}
+
+	@Test
+	public void unsupportedSettings() {
+		Map<String, String> settings= new Hashtable<>();
+		settings.put(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS, CleanUpOptionsCore.TRUE);
+		settings.put(CleanUpConstants.ORGANIZE_IMPORTS, CleanUpOptionsCore.TRUE);
+		settings.put(CleanUpConstants.FORMAT_SOURCE_CODE, CleanUpOptionsCore.TRUE);
+		settings.put(CleanUpConstants.SORT_MEMBERS, CleanUpOptionsCore.FALSE);
+
+		assertEquals(Collections.singleton(CleanUpConstants.FORMAT_SOURCE_CODE), CleanUpApplication.getUnsupportedSettings(settings));
+	}
+
+	@Test
+	public void subOptionOfSupportedCleanUpIsSupported() {
+		Map<String, String> settings= new Hashtable<>();
+		settings.put(CleanUpConstants.REMOVE_UNUSED_CODE_PRIVATE_MEMBERS, CleanUpOptionsCore.FALSE);
+		settings.put(CleanUpConstants.REMOVE_UNUSED_CODE_PRIVATE_METHODS, CleanUpOptionsCore.TRUE);
+
+		assertEquals(Collections.emptySet(), CleanUpApplication.getUnsupportedSettings(settings));
+	}
+}
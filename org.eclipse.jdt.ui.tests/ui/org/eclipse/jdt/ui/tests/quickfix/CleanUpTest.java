@@ -20,16 +20,25 @@ package org.eclipse.jdt.ui.tests.quickfix;
 import static org.eclipse.jdt.internal.ui.fix.MultiFixMessages.ConstantsCleanUp_description;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.io.File;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -40,8 +49,12 @@ import org.eclipse.jdt.testplugin.TestOptions;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.ltk.core.refactoring.NullChange;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
 
@@ -61,18 +74,26 @@ import org.eclipse.jdt.core.manipulation.CleanUpOptionsCore;
 
 import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.CleanUpInstrumentation;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRegistry;
+import org.eclipse.jdt.internal.corext.fix.CleanUpResultCache;
 import org.eclipse.jdt.internal.corext.fix.FixMessages;
 import org.eclipse.jdt.internal.corext.fix.UpdateProperty;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.cleanup.CleanUpContext;
 import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
+import org.eclipse.jdt.ui.cleanup.CleanUpRequirements;
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
 import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
 import org.eclipse.jdt.ui.tests.core.rules.Java13ProjectTestSetup;
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.fix.AbstractCleanUp;
 import org.eclipse.jdt.internal.ui.fix.AbstractCleanUpCore;
 import org.eclipse.jdt.internal.ui.fix.Java50CleanUp;
 import org.eclipse.jdt.internal.ui.fix.MultiFixMessages;
@@ -80,6 +101,7 @@ import org.eclipse.jdt.internal.ui.fix.PlainReplacementCleanUpCore;
 import org.eclipse.jdt.internal.ui.fix.PrimitiveRatherThanWrapperCleanUpCore;
 import org.eclipse.jdt.internal.ui.fix.RedundantModifiersCleanUp;
 import org.eclipse.jdt.internal.ui.fix.UnimplementedCodeCleanUp;
+import org.eclipse.jdt.internal.ui.fix.UnusedCodeCleanUp;
 import org.eclipse.jdt.internal.ui.text.correction.ProblemLocation;
 
 public class CleanUpTest extends CleanUpTestCase {
@@ -117,6 +139,76 @@ public class CleanUpTest extends CleanUpTestCase {
 		}
 	}
 
+	private static class CountingUnusedCodeCleanUp extends UnusedCodeCleanUp {
+		private final List<String> fFixedUnits= Collections.synchronizedList(new ArrayList<>());
+		private final Set<Thread> fThreads= Collections.synchronizedSet(new HashSet<>());
+
+		@Override
+		protected ICleanUpFix createFix(CompilationUnit unit) throws CoreException {
+			fFixedUnits.add(unit.getJavaElement().getElementName());
+			fThreads.add(Thread.currentThread());
+			return super.createFix(unit);
+		}
+	}
+
+	private static class ASTRecordingCleanUp extends AbstractCleanUp {
+		private final boolean fRequiresFreshAST;
+		private final Map<String, CompilationUnit> fASTs= new HashMap<>();
+
+		private ASTRecordingCleanUp(boolean requiresFreshAST) {
+			fRequiresFreshAST= requiresFreshAST;
+		}
+
+		@Override
+		public CleanUpRequirements getRequirements() {
+			return new CleanUpRequirements(true, fRequiresFreshAST, false, null);
+		}
+
+		@Override
+		public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
+			fASTs.put(context.getCompilationUnit().getElementName(), context.getAST());
+			return null;
+		}
+	}
+
+	/**
+	 * Creates the units <code>E1</code>, <code>E2</code> and <code>E3</code> in package
+	 * <code>test1</code>, each with one unused import, and enables the removal of unused imports.
+	 */
+	private ICompilationUnit[] createUnitsWithUnusedImports() throws CoreException {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String[] imports= { "java.util.List", "java.util.ArrayList", "java.util.HashMap" };
+		ICompilationUnit[] cus= new ICompilationUnit[imports.length];
+		for (int i= 0; i < imports.length; i++) {
+			String name= "E" + (i + 1);
+			String sample= "" //
+					+ "package test1;\n" //
+					+ "import " + imports[i] + ";\n" //
+					+ "public class " + name + " {\n" //
+					+ "}\n";
+			cus[i]= pack1.createCompilationUnit(name + ".java", sample, false, null);
+		}
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+		return cus;
+	}
+
+	private static void assertUnusedImportsRemoved(ICompilationUnit... cus) throws CoreException {
+		for (ICompilationUnit cu : cus) {
+			String name= cu.getElementName().substring(0, cu.getElementName().length() - ".java".length());
+			assertEquals("package test1;\npublic class " + name + " {\n}\n", cu.getBuffer().getContents());
+		}
+	}
+
+	private List<String> performCountedRefactoring(CleanUpResultCache cache, ICompilationUnit... cus) throws CoreException {
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setResultCache(cache);
+		CountingUnusedCodeCleanUp cleanUp= new CountingUnusedCodeCleanUp();
+		performRefactoring(ref, cus, new ICleanUp[] { cleanUp }, null);
+		return cleanUp.fFixedUnits;
+	}
+
 	@Test
 	public void testCleanUpConstantsAreDistinct() throws Exception {
 		Field[] allCleanUpConstantsFields= CleanUpConstants.class.getDeclaredFields();
@@ -374,6 +466,352 @@ public class CleanUpTest extends CleanUpTestCase {
 		assertRefactoringResultAsExpected(new ICompilationUnit[] {cu1, cu2, cu3}, new String[] {expected1, expected2, expected3}, null);
 	}
 
+	@Test
+	public void testUnusedCodeInParallel() throws Exception {
+		ICompilationUnit[] cus= createUnitsWithUnusedImports();
+		assertTrue(JavaPlugin.getDefault().getCleanUpRegistry().isThreadSafe(new UnusedCodeCleanUp()));
+
+		String[] sources= new String[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			sources[i]= cus[i].getBuffer().getContents();
+		}
+		CleanUpRefactoring sequential= new CleanUpRefactoring();
+		sequential.setUseOptionsFromProfile(true);
+		sequential.setWorkerCount(1);
+		performRefactoring(sequential, cus, new ICleanUp[] { new CountingUnusedCodeCleanUp() }, null);
+		String[] expected= new String[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			expected[i]= cus[i].getBuffer().getContents();
+			cus[i].getBuffer().setContents(sources[i]);
+			cus[i].save(null, true);
+		}
+
+		CleanUpRefactoring parallel= new CleanUpRefactoring() {
+			@Override
+			protected boolean isThreadSafe(ICleanUp cleanUp) {
+				return cleanUp instanceof CountingUnusedCodeCleanUp;
+			}
+		};
+		parallel.setUseOptionsFromProfile(true);
+		parallel.setWorkerCount(2);
+		parallel.setBatchSize(1);
+		CountingUnusedCodeCleanUp cleanUp= new CountingUnusedCodeCleanUp();
+		performRefactoring(parallel, cus, new ICleanUp[] { cleanUp }, null);
+
+		for (int i= 0; i < cus.length; i++) {
+			assertEquals(expected[i], cus[i].getBuffer().getContents());
+		}
+		assertUnusedImportsRemoved(cus);
+		// both workers start with a batch of their own, none is computed on the calling thread
+		assertEquals(2, cleanUp.fThreads.size());
+		assertFalse(cleanUp.fThreads.contains(Thread.currentThread()));
+	}
+
+	@Test
+	public void testNotThreadSafeCleanUpRunsOnCallingThread() throws Exception {
+		ICompilationUnit[] cus= createUnitsWithUnusedImports();
+
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setWorkerCount(2);
+		ref.setBatchSize(1);
+		CountingUnusedCodeCleanUp cleanUp= new CountingUnusedCodeCleanUp();
+		assertFalse(JavaPlugin.getDefault().getCleanUpRegistry().isThreadSafe(cleanUp));
+		performRefactoring(ref, cus, new ICleanUp[] { cleanUp }, null);
+
+		assertUnusedImportsRemoved(cus);
+		assertEquals(Arrays.asList("E1.java", "E2.java", "E3.java"), cleanUp.fFixedUnits);
+		assertEquals(Collections.singleton(Thread.currentThread()), cleanUp.fThreads);
+	}
+
+	@Test
+	public void testStatefulCleanUpsNotThreadSafe() throws Exception {
+		CleanUpRegistry registry= JavaPlugin.getDefault().getCleanUpRegistry();
+		ICleanUp[] cleanUps= registry.createCleanUps(new HashSet<>(Arrays.asList("org.eclipse.jdt.ui.cleanup.imports", "org.eclipse.jdt.ui.cleanup.sort_members",
+				"org.eclipse.jdt.ui.cleanup.potential_programming_problems", "org.eclipse.jdt.ui.cleanup.lambda")));
+		assertEquals(4, cleanUps.length);
+		for (ICleanUp cleanUp : cleanUps) {
+			assertFalse(registry.isThreadSafe(cleanUp), cleanUp.getClass().getName());
+		}
+		assertFalse(registry.isThreadSafe(new AbstractCleanUp() {/* not registered */}));
+	}
+
+	@Test
+	public void testRetainedASTsReused() throws Exception {
+		ICompilationUnit[] cus= createUnitsWithUnusedImports();
+		IPackageFragment pack1= fSourceFolder.getPackageFragment("test1");
+		String sample= "" //
+				+ "package test1;\n" //
+				+ "public class E4 {\n" //
+				+ "}\n";
+		ICompilationUnit cu4= pack1.createCompilationUnit("E4.java", sample, false, null);
+
+		ASTRecordingCleanUp first= new ASTRecordingCleanUp(false);
+		ASTRecordingCleanUp fresh= new ASTRecordingCleanUp(true);
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		performRefactoring(ref, new ICompilationUnit[] { cus[0], cu4 }, new ICleanUp[] { first, new CountingUnusedCodeCleanUp(), fresh }, null);
+
+		assertUnusedImportsRemoved(cus[0]);
+		// the unchanged unit is not parsed again for the clean up requiring a fresh AST
+		assertSame(first.fASTs.get("E4.java"), fresh.fASTs.get("E4.java"));
+		assertNotSame(first.fASTs.get("E1.java"), fresh.fASTs.get("E1.java"));
+		assertNotNull(fresh.fASTs.get("E1.java"));
+	}
+
+	@Test
+	public void testFreshASTAfterModification() throws Exception {
+		ICompilationUnit[] cus= createUnitsWithUnusedImports();
+		IPackageFragment pack1= fSourceFolder.getPackageFragment("test1");
+		String sample= "" //
+				+ "package test1;\n" //
+				+ "public class E4 {\n" //
+				+ "}\n";
+		ICompilationUnit cu4= pack1.createCompilationUnit("E4.java", sample, false, null);
+
+		// edits E4 without reporting a fix, which leaves the AST unchanged but not the content
+		ASTRecordingCleanUp editing= new ASTRecordingCleanUp(false) {
+			@Override
+			public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
+				ICompilationUnit unit= context.getCompilationUnit();
+				if ("E4.java".equals(unit.getElementName()))
+					unit.getBuffer().replace(0, 0, "/* edited */\n");
+				return super.createFix(context);
+			}
+		};
+		ASTRecordingCleanUp fresh= new ASTRecordingCleanUp(true);
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		performRefactoring(ref, new ICompilationUnit[] { cus[0], cu4 }, new ICleanUp[] { new CountingUnusedCodeCleanUp(), editing, fresh }, null);
+
+		// the unused import removed by the first clean up is gone from the fresh AST
+		assertUnusedImportsRemoved(cus[0]);
+		assertNotSame(editing.fASTs.get("E1.java"), fresh.fASTs.get("E1.java"));
+		assertTrue(fresh.fASTs.get("E1.java").imports().isEmpty());
+		// the retained AST of E4 no longer matches its content and is not reused
+		assertNotSame(editing.fASTs.get("E4.java"), fresh.fASTs.get("E4.java"));
+		assertTrue(editing.fASTs.get("E4.java").getCommentList().isEmpty());
+		assertEquals(1, fresh.fASTs.get("E4.java").getCommentList().size());
+	}
+
+	@Test
+	public void testParseBatchSize() throws Exception {
+		long mb= 1 << 20;
+		assertEquals(1000, CleanUpRefactoring.getParseBatchSize(4096 * mb, mb));
+		assertEquals(50, CleanUpRefactoring.getParseBatchSize(100 * mb, mb));
+		assertEquals(25, CleanUpRefactoring.getParseBatchSize(100 * mb, 2 * mb));
+		assertEquals(10, CleanUpRefactoring.getParseBatchSize(mb, mb));
+		assertEquals(10, CleanUpRefactoring.getParseBatchSize(0, mb));
+		assertEquals(1000, CleanUpRefactoring.getParseBatchSize(mb, 0));
+	}
+
+	@Test
+	public void testUnusedCodeAppliedInBatches() throws Exception {
+		ICompilationUnit[] cus= createUnitsWithUnusedImports();
+
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setApplyChangesInBatches(true);
+		ref.setBatchSize(2);
+		CountingUnusedCodeCleanUp cleanUp= new CountingUnusedCodeCleanUp();
+		for (ICompilationUnit cu : cus) {
+			ref.addCompilationUnit(cu);
+		}
+		ref.addCleanUp(cleanUp);
+
+		// the batches are performed while the conditions are checked, nothing is left for the change
+		assertFalse(ref.checkAllConditions(new NullProgressMonitor()).hasError());
+		assertUnusedImportsRemoved(cus);
+		assertEquals(Arrays.asList("E1.java", "E2.java", "E3.java"), cleanUp.fFixedUnits);
+		assertTrue(ref.createChange(new NullProgressMonitor()) instanceof NullChange);
+	}
+
+	@Test
+	public void testCleanUpInstrumentation() throws Exception {
+		ICompilationUnit cu1= createUnitsWithUnusedImports()[0];
+
+		boolean wasEnabled= JavaPlugin.DEBUG_CLEAN_UP_INSTRUMENTATION;
+		JavaPlugin.DEBUG_CLEAN_UP_INSTRUMENTATION= true;
+		CleanUpInstrumentation instrumentation= CleanUpInstrumentation.getDefault();
+		instrumentation.reset();
+		try {
+			performRefactoring(new ICompilationUnit[] {cu1}, null);
+			assertUnusedImportsRemoved(cu1);
+
+			StringWriter csv= new StringWriter();
+			instrumentation.exportCSV(csv);
+			assertTrue(csv.toString(), csv.toString().startsWith("kind,name,invocations,wallTimeMs,cpuTimeMs,allocatedBytes,parses\n"));
+			assertTrue(csv.toString(), csv.toString().contains("cleanup," + UnusedCodeCleanUp.class.getName() + ","));
+			assertTrue(csv.toString(), csv.toString().contains("unit," + cu1.getPath().toString() + ","));
+
+			StringWriter json= new StringWriter();
+			instrumentation.exportJSON(json);
+			assertTrue(json.toString(), json.toString().contains("\"name\": \"" + UnusedCodeCleanUp.class.getName() + "\""));
+		} finally {
+			JavaPlugin.DEBUG_CLEAN_UP_INSTRUMENTATION= wasEnabled;
+			instrumentation.reset();
+		}
+	}
+
+	@Test
+	public void testUnusedCodeResultCache() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String sample= "" //
+				+ "package test1;\n" //
+				+ "public class E2 {\n" //
+				+ "    public static int foo() {\n" //
+				+ "        return 1;\n" //
+				+ "    }\n" //
+				+ "}\n";
+		pack1.createCompilationUnit("E2.java", sample, false, null);
+
+		sample= "" //
+				+ "package test1;\n" //
+				+ "import java.util.List;\n" //
+				+ "public class E1 {\n" //
+				+ "    List<String> fList;\n" //
+				+ "    int fValue= E2.foo();\n" //
+				+ "}\n";
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", sample, false, null);
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+
+		File file= File.createTempFile("cleanUpResultCache", ".dat");
+		try {
+			CleanUpResultCache cache= new CleanUpResultCache(file, 10);
+
+			assertEquals(Arrays.asList("E1.java"), performCountedRefactoring(cache, cu1));
+			assertEquals(sample, cu1.getBuffer().getContents());
+			assertEquals(1, cache.size());
+
+			// the result is read back from the file, the unit is not cleaned up again
+			cache.save();
+			CleanUpResultCache loaded= new CleanUpResultCache(file, 10);
+			assertEquals(1, loaded.size());
+			assertEquals(Collections.emptyList(), performCountedRefactoring(loaded, cu1));
+
+			sample= "" //
+					+ "package test1;\n" //
+					+ "import java.util.List;\n" //
+					+ "import java.util.Map;\n" //
+					+ "public class E1 {\n" //
+					+ "    List<String> fList;\n" //
+					+ "    int fValue= E2.foo();\n" //
+					+ "}\n";
+			cu1.getBuffer().setContents(sample);
+			cu1.save(null, true);
+
+			assertEquals(Arrays.asList("E1.java"), performCountedRefactoring(cache, cu1));
+
+			String expected= "" //
+					+ "package test1;\n" //
+					+ "import java.util.List;\n" //
+					+ "public class E1 {\n" //
+					+ "    List<String> fList;\n" //
+					+ "    int fValue= E2.foo();\n" //
+					+ "}\n";
+			assertEquals(expected, cu1.getBuffer().getContents());
+			// the old content is still remembered, no result is added for a unit which changed
+			assertEquals(1, cache.size());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testResultCacheSkipsUnchangedUnits() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String sample= "" //
+				+ "package test1;\n" //
+				+ "public class E3 {\n" //
+				+ "    public void bar() {\n" //
+				+ "    }\n" //
+				+ "}\n";
+		ICompilationUnit cu3= pack1.createCompilationUnit("E3.java", sample, false, null);
+
+		sample= "" //
+				+ "package test1;\n" //
+				+ "public class E2 extends E3 {\n" //
+				+ "    public static int foo() {\n" //
+				+ "        return 1;\n" //
+				+ "    }\n" //
+				+ "}\n";
+		ICompilationUnit cu2= pack1.createCompilationUnit("E2.java", sample, false, null);
+
+		sample= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "    int fValue= E2.foo();\n" //
+				+ "}\n";
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", sample, false, null);
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+
+		CleanUpResultCache cache= new CleanUpResultCache(null, 10);
+		assertEquals(Arrays.asList("E1.java"), performCountedRefactoring(cache, cu1));
+		assertEquals(1, cache.size());
+		assertEquals(Collections.emptyList(), performCountedRefactoring(cache, cu1));
+
+		// a changed referenced type invalidates the result
+		sample= "" //
+				+ "package test1;\n" //
+				+ "public class E2 extends E3 {\n" //
+				+ "    public static int foo() {\n" //
+				+ "        return 1;\n" //
+				+ "    }\n" //
+				+ "    public static int foo(int i) {\n" //
+				+ "        return i;\n" //
+				+ "    }\n" //
+				+ "}\n";
+		cu2.getBuffer().setContents(sample);
+		cu2.save(null, true);
+		assertEquals(Arrays.asList("E1.java"), performCountedRefactoring(cache, cu1));
+		assertEquals(Collections.emptyList(), performCountedRefactoring(cache, cu1));
+
+		// so does a changed super type of a referenced type
+		sample= "" //
+				+ "package test1;\n" //
+				+ "public class E3 {\n" //
+				+ "    public void bar() {\n" //
+				+ "    }\n" //
+				+ "    public static int foo(long l) {\n" //
+				+ "        return 0;\n" //
+				+ "    }\n" //
+				+ "}\n";
+		cu3.getBuffer().setContents(sample);
+		cu3.save(null, true);
+		assertEquals(Arrays.asList("E1.java"), performCountedRefactoring(cache, cu1));
+		assertEquals(Collections.emptyList(), performCountedRefactoring(cache, cu1));
+
+		// and a changed code style preference
+		IPreferenceStore store= JavaPlugin.getDefault().getPreferenceStore();
+		store.setValue(PreferenceConstants.ORGIMPORTS_IMPORTORDER, "org;java");
+		try {
+			assertEquals(Arrays.asList("E1.java"), performCountedRefactoring(cache, cu1));
+			assertEquals(Collections.emptyList(), performCountedRefactoring(cache, cu1));
+		} finally {
+			store.setToDefault(PreferenceConstants.ORGIMPORTS_IMPORTORDER);
+		}
+	}
+
+	@Test
+	public void testResultCacheIgnoresUnresolvedReferences() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String sample= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "    int fValue= E2.foo();\n" //
+				+ "}\n";
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", sample, false, null);
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+
+		CleanUpResultCache cache= new CleanUpResultCache(null, 10);
+		assertEquals(Arrays.asList("E1.java"), performCountedRefactoring(cache, cu1));
+		assertEquals(0, cache.size());
+		assertEquals(Arrays.asList("E1.java"), performCountedRefactoring(cache, cu1));
+	}
+
 	@Test
 	public void testUnusedCode02() throws Exception {
 		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
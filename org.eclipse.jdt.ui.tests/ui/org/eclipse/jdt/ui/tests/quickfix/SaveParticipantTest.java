@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2020 IBM Corporation and others.
+ * Copyright (c) 2007, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -1123,4 +1123,99 @@ public class SaveParticipantTest extends CleanUpTestCase {
 		// Then
 		assertEquals(expected1, cu1.getBuffer().getContents());
 	}
+
+	@Test
+	public void testRegionSafeCleanUpWholeFileByDefault() throws Exception {
+		// Given
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String fileOnDisk= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "    public long foo() {\n" //
+				+ "        return 1l;\n" //
+				+ "    }\n" //
+				+ "    public long bar() {\n" //
+				+ "        return 2;\n" //
+				+ "    }\n" //
+				+ "}\n";
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", fileOnDisk, false, null);
+
+		String fileOnEditor= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "    public long foo() {\n" //
+				+ "        return 1l;\n" //
+				+ "    }\n" //
+				+ "    public long bar() {\n" //
+				+ "        return 3l;\n" //
+				+ "    }\n" //
+				+ "}\n";
+
+		String expected1= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "    public long foo() {\n" //
+				+ "        return 1L;\n" //
+				+ "    }\n" //
+				+ "    public long bar() {\n" //
+				+ "        return 3L;\n" //
+				+ "    }\n" //
+				+ "}\n";
+
+		enable(CleanUpConstants.NUMBER_SUFFIX);
+
+		// When
+		editCUInEditor(cu1, fileOnEditor);
+
+		// Then
+		assertEquals(expected1, cu1.getBuffer().getContents());
+	}
+
+	@Test
+	public void testRegionSafeCleanUpChangesOnly() throws Exception {
+		// Given
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String fileOnDisk= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "    public long foo() {\n" //
+				+ "        return 1l;\n" //
+				+ "    }\n" //
+				+ "    public long bar() {\n" //
+				+ "        return 2;\n" //
+				+ "    }\n" //
+				+ "}\n";
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", fileOnDisk, false, null);
+
+		String fileOnEditor= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "    public long foo() {\n" //
+				+ "        return 1l;\n" //
+				+ "    }\n" //
+				+ "    public long bar() {\n" //
+				+ "        return 3l;\n" //
+				+ "    }\n" //
+				+ "}\n";
+
+		String expected1= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "    public long foo() {\n" //
+				+ "        return 1l;\n" //
+				+ "    }\n" //
+				+ "    public long bar() {\n" //
+				+ "        return 3L;\n" //
+				+ "    }\n" //
+				+ "}\n";
+
+		enable(CleanUpConstants.NUMBER_SUFFIX);
+		enable(CleanUpConstants.CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS_CHANGES_ONLY);
+
+		// When
+		editCUInEditor(cu1, fileOnEditor);
+
+		// Then
+		assertEquals(expected1, cu1.getBuffer().getContents());
+	}
 }
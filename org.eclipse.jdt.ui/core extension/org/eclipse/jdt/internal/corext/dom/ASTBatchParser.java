@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,7 +17,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Hashtable;
-import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -78,20 +77,14 @@ public class ASTBatchParser {
 		try {
 
 			for (ICompilationUnit[] units : splitByProject(compilationUnits)) {
-				if (units.length <= MAX_AT_ONCE) {
-					createParser(units[0].getJavaProject()).createASTs(units, bindingKeys, requestor, new SubProgressMonitor(monitor, units.length));
-				} else {
-					List<ICompilationUnit> list= Arrays.asList(units);
-					int end= 0;
-					int cursor= 0;
-					while (cursor < units.length) {
-						end= Math.min(end + MAX_AT_ONCE, units.length);
-						List<ICompilationUnit> toParse= list.subList(cursor, end);
-
-						createParser(units[0].getJavaProject()).createASTs(toParse.toArray(new ICompilationUnit[toParse.size()]), bindingKeys, requestor,
-							new SubProgressMonitor(monitor, toParse.size()));
-						cursor= end;
-					}
+				int cursor= 0;
+				while (cursor < units.length) {
+					int end= Math.min(cursor + Math.max(1, getMaxAtOnce(units.length - cursor)), units.length);
+					ICompilationUnit[] toParse= cursor == 0 && end == units.length ? units : Arrays.copyOfRange(units, cursor, end);
+
+					aboutToParse(toParse);
+					createParser(units[0].getJavaProject()).createASTs(toParse, bindingKeys, requestor, new SubProgressMonitor(monitor, toParse.length));
+					cursor= end;
 				}
 			}
 		} finally {
@@ -99,6 +92,33 @@ public class ASTBatchParser {
 		}
 	}
 
+	/**
+	 * Returns the maximal number of compilation units which are parsed together. Called before
+	 * each batch is parsed, such that the size can be adapted to the memory consumed by the
+	 * previous batches.
+	 * <p>
+	 * Subclasses may override
+	 * </p>
+	 *
+	 * @param remaining the number of compilation units of the current project not parsed yet
+	 * @return the maximal number of compilation units to pass to one parser
+	 */
+	protected int getMaxAtOnce(int remaining) {
+		return MAX_AT_ONCE;
+	}
+
+	/**
+	 * Called before the given compilation units are passed to a parser together.
+	 * <p>
+	 * Subclasses may override
+	 * </p>
+	 *
+	 * @param units the compilation units of the next batch
+	 */
+	protected void aboutToParse(ICompilationUnit[] units) {
+		// do nothing
+	}
+
 	/**
 	 * Creates a new parser which can be used to create ASTs
 	 * for compilation units in <code>project</code>
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018, 2020 IBM Corporation and others.
+ * Copyright (c) 2018, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -343,6 +343,7 @@ public class CleanUpConstantsOptions extends CleanUpConstants {
 		options.setOption(USE_OBJECTS_EQUALS, CleanUpOptions.FALSE);
 
 		options.setOption(CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS, CleanUpOptions.FALSE);
+		options.setOption(CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS_CHANGES_ONLY, CleanUpOptions.FALSE);
 
 		// Source fixing
 		options.setOption(INVERT_EQUALS, CleanUpOptions.FALSE);
@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.fix;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Collects wall time, thread CPU time, allocated bytes and AST parse counts for each clean up and
+ * each compilation unit processed by {@link CleanUpRefactoring} and {@link CleanUpPostSaveListener}.
+ * <p>
+ * Collection is enabled with the tracing option
+ * <code>org.eclipse.jdt.ui/debug/CleanUpInstrumentation</code>. The data accumulates over the
+ * session. If the tracing option <code>org.eclipse.jdt.ui/debug/CleanUpInstrumentation/report</code>
+ * names a file, the report is written to that file after each clean up run, as JSON if the file
+ * name ends with <code>.json</code> and as CSV otherwise.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public final class CleanUpInstrumentation {
+
+	/**
+	 * The state of the current thread at the start of a measurement.
+	 */
+	public static final class Measurement {
+
+		private final long fWallStart;
+		private final long fCpuStart;
+		private final long fAllocatedStart;
+
+		private Measurement(long wallStart, long cpuStart, long allocatedStart) {
+			fWallStart= wallStart;
+			fCpuStart= cpuStart;
+			fAllocatedStart= allocatedStart;
+		}
+	}
+
+	private static final class Entry {
+
+		private final String fKind;
+		private final String fName;
+		private int fInvocations;
+		private long fWallTime;
+		private long fCpuTime;
+		private long fAllocatedBytes;
+		private int fParses;
+
+		public Entry(String kind, String name) {
+			fKind= kind;
+			fName= name;
+		}
+	}
+
+	private static final String KIND_CLEAN_UP= "cleanup"; //$NON-NLS-1$
+	private static final String KIND_UNIT= "unit"; //$NON-NLS-1$
+
+	private static final CleanUpInstrumentation INSTANCE= new CleanUpInstrumentation();
+
+	private static final ThreadMXBean THREAD_BEAN= ManagementFactory.getThreadMXBean();
+	private static final Method GET_THREAD_ALLOCATED_BYTES= findAllocatedBytesMethod();
+
+	private final Map<String, Entry> fCleanUps= new HashMap<>();
+	private final Map<String, Entry> fUnits= new HashMap<>();
+
+	private CleanUpInstrumentation() {
+	}
+
+	/**
+	 * @return the instrumentation of this session
+	 */
+	public static CleanUpInstrumentation getDefault() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return <code>true</code> if clean ups should be measured
+	 */
+	public static boolean isEnabled() {
+		return JavaPlugin.DEBUG_CLEAN_UP_INSTRUMENTATION;
+	}
+
+	/**
+	 * Starts a measurement on the current thread.
+	 *
+	 * @return the measurement to pass to {@link #record(ICleanUp, ICompilationUnit, Measurement)}
+	 */
+	public Measurement start() {
+		return new Measurement(System.nanoTime(), getCurrentThreadCpuTime(), getCurrentThreadAllocatedBytes());
+	}
+
+	/**
+	 * Records the cost of running <code>cleanUp</code> on <code>unit</code> since
+	 * <code>measurement</code> was started. Must be called on the thread which started the
+	 * measurement.
+	 *
+	 * @param cleanUp the measured clean up
+	 * @param unit the compilation unit the clean up was run on
+	 * @param measurement the measurement returned by {@link #start()}
+	 */
+	public void record(ICleanUp cleanUp, ICompilationUnit unit, Measurement measurement) {
+		long wall= System.nanoTime() - measurement.fWallStart;
+		long cpu= measurement.fCpuStart < 0 ? 0 : Math.max(0, getCurrentThreadCpuTime() - measurement.fCpuStart);
+		long allocated= measurement.fAllocatedStart < 0 ? 0 : Math.max(0, getCurrentThreadAllocatedBytes() - measurement.fAllocatedStart);
+
+		synchronized (this) {
+			add(getEntry(fCleanUps, KIND_CLEAN_UP, cleanUp.getClass().getName()), wall, cpu, allocated);
+			add(getEntry(fUnits, KIND_UNIT, getUnitName(unit)), wall, cpu, allocated);
+		}
+	}
+
+	/**
+	 * Records the cost of a traversal of <code>unit</code> shared by <code>cleanUps</code> since
+	 * <code>measurement</code> was started. The cost is split evenly between the clean ups, and
+	 * does not count as an invocation of the clean ups. Must be called on the thread which started
+	 * the measurement.
+	 *
+	 * @param cleanUps the clean ups which took part in the traversal, not empty
+	 * @param unit the traversed compilation unit
+	 * @param measurement the measurement returned by {@link #start()}
+	 */
+	public void recordShared(List<ICleanUp> cleanUps, ICompilationUnit unit, Measurement measurement) {
+		long wall= System.nanoTime() - measurement.fWallStart;
+		long cpu= measurement.fCpuStart < 0 ? 0 : Math.max(0, getCurrentThreadCpuTime() - measurement.fCpuStart);
+		long allocated= measurement.fAllocatedStart < 0 ? 0 : Math.max(0, getCurrentThreadAllocatedBytes() - measurement.fAllocatedStart);
+		int count= cleanUps.size();
+
+		synchronized (this) {
+			for (ICleanUp cleanUp : cleanUps) {
+				addCost(getEntry(fCleanUps, KIND_CLEAN_UP, cleanUp.getClass().getName()), wall / count, cpu / count, allocated / count);
+			}
+			addCost(getEntry(fUnits, KIND_UNIT, getUnitName(unit)), wall, cpu, allocated);
+		}
+	}
+
+	/**
+	 * Records that an AST has been created for <code>unit</code>.
+	 *
+	 * @param unit the parsed compilation unit
+	 */
+	public synchronized void recordParse(ICompilationUnit unit) {
+		getEntry(fUnits, KIND_UNIT, getUnitName(unit)).fParses++;
+	}
+
+	/**
+	 * Discards all collected data.
+	 */
+	public synchronized void reset() {
+		fCleanUps.clear();
+		fUnits.clear();
+	}
+
+	/**
+	 * Writes the collected data as CSV, one line per clean up and per compilation unit, sorted by
+	 * decreasing wall time.
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public void exportCSV(Writer writer) throws IOException {
+		writer.write("kind,name,invocations,wallTimeMs,cpuTimeMs,allocatedBytes,parses\n"); //$NON-NLS-1$
+		for (Entry entry : getEntries()) {
+			writer.write(entry.fKind);
+			writer.write(',');
+			writer.write(escapeCSV(entry.fName));
+			writer.write(',');
+			writer.write(String.valueOf(entry.fInvocations));
+			writer.write(',');
+			writer.write(toMillis(entry.fWallTime));
+			writer.write(',');
+			writer.write(toMillis(entry.fCpuTime));
+			writer.write(',');
+			writer.write(String.valueOf(entry.fAllocatedBytes));
+			writer.write(',');
+			writer.write(String.valueOf(entry.fParses));
+			writer.write('\n');
+		}
+	}
+
+	/**
+	 * Writes the collected data as a JSON array of objects, sorted by decreasing wall time.
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public void exportJSON(Writer writer) throws IOException {
+		writer.write('[');
+		boolean first= true;
+		for (Entry entry : getEntries()) {
+			if (!first)
+				writer.write(',');
+			first= false;
+			writer.write("\n  {\"kind\": \""); //$NON-NLS-1$
+			writer.write(entry.fKind);
+			writer.write("\", \"name\": \""); //$NON-NLS-1$
+			writer.write(escapeJSON(entry.fName));
+			writer.write("\", \"invocations\": "); //$NON-NLS-1$
+			writer.write(String.valueOf(entry.fInvocations));
+			writer.write(", \"wallTimeMs\": "); //$NON-NLS-1$
+			writer.write(toMillis(entry.fWallTime));
+			writer.write(", \"cpuTimeMs\": "); //$NON-NLS-1$
+			writer.write(toMillis(entry.fCpuTime));
+			writer.write(", \"allocatedBytes\": "); //$NON-NLS-1$
+			writer.write(String.valueOf(entry.fAllocatedBytes));
+			writer.write(", \"parses\": "); //$NON-NLS-1$
+			writer.write(String.valueOf(entry.fParses));
+			writer.write('}');
+		}
+		writer.write("\n]\n"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes the report to the file configured in the tracing options, if any. Called at the end of
+	 * each clean up run.
+	 */
+	public void writeReport() {
+		String path= JavaPlugin.CLEAN_UP_INSTRUMENTATION_REPORT;
+		if (!isEnabled() || path == null || path.isEmpty())
+			return;
+
+		File file= new File(path);
+		try (BufferedWriter writer= Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			if (path.endsWith(".json")) { //$NON-NLS-1$
+				exportJSON(writer);
+			} else {
+				exportCSV(writer);
+			}
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	private synchronized List<Entry> getEntries() {
+		List<Entry> result= new ArrayList<>(fCleanUps.size() + fUnits.size());
+		List<Entry> cleanUps= new ArrayList<>(fCleanUps.values());
+		List<Entry> units= new ArrayList<>(fUnits.values());
+		Comparator<Entry> byWallTime= Comparator.comparingLong((Entry e) -> e.fWallTime).reversed().thenComparing(e -> e.fName);
+		cleanUps.sort(byWallTime);
+		units.sort(byWallTime);
+		result.addAll(cleanUps);
+		result.addAll(units);
+		return result;
+	}
+
+	private static Entry getEntry(Map<String, Entry> entries, String kind, String name) {
+		return entries.computeIfAbsent(name, n -> new Entry(kind, n));
+	}
+
+	private static void add(Entry entry, long wall, long cpu, long allocated) {
+		entry.fInvocations++;
+		addCost(entry, wall, cpu, allocated);
+	}
+
+	private static void addCost(Entry entry, long wall, long cpu, long allocated) {
+		entry.fWallTime+= wall;
+		entry.fCpuTime+= cpu;
+		entry.fAllocatedBytes+= allocated;
+	}
+
+	private static String getUnitName(ICompilationUnit unit) {
+		return unit.getPrimary().getPath().toString();
+	}
+
+	private static String toMillis(long nanos) {
+		return String.valueOf(nanos / 1000000L);
+	}
+
+	private static String escapeCSV(String value) {
+		if (value.indexOf(',') == -1 && value.indexOf('"') == -1)
+			return value;
+		return '"' + value.replace("\"", "\"\"") + '"'; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static String escapeJSON(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	private static long getCurrentThreadCpuTime() {
+		if (!THREAD_BEAN.isCurrentThreadCpuTimeSupported())
+			return -1;
+		return THREAD_BEAN.getCurrentThreadCpuTime();
+	}
+
+	private static long getCurrentThreadAllocatedBytes() {
+		if (GET_THREAD_ALLOCATED_BYTES == null)
+			return -1;
+		try {
+			return ((Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_BEAN, Long.valueOf(Thread.currentThread().getId()))).longValue();
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return -1;
+		}
+	}
+
+	/*
+	 * Allocation counters are only available through the com.sun.management extension of the
+	 * ThreadMXBean, which is loaded from the boot class loader to not depend on it at compile time.
+	 */
+	private static Method findAllocatedBytesMethod() {
+		try {
+			Class<?> extension= Class.forName("com.sun.management.ThreadMXBean", false, null); //$NON-NLS-1$
+			if (!extension.isInstance(THREAD_BEAN))
+				return null;
+			return extension.getMethod("getThreadAllocatedBytes", long.class); //$NON-NLS-1$
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -310,8 +310,8 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 
 	@Override
 	public boolean needsChangedRegions(ICompilationUnit unit) throws CoreException {
-		ICleanUp[] cleanUps= getCleanUps(unit.getJavaProject().getProject());
-		return requiresChangedRegions(cleanUps);
+		IProject project= unit.getJavaProject().getProject();
+		return usesChangedRegions(getCleanUps(project), isChangesOnly(project));
 	}
 
 	@Override
@@ -325,7 +325,9 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 			if (!ActionUtil.isOnBuildPath(unit))
 				return;
 
-			ICleanUp[] cleanUps= getCleanUps(unit.getJavaProject().getProject());
+			IProject project= unit.getJavaProject().getProject();
+			ICleanUp[] cleanUps= getCleanUps(project);
+			boolean changesOnly= isChangesOnly(project);
 
 			long oldFileValue= unit.getResource().getModificationStamp();
 			long oldDocValue= getDocumentStamp((IFile)unit.getResource(), new SubProgressMonitor(monitor, 2));
@@ -381,7 +383,7 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
     				}
 
     				ArrayList<ICleanUp> undoneCleanUps= new ArrayList<>();
-					CleanUpChange change= CleanUpRefactoring.calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps);
+					CleanUpChange change= CleanUpRefactoring.calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps, changesOnly);
 
     				RefactoringStatus postCondition= new RefactoringStatus();
 					for (ICleanUp cleanUp : cleanUps) {
@@ -401,7 +403,7 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
     					PerformChangeOperation performChangeOperation= new PerformChangeOperation(change);
     					performChangeOperation.setSchedulingRule(unit.getSchedulingRule());
 
-    					if (changedRegions != null && changedRegions.length > 0 && requiresChangedRegions(cleanUps)) {
+    					if (changedRegions != null && changedRegions.length > 0 && usesChangedRegions(cleanUps, changesOnly)) {
 							changedRegions= performWithChangedRegionUpdate(performChangeOperation, changedRegions, unit, new SubProgressMonitor(monitor, 5));
 						} else {
 							performChangeOperation.run(new SubProgressMonitor(monitor, 5));
@@ -426,10 +428,19 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 			if (slowCleanUps != null && slowCleanUps.size() > 0)
 				showSlowCleanUpsWarning(slowCleanUps);
 		} finally {
+			if (CleanUpInstrumentation.isEnabled())
+				CleanUpInstrumentation.getDefault().writeReport();
 			monitor.done();
 		}
 	}
 
+	private static boolean isChangesOnly(IProject project) {
+		Map<String, String> settings= CleanUpPreferenceUtil.loadSaveParticipantOptions(new ProjectScope(project));
+		return settings != null
+				&& CleanUpOptions.TRUE.equals(settings.get(CleanUpConstants.CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS))
+				&& CleanUpOptions.TRUE.equals(settings.get(CleanUpConstants.CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS_CHANGES_ONLY));
+	}
+
 	private static ICleanUp[] getCleanUps(IProject project) throws CoreException {
 		ICleanUp[] cleanUps;
 		Map<String, String> settings= CleanUpPreferenceUtil.loadSaveParticipantOptions(new ProjectScope(project));
@@ -568,10 +579,14 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 	    return false;
     }
 
-	private boolean requiresChangedRegions(ICleanUp[] cleanUps) {
+	/*
+	 * Region safe clean ups do not need the changed regions, but they are only restricted to them
+	 * if they are known and the save actions are set to clean up the changes only.
+	 */
+	private boolean usesChangedRegions(ICleanUp[] cleanUps, boolean changesOnly) {
 		for (ICleanUp cleanUp : cleanUps) {
 			CleanUpRequirements requirements= cleanUp.getRequirements();
-			if (requirements.requiresChangedRegions())
+			if (requirements.requiresChangedRegions() || changesOnly && requirements.isRegionSafe())
 				return true;
 		}
 
@@ -593,6 +608,8 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 		compilerOptions.putAll(cleanUpOptions);
 		parser.setCompilerOptions(compilerOptions);
 
+		if (CleanUpInstrumentation.isEnabled())
+			CleanUpInstrumentation.getDefault().recordParse(unit);
 		return (CompilationUnit)parser.createAST(monitor);
 	}
 
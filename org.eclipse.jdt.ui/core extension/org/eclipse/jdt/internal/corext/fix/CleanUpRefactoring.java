@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,25 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.fix;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.swt.widgets.Display;
 
@@ -30,6 +43,8 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -44,6 +59,7 @@ import org.eclipse.text.edits.UndoEdit;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 
 import org.eclipse.ltk.core.refactoring.CategorizedTextEditGroup;
 import org.eclipse.ltk.core.refactoring.Change;
@@ -80,8 +96,10 @@ import org.eclipse.jdt.internal.corext.refactoring.util.TextEditUtil;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.JavaElementLabels;
+import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.cleanup.CleanUpContext;
 import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
+import org.eclipse.jdt.ui.cleanup.CleanUpRequirements;
 import org.eclipse.jdt.ui.cleanup.ICleanUp;
 import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
 import org.eclipse.jdt.ui.text.java.IProblemLocation;
@@ -89,6 +107,7 @@ import org.eclipse.jdt.ui.text.java.IProblemLocation;
 import org.eclipse.jdt.internal.ui.IJavaStatusConstants;
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.fix.IMultiFix.MultiFixContext;
+import org.eclipse.jdt.internal.ui.fix.IMultiLineCleanUp.MultiLineCleanUpContext;
 import org.eclipse.jdt.internal.ui.fix.MapCleanUpOptions;
 import org.eclipse.jdt.internal.ui.refactoring.IScheduledRefactoring;
 
@@ -202,6 +221,32 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		}
 	}
 
+	/**
+	 * An AST kept for the next round together with the stamp of the content it was created from.
+	 */
+	private static final class RetainedAST {
+
+		private final CompilationUnit fAST;
+		private final long fContentStamp;
+
+		public RetainedAST(CompilationUnit ast, long contentStamp) {
+			fAST= ast;
+			fContentStamp= contentStamp;
+		}
+
+		public CompilationUnit getAST() {
+			return fAST;
+		}
+
+		/**
+		 * @param contentStamp the stamp of the current content of the unit
+		 * @return <code>true</code> if the AST has been created from this content
+		 */
+		public boolean isCreatedFrom(long contentStamp) {
+			return fContentStamp == contentStamp;
+		}
+	}
+
 	private final static class CleanUpRefactoringProgressMonitor extends SubProgressMonitor {
 
 		private double fRealWork;
@@ -244,15 +289,41 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		}
 	}
 
+	/**
+	 * Progress monitor handed to the workers computing a batch of changes. Progress is reported
+	 * by the thread waiting for the batches, only cancellation is propagated.
+	 */
+	private static final class BatchProgressMonitor extends NullProgressMonitor {
+
+		private final IProgressMonitor fParent;
+
+		public BatchProgressMonitor(IProgressMonitor parent) {
+			fParent= parent;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || fParent.isCanceled();
+		}
+	}
+
 	private static class CleanUpASTRequestor extends ASTRequestor {
 
 		private final List<ParseListElement> fUndoneElements;
 		private final Hashtable<ICompilationUnit, List<CleanUpChange>> fSolutions;
 		private final Hashtable<ICompilationUnit, ParseListElement> fCompilationUnitParseElementMap;
 		private final CleanUpRefactoringProgressMonitor fMonitor;
+		private final Map<ICompilationUnit, String> fCacheKeys;
+		private final Map<ICompilationUnit, Set<String>> fReferencedTypes;
+		private final Map<ICompilationUnit, RetainedAST> fRetainedASTs;
+		private final Map<ICompilationUnit, Long> fContentStamps;
 
-		public CleanUpASTRequestor(List<ParseListElement> parseList, Hashtable<ICompilationUnit, List<CleanUpChange>> solutions, CleanUpRefactoringProgressMonitor monitor) {
+		public CleanUpASTRequestor(List<ParseListElement> parseList, Hashtable<ICompilationUnit, List<CleanUpChange>> solutions, Map<ICompilationUnit, String> cacheKeys, Map<ICompilationUnit, Set<String>> referencedTypes, Map<ICompilationUnit, RetainedAST> retainedASTs, Map<ICompilationUnit, Long> contentStamps, CleanUpRefactoringProgressMonitor monitor) {
 			fSolutions= solutions;
+			fCacheKeys= cacheKeys;
+			fReferencedTypes= referencedTypes;
+			fRetainedASTs= retainedASTs;
+			fContentStamps= contentStamps;
 			fMonitor= monitor;
 			fUndoneElements= new ArrayList<>();
 			fCompilationUnitParseElementMap= new Hashtable<>(parseList.size());
@@ -263,37 +334,73 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 		@Override
 		public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+			if (CleanUpInstrumentation.isEnabled())
+				CleanUpInstrumentation.getDefault().recordParse(source);
+
+			accept(source, ast);
+		}
+
+		public void acceptSource(ICompilationUnit source) {
+			accept(source, null);
+		}
+
+		/**
+		 * Accepts an AST created in a previous round for a source which did not change since.
+		 */
+		public void acceptRetainedAST(CompilationUnit ast) {
+			accept((ICompilationUnit) ast.getJavaElement(), ast);
+		}
 
+		private void accept(ICompilationUnit source, CompilationUnit ast) {
 			fMonitor.subTask(fMonitor.getSubTaskMessage(source));
 
 			ICompilationUnit primary= (ICompilationUnit)source.getPrimaryElement();
 			ParseListElement element= fCompilationUnitParseElementMap.get(primary);
 			CleanUpTarget target= element.getTarget();
 
+			// only the first AST of a unit is the one of the unchanged content
+			if (ast != null && fCacheKeys.containsKey(primary) && !fReferencedTypes.containsKey(primary) && !fSolutions.containsKey(primary)) {
+				Set<String> referencedTypes= CleanUpResultCache.collectReferencedTypes(ast);
+				if (referencedTypes != null) {
+					fReferencedTypes.put(primary, referencedTypes);
+				} else {
+					// the result can change as soon as the unresolved references appear
+					fCacheKeys.remove(primary);
+				}
+			}
+
 			CleanUpContext context;
 			if (target instanceof MultiFixTarget) {
 				context= new MultiFixContext(source, ast, ((MultiFixTarget)target).getProblems());
 			} else {
 				context= new CleanUpContext(source, ast);
 			}
+			int modificationCount= ast != null ? ast.getAST().modificationCount() : 0;
+			int solutionCount= getSolutionCount(primary);
 			ICleanUp[] rejectedCleanUps= calculateSolutions(context, element.getCleanUps());
 
 			if (rejectedCleanUps.length > 0) {
 				fUndoneElements.add(new ParseListElement(target, rejectedCleanUps));
+				// the next round can reuse the AST if the clean ups neither changed the source nor the AST,
+				// it is only used if the content of the unit still has the stamp it was created from
+				Long contentStamp= fContentStamps.get(primary);
+				if (ast != null && contentStamp != null && ast.getAST().modificationCount() == modificationCount && getSolutionCount(primary) == solutionCount)
+					fRetainedASTs.put(primary, new RetainedAST(ast, contentStamp.longValue()));
 				fMonitor.reset();
 			} else {
 				fMonitor.flush();
 			}
 		}
 
-		public void acceptSource(ICompilationUnit source) {
-			acceptAST(source, null);
-		}
-
 		public List<ParseListElement> getUndoneElements() {
 			return fUndoneElements;
 		}
 
+		private int getSolutionCount(ICompilationUnit primary) {
+			List<CleanUpChange> changes= fSolutions.get(primary);
+			return changes != null ? changes.size() : 0;
+		}
+
 		private ICleanUp[] calculateSolutions(CleanUpContext context, ICleanUp[] cleanUps) {
 			List<ICleanUp>result= new ArrayList<>();
 			CleanUpChange solution;
@@ -325,27 +432,42 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	private class CleanUpFixpointIterator {
 
 		private List<ParseListElement> fParseList;
+		private final CleanUpTarget[] fTargets;
 		private final Hashtable<ICompilationUnit, List<CleanUpChange>> fSolutions;
 		private final Hashtable<ICompilationUnit, ICompilationUnit> fWorkingCopies; // map from primary to working copy
 		private final Map<String, String> fCleanUpOptions;
+		private final Hashtable<ICompilationUnit, String> fCacheKeys; // map from primary to key in the result cache
+		private final Hashtable<ICompilationUnit, Set<String>> fReferencedTypes;
+		private final Hashtable<ICompilationUnit, RetainedAST> fRetainedASTs; // map from primary to AST of the unchanged source
+		private final Hashtable<ICompilationUnit, Long> fContentStamps; // map from primary to stamp of the content of this round
 		private final int fSize;
 		private int fIndex;
+		private long fUnitFootprint;
 
-		public CleanUpFixpointIterator(CleanUpTarget[] targets, ICleanUp[] cleanUps) {
+		public CleanUpFixpointIterator(CleanUpTarget[] targets, ICleanUp[] cleanUps) throws JavaModelException {
+			fTargets= targets;
 			fSolutions= new Hashtable<>(targets.length);
 			fWorkingCopies= new Hashtable<>();
+			fCacheKeys= new Hashtable<>();
+			fReferencedTypes= new Hashtable<>();
+			fRetainedASTs= new Hashtable<>();
+			fContentStamps= new Hashtable<>();
+			fUnitFootprint= INITIAL_UNIT_FOOTPRINT;
 
 			fParseList= new ArrayList<>(targets.length);
 			for (CleanUpTarget target : targets) {
+				ICompilationUnit unit= target.getCompilationUnit();
+				String configurationKey= fCacheConfigurationKeys.get(unit.getJavaProject());
+				if (configurationKey != null && !(target instanceof MultiFixTarget)) {
+					String key= CleanUpResultCache.createKey(configurationKey, unit);
+					if (fResultCache.isUnchanged(key, unit.getJavaProject(), fCacheSignatures))
+						continue;
+					fCacheKeys.put(unit.getPrimary(), key);
+				}
 				fParseList.add(new ParseListElement(target, cleanUps));
 			}
 
-			fCleanUpOptions= new Hashtable<>();
-			for (ICleanUp cleanUp : cleanUps) {
-				Map<String, String> currentCleanUpOption= cleanUp.getRequirements().getCompilerOptions();
-				if (currentCleanUpOption != null)
-					fCleanUpOptions.putAll(currentCleanUpOption);
-			}
+			fCleanUpOptions= getCompilerOptions(cleanUps);
 
 			fSize= targets.length;
 			fIndex= 1;
@@ -358,66 +480,151 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		public void next(IProgressMonitor monitor) throws CoreException {
 			List<ICompilationUnit> parseList= new ArrayList<>();
 			List<ICompilationUnit> sourceList= new ArrayList<>();
-
-			try {
-				for (ParseListElement element : fParseList) {
-					ICompilationUnit compilationUnit= element.getTarget().getCompilationUnit();
-					if (fSolutions.containsKey(compilationUnit)) {
-						if (fWorkingCopies.containsKey(compilationUnit)) {
-							compilationUnit= fWorkingCopies.get(compilationUnit);
-						} else {
-							compilationUnit= compilationUnit.getWorkingCopy(new WorkingCopyOwner() {}, null);
-							fWorkingCopies.put(compilationUnit.getPrimary(), compilationUnit);
-						}
-						applyChange(compilationUnit, fSolutions.get(compilationUnit.getPrimary()));
-					}
-
-					if (requiresAST(element.getCleanUps())) {
-						parseList.add(compilationUnit);
+			List<CompilationUnit> astList= new ArrayList<>();
+
+			fContentStamps.clear();
+			for (ParseListElement element : fParseList) {
+				ICompilationUnit compilationUnit= element.getTarget().getCompilationUnit();
+				ICompilationUnit primary= compilationUnit.getPrimary();
+				String changedContent= null;
+				if (fSolutions.containsKey(primary)) {
+					if (fWorkingCopies.containsKey(primary)) {
+						compilationUnit= fWorkingCopies.get(primary);
 					} else {
-						sourceList.add(compilationUnit);
+						compilationUnit= compilationUnit.getWorkingCopy(new WorkingCopyOwner() {}, null);
+						fWorkingCopies.put(primary, compilationUnit);
 					}
+					changedContent= getChangedContent(fSolutions.get(primary));
 				}
 
-				CleanUpRefactoringProgressMonitor cuMonitor= new CleanUpRefactoringProgressMonitor(monitor, parseList.size() + sourceList.size(), fSize, fIndex);
-				CleanUpASTRequestor requestor= new CleanUpASTRequestor(fParseList, fSolutions, cuMonitor);
-				if (parseList.size() > 0) {
-					ASTBatchParser parser= new ASTBatchParser() {
-						@Override
-						protected ASTParser createParser(IJavaProject project) {
-							ASTParser result= createCleanUpASTParser();
-							result.setProject(project);
-
-							Map<String, String> options= RefactoringASTParser.getCompilerOptions(project);
-							options.putAll(fCleanUpOptions);
-							result.setCompilerOptions(options);
-							return result;
-						}
-					};
-					try {
-						ICompilationUnit[] units= parseList.toArray(new ICompilationUnit[parseList.size()]);
-						parser.createASTs(units, new String[0], requestor, cuMonitor);
-					} catch (FixCalculationException e) {
-						throw e.getException();
-					}
+				if (!requiresAST(element.getCleanUps())) {
+					if (changedContent != null)
+						compilationUnit.getBuffer().setContents(changedContent);
+					sourceList.add(compilationUnit);
+					continue;
 				}
 
-				for (ICompilationUnit cu : sourceList) {
-					monitor.worked(1);
+				long contentStamp= getContentStamp(changedContent != null ? changedContent : compilationUnit.getBuffer().getContents());
+				fContentStamps.put(primary, Long.valueOf(contentStamp));
+				RetainedAST retainedAST= fRetainedASTs.get(primary);
+				if (retainedAST != null && retainedAST.isCreatedFrom(contentStamp)) {
+					// the working copy already has this content
+					astList.add(retainedAST.getAST());
+					continue;
+				}
+
+				if (changedContent != null)
+					compilationUnit.getBuffer().setContents(changedContent);
+				parseList.add(compilationUnit);
+			}
+
+			fRetainedASTs.clear();
 
-					requestor.acceptSource(cu);
+			CleanUpRefactoringProgressMonitor cuMonitor= new CleanUpRefactoringProgressMonitor(monitor, astList.size() + parseList.size() + sourceList.size(), fSize, fIndex);
+			CleanUpASTRequestor requestor= new CleanUpASTRequestor(fParseList, fSolutions, fCacheKeys, fReferencedTypes, fRetainedASTs, fContentStamps, cuMonitor);
+			try {
+				for (CompilationUnit ast : astList) {
+					requestor.acceptRetainedAST(ast);
 
 					if (monitor.isCanceled())
 						throw new OperationCanceledException();
 				}
+			} catch (FixCalculationException e) {
+				throw e.getException();
+			}
+			astList.clear();
+
+			if (parseList.size() > 0) {
+				ASTBatchParser parser= new CleanUpASTBatchParser(cuMonitor, new HashSet<>(fRetainedASTs.keySet()));
+				try {
+					ICompilationUnit[] units= parseList.toArray(new ICompilationUnit[parseList.size()]);
+					parser.createASTs(units, new String[0], requestor, cuMonitor);
+				} catch (FixCalculationException e) {
+					throw e.getException();
+				}
+			}
+
+			for (ICompilationUnit cu : sourceList) {
+				monitor.worked(1);
+
+				requestor.acceptSource(cu);
 
-				fParseList= requestor.getUndoneElements();
-				fIndex= cuMonitor.getIndex();
-			} finally {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+			}
+
+			fParseList= requestor.getUndoneElements();
+			fIndex= cuMonitor.getIndex();
+		}
+
+		/**
+		 * Parses the units in batches sized by the heap available to each worker and the heap
+		 * consumed per unit by the previous batches. ASTs retained for the next round pin the
+		 * binding environment of their batch, so only the ASTs of the last batch are kept.
+		 */
+		private final class CleanUpASTBatchParser extends ASTBatchParser {
+
+			private final IProgressMonitor fMonitor;
+			private final Set<ICompilationUnit> fRetainedBeforeParsing;
+			private long fUsedBefore;
+			private long fGCTimeBefore;
+			private int fLastBatchSize;
+
+			/**
+			 * @param monitor the progress monitor
+			 * @param retainedBeforeParsing the units whose ASTs have been retained before the
+			 *            first batch is parsed, these ASTs are kept for the next round
+			 */
+			public CleanUpASTBatchParser(IProgressMonitor monitor, Set<ICompilationUnit> retainedBeforeParsing) {
+				fMonitor= monitor;
+				fRetainedBeforeParsing= retainedBeforeParsing;
+			}
+
+			@Override
+			protected ASTParser createParser(IJavaProject project) {
+				ASTParser result= createCleanUpASTParser();
+				result.setProject(project);
+
+				Map<String, String> options= RefactoringASTParser.getCompilerOptions(project);
+				options.putAll(fCleanUpOptions);
+				result.setCompilerOptions(options);
+				return result;
+			}
+
+			@Override
+			protected void aboutToParse(ICompilationUnit[] units) {
+				// the ASTs of the previous batch have been processed by now and must not pin its
+				// binding environment any longer
+				fRetainedASTs.keySet().retainAll(fRetainedBeforeParsing);
+			}
+
+			@Override
+			protected int getMaxAtOnce(int remaining) {
+				Runtime runtime= Runtime.getRuntime();
+				long used= runtime.totalMemory() - runtime.freeMemory();
+				long gcTime= getGCTime();
+				long gcTimeOfLastBatch= 0;
+				if (fLastBatchSize > 0) {
+					long consumed= used - fUsedBefore;
+					if (consumed > 0)
+						fUnitFootprint= (fUnitFootprint + consumed / fLastBatchSize) / 2;
+					gcTimeOfLastBatch= gcTime - fGCTimeBefore;
+				}
+
+				long available= Math.max(0, runtime.maxMemory() - used) / fWorkerCount;
+				int result= getParseBatchSize(available, fUnitFootprint);
+
+				fUsedBefore= used;
+				fGCTimeBefore= gcTime;
+				fLastBatchSize= Math.min(result, remaining);
+				fMonitor.subTask(Messages.format(FixMessages.CleanUpRefactoring_ParsingBatch_message,
+						new Object[] { Integer.valueOf(fLastBatchSize), Long.valueOf(fUnitFootprint >> 10), Long.valueOf(gcTimeOfLastBatch) }));
+				return result;
 			}
 		}
 
 		public void dispose() {
+			fRetainedASTs.clear();
 			for (ICompilationUnit cu : fWorkingCopies.values()) {
 				try {
 					cu.discardWorkingCopy();
@@ -437,13 +644,42 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			return false;
 		}
 
+		/**
+		 * Remembers the units for which no change has been found in the result cache.
+		 */
+		private void cacheUnchangedUnits() {
+			for (Entry<ICompilationUnit, String> entry : fCacheKeys.entrySet()) {
+				ICompilationUnit unit= entry.getKey();
+				if (!fSolutions.containsKey(unit)) {
+					Set<String> referencedTypes= fReferencedTypes.get(unit);
+					if (referencedTypes == null)
+						referencedTypes= Collections.emptySet();
+					fResultCache.putUnchanged(entry.getValue(), unit.getJavaProject(), referencedTypes, fCacheSignatures);
+				}
+			}
+		}
+
 		public Change[] getResult() {
+			if (!fCacheKeys.isEmpty())
+				cacheUnchangedUnits();
+
+			// report the changes in the order of the targets, such that the result does not depend on how the targets were batched
+			List<ICompilationUnit> units= new ArrayList<>(fSolutions.size());
+			Set<ICompilationUnit> seen= new HashSet<>();
+			for (CleanUpTarget target : fTargets) {
+				ICompilationUnit unit= target.getCompilationUnit().getPrimary();
+				if (fSolutions.containsKey(unit) && seen.add(unit))
+					units.add(unit);
+			}
+			for (ICompilationUnit unit : fSolutions.keySet()) {
+				if (seen.add(unit))
+					units.add(unit);
+			}
 
-			Change[] result= new Change[fSolutions.size()];
+			Change[] result= new Change[units.size()];
 			int i=0;
-			for (Entry<ICompilationUnit, List<CleanUpChange>> entry : fSolutions.entrySet()) {
-				List<CleanUpChange> changes= entry.getValue();
-				ICompilationUnit unit= entry.getKey();
+			for (ICompilationUnit unit : units) {
+				List<CleanUpChange> changes= fSolutions.get(unit);
 
 				int saveMode;
 				if (fLeaveFilesDirty) {
@@ -478,7 +714,10 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	        return result;
         }
 
-		private void applyChange(ICompilationUnit compilationUnit, List<CleanUpChange> changes) throws JavaModelException, CoreException {
+		/**
+		 * Applies the changes found so far to the original content of a unit.
+		 */
+		private String getChangedContent(List<CleanUpChange> changes) throws CoreException {
 			IDocument document= new Document(changes.get(0).getCurrentContent(new NullProgressMonitor()));
 			for (CleanUpChange change : changes) {
 				TextEdit edit= change.getEdit().copy();
@@ -489,7 +728,20 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 					JavaPlugin.log(e);
 				}
 			}
-			compilationUnit.getBuffer().setContents(document.get());
+			return document.get();
+		}
+
+		/**
+		 * Computes a 64 bit FNV-1a hash of the content, which identifies the content an AST has
+		 * been created from.
+		 */
+		private long getContentStamp(String content) {
+			long hash= 0xcbf29ce484222325L;
+			for (int i= 0; i < content.length(); i++) {
+				hash^= content.charAt(i);
+				hash*= 0x100000001b3L;
+			}
+			return hash;
 		}
 	}
 
@@ -501,6 +753,31 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	 */
 	private static final int SLOW_CLEAN_UP_THRESHOLD= 2000;
 
+	/**
+	 * Default for the maximal number of compilation units in one batch if changes are computed in
+	 * parallel.
+	 */
+	private static final int DEFAULT_BATCH_SIZE= 200;
+
+	/**
+	 * Interval in ms in which a thread waiting for a batch checks for cancellation.
+	 */
+	private static final long BATCH_POLL_INTERVAL= 100;
+
+	/**
+	 * Estimate of the heap in bytes consumed per parsed compilation unit before a batch has been
+	 * measured.
+	 */
+	private static final long INITIAL_UNIT_FOOTPRINT= 1 << 20;
+
+	/**
+	 * Fraction of the available heap a worker may fill with the ASTs and bindings of one batch.
+	 */
+	private static final double PARSE_HEAP_FRACTION= 0.5;
+
+	private static final int MIN_PARSE_BATCH_SIZE= 10;
+	private static final int MAX_PARSE_BATCH_SIZE= 1000;
+
 	private final List<ICleanUp> fCleanUps;
 	private final Hashtable<IJavaProject, List<CleanUpTarget>> fProjects;
 	private Change fChange;
@@ -508,6 +785,12 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	private final String fName;
 
 	private boolean fUseOptionsFromProfile;
+	private int fWorkerCount;
+	private int fBatchSize;
+	private boolean fApplyChangesInBatches;
+	private CleanUpResultCache fResultCache;
+	private final Hashtable<IJavaProject, String> fCacheConfigurationKeys;
+	private final Map<String, String> fCacheSignatures;
 
 	public CleanUpRefactoring() {
 		this(FixMessages.CleanUpRefactoring_Refactoring_name);
@@ -518,12 +801,72 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		fCleanUps= new ArrayList<>();
 		fProjects= new Hashtable<>();
 		fUseOptionsFromProfile= false;
+		fCacheConfigurationKeys= new Hashtable<>();
+		fCacheSignatures= new ConcurrentHashMap<>();
+
+		IEclipsePreferences node= InstanceScope.INSTANCE.getNode(JavaUI.ID_PLUGIN);
+		fWorkerCount= Math.max(1, node.getInt(CleanUpConstants.CLEANUP_WORKER_COUNT, 1));
+		fBatchSize= Math.max(1, node.getInt(CleanUpConstants.CLEANUP_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+		if (node.getBoolean(CleanUpConstants.CLEANUP_RESULT_CACHE, false))
+			fResultCache= CleanUpResultCache.getDefault();
 	}
 
 	public void setUseOptionsFromProfile(boolean enabled) {
 		fUseOptionsFromProfile= enabled;
 	}
 
+	/**
+	 * Sets the number of threads used to compute the changes. With a value greater than
+	 * <code>1</code> the targets of each project are split into batches which are processed
+	 * concurrently. The resulting changes do not depend on the number of workers. The changes are
+	 * computed sequentially if a clean up is not registered as thread safe.
+	 *
+	 * @param workerCount the number of worker threads, values smaller than <code>1</code> are
+	 *            treated as <code>1</code>
+	 */
+	public void setWorkerCount(int workerCount) {
+		fWorkerCount= Math.max(1, workerCount);
+	}
+
+	/**
+	 * Sets the maximal number of compilation units parsed together when changes are computed by
+	 * more than one worker.
+	 *
+	 * @param batchSize the maximal batch size, values smaller than <code>1</code> are treated as
+	 *            <code>1</code>
+	 */
+	public void setBatchSize(int batchSize) {
+		fBatchSize= Math.max(1, batchSize);
+	}
+
+	/**
+	 * If enabled, {@link #checkFinalConditions(IProgressMonitor)} applies the changes of each batch
+	 * of compilation units to the files as soon as they are computed and releases them before the
+	 * next batch is processed. Memory consumption is then bounded by the batch size instead of the
+	 * number of targets. The changes are not previewed and can not be undone,
+	 * {@link #createChange(IProgressMonitor)} returns a {@link NullChange}.
+	 * <p>
+	 * Intended for headless runs and for runs without preview on many compilation units.
+	 * </p>
+	 *
+	 * @param enabled <code>true</code> to apply the changes batch by batch
+	 */
+	public void setApplyChangesInBatches(boolean enabled) {
+		fApplyChangesInBatches= enabled;
+	}
+
+	/**
+	 * Sets the cache which remembers the compilation units for which the clean ups produced no
+	 * change. These units are skipped as long as neither they nor the types they reference change.
+	 * Only compilation units added with {@link #addCompilationUnit(ICompilationUnit)} and clean ups
+	 * extending {@link org.eclipse.jdt.internal.ui.fix.AbstractCleanUp} take part.
+	 *
+	 * @param cache the cache to use or <code>null</code> to not use a cache
+	 */
+	public void setResultCache(CleanUpResultCache cache) {
+		fResultCache= cache;
+	}
+
 	public void addCompilationUnit(ICompilationUnit unit) {
 		addCleanUpTarget(new CleanUpTarget(unit));
 	}
@@ -624,9 +967,13 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 		ICleanUp[] cleanUps= getCleanUps();
 		pm.beginTask("", cuCount * 2 * fCleanUps.size() + 4 * cleanUps.length); //$NON-NLS-1$
+		ExecutorService executor= fWorkerCount > 1 && cuCount > 1 && areThreadSafe(cleanUps) ? createExecutor() : null;
 		try {
 			DynamicValidationStateChange change= new DynamicValidationStateChange(getName());
 			change.setSchedulingRule(getSchedulingRule());
+			// projects are processed one after the other: the shared clean up instances hold the
+			// options and pre condition state of one project, only the units of a project are
+			// distributed over the workers
 			for (Entry<IJavaProject, List<CleanUpTarget>> entry : fProjects.entrySet()) {
 				IJavaProject project= entry.getKey();
 				List<CleanUpTarget> targetsList= entry.getValue();
@@ -639,7 +986,26 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 				result.merge(checkPreConditions(project, targets, new SubProgressMonitor(pm, 3 * cleanUps.length)));
 				if (result.hasFatalError())
 					return result;
-				Change[] changes= cleanUpProject(project, targets, cleanUps, pm);
+				if (fResultCache != null) {
+					String configurationKey= CleanUpResultCache.createConfigurationKey(project, cleanUps, getCompilerOptions(cleanUps));
+					if (configurationKey != null)
+						fCacheConfigurationKeys.put(project, configurationKey);
+				}
+				if (fApplyChangesInBatches) {
+					result.merge(applyProjectInBatches(project, targets, cleanUps, executor, pm));
+					if (result.hasFatalError())
+						return result;
+					result.merge(checkPostConditions(new SubProgressMonitor(pm, cleanUps.length)));
+					if (result.hasFatalError())
+						return result;
+					continue;
+				}
+				Change[] changes;
+				if (executor != null) {
+					changes= cleanUpProjectInParallel(project, targets, cleanUps, executor, pm);
+				} else {
+					changes= cleanUpProject(project, targets, cleanUps, pm);
+				}
 				result.merge(checkPostConditions(new SubProgressMonitor(pm, cleanUps.length)));
 				if (result.hasFatalError())
 					return result;
@@ -647,12 +1013,25 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 					change.add(c);
 				}
 			}
+			if (fApplyChangesInBatches) {
+				fChange= new NullChange(getName());
+				return result;
+			}
 			fChange= change;
 
 			List<IResource> files= new ArrayList<>();
 			findFilesToBeModified(change, files);
 			result.merge(Checks.validateModifiesFiles(files.toArray(new IFile[files.size()]), getValidationContext(), pm));
 		} finally {
+			if (executor != null)
+				executor.shutdown();
+			if (fResultCache != null) {
+				fResultCache.save();
+				fCacheConfigurationKeys.clear();
+				fCacheSignatures.clear();
+			}
+			if (CleanUpInstrumentation.isEnabled())
+				CleanUpInstrumentation.getDefault().writeReport();
 			pm.done();
 		}
 
@@ -689,6 +1068,254 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		}
 	}
 
+	/**
+	 * Computes the changes for the given targets of one project on the given executor. The targets
+	 * are split into batches, each batch is processed by its own fixpoint iteration. The changes
+	 * are merged in the order of the targets.
+	 * <p>
+	 * Pre and post conditions are not checked here, they are evaluated for the whole project by
+	 * the calling thread because clean ups may keep per project state between them.
+	 * </p>
+	 */
+	private Change[] cleanUpProjectInParallel(IJavaProject project, CleanUpTarget[] targets, final ICleanUp[] cleanUps, ExecutorService executor, IProgressMonitor monitor) throws CoreException {
+		int batchSize= Math.min(fBatchSize, (targets.length + fWorkerCount - 1) / fWorkerCount);
+		List<CleanUpTarget[]> batches= createBatches(targets, batchSize);
+
+		SubProgressMonitor subMonitor= new SubProgressMonitor(monitor, 2 * targets.length * cleanUps.length);
+		subMonitor.beginTask("", targets.length); //$NON-NLS-1$
+		subMonitor.subTask(Messages.format(FixMessages.CleanUpRefactoring_Parser_Startup_message, BasicElementLabels.getResourceName(project.getProject())));
+
+		final BatchProgressMonitor workerMonitor= new BatchProgressMonitor(subMonitor);
+		List<Future<Change[]>> futures= new ArrayList<>(batches.size());
+		try {
+			for (final CleanUpTarget[] batch : batches) {
+				futures.add(executor.submit(() -> computeChanges(batch, cleanUps, workerMonitor)));
+			}
+
+			List<Change> result= new ArrayList<>();
+			for (int i= 0; i < futures.size(); i++) {
+				subMonitor.subTask(Messages.format(FixMessages.CleanUpRefactoring_ProcessingBatch_message,
+						new Object[] { Integer.valueOf(i + 1), Integer.valueOf(batches.size()), BasicElementLabels.getResourceName(project.getProject()) }));
+				result.addAll(Arrays.asList(waitForBatch(futures.get(i), subMonitor)));
+				subMonitor.worked(batches.get(i).length);
+			}
+			return result.toArray(new Change[result.size()]);
+		} finally {
+			// stops batches which are still pending or running if a batch failed or the user canceled
+			workerMonitor.setCanceled(true);
+			for (Future<Change[]> future : futures) {
+				future.cancel(false);
+			}
+			subMonitor.done();
+		}
+	}
+
+	/**
+	 * Computes and applies the changes for the given targets of one project batch by batch. At most
+	 * one batch per worker is held in memory at any time, the changes of a batch are performed and
+	 * disposed before the next batches are computed.
+	 *
+	 * @param executor the executor to compute the batches on or <code>null</code> to compute them
+	 *            on the calling thread
+	 */
+	private RefactoringStatus applyProjectInBatches(IJavaProject project, CleanUpTarget[] targets, final ICleanUp[] cleanUps, ExecutorService executor, IProgressMonitor monitor) throws CoreException {
+		RefactoringStatus result= new RefactoringStatus();
+
+		List<CleanUpTarget[]> batches= createBatches(targets, fBatchSize);
+		int window= executor != null ? fWorkerCount : 1;
+
+		SubProgressMonitor subMonitor= new SubProgressMonitor(monitor, 2 * targets.length * cleanUps.length);
+		subMonitor.beginTask("", 2 * targets.length); //$NON-NLS-1$
+		subMonitor.subTask(Messages.format(FixMessages.CleanUpRefactoring_Parser_Startup_message, BasicElementLabels.getResourceName(project.getProject())));
+
+		final BatchProgressMonitor workerMonitor= new BatchProgressMonitor(subMonitor);
+		List<Future<Change[]>> futures= new ArrayList<>(window);
+		try {
+			for (int first= 0; first < batches.size(); first+= window) {
+				int last= Math.min(first + window, batches.size());
+
+				futures.clear();
+				if (executor != null) {
+					for (int i= first; i < last; i++) {
+						final CleanUpTarget[] batch= batches.get(i);
+						futures.add(executor.submit(() -> computeChanges(batch, cleanUps, workerMonitor)));
+					}
+				}
+
+				for (int i= first; i < last; i++) {
+					subMonitor.subTask(Messages.format(FixMessages.CleanUpRefactoring_ProcessingBatch_message,
+							new Object[] { Integer.valueOf(i + 1), Integer.valueOf(batches.size()), BasicElementLabels.getResourceName(project.getProject()) }));
+
+					CleanUpTarget[] batch= batches.get(i);
+					Change[] changes;
+					if (executor != null) {
+						changes= waitForBatch(futures.get(i - first), subMonitor);
+					} else {
+						changes= computeChanges(batch, cleanUps, workerMonitor);
+					}
+					subMonitor.worked(batch.length);
+
+					result.merge(applyChanges(changes, new SubProgressMonitor(subMonitor, batch.length)));
+					if (result.hasFatalError())
+						return result;
+				}
+			}
+		} finally {
+			workerMonitor.setCanceled(true);
+			for (Future<Change[]> future : futures) {
+				future.cancel(false);
+			}
+			subMonitor.done();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Validates, performs and disposes the given changes. The undo changes are discarded.
+	 */
+	private RefactoringStatus applyChanges(Change[] changes, IProgressMonitor monitor) throws CoreException {
+		RefactoringStatus result= new RefactoringStatus();
+		if (changes.length == 0) {
+			monitor.done();
+			return result;
+		}
+
+		CompositeChange change= new CompositeChange(getName(), changes);
+		monitor.beginTask("", 4); //$NON-NLS-1$
+		try {
+			List<IResource> files= new ArrayList<>();
+			findFilesToBeModified(change, files);
+			result.merge(Checks.validateModifiesFiles(files.toArray(new IFile[files.size()]), getValidationContext(), new SubProgressMonitor(monitor, 1)));
+			if (result.hasFatalError())
+				return result;
+
+			change.initializeValidationData(new SubProgressMonitor(monitor, 1));
+			result.merge(change.isValid(new SubProgressMonitor(monitor, 1)));
+			if (result.hasFatalError())
+				return result;
+
+			Change undo= change.perform(new SubProgressMonitor(monitor, 1));
+			if (undo != null)
+				undo.dispose();
+		} finally {
+			change.dispose();
+			monitor.done();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of compilation units to parse together such that their ASTs and bindings
+	 * are likely to fit into a fraction of the given heap.
+	 *
+	 * @param availableHeap the heap available to the parser, in bytes
+	 * @param unitFootprint the heap consumed by one parsed unit, in bytes
+	 * @return the batch size, between 10 and 1000 units
+	 */
+	public static int getParseBatchSize(long availableHeap, long unitFootprint) {
+		long size= (long) (availableHeap * PARSE_HEAP_FRACTION) / Math.max(1, unitFootprint);
+		return (int) Math.max(MIN_PARSE_BATCH_SIZE, Math.min(MAX_PARSE_BATCH_SIZE, size));
+	}
+
+	private static long getGCTime() {
+		long result= 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			result+= Math.max(0, bean.getCollectionTime());
+		}
+		return result;
+	}
+
+	private static Map<String, String> getCompilerOptions(ICleanUp[] cleanUps) {
+		Map<String, String> result= new Hashtable<>();
+		for (ICleanUp cleanUp : cleanUps) {
+			Map<String, String> currentCleanUpOption= cleanUp.getRequirements().getCompilerOptions();
+			if (currentCleanUpOption != null)
+				result.putAll(currentCleanUpOption);
+		}
+		return result;
+	}
+
+	private static List<CleanUpTarget[]> createBatches(CleanUpTarget[] targets, int batchSize) {
+		batchSize= Math.max(1, batchSize);
+		List<CleanUpTarget[]> result= new ArrayList<>();
+		for (int i= 0; i < targets.length; i+= batchSize) {
+			result.add(Arrays.copyOfRange(targets, i, Math.min(i + batchSize, targets.length)));
+		}
+		return result;
+	}
+
+	private Change[] computeChanges(CleanUpTarget[] targets, ICleanUp[] cleanUps, IProgressMonitor monitor) throws CoreException {
+		CleanUpFixpointIterator iter= new CleanUpFixpointIterator(targets, cleanUps);
+		try {
+			while (iter.hasNext()) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+
+				iter.next(monitor);
+			}
+
+			return iter.getResult();
+		} finally {
+			iter.dispose();
+		}
+	}
+
+	private static Change[] waitForBatch(Future<Change[]> future, IProgressMonitor monitor) throws CoreException {
+		while (true) {
+			if (monitor.isCanceled())
+				throw new OperationCanceledException();
+
+			try {
+				return future.get(BATCH_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// not done yet, check for cancellation and wait again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				Throwable cause= e.getCause();
+				if (cause instanceof CoreException)
+					throw (CoreException) cause;
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				if (cause instanceof Error)
+					throw (Error) cause;
+				throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IJavaStatusConstants.INTERNAL_ERROR, cause.getMessage(), cause));
+			}
+		}
+	}
+
+	/**
+	 * Tells whether all given clean ups can create fixes concurrently. The workers share the clean
+	 * up instances, which are configured and checked once per project, so clean ups which keep
+	 * state between their pre conditions, fixes and post conditions must run sequentially.
+	 */
+	private boolean areThreadSafe(ICleanUp[] cleanUps) {
+		for (ICleanUp cleanUp : cleanUps) {
+			if (!isThreadSafe(cleanUp))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param cleanUp the clean up to test
+	 * @return <code>true</code> if the clean up is registered as thread safe
+	 */
+	protected boolean isThreadSafe(ICleanUp cleanUp) {
+		return JavaPlugin.getDefault().getCleanUpRegistry().isThreadSafe(cleanUp);
+	}
+
+	private ExecutorService createExecutor() {
+		final AtomicInteger threadCount= new AtomicInteger();
+		return Executors.newFixedThreadPool(fWorkerCount, runnable -> {
+			Thread thread= new Thread(runnable, "Clean Up Worker " + threadCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
 	private RefactoringStatus setOptionsFromProfile(IJavaProject javaProject, ICleanUp[] cleanUps) {
 		Map<String, String> options= CleanUpPreferenceUtil.loadOptions(new ProjectScope(javaProject.getProject()));
 		if (options == null)
@@ -755,13 +1382,87 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	}
 
 	public static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps) throws CoreException {
+		return calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps, false);
+	}
+
+	/**
+	 * Calculates the change of the given clean ups on the compilation unit of the context.
+	 *
+	 * @param context the context to clean up
+	 * @param cleanUps the clean ups to run
+	 * @param undoneCleanUps the clean ups which need another round
+	 * @param slowCleanUps the slow clean ups or <code>null</code>
+	 * @param restrictToRegions <code>true</code> if region safe clean ups only clean up the changed
+	 *            regions of a {@link MultiLineCleanUpContext}
+	 * @return the change or <code>null</code> if nothing changed
+	 * @throws CoreException if a clean up failed
+	 */
+	public static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps, boolean restrictToRegions) throws CoreException {
 		if (cleanUps.length == 0)
 			return null;
 
+		CompilationUnit ast= context.getAST();
+		IRegion[] regions= restrictToRegions && context instanceof MultiLineCleanUpContext ? ((MultiLineCleanUpContext) context).getRegions() : null;
+		boolean sharedTraversal= false;
+		if (ast != null) {
+			CleanUpInstrumentation.Measurement measurement= CleanUpInstrumentation.isEnabled() ? CleanUpInstrumentation.getDefault().start() : null;
+			List<ICleanUp> participants= runSharedTraversal(ast, cleanUps, regions);
+			sharedTraversal= participants != null;
+			if (sharedTraversal && measurement != null)
+				CleanUpInstrumentation.getDefault().recordShared(participants, context.getCompilationUnit(), measurement);
+		}
+		try {
+			return calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps, ast);
+		} finally {
+			if (sharedTraversal)
+				MultiplexingASTVisitor.disposeSharedTraversal(ast);
+		}
+	}
+
+	/*
+	 * Visits the AST once for all clean ups of this round which can share a traversal, that is
+	 * all clean ups up to the first one requiring a fresh AST. If changed regions are given, the
+	 * region safe clean ups only visit the subtrees covering them and the others visit the whole
+	 * AST on their own. Returns the clean ups which took part in the traversal, or null if there
+	 * was no shared traversal.
+	 */
+	private static List<ICleanUp> runSharedTraversal(CompilationUnit ast, ICleanUp[] cleanUps, IRegion[] regions) {
+		List<ISharedTraversalCleanUp> shared= new ArrayList<>();
+		List<ISharedTraversalCleanUp> regionSafe= new ArrayList<>();
+		List<ICleanUp> sharedCleanUps= new ArrayList<>();
+		List<ICleanUp> regionSafeCleanUps= new ArrayList<>();
+		for (int i= 0; i < cleanUps.length; i++) {
+			CleanUpRequirements requirements= cleanUps[i].getRequirements();
+			if (i > 0 && requirements.requiresFreshAST())
+				break;
+			if (cleanUps[i] instanceof ISharedTraversalCleanUp) {
+				shared.add((ISharedTraversalCleanUp) cleanUps[i]);
+				sharedCleanUps.add(cleanUps[i]);
+				if (requirements.isRegionSafe()) {
+					regionSafe.add((ISharedTraversalCleanUp) cleanUps[i]);
+					regionSafeCleanUps.add(cleanUps[i]);
+				}
+			}
+		}
+
+		if (regions != null && !regionSafe.isEmpty()) {
+			MultiplexingASTVisitor.runSharedTraversal(ast, regionSafe, regions);
+			return regionSafeCleanUps;
+		}
+
+		if (shared.size() < 2)
+			return null;
+
+		MultiplexingASTVisitor.runSharedTraversal(ast, shared);
+		return sharedCleanUps;
+	}
+
+	private static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps, CompilationUnit ast) throws CoreException {
 		CleanUpChange solution= null;
 		int i= 0;
 		do {
 			ICleanUp cleanUp= cleanUps[i];
+			CleanUpInstrumentation.Measurement measurement= CleanUpInstrumentation.isEnabled() ? CleanUpInstrumentation.getDefault().start() : null;
 			ICleanUpFix fix;
 			if (slowCleanUps != null) {
 				long timeBefore= System.currentTimeMillis();
@@ -771,8 +1472,10 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			} else {
 				fix= cleanUp.createFix(context);
 			}
-			if (fix != null) {
-				CompilationUnitChange current= fix.createChange(null);
+			CompilationUnitChange current= fix != null ? fix.createChange(null) : null;
+			if (measurement != null)
+				CleanUpInstrumentation.getDefault().record(cleanUp, context.getCompilationUnit(), measurement);
+			if (current != null) {
 				TextEdit currentEdit= current.getEdit();
 
 				if (solution != null) {
@@ -795,7 +1498,7 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 				}
 			}
 			i++;
-		} while (i < cleanUps.length && (context.getAST() == null || !cleanUps[i].getRequirements().requiresFreshAST()));
+		} while (i < cleanUps.length && (ast == null || !cleanUps[i].getRequirements().requiresFreshAST()));
 
 		for (; i < cleanUps.length; i++) {
 			undoneCleanUps.add(cleanUps[i]);
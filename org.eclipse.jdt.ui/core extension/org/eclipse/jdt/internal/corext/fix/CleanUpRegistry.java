@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 IBM Corporation and others.
+ * Copyright (c) 2007, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -158,10 +158,12 @@ public class CleanUpRegistry {
 		private static final String ATTRIBUTE_ID_CLASS= "class"; //$NON-NLS-1$
 		private static final String ATTRIBURE_ID_RUNAFTER= "runAfter"; //$NON-NLS-1$
 		private static final String ATTRIBUTE_ID_ID= "id"; //$NON-NLS-1$
+		private static final String ATTRIBUTE_ID_THREAD_SAFE= "threadSafe"; //$NON-NLS-1$
 
 		private final IConfigurationElement fElement;
 		private final String fId;
 		private final String fRunAfter;
+		private final boolean fThreadSafe;
 
 		/**
 		 * @param element the configuration element
@@ -170,6 +172,22 @@ public class CleanUpRegistry {
 			fElement= element;
 			fId= element.getAttribute(ATTRIBUTE_ID_ID);
 			fRunAfter= element.getAttribute(ATTRIBURE_ID_RUNAFTER);
+			fThreadSafe= Boolean.parseBoolean(element.getAttribute(ATTRIBUTE_ID_THREAD_SAFE));
+		}
+
+		/**
+		 * @return the name of the clean up class
+		 */
+		public String getClassName() {
+			return fElement.getAttribute(ATTRIBUTE_ID_CLASS);
+		}
+
+		/**
+		 * @return <code>true</code> if one instance of this clean up can create fixes
+		 *         concurrently
+		 */
+		public boolean isThreadSafe() {
+			return fThreadSafe;
 		}
 
 		/**
@@ -280,6 +298,24 @@ public class CleanUpRegistry {
 		return result.toArray(new ICleanUp[result.size()]);
 	}
 
+	/**
+	 * Tells whether the given clean up has been contributed as thread safe, i.e. whether one
+	 * instance can create fixes for several compilation units concurrently.
+	 *
+	 * @param cleanUp the clean up
+	 * @return <code>true</code> if the clean up is registered as thread safe, <code>false</code>
+	 *         if it is not or if it is not registered at all
+	 */
+	public synchronized boolean isThreadSafe(ICleanUp cleanUp) {
+		ensureCleanUpsRegistered();
+		String className= cleanUp.getClass().getName();
+		for (CleanUpDescriptor descriptor : fCleanUpDescriptors) {
+			if (className.equals(descriptor.getClassName()))
+				return descriptor.isThreadSafe();
+		}
+		return false;
+	}
+
 	/**
 	 * @param kind the kind of clean up for which to retrieve the configuratin pages
 	 *
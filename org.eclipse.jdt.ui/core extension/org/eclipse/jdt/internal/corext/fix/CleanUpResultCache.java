@@ -0,0 +1,507 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.fix;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeParameter;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.SimpleName;
+
+import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.fix.AbstractCleanUp;
+
+/**
+ * Remembers the compilation units for which a set of clean ups produced no change, such that
+ * {@link CleanUpRefactoring} can skip them when the same clean ups are run again.
+ * <p>
+ * A result is keyed by a hash of the content of the compilation unit, the compiler options, the code
+ * style preferences and the raw classpath of its project and the options of the clean ups. With each
+ * result the signatures of the source types referenced by the compilation unit and of their super
+ * types are stored. The result is only used if these signatures did not change. Types from libraries
+ * are not tracked, changing a library changes the classpath and with that the key. No result is
+ * stored for a compilation unit which references types or members that can not be resolved, since
+ * they can appear at any time.
+ * </p>
+ * <p>
+ * The number of results is limited, the least recently used results are discarded first. The
+ * default cache is stored in the state location of the plug-in.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public final class CleanUpResultCache {
+
+	private static final class Entry {
+
+		private final String[] fTypeNames;
+		private final String[] fSignatures;
+
+		public Entry(String[] typeNames, String[] signatures) {
+			fTypeNames= typeNames;
+			fSignatures= signatures;
+		}
+	}
+
+	private static final String CACHE_FILE= "cleanUpResultCache.dat"; //$NON-NLS-1$
+	private static final int FILE_VERSION= 1;
+
+	/**
+	 * Default for the maximal number of remembered results.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES= 10000;
+
+	private static final String MISSING_TYPE= "?"; //$NON-NLS-1$
+
+	private static final String CODE_TEMPLATES_KEY= "org.eclipse.jdt.ui.text.custom_code_templates"; //$NON-NLS-1$
+
+	/**
+	 * The preferences of this plug-in which are used when clean ups create code, in addition to the
+	 * clean up options.
+	 */
+	private static final String[] CODE_STYLE_PREFERENCES= {
+			PreferenceConstants.ORGIMPORTS_IMPORTORDER,
+			PreferenceConstants.ORGIMPORTS_ONDEMANDTHRESHOLD,
+			PreferenceConstants.ORGIMPORTS_STATIC_ONDEMANDTHRESHOLD,
+			PreferenceConstants.ORGIMPORTS_IGNORELOWERCASE,
+			PreferenceConstants.CODEGEN_ADD_COMMENTS,
+			PreferenceConstants.CODEGEN_KEYWORD_THIS,
+			PreferenceConstants.CODEGEN_USE_OVERRIDE_ANNOTATION,
+			PreferenceConstants.CODEGEN_IS_FOR_GETTERS,
+			PreferenceConstants.CODEGEN_EXCEPTION_VAR_NAME,
+			PreferenceConstants.CODEGEN_USE_GETTERSETTER_PREFIX,
+			PreferenceConstants.CODEGEN_GETTERSETTER_PREFIX,
+			PreferenceConstants.CODEGEN_USE_GETTERSETTER_SUFFIX,
+			PreferenceConstants.CODEGEN_GETTERSETTER_SUFFIX,
+			CODE_TEMPLATES_KEY
+	};
+
+	/**
+	 * Problems which tell that a referenced type or member can not be resolved.
+	 */
+	private static final int[] UNRESOLVED_PROBLEMS= {
+			IProblem.UndefinedType,
+			IProblem.ImportNotFound,
+			IProblem.UndefinedName,
+			IProblem.UndefinedField,
+			IProblem.UndefinedMethod,
+			IProblem.UndefinedConstructor,
+			IProblem.IsClassPathCorrect
+	};
+
+	private static CleanUpResultCache fgDefault;
+
+	private final File fFile;
+	private final int fMaxEntries;
+	private final LinkedHashMap<String, Entry> fEntries;
+	private boolean fLoaded;
+	private boolean fDirty;
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param file the file to store the cache in or <code>null</code> if the cache is not
+	 *            persisted
+	 * @param maxEntries the maximal number of remembered results
+	 */
+	public CleanUpResultCache(File file, int maxEntries) {
+		fFile= file;
+		fMaxEntries= Math.max(1, maxEntries);
+		fEntries= new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID= 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > fMaxEntries;
+			}
+		};
+	}
+
+	/**
+	 * @return the cache stored in the state location of the plug-in
+	 */
+	public static synchronized CleanUpResultCache getDefault() {
+		if (fgDefault == null) {
+			File file= JavaPlugin.getDefault().getStateLocation().append(CACHE_FILE).toFile();
+			int maxEntries= InstanceScope.INSTANCE.getNode(JavaUI.ID_PLUGIN).getInt(CleanUpConstants.CLEANUP_RESULT_CACHE_SIZE, DEFAULT_MAX_ENTRIES);
+			fgDefault= new CleanUpResultCache(file, maxEntries);
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Computes the part of the key which is shared by all compilation units of a project.
+	 *
+	 * @param project the project of the compilation units
+	 * @param cleanUps the clean ups to run, with their options set
+	 * @param compilerOptions additional compiler options required by the clean ups
+	 * @return the key or <code>null</code> if the results of the clean ups can not be cached
+	 */
+	public static String createConfigurationKey(IJavaProject project, ICleanUp[] cleanUps, Map<String, String> compilerOptions) {
+		StringBuilder buf= new StringBuilder();
+		for (ICleanUp cleanUp : cleanUps) {
+			if (!(cleanUp instanceof AbstractCleanUp))
+				return null;
+			CleanUpOptions options= ((AbstractCleanUp) cleanUp).getOptions();
+			if (options == null)
+				return null;
+
+			buf.append(cleanUp.getClass().getName()).append('\n');
+			Map<String, String> sorted= new TreeMap<>();
+			for (String key : options.getKeys()) {
+				sorted.put(key, options.getValue(key));
+			}
+			append(buf, sorted);
+		}
+
+		append(buf, new TreeMap<>(project.getOptions(true)));
+		append(buf, new TreeMap<>(compilerOptions));
+		for (String key : CODE_STYLE_PREFERENCES) {
+			buf.append(key).append('=').append(PreferenceConstants.getPreference(key, project)).append('\n');
+		}
+		try {
+			for (IClasspathEntry entry : project.getRawClasspath()) {
+				buf.append(entry).append('\n');
+			}
+		} catch (JavaModelException e) {
+			return null;
+		}
+		return hash(buf.toString());
+	}
+
+	/**
+	 * Computes the key of a compilation unit.
+	 *
+	 * @param configurationKey the key returned by
+	 *            {@link #createConfigurationKey(IJavaProject, ICleanUp[], Map)}
+	 * @param unit the compilation unit
+	 * @return the key
+	 * @throws JavaModelException if the content of the compilation unit can not be read
+	 */
+	public static String createKey(String configurationKey, ICompilationUnit unit) throws JavaModelException {
+		return hash(configurationKey + '\n' + unit.getSource());
+	}
+
+	/**
+	 * Collects the source types referenced by an AST whose signatures influence the clean ups.
+	 * These are the types of all resolved names, the declaring types of all referenced methods and
+	 * fields, the types of the fields and all super types of these types and of the types declared
+	 * in the AST. The types declared in the AST are not included.
+	 *
+	 * @param ast the AST with bindings
+	 * @return the fully qualified names of the referenced top level types, or <code>null</code> if
+	 *         the AST references types or members which can not be resolved
+	 */
+	public static Set<String> collectReferencedTypes(CompilationUnit ast) {
+		for (IProblem problem : ast.getProblems()) {
+			for (int id : UNRESOLVED_PROBLEMS) {
+				if (problem.getID() == id)
+					return null;
+			}
+		}
+
+		final Set<String> declared= new HashSet<>();
+		for (Object type : ast.types()) {
+			ITypeBinding binding= ((AbstractTypeDeclaration) type).resolveBinding();
+			if (binding != null)
+				declared.add(binding.getQualifiedName());
+		}
+
+		final Set<String> result= new HashSet<>();
+		final boolean[] unresolved= new boolean[1];
+		ast.accept(new ASTVisitor() {
+			private final Set<String> fVisited= new HashSet<>();
+
+			@Override
+			public boolean visit(SimpleName node) {
+				IBinding binding= node.resolveBinding();
+				if (binding instanceof ITypeBinding) {
+					add((ITypeBinding) binding);
+				} else if (binding instanceof IMethodBinding) {
+					add(((IMethodBinding) binding).getDeclaringClass());
+				} else if (binding instanceof IVariableBinding && ((IVariableBinding) binding).isField()) {
+					add(((IVariableBinding) binding).getDeclaringClass());
+					add(((IVariableBinding) binding).getType());
+				}
+				return true;
+			}
+
+			private void add(ITypeBinding binding) {
+				if (binding == null)
+					return;
+				if (binding.isRecovered()) {
+					unresolved[0]= true;
+					return;
+				}
+				binding= binding.getErasure();
+				while (binding.isArray()) {
+					binding= binding.getElementType();
+				}
+				if (!binding.isFromSource() || !fVisited.add(binding.getKey()))
+					return;
+
+				// changing a super type can change the inherited members
+				add(binding.getSuperclass());
+				for (ITypeBinding superInterface : binding.getInterfaces()) {
+					add(superInterface);
+				}
+
+				ITypeBinding topLevel= binding;
+				while (topLevel.getDeclaringClass() != null) {
+					topLevel= topLevel.getDeclaringClass();
+				}
+				if (!topLevel.isLocal() && !topLevel.isAnonymous()) {
+					String name= topLevel.getQualifiedName();
+					if (!declared.contains(name))
+						result.add(name);
+				}
+			}
+		});
+		return unresolved[0] ? null : result;
+	}
+
+	/**
+	 * Tells whether the clean ups produced no change the last time they were run on the compilation
+	 * unit with the given key, and the referenced types did not change since.
+	 *
+	 * @param key the key of the compilation unit
+	 * @param project the project of the compilation unit
+	 * @param signatures the signatures computed in this run by type name, shared with
+	 *            {@link #putUnchanged(String, IJavaProject, Collection, Map)}
+	 * @return <code>true</code> if the compilation unit can be skipped
+	 */
+	public boolean isUnchanged(String key, IJavaProject project, Map<String, String> signatures) {
+		Entry entry;
+		synchronized (this) {
+			load();
+			entry= fEntries.get(key);
+		}
+		if (entry == null)
+			return false;
+
+		for (int i= 0; i < entry.fTypeNames.length; i++) {
+			if (!entry.fSignatures[i].equals(getSignature(project, entry.fTypeNames[i], signatures))) {
+				synchronized (this) {
+					fEntries.remove(key);
+					fDirty= true;
+				}
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Remembers that the clean ups produced no change on the compilation unit with the given key.
+	 *
+	 * @param key the key of the compilation unit
+	 * @param project the project of the compilation unit
+	 * @param referencedTypes the types referenced by the compilation unit, see
+	 *            {@link #collectReferencedTypes(CompilationUnit)}
+	 * @param signatures the signatures computed in this run by type name
+	 */
+	public void putUnchanged(String key, IJavaProject project, Collection<String> referencedTypes, Map<String, String> signatures) {
+		String[] typeNames= referencedTypes.toArray(new String[referencedTypes.size()]);
+		String[] typeSignatures= new String[typeNames.length];
+		for (int i= 0; i < typeNames.length; i++) {
+			typeSignatures[i]= getSignature(project, typeNames[i], signatures);
+		}
+
+		synchronized (this) {
+			load();
+			fEntries.put(key, new Entry(typeNames, typeSignatures));
+			fDirty= true;
+		}
+	}
+
+	/**
+	 * @return the number of remembered results
+	 */
+	public synchronized int size() {
+		load();
+		return fEntries.size();
+	}
+
+	/**
+	 * Discards all remembered results.
+	 */
+	public synchronized void clear() {
+		fLoaded= true;
+		fEntries.clear();
+		fDirty= true;
+	}
+
+	/**
+	 * Writes the results to the cache file if they changed since they were read.
+	 */
+	public synchronized void save() {
+		if (!fDirty || fFile == null)
+			return;
+
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fFile)))) {
+			out.writeInt(FILE_VERSION);
+			out.writeInt(fEntries.size());
+			// least recently used first, such that reading restores the order
+			for (Map.Entry<String, Entry> mapEntry : fEntries.entrySet()) {
+				Entry entry= mapEntry.getValue();
+				out.writeUTF(mapEntry.getKey());
+				out.writeInt(entry.fTypeNames.length);
+				for (int i= 0; i < entry.fTypeNames.length; i++) {
+					out.writeUTF(entry.fTypeNames[i]);
+					out.writeUTF(entry.fSignatures[i]);
+				}
+			}
+			fDirty= false;
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	private void load() {
+		if (fLoaded)
+			return;
+		fLoaded= true;
+		if (fFile == null || !fFile.isFile())
+			return;
+
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)))) {
+			if (in.readInt() != FILE_VERSION)
+				return;
+			int count= in.readInt();
+			for (int i= 0; i < count; i++) {
+				String key= in.readUTF();
+				int typeCount= in.readInt();
+				String[] typeNames= new String[typeCount];
+				String[] signatures= new String[typeCount];
+				for (int k= 0; k < typeCount; k++) {
+					typeNames[k]= in.readUTF();
+					signatures[k]= in.readUTF();
+				}
+				fEntries.put(key, new Entry(typeNames, signatures));
+			}
+		} catch (IOException e) {
+			// a corrupt cache is discarded
+			fEntries.clear();
+			fDirty= true;
+		}
+	}
+
+	private static String getSignature(IJavaProject project, String typeName, Map<String, String> signatures) {
+		String result= signatures.get(typeName);
+		if (result == null) {
+			try {
+				IType type= project.findType(typeName);
+				if (type == null) {
+					result= MISSING_TYPE;
+				} else {
+					StringBuilder buf= new StringBuilder();
+					appendSignature(buf, type);
+					result= hash(buf.toString());
+				}
+			} catch (JavaModelException e) {
+				result= MISSING_TYPE;
+			}
+			signatures.put(typeName, result);
+		}
+		return result;
+	}
+
+	private static void appendSignature(StringBuilder buf, IType type) throws JavaModelException {
+		buf.append(type.getElementName()).append(' ').append(type.getFlags()).append(' ').append(type.getSuperclassTypeSignature());
+		for (String superInterface : type.getSuperInterfaceTypeSignatures()) {
+			buf.append(' ').append(superInterface);
+		}
+		for (ITypeParameter typeParameter : type.getTypeParameters()) {
+			buf.append(' ').append(typeParameter.getElementName());
+			for (String bound : typeParameter.getBoundsSignatures()) {
+				buf.append(':').append(bound);
+			}
+		}
+		buf.append('\n');
+
+		for (IField field : type.getFields()) {
+			buf.append(field.getFlags()).append(' ').append(field.getTypeSignature()).append(' ').append(field.getElementName()).append('\n');
+		}
+		for (IMethod method : type.getMethods()) {
+			buf.append(method.getFlags()).append(' ').append(method.getSignature()).append(' ').append(method.getElementName());
+			for (String exceptionType : method.getExceptionTypes()) {
+				buf.append(' ').append(exceptionType);
+			}
+			buf.append('\n');
+		}
+		for (IType memberType : type.getTypes()) {
+			appendSignature(buf, memberType);
+		}
+	}
+
+	private static void append(StringBuilder buf, Map<String, String> map) {
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			buf.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+		}
+		buf.append('\n');
+	}
+
+	private static String hash(String value) {
+		try {
+			MessageDigest digest= MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			byte[] bytes= digest.digest(value.getBytes(StandardCharsets.UTF_8));
+			StringBuilder result= new StringBuilder(bytes.length * 2);
+			for (byte b : bytes) {
+				result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return result.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -114,7 +114,7 @@ public class MethodChecks {
 				if (clazz.equals(hierarchy.getType()))
 					superinterfaces= hierarchy.getAllSuperInterfaces(clazz);
 				else
-					superinterfaces= clazz.newSupertypeHierarchy(new SubProgressMonitor(subMonitor, 1)).getAllSuperInterfaces(clazz);
+					superinterfaces= TypeHierarchyGraph.getDefault().getAllSuperInterfaces(clazz, null, new SubProgressMonitor(subMonitor, 1));
 				for (IType superinterface : superinterfaces) {
 					IMethod found= Checks.findSimilarMethod(method, superinterface);
 					if (found != null && !found.equals(method))
@@ -157,7 +157,7 @@ public class MethodChecks {
 		final IType declaringType= method.getDeclaringType();
 		if (!declaringType.isInterface()) {
 			if ((hierarchy == null) || !declaringType.equals(hierarchy.getType()))
-				hierarchy= declaringType.newTypeHierarchy(monitor);
+				hierarchy= TypeHierarchyGraph.getDefault().getTypeHierarchy(declaringType, null, monitor);
 
 			IMethod inInterface= isDeclaredInInterface(method, hierarchy, monitor);
 			if (inInterface != null && !inInterface.equals(method))
@@ -165,7 +165,7 @@ public class MethodChecks {
 		}
 		if (topmostMethod == null) {
 			if (hierarchy == null)
-				hierarchy= declaringType.newSupertypeHierarchy(monitor);
+				hierarchy= TypeHierarchyGraph.getDefault().getSupertypeHierarchy(declaringType, null, monitor);
 			IMethod overrides= overridesAnotherMethod(method, hierarchy);
 			if (overrides != null && !overrides.equals(method))
 				topmostMethod= overrides;
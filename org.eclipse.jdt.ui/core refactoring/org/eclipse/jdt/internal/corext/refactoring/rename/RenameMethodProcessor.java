@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,11 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -115,8 +120,14 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 	private GroupCategorySet fCategorySet;
 	private boolean fDelegateUpdating;
 	private boolean fDelegateDeprecation;
+	private int fParallelism;
 	protected boolean fInitialized= false;
 
+	/**
+	 * The pool creating the delegates, shared by all rename method refactorings.
+	 */
+	private static ForkJoinPool fgPool;
+
 	/**
 	 * Creates a new rename method processor.
 	 * @param method the method, or <code>null</code> if invoked by scripting
@@ -142,6 +153,7 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 		fDelegateUpdating= false;
 		fDelegateDeprecation= true;
 		fIsComposite= true;
+		fParallelism= Runtime.getRuntime().availableProcessors();
 	}
 
 	protected void initialize(IMethod method) {
@@ -300,6 +312,19 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 		fDelegateUpdating= updating;
 	}
 
+	/**
+	 * Sets the number of threads creating the delegates in different compilation units when
+	 * delegates are kept. The threads are taken from a pool shared by all rename method
+	 * refactorings. The default is the number of available processors.
+	 *
+	 * @param parallelism the number of threads, <code>1</code> to create the delegates on the
+	 *            calling thread
+	 */
+	public void setParallelism(int parallelism) {
+		Assert.isLegal(parallelism > 0);
+		fParallelism= parallelism;
+	}
+
 	@Override
 	public boolean getDeprecateDelegates() {
 		return fDelegateDeprecation;
@@ -791,7 +816,9 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 	 */
 	protected void addOccurrences(TextChangeManager manager, IProgressMonitor pm, RefactoringStatus status) throws CoreException/*thrown in subtype*/{
 		pm.beginTask("", fOccurrences.length);				 //$NON-NLS-1$
-		for (SearchResultGroup occurrence : fOccurrences) {
+		TextChange[] delegateChanges= fDelegateUpdating ? createDelegateChanges(pm) : null;
+		for (int i= 0; i < fOccurrences.length; i++) {
+			SearchResultGroup occurrence= fOccurrences[i];
 			ICompilationUnit cu= occurrence.getCompilationUnit();
 			if (cu == null)
 				continue;
@@ -809,26 +836,10 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 			// First, handle the declarations
 			if (declarationsInThisCu.size() > 0) {
 
-				if (fDelegateUpdating) {
-					// Update with delegates
-					CompilationUnitRewrite rewrite= new CompilationUnitRewrite(cu);
-					rewrite.setResolveBindings(true);
-
-					for (SearchMatch element : declarationsInThisCu) {
-						MethodDeclaration method= ASTNodeSearchUtil.getMethodDeclarationNode((IMethod) element.getElement(), rewrite.getRoot());
-						DelegateCreator creator= new DelegateMethodCreator();
-						creator.setDeclareDeprecated(fDelegateDeprecation);
-						creator.setDeclaration(method);
-						creator.setSourceRewrite(rewrite);
-						creator.setNewElementName(getNewElementName());
-						creator.prepareDelegate();
-						creator.createEdit();
-					}
+				if (delegateChanges != null) {
 					// Need to handle all delegates first as this
 					// creates a completely new change object.
-					TextChange changeForThisCu= rewrite.createChange(true);
-					changeForThisCu.setKeepPreviewEdits(true);
-					manager.manage(cu, changeForThisCu);
+					manager.manage(cu, delegateChanges[i]);
 				}
 
 				// Update the normal methods
@@ -851,6 +862,93 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 		pm.done();
 	}
 
+	/*
+	 * Creates the delegates of each compilation unit on the shared pool, as each of them needs an
+	 * AST with bindings. The change manager is not thread safe, so the changes are only collected
+	 * here and managed in the order of the occurrences.
+	 */
+	private TextChange[] createDelegateChanges(IProgressMonitor pm) throws CoreException {
+		TextChange[] result= new TextChange[fOccurrences.length];
+		int parallelism= Math.min(fParallelism, fOccurrences.length);
+		if (parallelism <= 1) {
+			for (int i= 0; i < fOccurrences.length; i++) {
+				result[i]= createDelegateChange(fOccurrences[i], pm);
+			}
+			return result;
+		}
+
+		AtomicInteger next= new AtomicInteger();
+		Callable<Void> task= () -> {
+			for (int i= next.getAndIncrement(); i < fOccurrences.length; i= next.getAndIncrement()) {
+				result[i]= createDelegateChange(fOccurrences[i], pm);
+			}
+			return null;
+		};
+		List<Future<Void>> futures= new ArrayList<>(parallelism);
+		try {
+			for (int i= 0; i < parallelism; i++) {
+				futures.add(getPool().submit(task));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause= e.getCause();
+			if (cause instanceof CoreException)
+				throw (CoreException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			// lets the remaining tasks stop after a failure or a cancellation
+			next.set(fOccurrences.length);
+		}
+		return result;
+	}
+
+	private static synchronized ForkJoinPool getPool() {
+		if (fgPool == null)
+			fgPool= new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		return fgPool;
+	}
+
+	private TextChange createDelegateChange(SearchResultGroup occurrence, IProgressMonitor pm) throws CoreException {
+		if (pm.isCanceled())
+			throw new OperationCanceledException();
+
+		ICompilationUnit cu= occurrence.getCompilationUnit();
+		if (cu == null)
+			return null;
+
+		CompilationUnitRewrite rewrite= null;
+		for (SearchMatch match : occurrence.getSearchResults()) {
+			if (match instanceof MethodDeclarationMatch) {
+				if (rewrite == null) {
+					rewrite= new CompilationUnitRewrite(cu);
+					rewrite.setResolveBindings(true);
+				}
+				MethodDeclaration method= ASTNodeSearchUtil.getMethodDeclarationNode((IMethod) match.getElement(), rewrite.getRoot());
+				DelegateCreator creator= new DelegateMethodCreator();
+				creator.setDeclareDeprecated(fDelegateDeprecation);
+				creator.setDeclaration(method);
+				creator.setSourceRewrite(rewrite);
+				creator.setNewElementName(getNewElementName());
+				creator.prepareDelegate();
+				creator.createEdit();
+			}
+		}
+		if (rewrite == null)
+			return null;
+
+		TextChange changeForThisCu= rewrite.createChange(true);
+		changeForThisCu.setKeepPreviewEdits(true);
+		return changeForThisCu;
+	}
+
 	private void simpleUpdate(SearchMatch element, ICompilationUnit cu, TextChange textChange) {
 		String editName= RefactoringCoreMessages.RenameMethodRefactoring_update_occurrence;
 		ReplaceEdit replaceEdit= createReplaceEdit(element, cu);
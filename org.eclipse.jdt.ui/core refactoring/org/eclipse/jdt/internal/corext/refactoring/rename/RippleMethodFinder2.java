@@ -19,12 +19,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -34,10 +33,8 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
 import org.eclipse.jdt.core.IMethod;
-import org.eclipse.jdt.core.IRegion;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
-import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
@@ -87,49 +84,42 @@ public class RippleMethodFinder2 {
 		}
 	}
 	private static class UnionFind {
-		HashMap<IType, IType> fElementToRepresentative= new HashMap<>();
+		Map<IType, Integer> fElementToId= new HashMap<>();
+		List<IType> fElements= new ArrayList<>();
+		int[] fParents= new int[16];
 
 		public void init(IType type) {
-			fElementToRepresentative.put(type, type);
+			if (fElementToId.containsKey(type))
+				return;
+			int id= fElements.size();
+			if (id == fParents.length)
+				fParents= Arrays.copyOf(fParents, id * 2);
+			fParents[id]= id;
+			fElementToId.put(type, Integer.valueOf(id));
+			fElements.add(type);
 		}
 
 		//path compression:
 		public IType find(IType element) {
-			IType root= element;
-			IType rep= fElementToRepresentative.get(root);
-			while (rep != null && ! rep.equals(root)) {
-				root= rep;
-				rep= fElementToRepresentative.get(root);
-			}
-			if (rep == null)
+			Integer id= fElementToId.get(element);
+			if (id == null)
 				return null;
 
-			rep= fElementToRepresentative.get(element);
-			while (! rep.equals(root)) {
-				IType temp= element;
-				element= rep;
-				fElementToRepresentative.put(temp, root);
-				rep= fElementToRepresentative.get(element);
+			int root= id.intValue();
+			while (fParents[root] != root)
+				root= fParents[root];
+
+			int current= id.intValue();
+			while (fParents[current] != root) {
+				int next= fParents[current];
+				fParents[current]= root;
+				current= next;
 			}
-			return root;
+			return fElements.get(root);
 		}
 
-//		//straightforward:
-//		public IType find(IType element) {
-//			IType current= element;
-//			IType rep= (IType) fElementToRepresentative.get(current);
-//			while (rep != null && ! rep.equals(current)) {
-//				current= rep;
-//				rep= (IType) fElementToRepresentative.get(current);
-//			}
-//			if (rep == null)
-//				return null;
-//			else
-//				return current;
-//		}
-
 		public void union(IType rep1, IType rep2) {
-			fElementToRepresentative.put(rep1, rep2);
+			fParents[fElementToId.get(rep1).intValue()]= fElementToId.get(rep2).intValue();
 		}
 	}
 
@@ -352,8 +342,7 @@ public class RippleMethodFinder2 {
 
 		for (IType methodTypeSubtype : methodTypeSubtypes) {
 			checkCanceled(pm);
-			ITypeHierarchy subtypeHierarchy= methodTypeSubtype.newTypeHierarchy(owner, pm);
-			IType[] subtypeSuperTypes= subtypeHierarchy.getAllSupertypes(methodTypeSubtype);
+			IType[] subtypeSuperTypes= TypeHierarchyGraph.getDefault().getAllSupertypes(methodTypeSubtype, owner, pm);
 			for (IType subtypeSuperType : subtypeSuperTypes) {
 				checkCanceled(pm);
 				if (!allTypesInMethodHierarchy.contains(subtypeSuperType)) {
@@ -398,7 +387,7 @@ public class RippleMethodFinder2 {
 			throws JavaModelException {
 		ITypeHierarchy hierarchy= getCachedHierarchy(type, owner, new SubProgressMonitor(pm, 1));
 		if (hierarchy == null)
-			hierarchy= type.newTypeHierarchy(owner, new SubProgressMonitor(pm, 1));
+			hierarchy= TypeHierarchyGraph.getDefault().getTypeHierarchy(type, owner, new SubProgressMonitor(pm, 1));
 		return hierarchy;
 	}
 
@@ -418,7 +407,7 @@ public class RippleMethodFinder2 {
 			for (IType root : fRootReps.get(rep)) {
 				ITypeHierarchy hierarchy= fRootHierarchies.get(root);
 				if (hierarchy == null) {
-					hierarchy= root.newTypeHierarchy(owner, new SubProgressMonitor(monitor, 1));
+					hierarchy= TypeHierarchyGraph.getDefault().getTypeHierarchy(root, owner, new SubProgressMonitor(monitor, 1));
 					fRootHierarchies.put(root, hierarchy);
 				}
 				if (hierarchy.contains(type))
@@ -470,17 +459,8 @@ public class RippleMethodFinder2 {
 	}
 
 	private void createHierarchyOfDeclarations(IProgressMonitor pm, WorkingCopyOwner owner) throws JavaModelException {
-		Stream<IType> types= fDeclarations.stream().map(IMethod::getDeclaringType);
-		fHierarchy= createHierarchyOfTypes(pm, owner, types);
-	}
-
-	private static ITypeHierarchy createHierarchyOfTypes(IProgressMonitor pm, WorkingCopyOwner owner, Stream<IType> types) throws JavaModelException {
-		IRegion region= JavaCore.newRegion();
-		for (Iterator<IType> iter= types.iterator(); iter.hasNext(); ) {
-			IType type= iter.next();
-			region.add(type);
-		}
-		return JavaCore.newTypeHierarchy(region, owner, pm);
+		List<IType> types= fDeclarations.stream().map(IMethod::getDeclaringType).collect(Collectors.toList());
+		fHierarchy= TypeHierarchyGraph.getDefault().getRegionHierarchy(types, owner, pm);
 	}
 
 	private void createTypeToMethod() {
@@ -0,0 +1,508 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.rename;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IRegion;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
+
+/**
+ * A session wide cache of the type hierarchies computed by {@link RippleMethodFinder2} and
+ * {@link MethodChecks}, and a graph of the type relations they contain.
+ * <p>
+ * The graph assigns an <code>int</code> id to each type and stores the direct supertypes and
+ * subtypes of a type as arrays of ids. The links of a type are only recorded once they are known
+ * to be complete: the supertypes of all types in a supertype or region hierarchy and of the focus
+ * of a type hierarchy, and the subtypes of the focus of a type hierarchy and of all its subtypes.
+ * </p>
+ * <p>
+ * A cached hierarchy is removed when Java element deltas change it, and the graph is then rebuilt
+ * from the remaining hierarchies. Hierarchies are only cached for the primary working copies, i.e.
+ * for a <code>null</code> owner or an owner without working copies.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public final class TypeHierarchyGraph {
+
+	private static final int KIND_TYPE_HIERARCHY= 0;
+	private static final int KIND_SUPERTYPE_HIERARCHY= 1;
+	private static final int KIND_REGION_HIERARCHY= 2;
+
+	private final class HierarchyEntry implements ITypeHierarchyChangedListener {
+
+		private final Object fKey;
+		private final int fKind;
+		private final ITypeHierarchy fHierarchy;
+
+		public HierarchyEntry(Object key, int kind, ITypeHierarchy hierarchy) {
+			fKey= key;
+			fKind= kind;
+			fHierarchy= hierarchy;
+			fHierarchy.addTypeHierarchyChangedListener(this);
+		}
+
+		@Override
+		public void typeHierarchyChanged(ITypeHierarchy typeHierarchy) {
+			remove(this);
+		}
+
+		public void dispose() {
+			fHierarchy.removeTypeHierarchyChangedListener(this);
+		}
+	}
+
+	@FunctionalInterface
+	private interface HierarchyFactory {
+		ITypeHierarchy create() throws JavaModelException;
+	}
+
+	private static final class RegionKey {
+
+		private final Set<IType> fTypes;
+
+		public RegionKey(Collection<IType> types) {
+			fTypes= new HashSet<>(types);
+		}
+
+		@Override
+		public int hashCode() {
+			return fTypes.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof RegionKey && fTypes.equals(((RegionKey) obj).fTypes);
+		}
+	}
+
+	private static final int CACHE_SIZE= 32;
+	private static final int INITIAL_CAPACITY= 256;
+
+	/**
+	 * The time in milliseconds between two checks of the monitor while waiting for a hierarchy
+	 * created by another thread.
+	 */
+	private static final long WAIT_INTERVAL= 100;
+
+	private static final TypeHierarchyGraph INSTANCE= new TypeHierarchyGraph();
+
+	private final Map<Object, HierarchyEntry> fHierarchies= new LinkedHashMap<>(16, 0.75f, true);
+
+	private final Map<Object, CompletableFuture<ITypeHierarchy>> fPending= new HashMap<>();
+
+	private final Map<IType, Integer> fIds= new HashMap<>();
+	private IType[] fTypes;
+	private int[][] fSupertypes; // direct supertypes by id, null if not known to be complete
+	private int[][] fSubtypes; // direct subtypes by id, null if not known to be complete
+	private final BitSet fInterfaces= new BitSet();
+	private boolean fGraphValid;
+
+	private int fHits;
+	private int fMisses;
+
+	private TypeHierarchyGraph() {
+		clearGraph();
+	}
+
+	/**
+	 * @return the graph of this session
+	 */
+	public static TypeHierarchyGraph getDefault() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the type hierarchy of <code>type</code>.
+	 *
+	 * @param type the focus type
+	 * @param owner the working copy owner, or <code>null</code> for primary working copies
+	 * @param monitor the progress monitor
+	 * @return the type hierarchy with focus <code>type</code>
+	 * @throws JavaModelException if the hierarchy cannot be created
+	 */
+	public ITypeHierarchy getTypeHierarchy(IType type, WorkingCopyOwner owner, IProgressMonitor monitor) throws JavaModelException {
+		if (!isCacheable(owner))
+			return type.newTypeHierarchy(owner, monitor);
+
+		return getOrCreate(type, KIND_TYPE_HIERARCHY, () -> type.newTypeHierarchy(owner, monitor), monitor);
+	}
+
+	/**
+	 * Returns a supertype hierarchy which contains <code>type</code>. The hierarchy may have been
+	 * created for a subtype of <code>type</code>.
+	 *
+	 * @param type the type
+	 * @param owner the working copy owner, or <code>null</code> for primary working copies
+	 * @param monitor the progress monitor
+	 * @return a hierarchy containing all supertypes of <code>type</code>
+	 * @throws JavaModelException if the hierarchy cannot be created
+	 */
+	public ITypeHierarchy getSupertypeHierarchy(IType type, WorkingCopyOwner owner, IProgressMonitor monitor) throws JavaModelException {
+		if (!isCacheable(owner))
+			return type.newSupertypeHierarchy(owner, monitor);
+
+		synchronized (this) {
+			ITypeHierarchy hierarchy= get(type);
+			if (hierarchy != null)
+				return hierarchy;
+			for (HierarchyEntry entry : fHierarchies.values()) {
+				if (entry.fKind == KIND_SUPERTYPE_HIERARCHY && entry.fHierarchy.contains(type)) {
+					fHits++;
+					return entry.fHierarchy;
+				}
+			}
+		}
+		Object key= Arrays.asList(type, Integer.valueOf(KIND_SUPERTYPE_HIERARCHY));
+		return getOrCreate(key, KIND_SUPERTYPE_HIERARCHY, () -> type.newSupertypeHierarchy(owner, monitor), monitor);
+	}
+
+	/**
+	 * Returns the hierarchy of the region containing <code>types</code>.
+	 *
+	 * @param types the types of the region
+	 * @param owner the working copy owner, or <code>null</code> for primary working copies
+	 * @param monitor the progress monitor
+	 * @return the hierarchy of the region
+	 * @throws JavaModelException if the hierarchy cannot be created
+	 */
+	public ITypeHierarchy getRegionHierarchy(Collection<IType> types, WorkingCopyOwner owner, IProgressMonitor monitor) throws JavaModelException {
+		HierarchyFactory factory= () -> {
+			IRegion region= JavaCore.newRegion();
+			for (IType type : types) {
+				region.add(type);
+			}
+			return JavaCore.newTypeHierarchy(region, owner, monitor);
+		};
+		if (!isCacheable(owner))
+			return factory.create();
+		return getOrCreate(new RegionKey(types), KIND_REGION_HIERARCHY, factory, monitor);
+	}
+
+	/**
+	 * Returns all subtypes of <code>type</code>, from the graph if possible.
+	 *
+	 * @param type the type
+	 * @param owner the working copy owner, or <code>null</code> for primary working copies
+	 * @param monitor the progress monitor
+	 * @return all direct and indirect subtypes of <code>type</code>
+	 * @throws JavaModelException if a hierarchy has to be created and that fails
+	 */
+	public IType[] getAllSubtypes(IType type, WorkingCopyOwner owner, IProgressMonitor monitor) throws JavaModelException {
+		if (isCacheable(owner)) {
+			IType[] result= collect(type, true, false);
+			if (result != null)
+				return result;
+		}
+		return getTypeHierarchy(type, owner, monitor).getAllSubtypes(type);
+	}
+
+	/**
+	 * Returns all supertypes of <code>type</code>, from the graph if possible.
+	 *
+	 * @param type the type
+	 * @param owner the working copy owner, or <code>null</code> for primary working copies
+	 * @param monitor the progress monitor
+	 * @return all direct and indirect supertypes of <code>type</code>
+	 * @throws JavaModelException if a hierarchy has to be created and that fails
+	 */
+	public IType[] getAllSupertypes(IType type, WorkingCopyOwner owner, IProgressMonitor monitor) throws JavaModelException {
+		if (isCacheable(owner)) {
+			IType[] result= collect(type, false, false);
+			if (result != null)
+				return result;
+		}
+		return getSupertypeHierarchy(type, owner, monitor).getAllSupertypes(type);
+	}
+
+	/**
+	 * Returns all super interfaces of <code>type</code>, from the graph if possible.
+	 *
+	 * @param type the type
+	 * @param owner the working copy owner, or <code>null</code> for primary working copies
+	 * @param monitor the progress monitor
+	 * @return all direct and indirect super interfaces of <code>type</code>
+	 * @throws JavaModelException if a hierarchy has to be created and that fails
+	 */
+	public IType[] getAllSuperInterfaces(IType type, WorkingCopyOwner owner, IProgressMonitor monitor) throws JavaModelException {
+		if (isCacheable(owner)) {
+			IType[] result= collect(type, false, true);
+			if (result != null)
+				return result;
+		}
+		return getSupertypeHierarchy(type, owner, monitor).getAllSuperInterfaces(type);
+	}
+
+	/**
+	 * Removes all cached hierarchies.
+	 */
+	public synchronized void clear() {
+		for (HierarchyEntry entry : fHierarchies.values()) {
+			entry.dispose();
+		}
+		fHierarchies.clear();
+		clearGraph();
+	}
+
+	/**
+	 * @return the number of queries answered from the cache, used for testing
+	 */
+	public synchronized int getCacheHits() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of hierarchies created, used for testing
+	 */
+	public synchronized int getCacheMisses() {
+		return fMisses;
+	}
+
+	private static boolean isCacheable(WorkingCopyOwner owner) {
+		return owner == null || JavaCore.getWorkingCopies(owner).length == 0;
+	}
+
+	/*
+	 * Returns the cached hierarchy for the key, or creates and caches it. Only one thread creates the
+	 * hierarchy of a key, concurrent callers wait for it until their own monitor is canceled. If the
+	 * creation fails, waiting callers create the hierarchy themselves, with their own monitor.
+	 */
+	private ITypeHierarchy getOrCreate(Object key, int kind, HierarchyFactory factory, IProgressMonitor monitor) throws JavaModelException {
+		CompletableFuture<ITypeHierarchy> pending;
+		boolean creator= false;
+		synchronized (this) {
+			ITypeHierarchy hierarchy= get(key);
+			if (hierarchy != null)
+				return hierarchy;
+			pending= fPending.get(key);
+			if (pending == null) {
+				pending= new CompletableFuture<>();
+				fPending.put(key, pending);
+				creator= true;
+			}
+		}
+		if (!creator) {
+			while (true) {
+				if (monitor != null && monitor.isCanceled())
+					throw new OperationCanceledException();
+				try {
+					ITypeHierarchy hierarchy= pending.get(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+					synchronized (this) {
+						fHits++;
+					}
+					return hierarchy;
+				} catch (TimeoutException e) {
+					// check the monitor again
+				} catch (ExecutionException e) {
+					return factory.create();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+			}
+		}
+		try {
+			ITypeHierarchy hierarchy= factory.create();
+			synchronized (this) {
+				fPending.remove(key);
+				put(key, kind, hierarchy);
+			}
+			pending.complete(hierarchy);
+			return hierarchy;
+		} catch (JavaModelException | RuntimeException e) {
+			synchronized (this) {
+				fPending.remove(key);
+			}
+			pending.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	private synchronized ITypeHierarchy get(Object key) {
+		HierarchyEntry entry= fHierarchies.get(key);
+		if (entry == null)
+			return null;
+		fHits++;
+		return entry.fHierarchy;
+	}
+
+	private synchronized void put(Object key, int kind, ITypeHierarchy hierarchy) {
+		fMisses++;
+		HierarchyEntry old= fHierarchies.put(key, new HierarchyEntry(key, kind, hierarchy));
+		if (old != null)
+			old.dispose();
+		if (fHierarchies.size() > CACHE_SIZE) {
+			Iterator<HierarchyEntry> iterator= fHierarchies.values().iterator();
+			HierarchyEntry eldest= iterator.next();
+			iterator.remove();
+			eldest.dispose();
+			fGraphValid= false;
+		} else if (fGraphValid) {
+			addToGraph(kind, hierarchy);
+		}
+	}
+
+	private synchronized void remove(HierarchyEntry entry) {
+		if (fHierarchies.get(entry.fKey) == entry) {
+			fHierarchies.remove(entry.fKey);
+			fGraphValid= false;
+		}
+		entry.dispose();
+	}
+
+	/*
+	 * Collects the transitive closure of the subtypes or supertypes of a type, or returns null if
+	 * the graph does not know all of them.
+	 */
+	private synchronized IType[] collect(IType type, boolean subtypes, boolean interfacesOnly) {
+		validateGraph();
+		Integer id= fIds.get(type);
+		if (id == null)
+			return null;
+
+		int[][] links= subtypes ? fSubtypes : fSupertypes;
+		BitSet visited= new BitSet(fIds.size());
+		int[] queue= new int[fIds.size()];
+		int head= 0;
+		int tail= 0;
+		queue[tail++]= id.intValue();
+		visited.set(id.intValue());
+		List<IType> result= new ArrayList<>();
+		while (head < tail) {
+			int current= queue[head++];
+			int[] next= links[current];
+			if (next == null)
+				return null;
+			for (int linked : next) {
+				if (!visited.get(linked)) {
+					visited.set(linked);
+					queue[tail++]= linked;
+					if (!interfacesOnly || fInterfaces.get(linked))
+						result.add(fTypes[linked]);
+				}
+			}
+		}
+		fHits++;
+		return result.toArray(new IType[result.size()]);
+	}
+
+	private void validateGraph() {
+		if (fGraphValid)
+			return;
+
+		clearGraph();
+		for (HierarchyEntry entry : fHierarchies.values()) {
+			addToGraph(entry.fKind, entry.fHierarchy);
+		}
+		fGraphValid= true;
+	}
+
+	private void clearGraph() {
+		fIds.clear();
+		fTypes= new IType[INITIAL_CAPACITY];
+		fSupertypes= new int[INITIAL_CAPACITY][];
+		fSubtypes= new int[INITIAL_CAPACITY][];
+		fInterfaces.clear();
+		fGraphValid= true;
+	}
+
+	private void addToGraph(int kind, ITypeHierarchy hierarchy) {
+		IType focus= hierarchy.getType();
+		switch (kind) {
+			case KIND_TYPE_HIERARCHY:
+				addSupertypes(hierarchy, focus);
+				for (IType supertype : hierarchy.getAllSupertypes(focus)) {
+					addSupertypes(hierarchy, supertype);
+				}
+				addSubtypes(hierarchy, focus);
+				for (IType subtype : hierarchy.getAllSubtypes(focus)) {
+					addSubtypes(hierarchy, subtype);
+				}
+				break;
+			case KIND_SUPERTYPE_HIERARCHY:
+			case KIND_REGION_HIERARCHY:
+				for (IType type : hierarchy.getAllTypes()) {
+					addSupertypes(hierarchy, type);
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	private void addSupertypes(ITypeHierarchy hierarchy, IType type) {
+		int id= getId(hierarchy, type);
+		if (fSupertypes[id] == null)
+			fSupertypes[id]= getIds(hierarchy, hierarchy.getSupertypes(type));
+	}
+
+	private void addSubtypes(ITypeHierarchy hierarchy, IType type) {
+		int id= getId(hierarchy, type);
+		if (fSubtypes[id] == null)
+			fSubtypes[id]= getIds(hierarchy, hierarchy.getSubtypes(type));
+	}
+
+	private int[] getIds(ITypeHierarchy hierarchy, IType[] types) {
+		int[] result= new int[types.length];
+		for (int i= 0; i < types.length; i++) {
+			result[i]= getId(hierarchy, types[i]);
+		}
+		return result;
+	}
+
+	private int getId(ITypeHierarchy hierarchy, IType type) {
+		Integer id= fIds.get(type);
+		if (id != null)
+			return id.intValue();
+
+		int result= fIds.size();
+		if (result == fTypes.length) {
+			int capacity= result * 2;
+			fTypes= Arrays.copyOf(fTypes, capacity);
+			fSupertypes= Arrays.copyOf(fSupertypes, capacity);
+			fSubtypes= Arrays.copyOf(fSubtypes, capacity);
+		}
+		fIds.put(type, Integer.valueOf(result));
+		fTypes[result]= type;
+		int flags= hierarchy.getCachedFlags(type);
+		if (flags != -1 && Flags.isInterface(flags))
+			fInterfaces.set(result);
+		return result;
+	}
+}
@@ -167,6 +167,10 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 
 	public static boolean DEBUG_RESULT_COLLECTOR;
 
+	public static boolean DEBUG_CLEAN_UP_INSTRUMENTATION;
+
+	public static String CLEAN_UP_INSTRUMENTATION_REPORT;
+
 	private static JavaPlugin fgJavaPlugin;
 
 	private static LinkedHashMap<String, Long> fgRepeatedMessages= new LinkedHashMap<String, Long>(20, 0.75f, true) {
@@ -1135,6 +1139,8 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 		DEBUG_BREADCRUMB_ITEM_DROP_DOWN= options.getBooleanOption("org.eclipse.jdt.ui/debug/BreadcrumbItemDropDown", false); //$NON-NLS-1$
 		DEBUG_TYPE_CONSTRAINTS= options.getBooleanOption("org.eclipse.jdt.ui/debug/TypeConstraints", false); //$NON-NLS-1$
 		DEBUG_RESULT_COLLECTOR= options.getBooleanOption("org.eclipse.jdt.ui/debug/ResultCollector", false); //$NON-NLS-1$
+		DEBUG_CLEAN_UP_INSTRUMENTATION= options.getBooleanOption("org.eclipse.jdt.ui/debug/CleanUpInstrumentation", false); //$NON-NLS-1$
+		CLEAN_UP_INSTRUMENTATION_REPORT= options.getOption("org.eclipse.jdt.ui/debug/CleanUpInstrumentation/report", null); //$NON-NLS-1$
 	}
 
 	/**
@@ -43,7 +43,9 @@ import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix.CompilationUnitRewriteOperation;
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
 import org.eclipse.jdt.internal.corext.fix.LinkedProposalModel;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
 import org.eclipse.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
@@ -58,7 +60,7 @@ import org.eclipse.jdt.ui.text.java.IProblemLocation;
  * And it is the case for all the primitive types. The method call is automatically added at compile time.</li>
  * </ul>
  */
-public class AutoboxingCleanUp extends AbstractMultiFix {
+public class AutoboxingCleanUp extends AbstractMultiFix implements ISharedTraversalCleanUp {
 	private static final String VALUE_OF_METHOD= "valueOf"; //$NON-NLS-1$
 
 	public AutoboxingCleanUp() {
@@ -73,7 +75,7 @@ public class AutoboxingCleanUp extends AbstractMultiFix {
 	public CleanUpRequirements getRequirements() {
 		boolean requireAST= isEnabled(CleanUpConstants.USE_AUTOBOXING);
 		Map<String, String> requiredOptions= null;
-		return new CleanUpRequirements(requireAST, false, false, requiredOptions);
+		return new CleanUpRequirements(requireAST, false, false, true, requiredOptions);
 	}
 
 	@Override
@@ -97,89 +99,25 @@ public class AutoboxingCleanUp extends AbstractMultiFix {
 				+ "Character c = Character.valueOf('*');\n"; //$NON-NLS-1$
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		if (isEnabled(CleanUpConstants.USE_AUTOBOXING) && JavaModelUtil.is50OrHigher(unit.getJavaElement().getJavaProject())) {
+			multiplexer.addVisitor(this, new AutoboxingFinder(), ASTNode.METHOD_INVOCATION);
+		}
+	}
+
 	@Override
 	protected ICleanUpFix createFix(CompilationUnit unit) throws CoreException {
 		if (!isEnabled(CleanUpConstants.USE_AUTOBOXING) || !JavaModelUtil.is50OrHigher(unit.getJavaElement().getJavaProject())) {
 			return null;
 		}
 
-		final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
-
-		unit.accept(new ASTVisitor() {
-			@Override
-			public boolean visit(MethodInvocation visited) {
-				if ((ASTNodes.usesGivenSignature(visited, Boolean.class.getCanonicalName(), VALUE_OF_METHOD, boolean.class.getSimpleName())
-						|| ASTNodes.usesGivenSignature(visited, Byte.class.getCanonicalName(), VALUE_OF_METHOD, byte.class.getSimpleName())
-						|| ASTNodes.usesGivenSignature(visited, Character.class.getCanonicalName(), VALUE_OF_METHOD, char.class.getSimpleName())
-						|| ASTNodes.usesGivenSignature(visited, Short.class.getCanonicalName(), VALUE_OF_METHOD, short.class.getSimpleName())
-						|| ASTNodes.usesGivenSignature(visited, Integer.class.getCanonicalName(), VALUE_OF_METHOD, int.class.getSimpleName())
-						|| ASTNodes.usesGivenSignature(visited, Long.class.getCanonicalName(), VALUE_OF_METHOD, long.class.getSimpleName())
-						|| ASTNodes.usesGivenSignature(visited, Float.class.getCanonicalName(), VALUE_OF_METHOD, float.class.getSimpleName())
-						|| ASTNodes.usesGivenSignature(visited, Double.class.getCanonicalName(), VALUE_OF_METHOD, double.class.getSimpleName())
-						)) {
-					final ITypeBinding primitiveType= visited.resolveMethodBinding().getParameterTypes()[0];
-					final ITypeBinding wrapperClass= visited.resolveMethodBinding().getDeclaringClass();
-
-					final ITypeBinding actualResultType= ASTNodes.getTargetType(visited);
-					final ITypeBinding actualParameterType= ((Expression) visited.arguments().get(0)).resolveTypeBinding();
-
-					if (actualParameterType != null
-							&& (actualResultType != null
-							&& (actualResultType.equals(primitiveType) || actualResultType.equals(wrapperClass)))
-							|| Objects.equals(actualParameterType, wrapperClass)) {
-						ASTNode parent= visited.getParent();
-
-						if (parent instanceof ClassInstanceCreation
-								&& visited.getLocationInParent() == ClassInstanceCreation.ARGUMENTS_PROPERTY) {
-							ClassInstanceCreation classInstanceCreation= (ClassInstanceCreation) parent;
-
-							if (hasConflictingMethodOrConstructor(visited, classInstanceCreation.resolveConstructorBinding(), classInstanceCreation.arguments())) {
-								return true;
-							}
-						} else if (parent instanceof MethodInvocation
-								&& visited.getLocationInParent() == MethodInvocation.ARGUMENTS_PROPERTY) {
-							MethodInvocation methodInvocation= (MethodInvocation) parent;
-
-							if (hasConflictingMethodOrConstructor(visited, methodInvocation.resolveMethodBinding(), methodInvocation.arguments())) {
-								return true;
-							}
-						} else if (parent instanceof SuperMethodInvocation
-								&& visited.getLocationInParent() == SuperMethodInvocation.ARGUMENTS_PROPERTY) {
-							SuperMethodInvocation superMethodInvocation= (SuperMethodInvocation) parent;
-
-							if (hasConflictingMethodOrConstructor(visited, superMethodInvocation.resolveMethodBinding(), superMethodInvocation.arguments())) {
-								return true;
-							}
-						} else if (parent instanceof SuperConstructorInvocation
-								&& visited.getLocationInParent() == SuperConstructorInvocation.ARGUMENTS_PROPERTY) {
-							SuperConstructorInvocation superConstructorInvocation= (SuperConstructorInvocation) parent;
-
-							if (hasConflictingMethodOrConstructor(visited, superConstructorInvocation.resolveConstructorBinding(), superConstructorInvocation.arguments())) {
-								return true;
-							}
-						}
-
-						rewriteOperations.add(new AutoboxingOperation(visited, primitiveType, wrapperClass, actualParameterType, actualResultType));
-						return false;
-					}
-				}
-
-				return true;
-			}
-
-			private boolean hasConflictingMethodOrConstructor(final MethodInvocation visited, final IMethodBinding binding, final List<Expression> arguments) {
-				int argumentIndex= arguments.indexOf(visited);
-
-				if (argumentIndex < 0 || binding.getParameterTypes().length <= argumentIndex) {
-					return true;
-				}
-
-				ITypeBinding[] argumentTypes= binding.getParameterTypes().clone();
-				argumentTypes[argumentIndex]= visited.getExpression().resolveTypeBinding();
-
-				return ASTNodes.hasConflictingMethodOrConstructor(visited.getParent(), binding, argumentTypes);
-			}
-		});
+		AutoboxingFinder finder= MultiplexingASTVisitor.getVisitor(unit, this, AutoboxingFinder.class);
+		if (finder == null) {
+			finder= new AutoboxingFinder();
+			unit.accept(finder);
+		}
+		List<CompilationUnitRewriteOperation> rewriteOperations= finder.rewriteOperations;
 
 		if (rewriteOperations.isEmpty()) {
 			return null;
@@ -199,6 +137,84 @@ public class AutoboxingCleanUp extends AbstractMultiFix {
 		return null;
 	}
 
+	private static final class AutoboxingFinder extends ASTVisitor {
+		private final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
+
+		@Override
+		public boolean visit(MethodInvocation visited) {
+			if ((ASTNodes.usesGivenSignature(visited, Boolean.class.getCanonicalName(), VALUE_OF_METHOD, boolean.class.getSimpleName())
+					|| ASTNodes.usesGivenSignature(visited, Byte.class.getCanonicalName(), VALUE_OF_METHOD, byte.class.getSimpleName())
+					|| ASTNodes.usesGivenSignature(visited, Character.class.getCanonicalName(), VALUE_OF_METHOD, char.class.getSimpleName())
+					|| ASTNodes.usesGivenSignature(visited, Short.class.getCanonicalName(), VALUE_OF_METHOD, short.class.getSimpleName())
+					|| ASTNodes.usesGivenSignature(visited, Integer.class.getCanonicalName(), VALUE_OF_METHOD, int.class.getSimpleName())
+					|| ASTNodes.usesGivenSignature(visited, Long.class.getCanonicalName(), VALUE_OF_METHOD, long.class.getSimpleName())
+					|| ASTNodes.usesGivenSignature(visited, Float.class.getCanonicalName(), VALUE_OF_METHOD, float.class.getSimpleName())
+					|| ASTNodes.usesGivenSignature(visited, Double.class.getCanonicalName(), VALUE_OF_METHOD, double.class.getSimpleName())
+					)) {
+				final ITypeBinding primitiveType= visited.resolveMethodBinding().getParameterTypes()[0];
+				final ITypeBinding wrapperClass= visited.resolveMethodBinding().getDeclaringClass();
+
+				final ITypeBinding actualResultType= ASTNodes.getTargetType(visited);
+				final ITypeBinding actualParameterType= ((Expression) visited.arguments().get(0)).resolveTypeBinding();
+
+				if (actualParameterType != null
+						&& (actualResultType != null
+						&& (actualResultType.equals(primitiveType) || actualResultType.equals(wrapperClass)))
+						|| Objects.equals(actualParameterType, wrapperClass)) {
+					ASTNode parent= visited.getParent();
+
+					if (parent instanceof ClassInstanceCreation
+							&& visited.getLocationInParent() == ClassInstanceCreation.ARGUMENTS_PROPERTY) {
+						ClassInstanceCreation classInstanceCreation= (ClassInstanceCreation) parent;
+
+						if (hasConflictingMethodOrConstructor(visited, classInstanceCreation.resolveConstructorBinding(), classInstanceCreation.arguments())) {
+							return true;
+						}
+					} else if (parent instanceof MethodInvocation
+							&& visited.getLocationInParent() == MethodInvocation.ARGUMENTS_PROPERTY) {
+						MethodInvocation methodInvocation= (MethodInvocation) parent;
+
+						if (hasConflictingMethodOrConstructor(visited, methodInvocation.resolveMethodBinding(), methodInvocation.arguments())) {
+							return true;
+						}
+					} else if (parent instanceof SuperMethodInvocation
+							&& visited.getLocationInParent() == SuperMethodInvocation.ARGUMENTS_PROPERTY) {
+						SuperMethodInvocation superMethodInvocation= (SuperMethodInvocation) parent;
+
+						if (hasConflictingMethodOrConstructor(visited, superMethodInvocation.resolveMethodBinding(), superMethodInvocation.arguments())) {
+							return true;
+						}
+					} else if (parent instanceof SuperConstructorInvocation
+							&& visited.getLocationInParent() == SuperConstructorInvocation.ARGUMENTS_PROPERTY) {
+						SuperConstructorInvocation superConstructorInvocation= (SuperConstructorInvocation) parent;
+
+						if (hasConflictingMethodOrConstructor(visited, superConstructorInvocation.resolveConstructorBinding(), superConstructorInvocation.arguments())) {
+							return true;
+						}
+					}
+
+					rewriteOperations.add(new AutoboxingOperation(visited, primitiveType, wrapperClass, actualParameterType, actualResultType));
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		private boolean hasConflictingMethodOrConstructor(final MethodInvocation visited, final IMethodBinding binding, final List<Expression> arguments) {
+			int argumentIndex= arguments.indexOf(visited);
+
+			if (argumentIndex < 0 || binding.getParameterTypes().length <= argumentIndex) {
+				return true;
+			}
+
+			ITypeBinding[] argumentTypes= binding.getParameterTypes().clone();
+			argumentTypes[argumentIndex]= visited.getExpression().resolveTypeBinding();
+
+			return ASTNodes.hasConflictingMethodOrConstructor(visited.getParent(), binding, argumentTypes);
+		}
+	}
+
 	private static class AutoboxingOperation extends CompilationUnitRewriteOperation {
 		private final ASTNode node;
 
@@ -25,6 +25,7 @@ import org.eclipse.text.edits.TextEditGroup;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.BooleanLiteral;
 import org.eclipse.jdt.core.dom.CompilationUnit;
@@ -37,7 +38,9 @@ import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix.CompilationUnitRewriteOperation;
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
 import org.eclipse.jdt.internal.corext.fix.LinkedProposalModel;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
 import org.eclipse.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
@@ -48,7 +51,7 @@ import org.eclipse.jdt.ui.text.java.IProblemLocation;
 /**
  * A fix that replaces Boolean.TRUE/Boolean.FALSE by true/false when used as primitive.
  */
-public class BooleanLiteralCleanUp extends AbstractMultiFix implements ICleanUpFix {
+public class BooleanLiteralCleanUp extends AbstractMultiFix implements ICleanUpFix, ISharedTraversalCleanUp {
 	public BooleanLiteralCleanUp() {
 		this(Collections.emptyMap());
 	}
@@ -60,7 +63,7 @@ public class BooleanLiteralCleanUp extends AbstractMultiFix implements ICleanUpF
 	@Override
 	public CleanUpRequirements getRequirements() {
 		boolean requireAST= isEnabled(CleanUpConstants.PREFER_BOOLEAN_LITERAL);
-		return new CleanUpRequirements(requireAST, false, false, null);
+		return new CleanUpRequirements(requireAST, false, false, true, null);
 	}
 
 	@Override
@@ -81,34 +84,25 @@ public class BooleanLiteralCleanUp extends AbstractMultiFix implements ICleanUpF
 		return "boolean isActive = Boolean.TRUE;\n"; //$NON-NLS-1$
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		if (isEnabled(CleanUpConstants.PREFER_BOOLEAN_LITERAL) && JavaModelUtil.is50OrHigher(unit.getJavaElement().getJavaProject())) {
+			multiplexer.addVisitor(this, new BooleanLiteralFinder(), ASTNode.QUALIFIED_NAME);
+		}
+	}
+
 	@Override
 	protected ICleanUpFix createFix(CompilationUnit unit) throws CoreException {
 		if (!isEnabled(CleanUpConstants.PREFER_BOOLEAN_LITERAL) || !JavaModelUtil.is50OrHigher(unit.getJavaElement().getJavaProject())) {
 			return null;
 		}
 
-		final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
-
-		unit.accept(new ASTVisitor() {
-			@Override
-			public boolean visit(final QualifiedName node) {
-				ITypeBinding typeBinding= ASTNodes.getTargetType(node);
-
-				if (typeBinding != null && typeBinding.isPrimitive()) {
-					if (ASTNodes.isField(node, Boolean.class.getCanonicalName(), "TRUE")) { //$NON-NLS-1$
-						rewriteOperations.add(new BooleanLiteralOperation(node, true));
-						return false;
-					}
-
-					if (ASTNodes.isField(node, Boolean.class.getCanonicalName(), "FALSE")) { //$NON-NLS-1$
-						rewriteOperations.add(new BooleanLiteralOperation(node, false));
-						return false;
-					}
-				}
-
-				return true;
-			}
-		});
+		BooleanLiteralFinder finder= MultiplexingASTVisitor.getVisitor(unit, this, BooleanLiteralFinder.class);
+		if (finder == null) {
+			finder= new BooleanLiteralFinder();
+			unit.accept(finder);
+		}
+		List<CompilationUnitRewriteOperation> rewriteOperations= finder.rewriteOperations;
 
 		if (rewriteOperations.isEmpty()) {
 			return null;
@@ -133,6 +127,29 @@ public class BooleanLiteralCleanUp extends AbstractMultiFix implements ICleanUpF
 		return null;
 	}
 
+	private static final class BooleanLiteralFinder extends ASTVisitor {
+		private final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
+
+		@Override
+		public boolean visit(final QualifiedName node) {
+			ITypeBinding typeBinding= ASTNodes.getTargetType(node);
+
+			if (typeBinding != null && typeBinding.isPrimitive()) {
+				if (ASTNodes.isField(node, Boolean.class.getCanonicalName(), "TRUE")) { //$NON-NLS-1$
+					rewriteOperations.add(new BooleanLiteralOperation(node, true));
+					return false;
+				}
+
+				if (ASTNodes.isField(node, Boolean.class.getCanonicalName(), "FALSE")) { //$NON-NLS-1$
+					rewriteOperations.add(new BooleanLiteralOperation(node, false));
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
 	private static class BooleanLiteralOperation extends CompilationUnitRewriteOperation {
 		private final QualifiedName node;
 		private final boolean value;
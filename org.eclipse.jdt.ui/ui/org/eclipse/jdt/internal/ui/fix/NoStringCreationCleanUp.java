@@ -38,7 +38,9 @@ import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix.CompilationUnitRewriteOperation;
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
 import org.eclipse.jdt.internal.corext.fix.LinkedProposalModel;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
 import org.eclipse.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
 
 import org.eclipse.jdt.ui.cleanup.CleanUpRequirements;
@@ -48,7 +50,7 @@ import org.eclipse.jdt.ui.text.java.IProblemLocation;
 /**
  * A fix that removes a String instance from a String literal.
  */
-public class NoStringCreationCleanUp extends AbstractMultiFix {
+public class NoStringCreationCleanUp extends AbstractMultiFix implements ISharedTraversalCleanUp {
 	public NoStringCreationCleanUp() {
 		this(Collections.emptyMap());
 	}
@@ -60,7 +62,7 @@ public class NoStringCreationCleanUp extends AbstractMultiFix {
 	@Override
 	public CleanUpRequirements getRequirements() {
 		boolean requireAST= isEnabled(CleanUpConstants.NO_STRING_CREATION);
-		return new CleanUpRequirements(requireAST, false, false, null);
+		return new CleanUpRequirements(requireAST, false, false, true, null);
 	}
 
 	@Override
@@ -82,30 +84,25 @@ public class NoStringCreationCleanUp extends AbstractMultiFix {
 				+ "String bar = new String(\"foo\");\n"; //$NON-NLS-1$
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		if (isEnabled(CleanUpConstants.NO_STRING_CREATION)) {
+			multiplexer.addVisitor(this, new NoStringCreationFinder(), ASTNode.CLASS_INSTANCE_CREATION);
+		}
+	}
+
 	@Override
 	protected ICleanUpFix createFix(CompilationUnit unit) throws CoreException {
 		if (!isEnabled(CleanUpConstants.NO_STRING_CREATION)) {
 			return null;
 		}
 
-		final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
-
-		unit.accept(new ASTVisitor() {
-			@Override
-			public boolean visit(final ClassInstanceCreation node) {
-				if (ASTNodes.hasType(node, String.class.getCanonicalName()) && node.arguments().size() == 1) {
-					Expression arg0= (Expression) node.arguments().get(0);
-
-					if (ASTNodes.hasType(arg0, String.class.getCanonicalName())
-							&& (arg0 instanceof StringLiteral || arg0 instanceof InfixExpression)) {
-						rewriteOperations.add(new NoStringCreationOperation(node, arg0));
-						return false;
-					}
-				}
-
-				return true;
-			}
-		});
+		NoStringCreationFinder finder= MultiplexingASTVisitor.getVisitor(unit, this, NoStringCreationFinder.class);
+		if (finder == null) {
+			finder= new NoStringCreationFinder();
+			unit.accept(finder);
+		}
+		List<CompilationUnitRewriteOperation> rewriteOperations= finder.rewriteOperations;
 
 		if (rewriteOperations.isEmpty()) {
 			return null;
@@ -125,6 +122,25 @@ public class NoStringCreationCleanUp extends AbstractMultiFix {
 		return null;
 	}
 
+	private static final class NoStringCreationFinder extends ASTVisitor {
+		private final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
+
+		@Override
+		public boolean visit(final ClassInstanceCreation node) {
+			if (ASTNodes.hasType(node, String.class.getCanonicalName()) && node.arguments().size() == 1) {
+				Expression arg0= (Expression) node.arguments().get(0);
+
+				if (ASTNodes.hasType(arg0, String.class.getCanonicalName())
+						&& (arg0 instanceof StringLiteral || arg0 instanceof InfixExpression)) {
+					rewriteOperations.add(new NoStringCreationOperation(node, arg0));
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
 	private static class NoStringCreationOperation extends CompilationUnitRewriteOperation {
 		private final ClassInstanceCreation node;
 		private final Expression arg0;
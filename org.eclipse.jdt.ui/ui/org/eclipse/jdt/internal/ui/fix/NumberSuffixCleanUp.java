@@ -34,7 +34,9 @@ import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix.CompilationUnitRewriteOperation;
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
 import org.eclipse.jdt.internal.corext.fix.LinkedProposalModel;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
 import org.eclipse.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
 
 import org.eclipse.jdt.ui.cleanup.CleanUpRequirements;
@@ -47,7 +49,7 @@ import org.eclipse.jdt.ui.text.java.IProblemLocation;
  * <li>Lowercase suffix is ambiguous. 'l' can be seen as '1'.</li>
  * </ul>
  */
-public class NumberSuffixCleanUp extends AbstractMultiFix {
+public class NumberSuffixCleanUp extends AbstractMultiFix implements ISharedTraversalCleanUp {
 	public NumberSuffixCleanUp() {
 		this(Collections.emptyMap());
 	}
@@ -60,7 +62,7 @@ public class NumberSuffixCleanUp extends AbstractMultiFix {
 	public CleanUpRequirements getRequirements() {
 		boolean requireAST= isEnabled(CleanUpConstants.NUMBER_SUFFIX);
 		Map<String, String> requiredOptions= null;
-		return new CleanUpRequirements(requireAST, false, false, requiredOptions);
+		return new CleanUpRequirements(requireAST, false, false, true, requiredOptions);
 	}
 
 	@Override
@@ -84,27 +86,25 @@ public class NumberSuffixCleanUp extends AbstractMultiFix {
 		return bld.toString();
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		if (isEnabled(CleanUpConstants.NUMBER_SUFFIX)) {
+			multiplexer.addVisitor(this, new NumberSuffixFinder(), ASTNode.NUMBER_LITERAL);
+		}
+	}
+
 	@Override
 	protected ICleanUpFix createFix(CompilationUnit unit) throws CoreException {
 		if (!isEnabled(CleanUpConstants.NUMBER_SUFFIX)) {
 			return null;
 		}
 
-		final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
-
-		unit.accept(new ASTVisitor() {
-			@Override
-			public boolean visit(NumberLiteral node) {
-				final String token= node.getToken();
-
-				if (token.endsWith("l")) { //$NON-NLS-1$
-					rewriteOperations.add(new NumberSuffixOperation(node, token));
-					return false;
-				}
-
-				return true;
-			}
-		});
+		NumberSuffixFinder finder= MultiplexingASTVisitor.getVisitor(unit, this, NumberSuffixFinder.class);
+		if (finder == null) {
+			finder= new NumberSuffixFinder();
+			unit.accept(finder);
+		}
+		List<CompilationUnitRewriteOperation> rewriteOperations= finder.rewriteOperations;
 
 		if (rewriteOperations.isEmpty()) {
 			return null;
@@ -124,6 +124,22 @@ public class NumberSuffixCleanUp extends AbstractMultiFix {
 		return null;
 	}
 
+	private static final class NumberSuffixFinder extends ASTVisitor {
+		private final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
+
+		@Override
+		public boolean visit(NumberLiteral node) {
+			final String token= node.getToken();
+
+			if (token.endsWith("l")) { //$NON-NLS-1$
+				rewriteOperations.add(new NumberSuffixOperation(node, token));
+				return false;
+			}
+
+			return true;
+		}
+	}
+
 	private static class NumberSuffixOperation extends CompilationUnitRewriteOperation {
 		private final ASTNode node;
 
@@ -17,10 +17,15 @@ package org.eclipse.jdt.internal.ui.fix;
 import java.util.Collections;
 import java.util.Map;
 
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
+
 /**
  * A fix that uses pattern matching for the instanceof expression when possible.
  */
-public class PatternMatchingForInstanceofCleanUp extends AbstractCleanUpCoreWrapper<PatternMatchingForInstanceofCleanUpCore> {
+public class PatternMatchingForInstanceofCleanUp extends AbstractCleanUpCoreWrapper<PatternMatchingForInstanceofCleanUpCore> implements ISharedTraversalCleanUp {
 
 	public PatternMatchingForInstanceofCleanUp(final Map<String, String> options) {
 		super(options, new PatternMatchingForInstanceofCleanUpCore());
@@ -29,4 +34,9 @@ public class PatternMatchingForInstanceofCleanUp extends AbstractCleanUpCoreWrap
 	public PatternMatchingForInstanceofCleanUp() {
 		this(Collections.EMPTY_MAP);
 	}
+
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		cleanUpCore.registerVisitors(unit, multiplexer);
+	}
 }
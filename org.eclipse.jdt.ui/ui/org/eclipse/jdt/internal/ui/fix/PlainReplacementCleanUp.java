@@ -16,6 +16,11 @@ package org.eclipse.jdt.internal.ui.fix;
 import java.util.Collections;
 import java.util.Map;
 
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
+
 /**
  * A fix that replaces <code>String.replaceAll()</code> by <code>String.replace()</code> when the pattern and the
  * replacement is a plain text not containing surrogate characters:
@@ -26,7 +31,7 @@ import java.util.Map;
  * <li>If the pattern and the replacement are 1-character-long, they are replaced by chars.</li>
  * </ul>
  */
-public class PlainReplacementCleanUp extends AbstractCleanUpCoreWrapper<PlainReplacementCleanUpCore> {
+public class PlainReplacementCleanUp extends AbstractCleanUpCoreWrapper<PlainReplacementCleanUpCore> implements ISharedTraversalCleanUp {
 
 	public PlainReplacementCleanUp(final Map<String, String> options) {
 		super(options, new PlainReplacementCleanUpCore());
@@ -36,4 +41,9 @@ public class PlainReplacementCleanUp extends AbstractCleanUpCoreWrapper<PlainRep
 		this(Collections.EMPTY_MAP);
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		cleanUpCore.registerVisitors(unit, multiplexer);
+	}
+
 }
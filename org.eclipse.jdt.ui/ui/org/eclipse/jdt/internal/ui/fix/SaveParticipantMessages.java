@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ public class SaveParticipantMessages extends NLS {
 	public static String CleanUpSaveParticipantConfigurationModifyDialog_XofYSelected_Label;
 
 	public static String CleanUpSaveParticipantPreferenceConfiguration_AdditionalActions_Checkbox;
+	public static String CleanUpSaveParticipantPreferenceConfiguration_AdditionalActionsChangesOnly_Checkbox;
 	public static String CleanUpSaveParticipantPreferenceConfiguration_CleanUpActionsTopNodeName_Checkbox;
 	public static String CleanUpSaveParticipantPreferenceConfiguration_CleanUpSaveParticipantConfiguration_Title;
 	public static String CleanUpSaveParticipantPreferenceConfiguration_Configure_Button;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020 Fabrice TIERCELIN and others.
+ * Copyright (c) 2020, 2022 Fabrice TIERCELIN and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -68,7 +68,9 @@ import org.eclipse.jdt.internal.corext.dom.VarDefinitionsUsesVisitor;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix.CompilationUnitRewriteOperation;
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
 import org.eclipse.jdt.internal.corext.fix.LinkedProposalModel;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
 import org.eclipse.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
@@ -88,7 +90,7 @@ import org.eclipse.jdt.internal.ui.actions.IndentAction;
  * <li>It should retrieve the string once.</li>
  * </ul>
  */
-public class StringBuilderCleanUp extends AbstractMultiFix implements ICleanUpFix {
+public class StringBuilderCleanUp extends AbstractMultiFix implements ICleanUpFix, ISharedTraversalCleanUp {
 	public StringBuilderCleanUp() {
 		this(Collections.emptyMap());
 	}
@@ -129,404 +131,418 @@ public class StringBuilderCleanUp extends AbstractMultiFix implements ICleanUpFi
 				+ "System.out.println(variable);\n"; //$NON-NLS-1$
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		if (isEnabled(CleanUpConstants.STRINGBUILDER)) {
+			multiplexer.addVisitor(this, new StringBuilderFinder(), ASTNode.BLOCK);
+		}
+	}
+
 	@Override
 	protected ICleanUpFix createFix(final CompilationUnit unit) throws CoreException {
 		if (!isEnabled(CleanUpConstants.STRINGBUILDER)) {
 			return null;
 		}
 
-		final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
-
-		unit.accept(new ASTVisitor() {
-			class VarOccurrenceVisitor extends ASTVisitor {
-				private final Set<SimpleName> searchedVariables;
-				private final Set<SimpleName> foundVariables= new HashSet<>();
-				private final boolean hasToVisitLoops;
-
-				/**
-				 * The constructor.
-				 *
-				 * @param searchedVariables The variable to search
-				 * @param hasToVisitLoops Has to visit loops
-				 */
-				public VarOccurrenceVisitor(final Set<SimpleName> searchedVariables, final boolean hasToVisitLoops) {
-					this.searchedVariables= searchedVariables;
-					this.hasToVisitLoops= hasToVisitLoops;
-				}
+		StringBuilderFinder finder= MultiplexingASTVisitor.getVisitor(unit, this, StringBuilderFinder.class);
+		if (finder == null) {
+			finder= new StringBuilderFinder();
+			unit.accept(finder);
+		}
+		List<CompilationUnitRewriteOperation> rewriteOperations= finder.rewriteOperations;
 
-				/**
-				 * Returns the found variables.
-				 *
-				 * @return the found variables.
-				 */
-				public Set<SimpleName> getFoundVariables() {
-					return foundVariables;
-				}
+		if (rewriteOperations.isEmpty()) {
+			return null;
+		}
 
-				@Override
-				public boolean visit(final SimpleName aVariable) {
-					if (searchedVariables.contains(aVariable)) {
-						foundVariables.add(aVariable);
-					}
+		return new CompilationUnitRewriteOperationsFix(MultiFixMessages.StringBuilderCleanUp_description, unit,
+				rewriteOperations.toArray(new CompilationUnitRewriteOperation[0]));
+	}
 
-					return true;
-				}
+	private final class StringBuilderFinder extends ASTVisitor {
+		private final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
+
+		class VarOccurrenceVisitor extends ASTVisitor {
+			private final Set<SimpleName> searchedVariables;
+			private final Set<SimpleName> foundVariables= new HashSet<>();
+			private final boolean hasToVisitLoops;
+
+			/**
+			 * The constructor.
+			 *
+			 * @param searchedVariables The variable to search
+			 * @param hasToVisitLoops Has to visit loops
+			 */
+			public VarOccurrenceVisitor(final Set<SimpleName> searchedVariables, final boolean hasToVisitLoops) {
+				this.searchedVariables= searchedVariables;
+				this.hasToVisitLoops= hasToVisitLoops;
+			}
 
-				@Override
-				public boolean visit(final ForStatement node) {
-					return hasToVisitLoops;
-				}
+			/**
+			 * Returns the found variables.
+			 *
+			 * @return the found variables.
+			 */
+			public Set<SimpleName> getFoundVariables() {
+				return foundVariables;
+			}
 
-				@Override
-				public boolean visit(final EnhancedForStatement node) {
-					return hasToVisitLoops;
+			@Override
+			public boolean visit(final SimpleName aVariable) {
+				if (searchedVariables.contains(aVariable)) {
+					foundVariables.add(aVariable);
 				}
 
-				@Override
-				public boolean visit(final WhileStatement node) {
-					return hasToVisitLoops;
-				}
+				return true;
+			}
 
-				@Override
-				public boolean visit(final DoStatement node) {
-					return hasToVisitLoops;
-				}
+			@Override
+			public boolean visit(final ForStatement node) {
+				return hasToVisitLoops;
+			}
 
-				@Override
-				public boolean visit(final TypeDeclaration node) {
-					return false;
-				}
+			@Override
+			public boolean visit(final EnhancedForStatement node) {
+				return hasToVisitLoops;
+			}
 
-				@Override
-				public boolean visit(final LambdaExpression node) {
-					return false;
-				}
+			@Override
+			public boolean visit(final WhileStatement node) {
+				return hasToVisitLoops;
 			}
 
 			@Override
-			public boolean visit(final Block visited) {
-				StringOccurrencesVisitor stringOccurrencesVisitor= new StringOccurrencesVisitor(visited);
-				visited.accept(stringOccurrencesVisitor);
-				return stringOccurrencesVisitor.result;
+			public boolean visit(final DoStatement node) {
+				return hasToVisitLoops;
 			}
 
-			final class StringOccurrencesVisitor extends ASTVisitor {
-				private static final long MINIMUM_CONCATENATION_OPERAND_NUMBER_REQUIRED= 3L;
+			@Override
+			public boolean visit(final TypeDeclaration node) {
+				return false;
+			}
 
-				private final Block startNode;
-				private boolean result= true;
+			@Override
+			public boolean visit(final LambdaExpression node) {
+				return false;
+			}
+		}
 
-				public StringOccurrencesVisitor(final Block startNode) {
-					this.startNode= startNode;
-				}
+		@Override
+		public boolean visit(final Block visited) {
+			StringOccurrencesVisitor stringOccurrencesVisitor= new StringOccurrencesVisitor(visited);
+			visited.accept(stringOccurrencesVisitor);
+			return stringOccurrencesVisitor.result;
+		}
 
-				@Override
-				public boolean visit(final Block visited) {
-					return startNode == visited;
-				}
+		final class StringOccurrencesVisitor extends ASTVisitor {
+			private static final long MINIMUM_CONCATENATION_OPERAND_NUMBER_REQUIRED= 3L;
 
-				@Override
-				public boolean visit(final VariableDeclarationStatement visited) {
-					if (visited.fragments().size() != 1) {
-						return true;
-					}
+			private final Block startNode;
+			private boolean result= true;
 
-					VariableDeclarationFragment fragment= (VariableDeclarationFragment) visited.fragments().get(0);
-					return visitVariable(visited.getType(), fragment.resolveBinding(), fragment.getExtraDimensions(), fragment.getName(), fragment.getInitializer());
-				}
+			public StringOccurrencesVisitor(final Block startNode) {
+				this.startNode= startNode;
+			}
 
-				@Override
-				public boolean visit(final VariableDeclarationExpression visited) {
-					if (visited.fragments().size() != 1) {
-						return true;
-					}
+			@Override
+			public boolean visit(final Block visited) {
+				return startNode == visited;
+			}
 
-					VariableDeclarationFragment fragment= (VariableDeclarationFragment) visited.fragments().get(0);
-					return visitVariable(visited.getType(), fragment.resolveBinding(), fragment.getExtraDimensions(), fragment.getName(), fragment.getInitializer());
+			@Override
+			public boolean visit(final VariableDeclarationStatement visited) {
+				if (visited.fragments().size() != 1) {
+					return true;
 				}
 
-				@Override
-				public boolean visit(final SingleVariableDeclaration visited) {
-					return visitVariable(visited.getType(), visited.resolveBinding(), visited.getExtraDimensions(), visited.getName(), visited.getInitializer());
-				}
+				VariableDeclarationFragment fragment= (VariableDeclarationFragment) visited.fragments().get(0);
+				return visitVariable(visited.getType(), fragment.resolveBinding(), fragment.getExtraDimensions(), fragment.getName(), fragment.getInitializer());
+			}
 
-				private boolean visitVariable(final Type type, final IVariableBinding variableBinding, final int extraDimensions, final SimpleName declaration, final Expression initializer) {
-					if (!result
-							|| extraDimensions != 0
-							|| initializer == null
-							|| !ASTNodes.hasType(type.resolveBinding(), String.class.getCanonicalName())
-							|| ASTNodes.is(initializer, NullLiteral.class)) {
-						return true;
-					}
+			@Override
+			public boolean visit(final VariableDeclarationExpression visited) {
+				if (visited.fragments().size() != 1) {
+					return true;
+				}
 
-					AtomicLong concatenatedStringCount= countConcatenationOperandsInInitialization(initializer);
+				VariableDeclarationFragment fragment= (VariableDeclarationFragment) visited.fragments().get(0);
+				return visitVariable(visited.getType(), fragment.resolveBinding(), fragment.getExtraDimensions(), fragment.getName(), fragment.getInitializer());
+			}
 
-					VarDefinitionsUsesVisitor varOccurrencesVisitor= new VarDefinitionsUsesVisitor(variableBinding,
-							startNode, true);
+			@Override
+			public boolean visit(final SingleVariableDeclaration visited) {
+				return visitVariable(visited.getType(), visited.resolveBinding(), visited.getExtraDimensions(), visited.getName(), visited.getInitializer());
+			}
 
-					List<SimpleName> reads= varOccurrencesVisitor.getReads();
-					List<SimpleName> writes= varOccurrencesVisitor.getWrites();
-					writes.remove(declaration);
+			private boolean visitVariable(final Type type, final IVariableBinding variableBinding, final int extraDimensions, final SimpleName declaration, final Expression initializer) {
+				if (!result
+						|| extraDimensions != 0
+						|| initializer == null
+						|| !ASTNodes.hasType(type.resolveBinding(), String.class.getCanonicalName())
+						|| ASTNodes.is(initializer, NullLiteral.class)) {
+					return true;
+				}
 
-					// In the case of += assignment, the occurrences are counted twice
-					// but each occurrence should be processed once
-					reads.removeAll(writes);
+				AtomicLong concatenatedStringCount= countConcatenationOperandsInInitialization(initializer);
 
-					Set<SimpleName> unvisitedReads= new HashSet<>(reads);
-					Set<SimpleName> assignmentWrites= new HashSet<>();
-					Set<SimpleName> concatenationWrites= new HashSet<>();
+				VarDefinitionsUsesVisitor varOccurrencesVisitor= new VarDefinitionsUsesVisitor(variableBinding,
+						startNode, true);
 
-					for (SimpleName simpleName : writes) {
-						if (!isWriteValid(simpleName, unvisitedReads, assignmentWrites, concatenationWrites, concatenatedStringCount)) {
-							return true;
-						}
-					}
+				List<SimpleName> reads= varOccurrencesVisitor.getReads();
+				List<SimpleName> writes= varOccurrencesVisitor.getWrites();
+				writes.remove(declaration);
 
-					if (unvisitedReads.size() != 1
-							|| writes.isEmpty()
-							|| (writes.size() != assignmentWrites.size() + concatenationWrites.size())) {
-						return true;
-					}
+				// In the case of += assignment, the occurrences are counted twice
+				// but each occurrence should be processed once
+				reads.removeAll(writes);
 
-					SimpleName finalSerialization= unvisitedReads.iterator().next();
-					countConcatenationOperandsInFinalSerialization(finalSerialization, concatenatedStringCount);
-					Statement declarationStatement= ASTNodes.getTypedAncestor(type, Statement.class);
+				Set<SimpleName> unvisitedReads= new HashSet<>(reads);
+				Set<SimpleName> assignmentWrites= new HashSet<>();
+				Set<SimpleName> concatenationWrites= new HashSet<>();
 
-					if (concatenatedStringCount.get() < MINIMUM_CONCATENATION_OPERAND_NUMBER_REQUIRED
-							|| !isOccurrencesValid(declarationStatement, reads, writes, finalSerialization)) {
+				for (SimpleName simpleName : writes) {
+					if (!isWriteValid(simpleName, unvisitedReads, assignmentWrites, concatenationWrites, concatenatedStringCount)) {
 						return true;
 					}
+				}
 
-					rewriteOperations.add(new StringBuilderOperation(type, initializer, assignmentWrites, concatenationWrites, finalSerialization));
+				if (unvisitedReads.size() != 1
+						|| writes.isEmpty()
+						|| (writes.size() != assignmentWrites.size() + concatenationWrites.size())) {
+					return true;
+				}
 
-					result= false;
-					return false;
+				SimpleName finalSerialization= unvisitedReads.iterator().next();
+				countConcatenationOperandsInFinalSerialization(finalSerialization, concatenatedStringCount);
+				Statement declarationStatement= ASTNodes.getTypedAncestor(type, Statement.class);
+
+				if (concatenatedStringCount.get() < MINIMUM_CONCATENATION_OPERAND_NUMBER_REQUIRED
+						|| !isOccurrencesValid(declarationStatement, reads, writes, finalSerialization)) {
+					return true;
 				}
 
-				private AtomicLong countConcatenationOperandsInInitialization(final Expression initializer) {
-					Object emptyString= initializer.resolveConstantExpressionValue();
+				rewriteOperations.add(new StringBuilderOperation(type, initializer, assignmentWrites, concatenationWrites, finalSerialization));
 
-					if (IndentAction.EMPTY_STR.equals(emptyString)) {
-						return new AtomicLong(0L);
-					}
+				result= false;
+				return false;
+			}
 
-					InfixExpression initializerConcatenation= asStringConcatenation(initializer);
+			private AtomicLong countConcatenationOperandsInInitialization(final Expression initializer) {
+				Object emptyString= initializer.resolveConstantExpressionValue();
 
-					if (initializerConcatenation != null) {
-						return new AtomicLong(ASTNodes.allOperands(initializerConcatenation).size());
-					}
+				if (IndentAction.EMPTY_STR.equals(emptyString)) {
+					return new AtomicLong(0L);
+				}
 
-					return new AtomicLong(1L);
+				InfixExpression initializerConcatenation= asStringConcatenation(initializer);
+
+				if (initializerConcatenation != null) {
+					return new AtomicLong(ASTNodes.allOperands(initializerConcatenation).size());
 				}
 
-				private void countConcatenationOperandsInFinalSerialization(SimpleName finalSerialization, AtomicLong concatenatedStringCount) {
-					if (finalSerialization.getParent() instanceof InfixExpression) {
-						InfixExpression serializationConcatenation= (InfixExpression) finalSerialization.getParent();
+				return new AtomicLong(1L);
+			}
+
+			private void countConcatenationOperandsInFinalSerialization(SimpleName finalSerialization, AtomicLong concatenatedStringCount) {
+				if (finalSerialization.getParent() instanceof InfixExpression) {
+					InfixExpression serializationConcatenation= (InfixExpression) finalSerialization.getParent();
 
-						if (ASTNodes.hasOperator(serializationConcatenation, InfixExpression.Operator.PLUS)) {
-							List<Expression> operands= ASTNodes.allOperands(serializationConcatenation);
+					if (ASTNodes.hasOperator(serializationConcatenation, InfixExpression.Operator.PLUS)) {
+						List<Expression> operands= ASTNodes.allOperands(serializationConcatenation);
 
-							if (operands.contains(finalSerialization)) {
-								int index= operands.indexOf(finalSerialization);
-								concatenatedStringCount.addAndGet(operands.size() - index - 1);
-							}
+						if (operands.contains(finalSerialization)) {
+							int index= operands.indexOf(finalSerialization);
+							concatenatedStringCount.addAndGet(operands.size() - index - 1);
 						}
 					}
 				}
+			}
 
-				private boolean isOccurrencesValid(final Statement declaration, final List<SimpleName> reads, final List<SimpleName> writes,
-						final SimpleName finalSerialization) {
-					if (declaration != null) {
-						Set<SimpleName> remainingWrites= new HashSet<>(writes);
-						Set<SimpleName> remainingReads= new HashSet<>(reads);
-						remainingReads.remove(finalSerialization);
-						Set<SimpleName> foundVariables= findVariables(declaration, remainingReads, remainingWrites,
-								finalSerialization);
-
-						if (foundVariables.isEmpty()) {
-							List<Statement> statements= ASTNodes.getNextSiblings(declaration);
-							AtomicBoolean hasFinalReadBeenFound= new AtomicBoolean(false);
-
-							if (isOccurrenceValid(statements, remainingWrites, remainingReads, finalSerialization, hasFinalReadBeenFound)) {
-								return hasFinalReadBeenFound.get() && remainingReads.isEmpty() && remainingWrites.isEmpty();
-							}
+			private boolean isOccurrencesValid(final Statement declaration, final List<SimpleName> reads, final List<SimpleName> writes,
+					final SimpleName finalSerialization) {
+				if (declaration != null) {
+					Set<SimpleName> remainingWrites= new HashSet<>(writes);
+					Set<SimpleName> remainingReads= new HashSet<>(reads);
+					remainingReads.remove(finalSerialization);
+					Set<SimpleName> foundVariables= findVariables(declaration, remainingReads, remainingWrites,
+							finalSerialization);
+
+					if (foundVariables.isEmpty()) {
+						List<Statement> statements= ASTNodes.getNextSiblings(declaration);
+						AtomicBoolean hasFinalReadBeenFound= new AtomicBoolean(false);
+
+						if (isOccurrenceValid(statements, remainingWrites, remainingReads, finalSerialization, hasFinalReadBeenFound)) {
+							return hasFinalReadBeenFound.get() && remainingReads.isEmpty() && remainingWrites.isEmpty();
 						}
 					}
-
-					return false;
 				}
 
-				private boolean isOccurrenceValid(final List<Statement> statements, final Set<SimpleName> remainingWrites,
-						final Set<SimpleName> remainingReads, final SimpleName finalSerialization, final AtomicBoolean hasFinalReadBeenFound) {
-					for (Statement statement : statements) {
-						Set<SimpleName> foundVariables= findVariables(statement, remainingReads, remainingWrites,
-								finalSerialization);
+				return false;
+			}
 
-						if (foundVariables.contains(finalSerialization)) {
-							hasFinalReadBeenFound.set(true);
+			private boolean isOccurrenceValid(final List<Statement> statements, final Set<SimpleName> remainingWrites,
+					final Set<SimpleName> remainingReads, final SimpleName finalSerialization, final AtomicBoolean hasFinalReadBeenFound) {
+				for (Statement statement : statements) {
+					Set<SimpleName> foundVariables= findVariables(statement, remainingReads, remainingWrites,
+							finalSerialization);
 
-							if (!findVariables(statement, remainingReads, remainingWrites,
-									finalSerialization, false).contains(finalSerialization)) {
-								return false;
-							}
+					if (foundVariables.contains(finalSerialization)) {
+						hasFinalReadBeenFound.set(true);
 
-							if (remainingReads.isEmpty() && remainingWrites.isEmpty()) {
-								return true;
-							}
+						if (!findVariables(statement, remainingReads, remainingWrites,
+								finalSerialization, false).contains(finalSerialization)) {
+							return false;
+						}
 
-							if (!foundVariables.containsAll(remainingReads)
-									|| !foundVariables.containsAll(remainingWrites)) {
-								return false;
-							}
+						if (remainingReads.isEmpty() && remainingWrites.isEmpty()) {
+							return true;
+						}
 
-							IfStatement ifStatement= ASTNodes.as(statement, IfStatement.class);
+						if (!foundVariables.containsAll(remainingReads)
+								|| !foundVariables.containsAll(remainingWrites)) {
+							return false;
+						}
 
-							if (ifStatement != null) {
-								if (findVariables(ifStatement.getExpression(), remainingReads, remainingWrites,
-										finalSerialization).isEmpty()
-										&& isBlockValid(remainingWrites, remainingReads, finalSerialization, ifStatement.getThenStatement())
-										&& isBlockValid(remainingWrites, remainingReads, finalSerialization, ifStatement.getElseStatement())) {
-									remainingWrites.removeAll(foundVariables);
-									remainingReads.removeAll(foundVariables);
+						IfStatement ifStatement= ASTNodes.as(statement, IfStatement.class);
 
-									return true;
-								}
+						if (ifStatement != null) {
+							if (findVariables(ifStatement.getExpression(), remainingReads, remainingWrites,
+									finalSerialization).isEmpty()
+									&& isBlockValid(remainingWrites, remainingReads, finalSerialization, ifStatement.getThenStatement())
+									&& isBlockValid(remainingWrites, remainingReads, finalSerialization, ifStatement.getElseStatement())) {
+								remainingWrites.removeAll(foundVariables);
+								remainingReads.removeAll(foundVariables);
 
-								return false;
+								return true;
 							}
 
-							TryStatement tryStatement= ASTNodes.as(statement, TryStatement.class);
+							return false;
+						}
 
-							if (tryStatement != null
-									&& isEmptyNodes(tryStatement.resources(), remainingReads, remainingWrites,
-											finalSerialization)
-									&& isBlockValid(remainingWrites, remainingReads, finalSerialization, tryStatement.getBody())) {
-								for (Object catchClause : tryStatement.catchClauses()) {
-									if (!isBlockValid(remainingWrites, remainingReads, finalSerialization, ((CatchClause) catchClause).getBody())) {
-										return false;
-									}
-								}
+						TryStatement tryStatement= ASTNodes.as(statement, TryStatement.class);
 
-								return isBlockValid(remainingWrites, remainingReads, finalSerialization, tryStatement.getFinally());
+						if (tryStatement != null
+								&& isEmptyNodes(tryStatement.resources(), remainingReads, remainingWrites,
+										finalSerialization)
+								&& isBlockValid(remainingWrites, remainingReads, finalSerialization, tryStatement.getBody())) {
+							for (Object catchClause : tryStatement.catchClauses()) {
+								if (!isBlockValid(remainingWrites, remainingReads, finalSerialization, ((CatchClause) catchClause).getBody())) {
+									return false;
+								}
 							}
 
-							return false;
+							return isBlockValid(remainingWrites, remainingReads, finalSerialization, tryStatement.getFinally());
 						}
 
-						remainingWrites.removeAll(foundVariables);
-						remainingReads.removeAll(foundVariables);
+						return false;
 					}
 
-					return true;
+					remainingWrites.removeAll(foundVariables);
+					remainingReads.removeAll(foundVariables);
 				}
 
-				private boolean isBlockValid(final Set<SimpleName> remainingWrites, final Set<SimpleName> remainingReads,
-						final SimpleName finalSerialization, final Statement subStatement) {
-					Set<SimpleName> subRemainingWrites= new HashSet<>(remainingWrites);
-					Set<SimpleName> subRemainingReads= new HashSet<>(remainingReads);
-					AtomicBoolean subHasFinalReadBeenFound= new AtomicBoolean(false);
+				return true;
+			}
 
-					return isOccurrenceValid(ASTNodes.asList(subStatement), subRemainingWrites, subRemainingReads, finalSerialization, subHasFinalReadBeenFound)
-							&& subHasFinalReadBeenFound.get() == (subRemainingReads.isEmpty() && subRemainingWrites.isEmpty());
-				}
+			private boolean isBlockValid(final Set<SimpleName> remainingWrites, final Set<SimpleName> remainingReads,
+					final SimpleName finalSerialization, final Statement subStatement) {
+				Set<SimpleName> subRemainingWrites= new HashSet<>(remainingWrites);
+				Set<SimpleName> subRemainingReads= new HashSet<>(remainingReads);
+				AtomicBoolean subHasFinalReadBeenFound= new AtomicBoolean(false);
 
-				private boolean isEmptyNodes(final List<?> nodes, final Set<SimpleName> remainingReads,
-						final Set<SimpleName> remainingWrites, final SimpleName finalSerialization) {
-					if (nodes != null) {
-						for (Object currentNode : nodes) {
-							if (!findVariables((ASTNode) currentNode, remainingReads, remainingWrites,
-									finalSerialization).isEmpty()) {
-								return false;
-							}
+				return isOccurrenceValid(ASTNodes.asList(subStatement), subRemainingWrites, subRemainingReads, finalSerialization, subHasFinalReadBeenFound)
+						&& subHasFinalReadBeenFound.get() == (subRemainingReads.isEmpty() && subRemainingWrites.isEmpty());
+			}
+
+			private boolean isEmptyNodes(final List<?> nodes, final Set<SimpleName> remainingReads,
+					final Set<SimpleName> remainingWrites, final SimpleName finalSerialization) {
+				if (nodes != null) {
+					for (Object currentNode : nodes) {
+						if (!findVariables((ASTNode) currentNode, remainingReads, remainingWrites,
+								finalSerialization).isEmpty()) {
+							return false;
 						}
 					}
-
-					return true;
-				}
-
-				private Set<SimpleName> findVariables(final ASTNode currentNode, final Set<SimpleName> remainingReads,
-						final Set<SimpleName> remainingWrites, final SimpleName finalSerialization) {
-					return findVariables(currentNode, remainingReads, remainingWrites, finalSerialization, true);
 				}
 
-				private Set<SimpleName> findVariables(final ASTNode currentNode, final Set<SimpleName> remainingReads,
-						final Set<SimpleName> remainingWrites, final SimpleName finalSerialization, final boolean hasToVisitLoops) {
-					if (currentNode == null) {
-						return Collections.emptySet();
-					}
+				return true;
+			}
 
-					Set<SimpleName> searchedVariables= new HashSet<>(remainingReads);
-					searchedVariables.addAll(remainingWrites);
-					searchedVariables.add(finalSerialization);
-					VarOccurrenceVisitor varOccurrenceVisitor= new VarOccurrenceVisitor(searchedVariables, hasToVisitLoops);
-					currentNode.accept(varOccurrenceVisitor);
+			private Set<SimpleName> findVariables(final ASTNode currentNode, final Set<SimpleName> remainingReads,
+					final Set<SimpleName> remainingWrites, final SimpleName finalSerialization) {
+				return findVariables(currentNode, remainingReads, remainingWrites, finalSerialization, true);
+			}
 
-					return varOccurrenceVisitor.getFoundVariables();
+			private Set<SimpleName> findVariables(final ASTNode currentNode, final Set<SimpleName> remainingReads,
+					final Set<SimpleName> remainingWrites, final SimpleName finalSerialization, final boolean hasToVisitLoops) {
+				if (currentNode == null) {
+					return Collections.emptySet();
 				}
 
-				private boolean isWriteValid(final SimpleName simpleName,
-						final Set<SimpleName> unvisitedReads,
-						final Set<SimpleName> assignmentWrites,
-						final Set<SimpleName> concatenationWrites,
-						final AtomicLong concatenatedStringCount) {
-					if (simpleName.getParent() instanceof Assignment) {
-						Assignment assignment= (Assignment) simpleName.getParent();
-
-						if (assignment.getParent() instanceof ExpressionStatement
-								&& simpleName.getLocationInParent() == Assignment.LEFT_HAND_SIDE_PROPERTY) {
-							if (ASTNodes.hasOperator(assignment, Assignment.Operator.PLUS_ASSIGN)) {
-								InfixExpression concatenation= asStringConcatenation((assignment.getRightHandSide()));
-
-								if (concatenation != null) {
-									concatenatedStringCount.addAndGet(ASTNodes.allOperands(concatenation).size());
-								} else {
-									concatenatedStringCount.incrementAndGet();
-								}
+				Set<SimpleName> searchedVariables= new HashSet<>(remainingReads);
+				searchedVariables.addAll(remainingWrites);
+				searchedVariables.add(finalSerialization);
+				VarOccurrenceVisitor varOccurrenceVisitor= new VarOccurrenceVisitor(searchedVariables, hasToVisitLoops);
+				currentNode.accept(varOccurrenceVisitor);
 
-								assignmentWrites.add(simpleName);
-								enoughConcatenationsIfInsideALoop(simpleName, concatenatedStringCount);
+				return varOccurrenceVisitor.getFoundVariables();
+			}
 
-								return true;
+			private boolean isWriteValid(final SimpleName simpleName,
+					final Set<SimpleName> unvisitedReads,
+					final Set<SimpleName> assignmentWrites,
+					final Set<SimpleName> concatenationWrites,
+					final AtomicLong concatenatedStringCount) {
+				if (simpleName.getParent() instanceof Assignment) {
+					Assignment assignment= (Assignment) simpleName.getParent();
+
+					if (assignment.getParent() instanceof ExpressionStatement
+							&& simpleName.getLocationInParent() == Assignment.LEFT_HAND_SIDE_PROPERTY) {
+						if (ASTNodes.hasOperator(assignment, Assignment.Operator.PLUS_ASSIGN)) {
+							InfixExpression concatenation= asStringConcatenation((assignment.getRightHandSide()));
+
+							if (concatenation != null) {
+								concatenatedStringCount.addAndGet(ASTNodes.allOperands(concatenation).size());
+							} else {
+								concatenatedStringCount.incrementAndGet();
 							}
 
-							if (ASTNodes.hasOperator(assignment, Assignment.Operator.ASSIGN)) {
-								InfixExpression concatenation= asStringConcatenation((assignment.getRightHandSide()));
+							assignmentWrites.add(simpleName);
+							enoughConcatenationsIfInsideALoop(simpleName, concatenatedStringCount);
+
+							return true;
+						}
 
-								if (concatenation != null) {
-									SimpleName stringRead= ASTNodes.as(concatenation.getLeftOperand(), SimpleName.class);
+						if (ASTNodes.hasOperator(assignment, Assignment.Operator.ASSIGN)) {
+							InfixExpression concatenation= asStringConcatenation((assignment.getRightHandSide()));
 
-									if (stringRead != null
-											&& unvisitedReads.contains(stringRead)) {
-										concatenatedStringCount.addAndGet(ASTNodes.allOperands(concatenation).size() - 1);
-										unvisitedReads.remove(stringRead);
-										concatenationWrites.add(simpleName);
-										enoughConcatenationsIfInsideALoop(simpleName, concatenatedStringCount);
-										return true;
-									}
+							if (concatenation != null) {
+								SimpleName stringRead= ASTNodes.as(concatenation.getLeftOperand(), SimpleName.class);
+
+								if (stringRead != null
+										&& unvisitedReads.contains(stringRead)) {
+									concatenatedStringCount.addAndGet(ASTNodes.allOperands(concatenation).size() - 1);
+									unvisitedReads.remove(stringRead);
+									concatenationWrites.add(simpleName);
+									enoughConcatenationsIfInsideALoop(simpleName, concatenatedStringCount);
+									return true;
 								}
 							}
 						}
 					}
-
-					return false;
 				}
 
-				private void enoughConcatenationsIfInsideALoop(final SimpleName simpleName, final AtomicLong concatenatedStringCount) {
-					ASTNode loop= ASTNodes.getFirstAncestorOrNull(simpleName, EnhancedForStatement.class, WhileStatement.class, ForStatement.class, DoStatement.class);
+				return false;
+			}
 
-					if (loop != null && ASTNodes.isParent(loop, startNode)) {
-						concatenatedStringCount.set(MINIMUM_CONCATENATION_OPERAND_NUMBER_REQUIRED);
-					}
+			private void enoughConcatenationsIfInsideALoop(final SimpleName simpleName, final AtomicLong concatenatedStringCount) {
+				ASTNode loop= ASTNodes.getFirstAncestorOrNull(simpleName, EnhancedForStatement.class, WhileStatement.class, ForStatement.class, DoStatement.class);
+
+				if (loop != null && ASTNodes.isParent(loop, startNode)) {
+					concatenatedStringCount.set(MINIMUM_CONCATENATION_OPERAND_NUMBER_REQUIRED);
 				}
 			}
-		});
-
-		if (rewriteOperations.isEmpty()) {
-			return null;
 		}
-
-		return new CompilationUnitRewriteOperationsFix(MultiFixMessages.StringBuilderCleanUp_description, unit,
-				rewriteOperations.toArray(new CompilationUnitRewriteOperation[0]));
 	}
 
 	private static InfixExpression asStringConcatenation(final Expression expression) {
@@ -41,7 +41,9 @@ import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix;
 import org.eclipse.jdt.internal.corext.fix.CompilationUnitRewriteOperationsFix.CompilationUnitRewriteOperation;
+import org.eclipse.jdt.internal.corext.fix.ISharedTraversalCleanUp;
 import org.eclipse.jdt.internal.corext.fix.LinkedProposalModel;
+import org.eclipse.jdt.internal.corext.fix.MultiplexingASTVisitor;
 import org.eclipse.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
@@ -56,7 +58,7 @@ import org.eclipse.jdt.ui.text.java.IProblemLocation;
  * And it is the case for all the primitive wrappers. The method call is automatically added at compile time.</li>
  * </ul>
  */
-public class UnboxingCleanUp extends AbstractMultiFix {
+public class UnboxingCleanUp extends AbstractMultiFix implements ISharedTraversalCleanUp {
 	private static final String DOUBLE_VALUE= "doubleValue"; //$NON-NLS-1$
 	private static final String FLOAT_VALUE= "floatValue"; //$NON-NLS-1$
 	private static final String LONG_VALUE= "longValue"; //$NON-NLS-1$
@@ -78,7 +80,7 @@ public class UnboxingCleanUp extends AbstractMultiFix {
 	public CleanUpRequirements getRequirements() {
 		boolean requireAST= isEnabled(CleanUpConstants.USE_UNBOXING);
 		Map<String, String> requiredOptions= null;
-		return new CleanUpRequirements(requireAST, false, false, requiredOptions);
+		return new CleanUpRequirements(requireAST, false, false, true, requiredOptions);
 	}
 
 	@Override
@@ -107,93 +109,25 @@ public class UnboxingCleanUp extends AbstractMultiFix {
 		return bld.toString();
 	}
 
+	@Override
+	public void registerVisitors(CompilationUnit unit, MultiplexingASTVisitor multiplexer) {
+		if (isEnabled(CleanUpConstants.USE_UNBOXING) && JavaModelUtil.is50OrHigher(unit.getJavaElement().getJavaProject())) {
+			multiplexer.addVisitor(this, new UnboxingFinder(), ASTNode.METHOD_INVOCATION);
+		}
+	}
+
 	@Override
 	protected ICleanUpFix createFix(CompilationUnit unit) throws CoreException {
 		if (!isEnabled(CleanUpConstants.USE_UNBOXING) || !JavaModelUtil.is50OrHigher(unit.getJavaElement().getJavaProject())) {
 			return null;
 		}
 
-		final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
-
-		unit.accept(new ASTVisitor() {
-			@Override
-			public boolean visit(MethodInvocation visited) {
-				ASTNode parent= visited.getParent();
-				while (parent != null && parent instanceof ParenthesizedExpression) {
-					parent= parent.getParent();
-				}
-				if (parent instanceof CastExpression) {
-					return true;
-				}
-				if (visited.getExpression() != null) {
-					ITypeBinding nodeBinding= visited.getExpression().resolveTypeBinding();
-
-					if (nodeBinding != null	&& nodeBinding.isClass()
-							&& (ASTNodes.usesGivenSignature(visited, Boolean.class.getCanonicalName(), BOOLEAN_VALUE)
-									|| ASTNodes.usesGivenSignature(visited, Byte.class.getCanonicalName(), BYTE_VALUE)
-									|| ASTNodes.usesGivenSignature(visited, Character.class.getCanonicalName(), CHAR_VALUE)
-									|| ASTNodes.usesGivenSignature(visited, Short.class.getCanonicalName(), SHORT_VALUE)
-									|| ASTNodes.usesGivenSignature(visited, Integer.class.getCanonicalName(), INT_VALUE)
-									|| ASTNodes.usesGivenSignature(visited, Long.class.getCanonicalName(), LONG_VALUE)
-									|| ASTNodes.usesGivenSignature(visited, Float.class.getCanonicalName(), FLOAT_VALUE)
-									|| ASTNodes.usesGivenSignature(visited, Double.class.getCanonicalName(), DOUBLE_VALUE))) {
-						final ITypeBinding actualResultType= ASTNodes.getTargetType(visited);
-
-						if (actualResultType != null && actualResultType.isAssignmentCompatible(visited.resolveTypeBinding())) {
-							parent= visited.getParent();
-
-							if (parent instanceof ClassInstanceCreation
-									&& visited.getLocationInParent() == ClassInstanceCreation.ARGUMENTS_PROPERTY) {
-								ClassInstanceCreation classInstanceCreation= (ClassInstanceCreation) parent;
-
-								if (hasConflictingMethodOrConstructor(visited, classInstanceCreation.resolveConstructorBinding(), classInstanceCreation.arguments())) {
-									return true;
-								}
-							} else if (parent instanceof MethodInvocation
-									&& visited.getLocationInParent() == MethodInvocation.ARGUMENTS_PROPERTY) {
-								MethodInvocation methodInvocation= (MethodInvocation) parent;
-
-								if (hasConflictingMethodOrConstructor(visited, methodInvocation.resolveMethodBinding(), methodInvocation.arguments())) {
-									return true;
-								}
-							} else if (parent instanceof SuperMethodInvocation
-									&& visited.getLocationInParent() == SuperMethodInvocation.ARGUMENTS_PROPERTY) {
-								SuperMethodInvocation superMethodInvocation= (SuperMethodInvocation) parent;
-
-								if (hasConflictingMethodOrConstructor(visited, superMethodInvocation.resolveMethodBinding(), superMethodInvocation.arguments())) {
-									return true;
-								}
-							} else if (parent instanceof SuperConstructorInvocation
-									&& visited.getLocationInParent() == SuperConstructorInvocation.ARGUMENTS_PROPERTY) {
-								SuperConstructorInvocation superConstructorInvocation= (SuperConstructorInvocation) parent;
-
-								if (hasConflictingMethodOrConstructor(visited, superConstructorInvocation.resolveConstructorBinding(), superConstructorInvocation.arguments())) {
-									return true;
-								}
-							}
-
-							rewriteOperations.add(new UnboxingOperation(visited));
-							return false;
-						}
-					}
-				}
-
-				return true;
-			}
-
-			private boolean hasConflictingMethodOrConstructor(final MethodInvocation visited, final IMethodBinding binding, final List<Expression> arguments) {
-				int argumentIndex= arguments.indexOf(visited);
-
-				if (argumentIndex < 0 || binding.getParameterTypes().length <= argumentIndex) {
-					return true;
-				}
-
-				ITypeBinding[] argumentTypes= binding.getParameterTypes().clone();
-				argumentTypes[argumentIndex]= visited.getExpression().resolveTypeBinding();
-
-				return ASTNodes.hasConflictingMethodOrConstructor(visited.getParent(), binding, argumentTypes);
-			}
-		});
+		UnboxingFinder finder= MultiplexingASTVisitor.getVisitor(unit, this, UnboxingFinder.class);
+		if (finder == null) {
+			finder= new UnboxingFinder();
+			unit.accept(finder);
+		}
+		List<CompilationUnitRewriteOperation> rewriteOperations= finder.rewriteOperations;
 
 		if (rewriteOperations.isEmpty()) {
 			return null;
@@ -213,6 +147,88 @@ public class UnboxingCleanUp extends AbstractMultiFix {
 		return null;
 	}
 
+	private static final class UnboxingFinder extends ASTVisitor {
+		private final List<CompilationUnitRewriteOperation> rewriteOperations= new ArrayList<>();
+
+		@Override
+		public boolean visit(MethodInvocation visited) {
+			ASTNode parent= visited.getParent();
+			while (parent != null && parent instanceof ParenthesizedExpression) {
+				parent= parent.getParent();
+			}
+			if (parent instanceof CastExpression) {
+				return true;
+			}
+			if (visited.getExpression() != null) {
+				ITypeBinding nodeBinding= visited.getExpression().resolveTypeBinding();
+
+				if (nodeBinding != null	&& nodeBinding.isClass()
+						&& (ASTNodes.usesGivenSignature(visited, Boolean.class.getCanonicalName(), BOOLEAN_VALUE)
+								|| ASTNodes.usesGivenSignature(visited, Byte.class.getCanonicalName(), BYTE_VALUE)
+								|| ASTNodes.usesGivenSignature(visited, Character.class.getCanonicalName(), CHAR_VALUE)
+								|| ASTNodes.usesGivenSignature(visited, Short.class.getCanonicalName(), SHORT_VALUE)
+								|| ASTNodes.usesGivenSignature(visited, Integer.class.getCanonicalName(), INT_VALUE)
+								|| ASTNodes.usesGivenSignature(visited, Long.class.getCanonicalName(), LONG_VALUE)
+								|| ASTNodes.usesGivenSignature(visited, Float.class.getCanonicalName(), FLOAT_VALUE)
+								|| ASTNodes.usesGivenSignature(visited, Double.class.getCanonicalName(), DOUBLE_VALUE))) {
+					final ITypeBinding actualResultType= ASTNodes.getTargetType(visited);
+
+					if (actualResultType != null && actualResultType.isAssignmentCompatible(visited.resolveTypeBinding())) {
+						parent= visited.getParent();
+
+						if (parent instanceof ClassInstanceCreation
+								&& visited.getLocationInParent() == ClassInstanceCreation.ARGUMENTS_PROPERTY) {
+							ClassInstanceCreation classInstanceCreation= (ClassInstanceCreation) parent;
+
+							if (hasConflictingMethodOrConstructor(visited, classInstanceCreation.resolveConstructorBinding(), classInstanceCreation.arguments())) {
+								return true;
+							}
+						} else if (parent instanceof MethodInvocation
+								&& visited.getLocationInParent() == MethodInvocation.ARGUMENTS_PROPERTY) {
+							MethodInvocation methodInvocation= (MethodInvocation) parent;
+
+							if (hasConflictingMethodOrConstructor(visited, methodInvocation.resolveMethodBinding(), methodInvocation.arguments())) {
+								return true;
+							}
+						} else if (parent instanceof SuperMethodInvocation
+								&& visited.getLocationInParent() == SuperMethodInvocation.ARGUMENTS_PROPERTY) {
+							SuperMethodInvocation superMethodInvocation= (SuperMethodInvocation) parent;
+
+							if (hasConflictingMethodOrConstructor(visited, superMethodInvocation.resolveMethodBinding(), superMethodInvocation.arguments())) {
+								return true;
+							}
+						} else if (parent instanceof SuperConstructorInvocation
+								&& visited.getLocationInParent() == SuperConstructorInvocation.ARGUMENTS_PROPERTY) {
+							SuperConstructorInvocation superConstructorInvocation= (SuperConstructorInvocation) parent;
+
+							if (hasConflictingMethodOrConstructor(visited, superConstructorInvocation.resolveConstructorBinding(), superConstructorInvocation.arguments())) {
+								return true;
+							}
+						}
+
+						rewriteOperations.add(new UnboxingOperation(visited));
+						return false;
+					}
+				}
+			}
+
+			return true;
+		}
+
+		private boolean hasConflictingMethodOrConstructor(final MethodInvocation visited, final IMethodBinding binding, final List<Expression> arguments) {
+			int argumentIndex= arguments.indexOf(visited);
+
+			if (argumentIndex < 0 || binding.getParameterTypes().length <= argumentIndex) {
+				return true;
+			}
+
+			ITypeBinding[] argumentTypes= binding.getParameterTypes().clone();
+			argumentTypes[argumentIndex]= visited.getExpression().resolveTypeBinding();
+
+			return ASTNodes.hasConflictingMethodOrConstructor(visited.getParent(), binding, argumentTypes);
+		}
+	}
+
 	private static class UnboxingOperation extends CompilationUnitRewriteOperation {
 		private final MethodInvocation node;
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -98,6 +98,7 @@ public class SpellingConfigurationBlock extends OptionsConfigurationBlock {
 	private static final Key PREF_SPELLING_IGNORE_AMPERSAND_IN_PROPERTIES= getJDTUIKey(PreferenceConstants.SPELLING_IGNORE_AMPERSAND_IN_PROPERTIES);
 	private static final Key PREF_SPELLING_LOCALE= getJDTUIKey(PreferenceConstants.SPELLING_LOCALE);
 	private static final Key PREF_SPELLING_PROPOSAL_THRESHOLD= getJDTUIKey(PreferenceConstants.SPELLING_PROPOSAL_THRESHOLD);
+	private static final Key PREF_SPELLING_PROPOSAL_ENGINE= getJDTUIKey(PreferenceConstants.SPELLING_PROPOSAL_ENGINE);
 	private static final Key PREF_SPELLING_PROBLEMS_THRESHOLD= getJDTUIKey(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD);
 	private static final Key PREF_SPELLING_USER_DICTIONARY= getJDTUIKey(PreferenceConstants.SPELLING_USER_DICTIONARY);
 	private static final Key PREF_SPELLING_USER_DICTIONARY_ENCODING= getJDTUIKey(PreferenceConstants.SPELLING_USER_DICTIONARY_ENCODING);
@@ -320,10 +321,12 @@ public class SpellingConfigurationBlock extends OptionsConfigurationBlock {
 
 		String currValue= getValue(key);
 
-		Locale locale= SpellCheckEngine.convertToLocale(currValue);
-		locale= SpellCheckEngine.findClosestLocale(locale);
-		if (locale != null)
-			currValue= locale.toString();
+		if (PREF_SPELLING_LOCALE.equals(key)) {
+			Locale locale= SpellCheckEngine.convertToLocale(currValue);
+			locale= SpellCheckEngine.findClosestLocale(locale);
+			if (locale != null)
+				currValue= locale.toString();
+		}
 
 		comboBox.select(data.getSelection(currValue));
 
@@ -480,6 +483,13 @@ public class SpellingConfigurationBlock extends OptionsConfigurationBlock {
 		allControls.add(text);
 		allControls.add(fLabels.get(text));
 
+		label= PreferencesMessages.SpellingPreferencePage_proposal_engine_label;
+		String[] engines= { PreferenceConstants.SPELLING_PROPOSAL_ENGINE_PHONETIC, PreferenceConstants.SPELLING_PROPOSAL_ENGINE_EDIT_DISTANCE };
+		String[] engineLabels= { PreferencesMessages.SpellingPreferencePage_proposal_engine_phonetic, PreferencesMessages.SpellingPreferencePage_proposal_engine_edit_distance };
+		Combo combo= addComboBox(advanced, label, PREF_SPELLING_PROPOSAL_ENGINE, engines, engineLabels, 0);
+		allControls.add(combo);
+		allControls.add(fLabels.get(combo));
+
 		if (SUPPORT_CONTENT_ASSIST_PROPOSALS) {
 			label= PreferencesMessages.SpellingPreferencePage_enable_contentassist_label;
 			button= addCheckBox(advanced, label, PREF_SPELLING_ENABLE_CONTENTASSIST, trueFalse, 0);
@@ -555,9 +565,9 @@ public class SpellingConfigurationBlock extends OptionsConfigurationBlock {
 
 	private static Key[] getAllKeys() {
 		if (SUPPORT_CONTENT_ASSIST_PROPOSALS)
-			return new Key[] { PREF_SPELLING_USER_DICTIONARY, PREF_SPELLING_USER_DICTIONARY_ENCODING, PREF_SPELLING_IGNORE_DIGITS, PREF_SPELLING_IGNORE_MIXED, PREF_SPELLING_IGNORE_SENTENCE, PREF_SPELLING_IGNORE_UPPER, PREF_SPELLING_IGNORE_URLS, PREF_SPELLING_IGNORE_AMPERSAND_IN_PROPERTIES, PREF_SPELLING_IGNORE_NON_LETTERS, PREF_SPELLING_IGNORE_SINGLE_LETTERS, PREF_SPELLING_LOCALE, PREF_SPELLING_PROPOSAL_THRESHOLD, PREF_SPELLING_PROBLEMS_THRESHOLD, PREF_SPELLING_ENABLE_CONTENTASSIST, PREF_SPELLING_IGNORE_JAVA_STRINGS };
+			return new Key[] { PREF_SPELLING_USER_DICTIONARY, PREF_SPELLING_USER_DICTIONARY_ENCODING, PREF_SPELLING_IGNORE_DIGITS, PREF_SPELLING_IGNORE_MIXED, PREF_SPELLING_IGNORE_SENTENCE, PREF_SPELLING_IGNORE_UPPER, PREF_SPELLING_IGNORE_URLS, PREF_SPELLING_IGNORE_AMPERSAND_IN_PROPERTIES, PREF_SPELLING_IGNORE_NON_LETTERS, PREF_SPELLING_IGNORE_SINGLE_LETTERS, PREF_SPELLING_LOCALE, PREF_SPELLING_PROPOSAL_THRESHOLD, PREF_SPELLING_PROPOSAL_ENGINE, PREF_SPELLING_PROBLEMS_THRESHOLD, PREF_SPELLING_ENABLE_CONTENTASSIST, PREF_SPELLING_IGNORE_JAVA_STRINGS };
 		else
-			return new Key[] { PREF_SPELLING_USER_DICTIONARY, PREF_SPELLING_USER_DICTIONARY_ENCODING, PREF_SPELLING_IGNORE_DIGITS, PREF_SPELLING_IGNORE_MIXED, PREF_SPELLING_IGNORE_SENTENCE, PREF_SPELLING_IGNORE_UPPER, PREF_SPELLING_IGNORE_URLS, PREF_SPELLING_IGNORE_AMPERSAND_IN_PROPERTIES, PREF_SPELLING_IGNORE_NON_LETTERS, PREF_SPELLING_IGNORE_SINGLE_LETTERS, PREF_SPELLING_LOCALE, PREF_SPELLING_PROPOSAL_THRESHOLD, PREF_SPELLING_PROBLEMS_THRESHOLD, PREF_SPELLING_IGNORE_JAVA_STRINGS };
+			return new Key[] { PREF_SPELLING_USER_DICTIONARY, PREF_SPELLING_USER_DICTIONARY_ENCODING, PREF_SPELLING_IGNORE_DIGITS, PREF_SPELLING_IGNORE_MIXED, PREF_SPELLING_IGNORE_SENTENCE, PREF_SPELLING_IGNORE_UPPER, PREF_SPELLING_IGNORE_URLS, PREF_SPELLING_IGNORE_AMPERSAND_IN_PROPERTIES, PREF_SPELLING_IGNORE_NON_LETTERS, PREF_SPELLING_IGNORE_SINGLE_LETTERS, PREF_SPELLING_LOCALE, PREF_SPELLING_PROPOSAL_THRESHOLD, PREF_SPELLING_PROPOSAL_ENGINE, PREF_SPELLING_PROBLEMS_THRESHOLD, PREF_SPELLING_IGNORE_JAVA_STRINGS };
 	}
 
 	/*
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,9 +13,22 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
+import org.eclipse.jface.preference.IPreferenceStore;
+
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
@@ -27,16 +40,178 @@ import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
 import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.text.IJavaPartitions;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultSpellChecker;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEvent;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEventListener;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
 
 
 /**
  * Java spelling engine
+ * <p>
+ * The spelling events of each partition are cached per document, keyed by the partition's type,
+ * length and a hash of its content. A reconcile only checks partitions whose content changed; the events of the other
+ * partitions are reported again at their new offsets. Changed partitions are checked on a small
+ * worker pool.
+ * </p>
  *
  * @since 3.1
  */
 public class JavaSpellingEngine extends SpellingEngine {
 
+	/**
+	 * Spell event of a cached partition, moved to the current offset of the partition.
+	 *
+	 * @since 3.27
+	 */
+	private static final class MovedSpellEvent implements ISpellEvent {
+
+		private final ISpellEvent fEvent;
+		private final int fDelta;
+
+		public MovedSpellEvent(ISpellEvent event, int delta) {
+			fEvent= event;
+			fDelta= delta;
+		}
+
+		@Override
+		public int getBegin() {
+			return fEvent.getBegin() + fDelta;
+		}
+
+		@Override
+		public int getEnd() {
+			return fEvent.getEnd() + fDelta;
+		}
+
+		@Override
+		public Set<RankedWordProposal> getProposals() {
+			return fEvent.getProposals();
+		}
+
+		@Override
+		public String getWord() {
+			return fEvent.getWord();
+		}
+
+		@Override
+		public boolean isMatch() {
+			return fEvent.isMatch();
+		}
+
+		@Override
+		public boolean isStart() {
+			return fEvent.isStart();
+		}
+	}
+
+	/**
+	 * The spell events of a partition.
+	 *
+	 * @since 3.27
+	 */
+	private static final class PartitionResult implements ISpellEventListener {
+
+		private final int fOffset;
+		private final List<ISpellEvent> fEvents= new ArrayList<>();
+
+		public PartitionResult(int offset) {
+			fOffset= offset;
+		}
+
+		@Override
+		public void handle(ISpellEvent event) {
+			fEvents.add(event);
+		}
+	}
+
+	/**
+	 * Identifies a partition by its type, length and a 64 bit hash of its content, so that the
+	 * cache does not keep a copy of the document's comments and strings.
+	 *
+	 * @since 3.27
+	 */
+	private static final class PartitionKey {
+
+		private final String fType;
+		private final int fLength;
+		private final long fHash;
+
+		public PartitionKey(IDocument document, ITypedRegion partition) throws BadLocationException {
+			fType= partition.getType();
+			fLength= partition.getLength();
+			// FNV-1a
+			long hash= 0xcbf29ce484222325L;
+			for (int i= partition.getOffset(), end= i + fLength; i < end; i++) {
+				hash^= document.getChar(i);
+				hash*= 0x100000001b3L;
+			}
+			fHash= hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(fHash) ^ fLength;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PartitionKey))
+				return false;
+			PartitionKey other= (PartitionKey) obj;
+			return fHash == other.fHash && fLength == other.fLength && fType.equals(other.fType);
+		}
+	}
+
+	/**
+	 * The cached partition results of a document. The results are only valid for the checker,
+	 * its modification stamp and the preferences they were computed with.
+	 *
+	 * @since 3.27
+	 */
+	private static final class DocumentCache {
+
+		private final ISpellChecker fChecker;
+		private final long fModificationStamp;
+		private final String fPreferences;
+		private volatile Map<PartitionKey, PartitionResult> fResults= new HashMap<>();
+
+		public DocumentCache(ISpellChecker checker, long modificationStamp, String preferences) {
+			fChecker= checker;
+			fModificationStamp= modificationStamp;
+			fPreferences= preferences;
+		}
+
+		public boolean isValid(ISpellChecker checker, long modificationStamp, String preferences) {
+			return fChecker == checker && fModificationStamp == modificationStamp && fPreferences.equals(preferences);
+		}
+	}
+
+	/**
+	 * The maximal number of threads checking partitions of one document in parallel.
+	 * @since 3.27
+	 */
+	private static final int MAX_THREADS= 4;
+
+	/**
+	 * Changed partitions are only checked in parallel if they contain more characters in total.
+	 * @since 3.27
+	 */
+	private static final int PARALLEL_THRESHOLD= 4096;
+
+	/**
+	 * The cached partition results by document.
+	 * @since 3.27
+	 */
+	private static final Map<IDocument, DocumentCache> fgCaches= Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * The worker pool, created on first use.
+	 * @since 3.27
+	 */
+	private static ForkJoinPool fgPool;
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.spelling.SpellingEngine#check(org.eclipse.jface.text.IDocument, org.eclipse.jface.text.IRegion[], org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker, org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector, org.eclipse.core.runtime.IProgressMonitor)
@@ -45,22 +220,167 @@ public class JavaSpellingEngine extends SpellingEngine {
 	protected void check(IDocument document, IRegion[] regions, ISpellChecker checker, ISpellingProblemCollector collector, IProgressMonitor monitor) {
 		SpellEventListener listener= new SpellEventListener(collector, document);
 		boolean isIgnoringJavaStrings= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_JAVA_STRINGS);
+		DocumentCache cache= getCache(document, checker);
+		Map<PartitionKey, PartitionResult> cached= cache != null ? cache.fResults : Collections.emptyMap();
+		Map<PartitionKey, PartitionResult> results= new HashMap<>();
 		try {
+			List<ITypedRegion> partitions= new ArrayList<>();
+			List<PartitionKey> keys= new ArrayList<>();
+			List<ITypedRegion> dirtyPartitions= new ArrayList<>();
+			List<PartitionKey> dirtyKeys= new ArrayList<>();
+			int dirtyLength= 0;
 			for (IRegion region : regions) {
 				for (ITypedRegion partition : TextUtilities.computePartitioning(document, IJavaPartitions.JAVA_PARTITIONING, region.getOffset(), region.getLength(), false)) {
-					if (monitor != null && monitor.isCanceled())
-						return;
-					if (listener.isProblemsThresholdReached())
-						return;
 					final String type= partition.getType();
 					if (isIgnoringJavaStrings && IJavaPartitions.JAVA_STRING.equals(type))
 						continue;
-					if (!IDocument.DEFAULT_CONTENT_TYPE.equals(type) && !IJavaPartitions.JAVA_CHARACTER.equals(type))
-						checker.execute(listener, new SpellCheckIterator(document, partition, checker.getLocale(), monitor));
+					if (IDocument.DEFAULT_CONTENT_TYPE.equals(type) || IJavaPartitions.JAVA_CHARACTER.equals(type))
+						continue;
+
+					PartitionKey key= new PartitionKey(document, partition);
+					partitions.add(partition);
+					keys.add(key);
+					if (!cached.containsKey(key) && !results.containsKey(key)) {
+						results.put(key, null);
+						dirtyPartitions.add(partition);
+						dirtyKeys.add(key);
+						dirtyLength+= partition.getLength();
+					}
+				}
+			}
+
+			List<PartitionResult> checked= checkPartitions(document, dirtyPartitions, dirtyLength, checker, monitor);
+			if (checked == null)
+				return;
+			for (int i= 0; i < checked.size(); i++) {
+				results.put(dirtyKeys.get(i), checked.get(i));
+			}
+
+			for (int i= 0; i < partitions.size(); i++) {
+				if (listener.isProblemsThresholdReached())
+					break;
+				PartitionKey key= keys.get(i);
+				PartitionResult result= results.get(key);
+				if (result == null)
+					result= cached.get(key);
+				results.put(key, result);
+				int delta= partitions.get(i).getOffset() - result.fOffset;
+				for (ISpellEvent event : result.fEvents) {
+					if (listener.isProblemsThresholdReached())
+						break;
+					listener.handle(delta == 0 ? event : new MovedSpellEvent(event, delta));
 				}
 			}
 		} catch (BadLocationException | AssertionFailedException x) {
 			// ignore: the document has been changed in another thread and will be checked again
+			return;
+		}
+
+		if (cache != null) {
+			results.values().removeIf(result -> result == null);
+			cache.fResults= results;
 		}
 	}
+
+	/**
+	 * Checks partitions, in parallel if they are large enough.
+	 *
+	 * @param document the document
+	 * @param partitions the partitions to check
+	 * @param length the total length of the partitions
+	 * @param checker the spell checker
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return the results in the order of the partitions, or <code>null</code> if the check was
+	 *         canceled
+	 * @throws BadLocationException if the document changed
+	 * @since 3.27
+	 */
+	private List<PartitionResult> checkPartitions(IDocument document, List<ITypedRegion> partitions, int length, ISpellChecker checker, IProgressMonitor monitor) throws BadLocationException {
+		List<PartitionResult> results= new ArrayList<>(partitions.size());
+		if (partitions.size() < 2 || length < PARALLEL_THRESHOLD) {
+			for (ITypedRegion partition : partitions) {
+				if (monitor != null && monitor.isCanceled())
+					return null;
+				PartitionResult result= new PartitionResult(partition.getOffset());
+				checker.execute(result, new SpellCheckIterator(document, partition, checker.getLocale(), monitor));
+				results.add(result);
+			}
+			return results;
+		}
+
+		List<Future<PartitionResult>> futures= new ArrayList<>(partitions.size());
+		for (ITypedRegion partition : partitions) {
+			// the iterator copies the content of the partition
+			SpellCheckIterator iterator= new SpellCheckIterator(document, partition, checker.getLocale(), monitor);
+			futures.add(getPool().submit(() -> {
+				PartitionResult result= new PartitionResult(partition.getOffset());
+				if (monitor == null || !monitor.isCanceled())
+					checker.execute(result, iterator);
+				return result;
+			}));
+		}
+		try {
+			for (Future<PartitionResult> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			JavaPlugin.log(e.getCause());
+			return null;
+		}
+		if (monitor != null && monitor.isCanceled())
+			return null;
+		return results;
+	}
+
+	/**
+	 * Returns the cache of a document, or <code>null</code> if the results of the checker cannot
+	 * be cached.
+	 *
+	 * @param document the document
+	 * @param checker the spell checker
+	 * @return the cache
+	 * @since 3.27
+	 */
+	private static DocumentCache getCache(IDocument document, ISpellChecker checker) {
+		if (!(checker instanceof DefaultSpellChecker))
+			return null;
+
+		long modificationStamp= ((DefaultSpellChecker) checker).getModificationStamp();
+		String preferences= getPreferences();
+		synchronized (fgCaches) {
+			DocumentCache cache= fgCaches.get(document);
+			if (cache == null || !cache.isValid(checker, modificationStamp, preferences)) {
+				cache= new DocumentCache(checker, modificationStamp, preferences);
+				fgCaches.put(document, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * @return the values of the preferences which influence the spelling events
+	 * @since 3.27
+	 */
+	private static String getPreferences() {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		StringBuilder buffer= new StringBuilder();
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_DIGITS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_MIXED));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SENTENCE));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_UPPER));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_URLS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_NON_LETTERS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SINGLE_LETTERS));
+		buffer.append(store.getInt(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD));
+		return buffer.toString();
+	}
+
+	private static synchronized ForkJoinPool getPool() {
+		if (fgPool == null)
+			fgPool= new ForkJoinPool(Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1)));
+		return fgPool;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,18 +22,22 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 
@@ -108,6 +113,12 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 */
 	protected static final float LOAD_FACTOR= 0.85f;
 
+	/**
+	 * The length up to which words are corrected with only one edit by the edit distance engine.
+	 * @since 3.27
+	 */
+	protected static final int SHORT_WORD_LENGTH= 4;
+
 	/** The phonetic distance algorithm */
 	private IPhoneticDistanceAlgorithm fDistanceAlgorithm= new DefaultPhoneticDistanceAlgorithm();
 
@@ -117,8 +128,29 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	/** The phonetic hash provider */
 	private IPhoneticHashProvider fHashProvider= new DefaultPhoneticHashProvider();
 
-	/** Is the dictionary already loaded? */
-	private boolean fLoaded= false;
+	/**
+	 * The memory-mapped words, or <code>null</code> if the words are in {@link #fHashBuckets}.
+	 * @since 3.27
+	 */
+	private volatile CompactDictionaryFile fCompactDictionary;
+
+	/**
+	 * The stamp of the word list the compact dictionary file has to match.
+	 * @since 3.27
+	 */
+	private long fCompactDictionaryStamp;
+
+	/**
+	 * The index of the words by edit distance, or <code>null</code> if it has not been built.
+	 * @since 3.27
+	 */
+	private volatile EditDistanceIndex fEditDistanceIndex;
+
+	/**
+	 * Is the dictionary already loaded? Only set once the words have been compacted, so that
+	 * lookups which see it set also see the compact dictionary.
+	 */
+	private volatile boolean fLoaded= false;
 	/**
 	 * Must the dictionary be loaded?
 	 * @since 3.2
@@ -141,6 +173,21 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		return 32;
 	}
 
+	/**
+	 * Returns the file in which a compact, memory-mapped copy of the word list is stored. The file is
+	 * written when the word list is loaded for the first time and used instead of the word list as
+	 * long as the word list and the encoding don't change.
+	 * <p>
+	 * Only dictionaries which don't accept new words should return a file.
+	 * </p>
+	 *
+	 * @return the compact dictionary file, or <code>null</code> if the words are kept on the heap
+	 * @since 3.27
+	 */
+	protected File getCompactDictionaryFile() {
+		return null;
+	}
+
 	/**
 	 * Returns all candidates with the same phonetic hash.
 	 *
@@ -149,6 +196,15 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 * @return Array of candidates for the phonetic hash
 	 */
 	protected final Object getCandidates(final String hash) {
+		CompactDictionaryFile compactDictionary= fCompactDictionary;
+		if (compactDictionary != null) {
+			int block= compactDictionary.findBlock(hash);
+			if (block == -1)
+				return null;
+			List<byte[]> words= compactDictionary.getWords(block, Integer.MAX_VALUE);
+			return words.size() == 1 ? words.get(0) : words;
+		}
+
 		ByteArrayWrapper hashBytes;
 		try {
 			hashBytes= new ByteArrayWrapper(hash.getBytes(UTF_8));
@@ -207,7 +263,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 			}
 
 			@SuppressWarnings("unchecked")
-			final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
+			final List<byte[]> candidateList= (List<byte[]>)candidates;
 			int candidateSize= Math.min(500, candidateList.size()); // see https://bugs.eclipse.org/bugs/show_bug.cgi?id=195357
 			for (int offset= 0; offset < candidateSize; offset++) {
 
@@ -275,7 +331,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		}
 
 		@SuppressWarnings("unchecked")
-		final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
+		final List<byte[]> candidateList= (List<byte[]>)candidates;
 		final ArrayList<RankedWordProposal> matches= new ArrayList<>(candidateList.size());
 
 		for (byte[] element : candidateList) {
@@ -314,6 +370,9 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 * @since 3.3
 	 */
 	protected boolean isEmpty() {
+		CompactDictionaryFile compactDictionary= fCompactDictionary;
+		if (compactDictionary != null)
+			return compactDictionary.isEmpty();
 		return fHashBuckets.isEmpty();
 	}
 
@@ -338,19 +397,11 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	@Override
 	public Set<RankedWordProposal> getProposals(final String word, final boolean sentence) {
 
-		try {
+		ensureLoaded();
 
-			if (!fLoaded) {
-				synchronized (this) {
-					fLoaded= load(getURL());
-					if (fLoaded)
-						compact();
-				}
-			}
-
-		} catch (MalformedURLException exception) {
-			// Do nothing
-		}
+		String engine= JavaPlugin.getDefault().getPreferenceStore().getString(PreferenceConstants.SPELLING_PROPOSAL_ENGINE);
+		if (PreferenceConstants.SPELLING_PROPOSAL_ENGINE_EDIT_DISTANCE.equals(engine))
+			return getEditDistanceProposals(word, sentence);
 
 		final String hash= fHashProvider.getHash(word);
 		final char[] mutators= fHashProvider.getMutators();
@@ -445,6 +496,67 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		return candidates;
 	}
 
+	/**
+	 * Returns all words within a bounded edit distance of the specified word. Words with up to
+	 * {@link #SHORT_WORD_LENGTH} characters are corrected with one edit, longer words with two.
+	 *
+	 * @param word
+	 *                   The word to find the nearest matches for
+	 * @param sentence
+	 *                   <code>true</code> iff the proposals start a new sentence,
+	 *                   <code>false</code> otherwise
+	 * @return Set of ranked words with bounded edit distance to the specified word
+	 * @since 3.27
+	 */
+	protected final Set<RankedWordProposal> getEditDistanceProposals(final String word, final boolean sentence) {
+		final EditDistanceIndex index= getEditDistanceIndex();
+		final int maxDistance= word.length() <= SHORT_WORD_LENGTH ? 1 : EditDistanceIndex.MAX_DISTANCE;
+
+		final StringBuilder buffer= new StringBuilder(BUFFER_CAPACITY);
+		final HashSet<RankedWordProposal> result= new HashSet<>();
+		synchronized (index) {
+			index.search(word, maxDistance, (candidate, distance) -> {
+				buffer.setLength(0);
+				buffer.append(candidate);
+				if (sentence)
+					buffer.setCharAt(0, Character.toUpperCase(buffer.charAt(0)));
+				result.add(new RankedWordProposal(buffer.toString(), -distance * DefaultPhoneticDistanceAlgorithm.COST_SUBSTITUTE));
+			});
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the edit distance index of the words, and builds it on first use.
+	 *
+	 * @return the edit distance index
+	 * @since 3.27
+	 */
+	private synchronized EditDistanceIndex getEditDistanceIndex() {
+		EditDistanceIndex index= fEditDistanceIndex;
+		if (index != null)
+			return index;
+
+		final EditDistanceIndex newIndex= new EditDistanceIndex();
+		CompactDictionaryFile compactDictionary= fCompactDictionary;
+		if (compactDictionary != null) {
+			compactDictionary.forEachWord(newIndex::add);
+		} else {
+			for (Object bucket : fHashBuckets.values()) {
+				if (bucket instanceof byte[]) {
+					newIndex.add((byte[]) bucket);
+				} else {
+					@SuppressWarnings("unchecked")
+					List<byte[]> bucketList= (List<byte[]>) bucket;
+					for (byte[] word : bucketList)
+						newIndex.add(word);
+				}
+			}
+		}
+		fEditDistanceIndex= newIndex;
+		return newIndex;
+	}
+
 	/**
 	 * Returns the URL of the dictionary word list.
 	 *
@@ -487,23 +599,31 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 			list.add(wordBytes);
 			fHashBuckets.put(hashBytes, list);
 		}
+
+		EditDistanceIndex index= fEditDistanceIndex;
+		if (index != null) {
+			synchronized (index) {
+				index.add(wordBytes);
+			}
+		}
 	}
 
 	@Override
 	public boolean isCorrect(String word) {
 		word= stripNonLetters(word);
-		try {
+		ensureLoaded();
 
-			if (!fLoaded) {
-				synchronized (this) {
-					fLoaded= load(getURL());
-					if (fLoaded)
-						compact();
-				}
+		CompactDictionaryFile compactDictionary= fCompactDictionary;
+		if (compactDictionary != null) {
+			int block= compactDictionary.findBlock(fHashProvider.getHash(word));
+			if (block == -1)
+				return false;
+			try {
+				return compactDictionary.contains(block, word.getBytes(UTF_8)) || compactDictionary.contains(block, word.toLowerCase().getBytes(UTF_8));
+			} catch (UnsupportedEncodingException e) {
+				JavaPlugin.log(e);
+				return false;
 			}
-
-		} catch (MalformedURLException exception) {
-			// Do nothing
 		}
 
 		final Object candidates= getCandidates(fHashProvider.getHash(word));
@@ -522,7 +642,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 			return false;
 		}
 		@SuppressWarnings("unchecked")
-		final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
+		final List<byte[]> candidateList= (List<byte[]>)candidates;
 		byte[] wordBytes;
 		byte[] lowercaseWordBytes;
 		try {
@@ -572,9 +692,32 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		return word.substring(i, j+1);
 	}
 
+	/**
+	 * Loads and compacts the word list unless this has already been done.
+	 *
+	 * @since 3.27
+	 */
+	private void ensureLoaded() {
+		if (fLoaded)
+			return;
+
+		synchronized (this) {
+			if (fLoaded)
+				return;
+			try {
+				boolean loaded= load(getURL());
+				if (loaded)
+					compact();
+				fLoaded= loaded;
+			} catch (MalformedURLException exception) {
+				// Do nothing
+			}
+		}
+	}
+
 	@Override
 	public synchronized final boolean isLoaded() {
-		return fLoaded || fHashBuckets.size() > 0;
+		return fLoaded || fHashBuckets.size() > 0 || fCompactDictionary != null;
 	}
 
 	/**
@@ -589,6 +732,11 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		 if (!fMustLoad)
 			 return fLoaded;
 
+		if (url != null && loadCompactDictionary(url)) {
+			fMustLoad= false;
+			return true;
+		}
+
 		if (url != null) {
 			InputStream stream= null;
 			int line= 0;
@@ -659,12 +807,98 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		return false;
 	}
 
+	/**
+	 * Maps the compact dictionary file if it is up to date with the word list.
+	 *
+	 * @param url the URL of the word list
+	 * @return <code>true</code> if the compact dictionary file has been mapped
+	 * @since 3.27
+	 */
+	private boolean loadCompactDictionary(URL url) {
+		File file= getCompactDictionaryFile();
+		if (file == null)
+			return false;
+
+		try {
+			long lastModified;
+			long length;
+			URL fileURL= FileLocator.toFileURL(url);
+			if ("file".equals(fileURL.getProtocol())) { //$NON-NLS-1$
+				File wordList= new File(fileURL.getPath());
+				lastModified= wordList.lastModified();
+				length= wordList.length();
+			} else {
+				URLConnection connection= url.openConnection();
+				// the stream is opened by the connection for most protocols and has to be closed
+				try (InputStream stream= connection.getInputStream()) {
+					lastModified= connection.getLastModified();
+					length= connection.getContentLengthLong();
+				}
+			}
+			long stamp= lastModified;
+			stamp= 31 * stamp + length;
+			stamp= 31 * stamp + getEncoding().hashCode();
+			stamp= 31 * stamp + fHashProvider.getClass().getName().hashCode();
+			fCompactDictionaryStamp= stamp;
+
+			fCompactDictionary= CompactDictionaryFile.open(file, stamp);
+		} catch (FileNotFoundException e) {
+			// reported when the word list is loaded
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+		return fCompactDictionary != null;
+	}
+
+	/**
+	 * Writes the words to the compact dictionary file and maps it, so that the words no longer
+	 * occupy the heap.
+	 *
+	 * @param file the compact dictionary file
+	 * @since 3.27
+	 */
+	private void writeCompactDictionary(File file) {
+		Map<String, List<String>> blocks= new HashMap<>(fHashBuckets.size());
+		for (Map.Entry<ByteArrayWrapper, Object> entry : fHashBuckets.entrySet()) {
+			List<String> words= new ArrayList<>();
+			Object bucket= entry.getValue();
+			if (bucket instanceof byte[]) {
+				words.add(new String((byte[]) bucket, StandardCharsets.UTF_8));
+			} else {
+				@SuppressWarnings("unchecked")
+				List<byte[]> bucketList= (List<byte[]>) bucket;
+				for (byte[] word : bucketList) {
+					words.add(new String(word, StandardCharsets.UTF_8));
+				}
+			}
+			blocks.put(new String(entry.getKey().byteArray, StandardCharsets.UTF_8), words);
+		}
+		try {
+			CompactDictionaryFile.write(file, fCompactDictionaryStamp, blocks);
+			fCompactDictionary= CompactDictionaryFile.open(file, fCompactDictionaryStamp);
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+		if (fCompactDictionary != null)
+			fHashBuckets.clear();
+	}
+
 	/**
 	 * Compacts the dictionary.
 	 *
 	 * @since 3.3.
 	 */
 	private void compact() {
+		if (fCompactDictionary != null)
+			return;
+
+		File file= getCompactDictionaryFile();
+		if (file != null && !fHashBuckets.isEmpty()) {
+			writeCompactDictionary(file);
+			if (fCompactDictionary != null)
+				return;
+		}
+
 		Iterator<Object> iter= fHashBuckets.values().iterator();
 		while (iter.hasNext()) {
 			Object element= iter.next();
@@ -698,6 +932,12 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		fLoaded= false;
 		fMustLoad= true;
 		fHashBuckets.clear();
+		if (fCompactDictionary != null) {
+			// release the mapping, the file is rewritten if the word list has changed until the next load
+			fCompactDictionary.close();
+			fCompactDictionary= null;
+		}
+		fEditDistanceIndex= null;
 	}
 
 	@Override
@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.spelling.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+
+/**
+ * A read-only spell dictionary stored in a single memory-mapped file.
+ * <p>
+ * The file contains an open addressing hash table from phonetic hashes to word blocks. Each block
+ * holds the UTF-8 encoded phonetic hash followed by the sorted UTF-8 encoded words with this hash.
+ * Lookups read the mapped file directly, so opening the dictionary costs next to nothing and the
+ * words don't occupy the Java heap.
+ * </p>
+ * <p>
+ * The layout is:
+ * </p>
+ * <pre>
+ * int magic, int version, long stamp, int tableSize, int blockCount
+ * int[tableSize] block offsets, 0 for empty slots
+ * blocks: short hashLength, byte[] hash, int wordCount, { short wordLength, byte[] word }*
+ * </pre>
+ * <p>
+ * The mapping is released by {@link #close()}, which has to be called before the file is
+ * rewritten, as mapped files cannot be replaced on Windows. A closed dictionary is empty.
+ * </p>
+ *
+ * @since 3.27
+ */
+public final class CompactDictionaryFile {
+
+	private static final int MAGIC= 0x4A445344; // "JDSD"
+
+	private static final int VERSION= 1;
+
+	private static final int HEADER_SIZE= 24;
+
+	private final MappedByteBuffer fBuffer;
+
+	private final int fTableSize;
+
+	private final int fBlockCount;
+
+	/**
+	 * Guards the mapping, lookups hold the read lock and {@link #close()} the write lock.
+	 */
+	private final ReadWriteLock fLock= new ReentrantReadWriteLock();
+
+	private boolean fClosed;
+
+	private CompactDictionaryFile(MappedByteBuffer buffer) {
+		fBuffer= buffer;
+		fTableSize= buffer.getInt(16);
+		fBlockCount= buffer.getInt(20);
+	}
+
+	/**
+	 * Maps a compact dictionary file.
+	 *
+	 * @param file the file to map
+	 * @param stamp the stamp the file must have been written with
+	 * @return the dictionary, or <code>null</code> if the file does not exist, is invalid or
+	 *         has a different stamp
+	 * @throws IOException if the file cannot be read
+	 */
+	public static CompactDictionaryFile open(File file, long stamp) throws IOException {
+		if (!file.isFile() || file.length() < HEADER_SIZE)
+			return null;
+
+		try (FileChannel channel= FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// validate the header before mapping, so that a stale file is never mapped and can be replaced
+			ByteBuffer header= ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0)
+					return null;
+			}
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getLong(8) != stamp)
+				return null;
+			int tableSize= header.getInt(16);
+			if (tableSize <= 0 || Integer.bitCount(tableSize) != 1 || HEADER_SIZE + (long) tableSize * 4 > channel.size())
+				return null;
+			return new CompactDictionaryFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Releases the mapping of the file. Waits for running lookups to finish, later lookups find no
+	 * words.
+	 */
+	public void close() {
+		fLock.writeLock().lock();
+		try {
+			if (fClosed)
+				return;
+			fClosed= true;
+			unmap(fBuffer);
+		} finally {
+			fLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes a compact dictionary file. The file is written to a temporary file first and then
+	 * moved to its final location.
+	 *
+	 * @param file the file to write
+	 * @param stamp the stamp identifying the source of the dictionary
+	 * @param blocks the words by their phonetic hash
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(File file, long stamp, Map<String, List<String>> blocks) throws IOException {
+		int tableSize= Integer.highestOneBit(Math.max(1, blocks.size()) * 2 - 1) << 1;
+		int[] table= new int[tableSize];
+		int tableEnd= HEADER_SIZE + tableSize * 4;
+
+		ByteArrayOutputStream data= new ByteArrayOutputStream(blocks.size() * 32);
+		DataOutputStream out= new DataOutputStream(data);
+		for (Map.Entry<String, List<String>> block : blocks.entrySet()) {
+			byte[] hash= block.getKey().getBytes(StandardCharsets.UTF_8);
+			byte[][] words= new byte[block.getValue().size()][];
+			for (int i= 0; i < words.length; i++) {
+				words[i]= block.getValue().get(i).getBytes(StandardCharsets.UTF_8);
+			}
+			Arrays.sort(words, Arrays::compareUnsigned);
+
+			int slot= hash(hash, 0, hash.length) & (tableSize - 1);
+			while (table[slot] != 0)
+				slot= (slot + 1) & (tableSize - 1);
+			table[slot]= tableEnd + out.size();
+
+			out.writeShort(hash.length);
+			out.write(hash);
+			out.writeInt(words.length);
+			for (byte[] word : words) {
+				out.writeShort(word.length);
+				out.write(word);
+			}
+		}
+		out.flush();
+
+		File directory= file.getParentFile();
+		if (directory != null)
+			directory.mkdirs();
+		File temp= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try (OutputStream stream= new FileOutputStream(temp); DataOutputStream header= new DataOutputStream(stream)) {
+			header.writeInt(MAGIC);
+			header.writeInt(VERSION);
+			header.writeLong(stamp);
+			header.writeInt(tableSize);
+			header.writeInt(blocks.size());
+			ByteBuffer tableBytes= ByteBuffer.allocate(tableSize * 4);
+			tableBytes.asIntBuffer().put(table);
+			header.write(tableBytes.array());
+			data.writeTo(header);
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Returns the block of the words with a phonetic hash.
+	 *
+	 * @param hash the phonetic hash
+	 * @return the offset of the block, or <code>-1</code> if there are no words with this hash
+	 */
+	public int findBlock(String hash) {
+		byte[] bytes= hash.getBytes(StandardCharsets.UTF_8);
+		fLock.readLock().lock();
+		try {
+			if (fClosed)
+				return -1;
+			int mask= fTableSize - 1;
+			int slot= hash(bytes, 0, bytes.length) & mask;
+			for (int probes= 0; probes < fTableSize; probes++) {
+				int block= fBuffer.getInt(HEADER_SIZE + slot * 4);
+				if (block == 0)
+					return -1;
+				int length= fBuffer.getShort(block) & 0xFFFF;
+				if (equals(block + 2, length, bytes))
+					return block;
+				slot= (slot + 1) & mask;
+			}
+			return -1;
+		} finally {
+			fLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the words of a block.
+	 *
+	 * @param block the offset of the block
+	 * @param max the maximal number of words to return
+	 * @return the UTF-8 encoded words
+	 */
+	public List<byte[]> getWords(int block, int max) {
+		fLock.readLock().lock();
+		try {
+			if (fClosed)
+				return new ArrayList<>(0);
+			int offset= getFirstWord(block);
+			int count= Math.min(max, fBuffer.getInt(offset - 4));
+			List<byte[]> words= new ArrayList<>(count);
+			for (int i= 0; i < count; i++) {
+				int length= fBuffer.getShort(offset) & 0xFFFF;
+				byte[] word= new byte[length];
+				for (int j= 0; j < length; j++) {
+					word[j]= fBuffer.get(offset + 2 + j);
+				}
+				words.add(word);
+				offset+= 2 + length;
+			}
+			return words;
+		} finally {
+			fLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Tells whether a block contains a word. The words are compared without creating objects.
+	 *
+	 * @param block the offset of the block
+	 * @param word the UTF-8 encoded word
+	 * @return <code>true</code> if the block contains the word
+	 */
+	public boolean contains(int block, byte[] word) {
+		fLock.readLock().lock();
+		try {
+			if (fClosed)
+				return false;
+			int offset= getFirstWord(block);
+			int count= fBuffer.getInt(offset - 4);
+			for (int i= 0; i < count; i++) {
+				int length= fBuffer.getShort(offset) & 0xFFFF;
+				int comparison= compare(offset + 2, length, word);
+				if (comparison == 0)
+					return true;
+				if (comparison > 0)
+					return false; // the words are sorted
+				offset+= 2 + length;
+			}
+			return false;
+		} finally {
+			fLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Passes all words of the dictionary to a consumer.
+	 *
+	 * @param consumer the consumer of the UTF-8 encoded words
+	 */
+	public void forEachWord(Consumer<byte[]> consumer) {
+		for (int slot= 0; slot < fTableSize; slot++) {
+			int block;
+			fLock.readLock().lock();
+			try {
+				if (fClosed)
+					return;
+				block= fBuffer.getInt(HEADER_SIZE + slot * 4);
+			} finally {
+				fLock.readLock().unlock();
+			}
+			if (block != 0) {
+				for (byte[] word : getWords(block, Integer.MAX_VALUE))
+					consumer.accept(word);
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the dictionary has no words
+	 */
+	public boolean isEmpty() {
+		return fBlockCount == 0;
+	}
+
+	private int getFirstWord(int block) {
+		int hashLength= fBuffer.getShort(block) & 0xFFFF;
+		return block + 2 + hashLength + 4;
+	}
+
+	private boolean equals(int offset, int length, byte[] bytes) {
+		if (length != bytes.length)
+			return false;
+		for (int i= 0; i < length; i++) {
+			if (fBuffer.get(offset + i) != bytes[i])
+				return false;
+		}
+		return true;
+	}
+
+	private int compare(int offset, int length, byte[] bytes) {
+		int common= Math.min(length, bytes.length);
+		for (int i= 0; i < common; i++) {
+			int comparison= Integer.compare(fBuffer.get(offset + i) & 0xFF, bytes[i] & 0xFF);
+			if (comparison != 0)
+				return comparison;
+		}
+		return Integer.compare(length, bytes.length);
+	}
+
+	/**
+	 * Unmaps the buffer right away with <code>sun.misc.Unsafe.invokeCleaner</code> if available,
+	 * otherwise the mapping is released when the buffer is garbage collected.
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass= Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+			Field theUnsafe= unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+			theUnsafe.setAccessible(true);
+			Method invokeCleaner= unsafeClass.getMethod("invokeCleaner", ByteBuffer.class); //$NON-NLS-1$
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// not available, leave it to the garbage collector
+		}
+	}
+
+	private static int hash(byte[] bytes, int offset, int length) {
+		int hash= 1;
+		for (int i= offset; i < offset + length; i++) {
+			hash= 31 * hash + bytes[i];
+		}
+		return hash ^ (hash >>> 16);
+	}
+}
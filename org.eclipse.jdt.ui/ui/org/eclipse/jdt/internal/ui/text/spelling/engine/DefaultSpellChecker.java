@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.Assert;
 
@@ -146,6 +147,13 @@ public class DefaultSpellChecker implements ISpellChecker {
 	 */
 	private Locale fLocale;
 
+	/**
+	 * Incremented whenever a change of the dictionaries or the ignored words can change the result
+	 * of {@link #execute(ISpellEventListener, ISpellCheckIterator)}.
+	 * @since 3.27
+	 */
+	private final AtomicLong fModificationStamp= new AtomicLong();
+
 	/**
 	 * Creates a new default spell checker.
 	 *
@@ -164,6 +172,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void addDictionary(final ISpellDictionary dictionary) {
 		// synchronizing is necessary as this is a write access
 		fDictionaries.add(dictionary);
+		fModificationStamp.incrementAndGet();
 	}
 
 	@Override
@@ -197,6 +206,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 			if (dictionary.acceptsWords())
 				dictionary.addWord(addable);
 		}
+		fModificationStamp.incrementAndGet();
 
 	}
 
@@ -204,6 +214,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void checkWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.remove(word.toLowerCase());
+		fModificationStamp.incrementAndGet();
 	}
 
 	@Override
@@ -284,6 +295,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void ignoreWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.add(word.toLowerCase());
+		fModificationStamp.incrementAndGet();
 	}
 
 	@Override
@@ -308,10 +320,23 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void removeDictionary(final ISpellDictionary dictionary) {
 		// synchronizing is necessary as this is a write access
 		fDictionaries.remove(dictionary);
+		fModificationStamp.incrementAndGet();
 	}
 
 	@Override
 	public Locale getLocale() {
 		return fLocale;
 	}
+
+	/**
+	 * Returns a stamp which changes whenever dictionaries are added or removed and whenever words
+	 * are added, ignored or checked again. Results of {@link #execute(ISpellEventListener, ISpellCheckIterator)}
+	 * for the same text and preferences can be reused as long as the stamp doesn't change.
+	 *
+	 * @return the modification stamp
+	 * @since 3.27
+	 */
+	public long getModificationStamp() {
+		return fModificationStamp.get();
+	}
 }
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.spelling.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.Assert;
+
+
+/**
+ * A symmetric delete index over the words of a dictionary, which finds all words within a bounded
+ * edit distance of a misspelled word.
+ * <p>
+ * Two words are within edit distance <code>n</code> only if deleting at most <code>n</code>
+ * characters from each of them yields the same string. The index therefore stores the hashes of all
+ * strings obtained by deleting up to {@link #MAX_DISTANCE} characters from the first
+ * {@link #PREFIX_LENGTH} characters of every word. A search generates the deletes of the misspelled
+ * word, looks up their hashes and verifies the candidates with the actual distance. The hashes are
+ * packed together with the word numbers into a single sorted <code>long</code> array. The words
+ * themselves are stored UTF-8 encoded in one shared byte array and only decoded when they are
+ * compared to the misspelled word.
+ * </p>
+ * <p>
+ * The distance is the case insensitive optimal string alignment distance, i.e. the number of
+ * inserted, removed or substituted characters and swapped adjacent characters. Words added after
+ * the first search are kept aside and compared one by one until the index is rebuilt.
+ * </p>
+ * <p>
+ * Clients must synchronize the access if the index is used by several threads.
+ * </p>
+ *
+ * @since 3.27
+ */
+public final class EditDistanceIndex {
+
+	/**
+	 * Callback for the words found by {@link EditDistanceIndex#search(String, int, IMatchCollector)}.
+	 */
+	public interface IMatchCollector {
+
+		/**
+		 * Accepts a word within the distance bound.
+		 *
+		 * @param word the word from the dictionary
+		 * @param distance the edit distance to the searched word
+		 */
+		void accept(String word, int distance);
+	}
+
+	/** The maximal distance supported by the index */
+	public static final int MAX_DISTANCE= 2;
+
+	/** The number of leading characters of a word for which deletes are indexed */
+	private static final int PREFIX_LENGTH= 7;
+
+	/** The number of words kept aside which causes a rebuild of the index */
+	private static final int MAX_PENDING= 1024;
+
+	/** The UTF-8 encoded words, one after the other */
+	private byte[] fBytes= new byte[8192];
+
+	/** The offset of each word in {@link #fBytes}, followed by the end of the last word */
+	private int[] fOffsets= new int[1025];
+
+	private int fSize= 0;
+
+	/** The number of words in {@link #fEntries} */
+	private int fIndexed= 0;
+
+	/** The sorted delete hashes in the upper and the word numbers in the lower half */
+	private long[] fEntries= new long[0];
+
+	/** The search which last accepted a word, to report each word only once */
+	private int[] fVisited= new int[0];
+
+	private int fSearch= 0;
+
+	private final char[] fPrefix= new char[PREFIX_LENGTH];
+
+	/**
+	 * Adds a word to the index.
+	 *
+	 * @param word the word to add
+	 */
+	public void add(String word) {
+		add(word.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Adds a word to the index.
+	 *
+	 * @param word the UTF-8 encoded word to add
+	 */
+	public void add(byte[] word) {
+		if (fSize + 1 == fOffsets.length)
+			fOffsets= Arrays.copyOf(fOffsets, fOffsets.length * 2);
+		int end= fOffsets[fSize];
+		if (end + word.length > fBytes.length)
+			fBytes= Arrays.copyOf(fBytes, Math.max(fBytes.length * 2, end + word.length));
+		System.arraycopy(word, 0, fBytes, end, word.length);
+		fOffsets[++fSize]= end + word.length;
+	}
+
+	/**
+	 * Finds all words within a maximal edit distance of a word.
+	 *
+	 * @param word the word to search for
+	 * @param maxDistance the maximal edit distance, at most {@link #MAX_DISTANCE}
+	 * @param collector the collector for the found words
+	 */
+	public void search(String word, int maxDistance, IMatchCollector collector) {
+		Assert.isLegal(maxDistance <= MAX_DISTANCE);
+		if (fSize - fIndexed > MAX_PENDING || fIndexed == 0 && fSize > 0)
+			buildIndex();
+
+		if (++fSearch == 0) {
+			Arrays.fill(fVisited, 0);
+			fSearch= 1;
+		}
+
+		int length= getPrefix(word);
+		collect(word, hash(fPrefix, length, -1, -1), maxDistance, collector);
+		for (int first= 0; first < length; first++) {
+			collect(word, hash(fPrefix, length, first, -1), maxDistance, collector);
+			if (maxDistance > 1) {
+				for (int second= first + 1; second < length; second++)
+					collect(word, hash(fPrefix, length, first, second), maxDistance, collector);
+			}
+		}
+
+		for (int pending= fIndexed; pending < fSize; pending++)
+			accept(word, pending, maxDistance, collector);
+	}
+
+	/**
+	 * @return the number of words in the index
+	 */
+	public int size() {
+		return fSize;
+	}
+
+	private void collect(String word, int hash, int maxDistance, IMatchCollector collector) {
+		long key= (long) hash << 32;
+		int low= 0;
+		int high= fEntries.length;
+		while (low < high) {
+			int middle= (low + high) >>> 1;
+			if (fEntries[middle] < key)
+				low= middle + 1;
+			else
+				high= middle;
+		}
+
+		for (int entry= low; entry < fEntries.length && (int) (fEntries[entry] >>> 32) == hash; entry++) {
+			int id= (int) fEntries[entry];
+			if (fVisited[id] == fSearch)
+				continue;
+			fVisited[id]= fSearch;
+
+			accept(word, id, maxDistance, collector);
+		}
+	}
+
+	private void accept(String word, int id, int maxDistance, IMatchCollector collector) {
+		String candidate= getWord(id);
+		int distance= getDistance(word, candidate);
+		if (distance <= maxDistance)
+			collector.accept(candidate, distance);
+	}
+
+	private String getWord(int id) {
+		return new String(fBytes, fOffsets[id], fOffsets[id + 1] - fOffsets[id], StandardCharsets.UTF_8);
+	}
+
+	private void buildIndex() {
+		long[] entries= new long[fSize * 8];
+		int count= 0;
+		for (int id= 0; id < fSize; id++) {
+			int length= getPrefix(getWord(id));
+			int deletes= 1 + length + length * (length - 1) / 2;
+			if (count + deletes > entries.length)
+				entries= Arrays.copyOf(entries, Math.max(entries.length * 2, count + deletes));
+
+			entries[count++]= entry(hash(fPrefix, length, -1, -1), id);
+			for (int first= 0; first < length; first++) {
+				entries[count++]= entry(hash(fPrefix, length, first, -1), id);
+				for (int second= first + 1; second < length; second++)
+					entries[count++]= entry(hash(fPrefix, length, first, second), id);
+			}
+		}
+		Arrays.sort(entries, 0, count);
+
+		fEntries= Arrays.copyOf(entries, count);
+		fBytes= Arrays.copyOf(fBytes, fOffsets[fSize]);
+		fVisited= new int[fSize];
+		fSearch= 0;
+		fIndexed= fSize;
+	}
+
+	private static long entry(int hash, int id) {
+		return (long) hash << 32 | id;
+	}
+
+	/*
+	 * Stores the lower case prefix of the word in fPrefix and returns its length.
+	 */
+	private int getPrefix(String word) {
+		int length= Math.min(word.length(), PREFIX_LENGTH);
+		for (int index= 0; index < length; index++)
+			fPrefix[index]= Character.toLowerCase(word.charAt(index));
+		return length;
+	}
+
+	/*
+	 * Hashes the characters except the ones at the positions first and second.
+	 */
+	private static int hash(char[] characters, int length, int first, int second) {
+		int hash= 1;
+		for (int index= 0; index < length; index++) {
+			if (index != first && index != second)
+				hash= 31 * hash + characters[index];
+		}
+		hash*= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Returns the case insensitive optimal string alignment distance of two words.
+	 *
+	 * @param from the first word
+	 * @param to the second word
+	 * @return the number of inserted, removed, substituted or swapped characters
+	 */
+	static int getDistance(String from, String to) {
+		int columns= to.length() + 1;
+		int[] beforePrevious= new int[columns];
+		int[] previous= new int[columns];
+		int[] current= new int[columns];
+		for (int column= 0; column < columns; column++)
+			previous[column]= column;
+
+		for (int row= 1; row <= from.length(); row++) {
+			char source= Character.toLowerCase(from.charAt(row - 1));
+			current[0]= row;
+			for (int column= 1; column < columns; column++) {
+				char target= Character.toLowerCase(to.charAt(column - 1));
+				int distance= Math.min(Math.min(current[column - 1], previous[column]) + 1, previous[column - 1] + (source == target ? 0 : 1));
+				if (row > 1 && column > 1 && source == Character.toLowerCase(to.charAt(column - 2)) && target == Character.toLowerCase(from.charAt(row - 2)))
+					distance= Math.min(distance, beforePrevious[column - 2] + 1);
+				current[column]= distance;
+			}
+			int[] swap= beforePrevious;
+			beforePrevious= previous;
+			previous= current;
+			current= swap;
+		}
+		return previous[columns - 1];
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,10 +13,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Locale;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 
 /**
  * Platform wide read-only locale sensitive dictionary for spell checking.
@@ -25,6 +28,12 @@ import java.util.Locale;
  */
 public class LocaleSensitiveSpellDictionary extends AbstractSpellDictionary {
 
+	/**
+	 * The directory in the state location for the compact dictionary files
+	 * @since 3.27
+	 */
+	private static final String COMPACT_DICTIONARY_DIRECTORY= "spelling"; //$NON-NLS-1$
+
 	/** The locale of this dictionary */
 	private final Locale fLocale;
 
@@ -62,4 +71,17 @@ public class LocaleSensitiveSpellDictionary extends AbstractSpellDictionary {
 	protected int getInitialSize() {
 		return 32 * 1024;
 	}
+
+	@Override
+	protected File getCompactDictionaryFile() {
+		JavaPlugin plugin= JavaPlugin.getDefault();
+		if (plugin == null)
+			return null;
+		try {
+			return plugin.getStateLocation().append(COMPACT_DICTIONARY_DIRECTORY).append(fLocale.toString() + ".dictionary").toFile(); //$NON-NLS-1$
+		} catch (IllegalStateException e) {
+			// no instance location
+			return null;
+		}
+	}
 }
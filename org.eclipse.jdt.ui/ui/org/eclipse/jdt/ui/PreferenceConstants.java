@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -2789,6 +2789,40 @@ public class PreferenceConstants {
 	 */
 	public final static String SPELLING_PROPOSAL_THRESHOLD= "spelling_proposal_threshold"; //$NON-NLS-1$
 
+	/**
+	 * A named preference that controls how the correction proposals are computed during spell
+	 * checking.
+	 * <p>
+	 * Value is of type <code>String</code>: possible values are <code>
+	 * SPELLING_PROPOSAL_ENGINE_PHONETIC</code> or <code>
+	 * SPELLING_PROPOSAL_ENGINE_EDIT_DISTANCE</code>.
+	 * </p>
+	 *
+	 * @see #SPELLING_PROPOSAL_ENGINE_PHONETIC
+	 * @see #SPELLING_PROPOSAL_ENGINE_EDIT_DISTANCE
+	 * @since 3.27
+	 */
+	public final static String SPELLING_PROPOSAL_ENGINE= "spelling_proposal_engine"; //$NON-NLS-1$
+
+	/**
+	 * A string value used by the named preference <code>SPELLING_PROPOSAL_ENGINE</code>. The
+	 * proposals are the words whose phonetic hash is close to the hash of the misspelled word.
+	 *
+	 * @see #SPELLING_PROPOSAL_ENGINE
+	 * @since 3.27
+	 */
+	public final static String SPELLING_PROPOSAL_ENGINE_PHONETIC= "phonetic"; //$NON-NLS-1$
+
+	/**
+	 * A string value used by the named preference <code>SPELLING_PROPOSAL_ENGINE</code>. The
+	 * proposals are the words within a small edit distance of the misspelled word, looked up in an
+	 * index built when the first proposals are requested.
+	 *
+	 * @see #SPELLING_PROPOSAL_ENGINE
+	 * @since 3.27
+	 */
+	public final static String SPELLING_PROPOSAL_ENGINE_EDIT_DISTANCE= "editDistance"; //$NON-NLS-1$
+
 	/**
 	 * A named preference that controls the maximum number of problems reported during spell checking.
 	 * <p>
@@ -4206,6 +4240,7 @@ public class PreferenceConstants {
 				store.setDefault(PreferenceConstants.SPELLING_USER_DICTIONARY_ENCODING, Charset.defaultCharset().displayName());
 
 		store.setDefault(PreferenceConstants.SPELLING_PROPOSAL_THRESHOLD, 20);
+		store.setDefault(PreferenceConstants.SPELLING_PROPOSAL_ENGINE, PreferenceConstants.SPELLING_PROPOSAL_ENGINE_PHONETIC);
 		store.setDefault(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD, 1000);
 		/*
 		 * XXX: This is currently disabled because the spelling engine
@@ -41,6 +41,21 @@ public final class CleanUpRequirements {
 		this.requirementsCore= new CleanUpRequirementsCore(requiresAST, requiresFreshAST, requiresChangedRegions, compilerOptions);
 	}
 
+	/**
+	 * Create a new instance
+	 *
+	 * @param requiresAST <code>true</code> if an AST is required
+	 * @param requiresFreshAST <code>true</code> if a fresh AST is required
+	 * @param requiresChangedRegions <code>true</code> if changed regions are required
+	 * @param regionSafe <code>true</code> if the clean up can be restricted to the changed regions
+	 * @param compilerOptions map of compiler options or <code>null</code> if no requirements
+	 * @see #isRegionSafe()
+	 * @since 3.27
+	 */
+	public CleanUpRequirements(boolean requiresAST, boolean requiresFreshAST, boolean requiresChangedRegions, boolean regionSafe, Map<String, String> compilerOptions) {
+		this.requirementsCore= new CleanUpRequirementsCore(requiresAST, requiresFreshAST, requiresChangedRegions, regionSafe, compilerOptions);
+	}
+
 	/**
 	 * Create a new instance
 	 *
@@ -103,4 +118,22 @@ public final class CleanUpRequirements {
 		return requirementsCore.requiresChangedRegions();
 	}
 
+	/**
+	 * Tells whether this clean up is region safe. A region safe clean up only changes nodes which
+	 * overlap the regions it is asked to clean up, and it finds these changes by looking at the
+	 * statements and declarations enclosing the regions only.
+	 * <p>
+	 * When used as save action and the changed regions are known, a region safe clean up is only
+	 * run on the AST subtrees covering the changed regions instead of the whole compilation unit.
+	 * Clean ups which cannot be restricted by the save action are run on the whole compilation
+	 * unit.
+	 * </p>
+	 *
+	 * @return <code>true</code> if the clean up can be restricted to the changed regions
+	 * @since 3.27
+	 */
+	public boolean isRegionSafe() {
+		return requirementsCore.isRegionSafe();
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.text.edits.DeleteEdit;
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.UndoEdit;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+
+import org.eclipse.ltk.internal.core.refactoring.UndoEditStore;
+
+public class UndoEditStoreTests {
+
+	private static final String CONTENT= "public class A {\n\tint field;\n\tvoid method() {}\n}\n";
+
+	private File fDirectory;
+
+	@Before
+	public void setUp() throws Exception {
+		fDirectory= Files.createTempDirectory("undoEditStore").toFile();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		File[] files= fDirectory.listFiles();
+		if (files != null) {
+			for (File file : files)
+				file.delete();
+		}
+		fDirectory.delete();
+	}
+
+	private static UndoEdit performEdits(IDocument document) throws Exception {
+		MultiTextEdit edit= new MultiTextEdit();
+		edit.addChild(new ReplaceEdit(13, 1, "Renamed"));
+		edit.addChild(new InsertEdit(18, "private "));
+		edit.addChild(new DeleteEdit(30, 5));
+		return edit.apply(document, TextEdit.CREATE_UNDO);
+	}
+
+	@Test
+	public void testKeptInMemory() throws Exception {
+		IDocument document= new Document(CONTENT);
+		UndoEdit undo= performEdits(document);
+		UndoEditStore store= new UndoEditStore(fDirectory, Long.MAX_VALUE);
+		UndoEditStore.Entry entry= store.add(undo);
+		assertFalse(entry.isSpilled());
+		assertSame(undo, entry.getEdit());
+		assertTrue(store.getMemorySize() > 0);
+		entry.release();
+		assertEquals(0, store.getMemorySize());
+	}
+
+	@Test
+	public void testSpilledAndRestored() throws Exception {
+		IDocument document= new Document(CONTENT);
+		UndoEdit undo= performEdits(document);
+		String changed= document.get();
+		UndoEditStore store= new UndoEditStore(fDirectory, 0);
+		UndoEditStore.Entry entry= store.add(undo);
+		assertTrue(entry.isSpilled());
+		assertEquals(0, store.getMemorySize());
+		assertEquals(1, fDirectory.listFiles().length);
+
+		UndoEdit redo= entry.getEdit().apply(document, TextEdit.CREATE_UNDO);
+		assertEquals(CONTENT, document.get());
+		redo.apply(document);
+		assertEquals(changed, document.get());
+
+		entry.release();
+		assertEquals(0, fDirectory.listFiles().length);
+		try {
+			entry.getEdit();
+			fail("released entry must not provide an edit");
+		} catch (CoreException exception) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testUnpairedSurrogatesRestored() throws Exception {
+		String content= "a\uD800b\uDC00c";
+		IDocument document= new Document(content);
+		MultiTextEdit edit= new MultiTextEdit();
+		edit.addChild(new DeleteEdit(1, 1));
+		edit.addChild(new ReplaceEdit(3, 1, "x"));
+		UndoEdit undo= edit.apply(document, TextEdit.CREATE_UNDO);
+		UndoEditStore store= new UndoEditStore(fDirectory, 0);
+		UndoEditStore.Entry entry= store.add(undo);
+		assertTrue(entry.isSpilled());
+		entry.getEdit().apply(document);
+		assertEquals(content, document.get());
+		entry.release();
+	}
+
+	@Test
+	public void testUnspillableCounted() throws Exception {
+		StringBuilder buffer= new StringBuilder(CONTENT);
+		while (buffer.length() < 5 * 1024 * 1024)
+			buffer.append(CONTENT);
+		IDocument large= new Document(buffer.toString());
+		UndoEdit unspillable= new ReplaceEdit(large.getLength() - 1, 1, "}").apply(large, TextEdit.CREATE_UNDO);
+		UndoEditStore store= new UndoEditStore(fDirectory, 0);
+		UndoEditStore.Entry first= store.add(unspillable);
+		assertFalse(first.isSpilled());
+		long size= store.getMemorySize();
+		assertTrue(size > 0);
+		UndoEditStore.Entry second= store.add(performEdits(new Document(CONTENT)));
+		assertTrue(second.isSpilled());
+		assertEquals(size, store.getMemorySize());
+		first.release();
+		assertEquals(0, store.getMemorySize());
+		second.release();
+	}
+
+	@Test
+	public void testOldestSpilledFirst() throws Exception {
+		UndoEditStore store= new UndoEditStore(fDirectory, Long.MAX_VALUE);
+		store.add(performEdits(new Document(CONTENT)));
+		long size= store.getMemorySize();
+		store= new UndoEditStore(fDirectory, size);
+		UndoEditStore.Entry first= store.add(performEdits(new Document(CONTENT)));
+		UndoEditStore.Entry second= store.add(performEdits(new Document(CONTENT)));
+		assertTrue(first.isSpilled());
+		assertFalse(second.isSpilled());
+		assertEquals(size, store.getMemorySize());
+	}
+}
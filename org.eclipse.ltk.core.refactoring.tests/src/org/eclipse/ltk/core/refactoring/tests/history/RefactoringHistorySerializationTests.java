@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.ltk.core.refactoring.tests.history;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
@@ -25,6 +26,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.xml.sax.InputSource;
+
 import org.junit.Test;
 
 import org.eclipse.core.runtime.CoreException;
@@ -40,6 +43,7 @@ import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
 import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
 import org.eclipse.ltk.core.refactoring.RefactoringSessionDescriptor;
 import org.eclipse.ltk.core.refactoring.history.RefactoringHistory;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringSessionStreamReader;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringDescriptorProxyAdapter;
 
 public class RefactoringHistorySerializationTests {
@@ -303,6 +307,33 @@ public class RefactoringHistorySerializationTests {
 		}
 	}
 
+	@Test
+	public void testStreamDescriptors() throws Exception {
+		String xml= "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + "<session comment=\"A mock comment\" version=\"1.0\">\n" + "<refactoring arg0=\"value 0\" description=\"A mock refactoring\" flags=\"1\" id=\"org.eclipse.ltk.core.mock\" project=\"test0\" stamp=\"1\"/>\n" + "<refactoring arg1=\"value 1\" description=\"Another mock refactoring\" id=\"org.eclipse.ltk.core.mock\" stamp=\"2\"/>\n" + "<refact oring/>\n" + "</session>\n" + "";
+		try (RefactoringSessionStreamReader reader= new RefactoringSessionStreamReader(new InputSource(new ByteArrayInputStream(xml.getBytes("utf-8"))), false, "test1")) {
+			RefactoringDescriptor first= reader.next();
+			assertNotNull("First refactoring descriptor cannot be read.", first);
+			assertEquals("Wrong time stamp of first refactoring descriptor:", 1, first.getTimeStamp());
+			assertEquals("Wrong project of first refactoring descriptor:", "test0", first.getProject());
+			assertEquals("Wrong session comment:", "A mock comment", reader.getComment());
+			RefactoringDescriptor second= reader.next();
+			assertNotNull("Second refactoring descriptor cannot be read.", second);
+			assertEquals("Wrong time stamp of second refactoring descriptor:", 2, second.getTimeStamp());
+			assertEquals("Wrong project of second refactoring descriptor:", "test1", second.getProject());
+			try {
+				reader.next();
+				fail("Invalid contents must not be read.");
+			} catch (CoreException exception) {
+				assertEquals("Wrong status code for refactoring history io error:", IRefactoringCoreStatusCodes.REFACTORING_HISTORY_IO_ERROR, exception.getStatus().getCode());
+			}
+		}
+		xml= "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + "<session version=\"1.0\"/>\n";
+		try (RefactoringSessionStreamReader reader= new RefactoringSessionStreamReader(new InputSource(new ByteArrayInputStream(xml.getBytes("utf-8"))), false, null)) {
+			assertNull("No refactoring descriptor expected.", reader.next());
+			assertEquals("Wrong session version:", "1.0", reader.getVersion());
+		}
+	}
+
 	@Test
 	public void testWriteDescriptor0() throws Exception {
 		MockRefactoringDescriptor descriptor= new MockRefactoringDescriptor("test0", "A mock refactoring", "A mock comment", RefactoringDescriptor.STRUCTURAL_CHANGE | RefactoringDescriptor.BREAKING_CHANGE);
@@ -470,4 +501,10 @@ public class RefactoringHistorySerializationTests {
 		compareWrittenDescriptor(session, true, xml);
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void testWriteDescriptor9() throws Exception {
+		RefactoringSessionDescriptor session= new RefactoringSessionDescriptor(new RefactoringDescriptor[] { null}, "1.0", "A mock comment");
+		String xml= "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + "<session comment=\"A mock comment\" version=\"1.0\"/>" + "";
+		compareWrittenDescriptor(session, true, xml);
+	}
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.history;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryStore;
+
+public class RefactoringHistoryStoreTests {
+
+	private File fFile;
+
+	@Before
+	public void setUp() throws Exception {
+		fFile= File.createTempFile("refactorings", ".store");
+		fFile.delete();
+	}
+
+	@After
+	public void tearDown() {
+		fFile.delete();
+	}
+
+	@Test
+	public void testRangeQueries() throws Exception {
+		RefactoringHistoryStore store= new RefactoringHistoryStore(fFile);
+		assertFalse(store.exists());
+		add(store, "P", 30);
+		add(store, "P", 10);
+		add(store, "P", 20);
+		add(store, "Q", 15);
+		assertTrue(store.exists());
+
+		assertArrayEquals(new long[] { 10, 20, 30 }, read(store, "P", 0, Long.MAX_VALUE));
+		assertArrayEquals(new long[] { 20 }, read(store, "P", 11, 29));
+		assertArrayEquals(new long[] { 10, 20 }, read(store, "P", 10, 20));
+		assertArrayEquals(new long[0], read(store, "P", 31, Long.MAX_VALUE));
+		assertArrayEquals(new long[] { 15 }, read(store, "Q", 0, Long.MAX_VALUE));
+		assertArrayEquals(new long[0], read(store, "R", 0, Long.MAX_VALUE));
+
+		List<RefactoringDescriptorProxy> proxies= new ArrayList<>();
+		store.readDescriptorProxies("P", "P", 20, 20, proxies);
+		assertEquals("Refactoring 20", proxies.get(0).getDescription());
+		assertEquals("P", proxies.get(0).getProject());
+		assertEquals("<session>20 P</session>", new String(store.readDescriptor("P", 20), StandardCharsets.UTF_8));
+		assertNull(store.readDescriptor("P", 25));
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		RefactoringHistoryStore store= new RefactoringHistoryStore(fFile);
+		for (long stamp= 1; stamp <= 5; stamp++)
+			add(store, "P", stamp);
+		add(store, "Q", 1);
+		add(store, "R", 1);
+		store.removeDescriptors("P", new long[] { 2, 4 });
+		store.addDescriptor("P", 3, "Replaced", "<session>replaced</session>".getBytes(StandardCharsets.UTF_8));
+		store.moveHistory("Q", "S");
+		store.removeHistory("R");
+
+		RefactoringHistoryStore loaded= new RefactoringHistoryStore(fFile);
+		assertArrayEquals(new long[] { 1, 3, 5 }, read(loaded, "P", 0, Long.MAX_VALUE));
+		assertEquals("<session>replaced</session>", new String(loaded.readDescriptor("P", 3), StandardCharsets.UTF_8));
+		assertFalse(loaded.hasHistory("Q"));
+		assertTrue(loaded.hasHistory("S"));
+		assertEquals("<session>1 Q</session>", new String(loaded.readDescriptor("S", 1), StandardCharsets.UTF_8));
+		assertFalse(loaded.hasHistory("R"));
+	}
+
+	@Test
+	public void testPartialRecord() throws Exception {
+		RefactoringHistoryStore store= new RefactoringHistoryStore(fFile);
+		add(store, "P", 1);
+		long length= fFile.length();
+		try (FileOutputStream output= new FileOutputStream(fFile, true)) {
+			output.write(new byte[] { 1, 0, 0, 0, 1, 'P', 0 });
+		}
+
+		RefactoringHistoryStore loaded= new RefactoringHistoryStore(fFile);
+		assertArrayEquals(new long[] { 1 }, read(loaded, "P", 0, Long.MAX_VALUE));
+		assertEquals(length, fFile.length());
+		add(loaded, "P", 2);
+		assertArrayEquals(new long[] { 1, 2 }, read(new RefactoringHistoryStore(fFile), "P", 0, Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testCorruptedRecord() throws Exception {
+		RefactoringHistoryStore store= new RefactoringHistoryStore(fFile);
+		add(store, "P", 1);
+		long offset= fFile.length();
+		add(store, "P", 2);
+		long length= fFile.length();
+		try (RandomAccessFile file= new RandomAccessFile(fFile, "rw")) {
+			file.seek(offset);
+			file.writeByte(99);
+		}
+
+		RefactoringHistoryStore loaded= new RefactoringHistoryStore(fFile);
+		try {
+			loaded.hasHistory("P");
+			fail("corrupted store must not be loaded");
+		} catch (IOException exception) {
+			// expected
+		}
+		assertEquals(length, fFile.length());
+	}
+
+	@Test
+	public void testCompaction() throws Exception {
+		RefactoringHistoryStore store= new RefactoringHistoryStore(fFile);
+		for (long stamp= 0; stamp < 300; stamp++) {
+			add(store, "P", stamp);
+			if (stamp % 10 != 0)
+				store.removeDescriptors("P", new long[] { stamp });
+		}
+		long length= fFile.length();
+
+		RefactoringHistoryStore loaded= new RefactoringHistoryStore(fFile);
+		long[] stamps= read(loaded, "P", 0, Long.MAX_VALUE);
+		assertEquals(30, stamps.length);
+		assertTrue(fFile.length() < length / 4);
+		for (long stamp : stamps)
+			assertEquals("<session>" + stamp + " P</session>", new String(loaded.readDescriptor("P", stamp), StandardCharsets.UTF_8));
+		add(loaded, "P", 1000);
+		assertEquals(31, read(new RefactoringHistoryStore(fFile), "P", 0, Long.MAX_VALUE).length);
+	}
+
+	private static void add(RefactoringHistoryStore store, String key, long stamp) throws Exception {
+		store.addDescriptor(key, stamp, "Refactoring " + stamp, ("<session>" + stamp + " " + key + "</session>").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static long[] read(RefactoringHistoryStore store, String key, long start, long end) throws Exception {
+		List<RefactoringDescriptorProxy> proxies= new ArrayList<>();
+		store.readDescriptorProxies(key, null, start, end, proxies);
+		long[] stamps= new long[proxies.size()];
+		for (int index= 0; index < stamps.length; index++)
+			stamps[index]= proxies.get(index).getTimeStamp();
+		return stamps;
+	}
+}
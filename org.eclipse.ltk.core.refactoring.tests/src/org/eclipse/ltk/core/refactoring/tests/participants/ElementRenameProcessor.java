@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -60,7 +60,9 @@ public class ElementRenameProcessor extends RenameProcessor {
 	public ElementRenameProcessor(int options) {
 		resetHistory();
 		fOptions= options;
-		if ((options & ElementRenameRefactoring.WORKING) != 0) {
+		if ((options & ElementRenameRefactoring.THREAD_SAFE) != 0) {
+			fElements= new Object[] { new ElementThreadSafe() };
+		} else if ((options & ElementRenameRefactoring.WORKING) != 0) {
 			if ((options & ElementRenameRefactoring.PRE_CHANGE) != 0) {
 				if ((options & ElementRenameRefactoring.ALWAYS_ENABLED) != 0)
 					fElements= new Object[] { new ElementWorkingPreAlways() };
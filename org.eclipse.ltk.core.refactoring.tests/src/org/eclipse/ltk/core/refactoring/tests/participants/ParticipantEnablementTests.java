@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.eclipse.core.expressions.EvaluationContext;
+
+import org.eclipse.core.runtime.ContributorFactoryOSGi;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.participants.ParticipantManager;
+import org.eclipse.ltk.core.refactoring.participants.RefactoringParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RenameArguments;
+import org.eclipse.ltk.core.refactoring.participants.SharableParticipants;
+import org.eclipse.ltk.core.refactoring.tests.RefactoringCoreTestPlugin;
+import org.eclipse.ltk.internal.core.refactoring.ParticipantDescriptor;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+
+public class ParticipantEnablementTests {
+
+	private static final String PREFIX= "org.eclipse.ltk.core.refactoring.tests.participants.";
+
+	private static final String SYSTEM_PROPERTY= "org.eclipse.ltk.core.refactoring.tests.enablement";
+
+	private static final String PROCESSOR= ElementRenameProcessor.class.getName();
+
+	private static final Object KEY= Arrays.asList(Collections.emptyList(), PROCESSOR);
+
+	@After
+	public void tearDown() throws Exception {
+		System.clearProperty(SYSTEM_PROPERTY);
+	}
+
+	private static ParticipantDescriptor createDescriptor(String id) {
+		IConfigurationElement[] elements= Platform.getExtensionRegistry().getConfigurationElementsFor(RefactoringCorePlugin.getPluginId(), "renameParticipants");
+		for (IConfigurationElement element : elements) {
+			if ((PREFIX + id).equals(element.getAttribute("id")))
+				return new ParticipantDescriptor(element);
+		}
+		throw new AssertionError("Participant " + id + " not found");
+	}
+
+	private static EvaluationContext createContext(Object element) {
+		EvaluationContext context= new EvaluationContext(null, element);
+		context.addVariable("element", element);
+		context.addVariable("affectedNatures", Collections.emptyList());
+		context.addVariable("processorIdentifier", PROCESSOR);
+		return context;
+	}
+
+	private static boolean matches(ParticipantDescriptor descriptor, Object element) throws Exception {
+		// pretend that all elements are of the same type, to see whether the expression is evaluated again
+		return descriptor.matches(createContext(element), ElementEnablement.class, KEY, null, new RefactoringStatus());
+	}
+
+	@Test
+	public void testInstanceofEvaluatedOncePerKey() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor("EnablementInstanceof");
+		assertTrue(matches(descriptor, new ElementEnablement()));
+		// answered from the cache, the expression would not match this element
+		assertTrue(matches(descriptor, new Element()));
+
+		// a different key is evaluated
+		assertFalse(descriptor.matches(createContext(new Element()), Element.class, KEY, null, new RefactoringStatus()));
+		// without a key, the expression is always evaluated
+		assertFalse(descriptor.matches(createContext(new Element()), null, null, null, new RefactoringStatus()));
+	}
+
+	@Test
+	public void testAdaptAlwaysEvaluated() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor("EnablementAdapt");
+		assertTrue(matches(descriptor, new ElementEnablement()));
+		assertFalse(matches(descriptor, new Element()));
+	}
+
+	@Test
+	public void testSystemTestAlwaysEvaluated() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor("EnablementSystemTest");
+		System.setProperty(SYSTEM_PROPERTY, "true");
+		assertTrue(matches(descriptor, new ElementEnablement()));
+		System.setProperty(SYSTEM_PROPERTY, "false");
+		assertFalse(matches(descriptor, new ElementEnablement()));
+	}
+
+	private static int countParticipants(Object element) throws Exception {
+		RefactoringParticipant[] participants= ParticipantManager.loadRenameParticipants(new RefactoringStatus(), new ElementRenameProcessor(0), element, new RenameArguments("test", true), new String[0], new SharableParticipants());
+		return participants.length;
+	}
+
+	private static int waitForParticipants(Object element, int expected) throws Exception {
+		// registry change events are delivered asynchronously
+		int count= countParticipants(element);
+		for (long end= System.currentTimeMillis() + 10000; count != expected && System.currentTimeMillis() < end; count= countParticipants(element))
+			Thread.sleep(50);
+		return count;
+	}
+
+	@Test
+	public void testRegistryChangeDropsDescriptors() throws Exception {
+		ElementDynamic element= new ElementDynamic();
+		assertEquals(0, countParticipants(element));
+
+		IExtensionRegistry registry= Platform.getExtensionRegistry();
+		Object token= registry.getClass().getMethod("getTemporaryUserToken").invoke(registry);
+		String contribution= "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<?eclipse version=\"3.0\"?>\n"
+				+ "<plugin>\n"
+				+ "  <extension id=\"dynamicParticipant\" point=\"org.eclipse.ltk.core.refactoring.renameParticipants\">\n"
+				+ "    <renameParticipant class=\"" + PREFIX + "WorkingParticipant\" id=\"" + PREFIX + "DynamicParticipant\" name=\"Dynamic Participant\">\n"
+				+ "      <enablement>\n"
+				+ "        <with variable=\"element\">\n"
+				+ "          <instanceof value=\"" + PREFIX + "ElementDynamic\"/>\n"
+				+ "        </with>\n"
+				+ "      </enablement>\n"
+				+ "    </renameParticipant>\n"
+				+ "  </extension>\n"
+				+ "</plugin>\n";
+		assertTrue(registry.addContribution(new ByteArrayInputStream(contribution.getBytes(StandardCharsets.UTF_8)),
+				ContributorFactoryOSGi.createContributor(RefactoringCoreTestPlugin.getDefault().getBundle()), false, "dynamicParticipant", null, token));
+		try {
+			assertEquals(1, waitForParticipants(element, 1));
+		} finally {
+			IExtension extension= registry.getExtension(RefactoringCoreTestPlugin.getDefault().getBundle().getSymbolicName() + ".dynamicParticipant");
+			assertNotNull(extension);
+			registry.removeExtension(extension, token);
+		}
+		assertEquals(0, waitForParticipants(element, 0));
+	}
+}
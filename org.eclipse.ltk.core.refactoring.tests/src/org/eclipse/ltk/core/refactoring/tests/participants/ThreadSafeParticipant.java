@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.participants.CheckConditionsContext;
+import org.eclipse.ltk.core.refactoring.participants.RenameParticipant;
+
+public class ThreadSafeParticipant extends RenameParticipant {
+
+	public static final String CHECKED= "checked";
+
+	// All participants wait for each other
+	public static final int CONCURRENT= 0;
+
+	// All participants run until their monitor is canceled
+	public static final int UNTIL_CANCELED= 1;
+
+	// One participant ignores its monitor until it is released
+	public static final int IGNORE_CANCEL= 2;
+
+	public static int fMode;
+
+	public static CountDownLatch fLatch;
+
+	public static CountDownLatch fRelease;
+
+	public static AtomicBoolean fIgnoring;
+
+	public static Set<Thread> fThreads;
+
+	public static void reset(int participants) {
+		reset(participants, CONCURRENT);
+	}
+
+	public static void reset(int participants, int mode) {
+		fMode= mode;
+		fLatch= new CountDownLatch(participants);
+		fRelease= new CountDownLatch(1);
+		fIgnoring= new AtomicBoolean();
+		fThreads= ConcurrentHashMap.newKeySet();
+	}
+
+	@Override
+	protected boolean initialize(Object element) {
+		return true;
+	}
+
+	@Override
+	public String getName() {
+		return ThreadSafeParticipant.class.getName();
+	}
+
+	@Override
+	public RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException {
+		fThreads.add(Thread.currentThread());
+		fLatch.countDown();
+		if (fMode == UNTIL_CANCELED) {
+			while (!pm.isCanceled()) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					break;
+				}
+			}
+			throw new OperationCanceledException();
+		}
+		if (fMode == IGNORE_CANCEL) {
+			if (fIgnoring.compareAndSet(false, true)) {
+				boolean released= false;
+				while (!released) {
+					try {
+						released= fRelease.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						// ignore interrupts like the monitor
+					}
+				}
+			}
+			return RefactoringStatus.createWarningStatus(CHECKED);
+		}
+		try {
+			// only returns in time if all thread-safe participants check their conditions at once
+			if (!fLatch.await(10, TimeUnit.SECONDS))
+				return RefactoringStatus.createFatalErrorStatus("not run concurrently");
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		}
+		return RefactoringStatus.createWarningStatus(CHECKED);
+	}
+
+	@Override
+	public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+		return null;
+	}
+}
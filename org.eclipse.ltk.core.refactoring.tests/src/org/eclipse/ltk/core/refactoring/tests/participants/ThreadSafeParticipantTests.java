@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
+
+public class ThreadSafeParticipantTests {
+
+	private static final long TIMEOUT= 500;
+
+	private static IEclipsePreferences getPreferences() {
+		return InstanceScope.INSTANCE.getNode(RefactoringCorePlugin.getPluginId());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		getPreferences().remove(RefactoringPreferenceConstants.PREFERENCE_PARTICIPANT_TIMEOUT);
+		if (ThreadSafeParticipant.fRelease != null)
+			ThreadSafeParticipant.fRelease.countDown();
+	}
+
+	private static ElementRenameRefactoring createRefactoring() throws Exception {
+		ElementRenameRefactoring refactoring= new ElementRenameRefactoring(ElementRenameRefactoring.THREAD_SAFE);
+		refactoring.checkInitialConditions(new NullProgressMonitor());
+		return refactoring;
+	}
+
+	private static int countErrors(RefactoringStatus status) {
+		int errors= 0;
+		for (RefactoringStatusEntry entry : status.getEntries()) {
+			if (entry.isError())
+				errors++;
+		}
+		return errors;
+	}
+
+	@Test
+	public void testConcurrentConditionChecking() throws Exception {
+		ThreadSafeParticipant.reset(2);
+		ElementRenameRefactoring refactoring= new ElementRenameRefactoring(ElementRenameRefactoring.THREAD_SAFE);
+		refactoring.checkInitialConditions(new NullProgressMonitor());
+		RefactoringStatus status= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+		assertEquals(RefactoringStatus.WARNING, status.getSeverity());
+		RefactoringStatusEntry[] entries= status.getEntries();
+		// the statuses are merged in the declared order, although the sequential participant is checked first
+		assertEquals(3, entries.length);
+		assertEquals(ThreadSafeParticipant.CHECKED, entries[0].getMessage());
+		assertEquals(SequentialParticipant.CHECKED, entries[1].getMessage());
+		assertEquals(ThreadSafeParticipant.CHECKED, entries[2].getMessage());
+		assertEquals(2, ThreadSafeParticipant.fThreads.size());
+		assertFalse("Conditions checked in the calling thread", ThreadSafeParticipant.fThreads.contains(Thread.currentThread()));
+
+		ElementRenameProcessor.resetHistory();
+		refactoring.createChange(new NullProgressMonitor()).perform(new NullProgressMonitor());
+		assertEquals(ElementRenameProcessor.MAIN_EXEC, ElementRenameProcessor.fHistory.get(ElementRenameProcessor.fHistory.size() - 1));
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		getPreferences().putLong(RefactoringPreferenceConstants.PREFERENCE_PARTICIPANT_TIMEOUT, TIMEOUT);
+		ThreadSafeParticipant.reset(2, ThreadSafeParticipant.UNTIL_CANCELED);
+		ElementRenameRefactoring refactoring= createRefactoring();
+		RefactoringStatus status= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+		assertEquals(RefactoringStatus.ERROR, status.getSeverity());
+		assertEquals(2, countErrors(status));
+
+		ElementRenameProcessor.resetHistory();
+		refactoring.createChange(new NullProgressMonitor()).perform(new NullProgressMonitor());
+		assertEquals(ElementRenameProcessor.MAIN_EXEC, ElementRenameProcessor.fHistory.get(ElementRenameProcessor.fHistory.size() - 1));
+	}
+
+	@Test
+	public void testParticipantIgnoringCancel() throws Exception {
+		getPreferences().putLong(RefactoringPreferenceConstants.PREFERENCE_PARTICIPANT_TIMEOUT, TIMEOUT);
+		ThreadSafeParticipant.reset(2, ThreadSafeParticipant.IGNORE_CANCEL);
+		ElementRenameRefactoring refactoring= createRefactoring();
+		long start= System.currentTimeMillis();
+		RefactoringStatus status= refactoring.checkFinalConditions(new NullProgressMonitor());
+		long duration= System.currentTimeMillis() - start;
+
+		assertTrue("Waited " + duration + " ms for a hanging participant", duration < 10 * TIMEOUT);
+		assertEquals(RefactoringStatus.ERROR, status.getSeverity());
+		assertEquals(1, countErrors(status));
+		assertTrue(ThreadSafeParticipant.fIgnoring.get());
+		boolean checked= false;
+		for (RefactoringStatusEntry entry : status.getEntries())
+			checked|= ThreadSafeParticipant.CHECKED.equals(entry.getMessage());
+		assertTrue(checked);
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		ThreadSafeParticipant.reset(2, ThreadSafeParticipant.UNTIL_CANCELED);
+		ElementRenameRefactoring refactoring= createRefactoring();
+		NullProgressMonitor monitor= new NullProgressMonitor();
+		Thread canceler= new Thread(() -> {
+			try {
+				ThreadSafeParticipant.fLatch.await();
+			} catch (InterruptedException e) {
+				// cancel anyway
+			}
+			monitor.setCanceled(true);
+		});
+		canceler.start();
+		try {
+			refactoring.checkFinalConditions(monitor);
+			fail("Condition checking not canceled");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		canceler.join();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,127 @@
  *******************************************************************************/
 package org.eclipse.ltk.core.refactoring.tests.scripting;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
+import org.eclipse.core.runtime.AssertionFailedException;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.IRefactoringCoreStatusCodes;
+import org.eclipse.ltk.core.refactoring.NullChange;
+import org.eclipse.ltk.core.refactoring.PerformRefactoringHistoryOperation;
+import org.eclipse.ltk.core.refactoring.Refactoring;
+import org.eclipse.ltk.core.refactoring.RefactoringContext;
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.tests.history.MockRefactoring;
+
 public class RefactoringScriptApplicationTests {
 
+	private static final String HEADER= "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + "<session version=\"1.0\">\n";
+
+	private static final String FIRST= "<refactoring description=\"First\" flags=\"1\" id=\"org.eclipse.ltk.core.mock\" stamp=\"1\"/>\n";
+
+	private static final String SECOND= "<refactoring description=\"Second\" id=\"org.eclipse.ltk.core.mock\" stamp=\"2\"/>\n";
+
+	private static final String THIRD= "<refactoring description=\"Third\" flags=\"5\" id=\"org.eclipse.ltk.core.mock\" stamp=\"3\"/>\n";
+
+	private static final String FOOTER= "</session>\n";
+
+	private static final class ScriptOperation extends PerformRefactoringHistoryOperation {
+
+		private final List<String> fCreated= new ArrayList<>();
+
+		private final List<String> fPerformed= new ArrayList<>();
+
+		public ScriptOperation(String script, int flags) {
+			super(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)), flags);
+		}
+
+		@Override
+		protected RefactoringContext createRefactoringContext(RefactoringDescriptor descriptor, RefactoringStatus status, IProgressMonitor monitor) throws CoreException {
+			fCreated.add(descriptor.getDescription());
+			// do not record the mock refactorings in the workspace history
+			return new RefactoringContext(new MockRefactoring() {
+
+				@Override
+				public Change createChange(IProgressMonitor pm) {
+					return new NullChange();
+				}
+			});
+		}
+
+		@Override
+		protected void refactoringPerformed(Refactoring refactoring, IProgressMonitor monitor) {
+			fPerformed.add(fCreated.get(fCreated.size() - 1));
+		}
+	}
+
+	private static void run(ScriptOperation operation) throws CoreException {
+		ResourcesPlugin.getWorkspace().run(operation, new NullProgressMonitor());
+	}
+
 	@Test
 	public void test0() throws Exception {
 
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testPerformScript() throws Exception {
+		ScriptOperation operation= new ScriptOperation(HEADER + FIRST + SECOND + THIRD + FOOTER, RefactoringDescriptor.NONE);
+		run(operation);
+		assertTrue(operation.getExecutionStatus().isOK());
+		assertEquals(List.of("First", "Second", "Third"), operation.fPerformed);
+	}
+
+	@Test
+	public void testPerformScriptFiltered() throws Exception {
+		ScriptOperation operation= new ScriptOperation(HEADER + FIRST + SECOND + THIRD + FOOTER, RefactoringDescriptor.BREAKING_CHANGE);
+		run(operation);
+		assertEquals(List.of("First", "Third"), operation.fCreated);
+		operation= new ScriptOperation(HEADER + FIRST + SECOND + THIRD + FOOTER, RefactoringDescriptor.BREAKING_CHANGE | RefactoringDescriptor.MULTI_CHANGE);
+		run(operation);
+		assertEquals(List.of("Third"), operation.fCreated);
+	}
+
+	@Test
+	public void testPerformScriptOnce() throws Exception {
+		ScriptOperation operation= new ScriptOperation(HEADER + FIRST + FOOTER, RefactoringDescriptor.NONE);
+		run(operation);
+		try {
+			run(operation);
+			fail("A refactoring script must only be performed once.");
+		} catch (AssertionFailedException exception) {
+			// expected
+		}
+		assertEquals(List.of("First"), operation.fPerformed);
+	}
+
+	@Test
+	public void testPerformScriptWithError() throws Exception {
+		ScriptOperation operation= new ScriptOperation(HEADER + FIRST + SECOND + "<refact oring/>\n" + THIRD + FOOTER, RefactoringDescriptor.NONE);
+		try {
+			run(operation);
+			fail("Invalid contents must not be read.");
+		} catch (CoreException exception) {
+			assertEquals("Wrong status code for refactoring history io error:", IRefactoringCoreStatusCodes.REFACTORING_HISTORY_IO_ERROR, exception.getStatus().getCode());
+		}
+		// refactorings read before the error have been performed
+		assertEquals(List.of("First", "Second"), operation.fPerformed);
+		assertFalse(operation.fCreated.contains("Third"));
+	}
+}
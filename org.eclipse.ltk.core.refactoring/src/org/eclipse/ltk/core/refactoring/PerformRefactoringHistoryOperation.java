@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,10 @@
  *******************************************************************************/
 package org.eclipse.ltk.core.refactoring;
 
+import java.io.InputStream;
+
+import org.xml.sax.InputSource;
+
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -25,6 +29,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.ltk.core.refactoring.history.IRefactoringHistoryService;
 import org.eclipse.ltk.core.refactoring.history.RefactoringHistory;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringSessionStreamReader;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
 
 /**
@@ -54,9 +59,15 @@ public class PerformRefactoringHistoryOperation implements IWorkspaceRunnable {
 	/** The status of the execution */
 	private RefactoringStatus fExecutionStatus= new RefactoringStatus();
 
-	/** The refactoring history */
+	/** The refactoring descriptor flags to filter the refactoring script */
+	private final int fFlags;
+
+	/** The refactoring history, or <code>null</code> if a refactoring script is performed */
 	private final RefactoringHistory fRefactoringHistory;
 
+	/** The refactoring script, or <code>null</code> if a refactoring history is performed */
+	private InputStream fStream;
+
 	/**
 	 * Creates a new perform refactoring history operation.
 	 *
@@ -66,6 +77,46 @@ public class PerformRefactoringHistoryOperation implements IWorkspaceRunnable {
 	public PerformRefactoringHistoryOperation(final RefactoringHistory history) {
 		Assert.isNotNull(history);
 		fRefactoringHistory= history;
+		fStream= null;
+		fFlags= RefactoringDescriptor.NONE;
+	}
+
+	/**
+	 * Creates a new perform refactoring history operation which executes the
+	 * refactorings of a refactoring script.
+	 * <p>
+	 * The refactoring script is parsed while the operation runs, and each
+	 * refactoring is executed as soon as its descriptor has been read. This
+	 * avoids to read the whole script into memory before the first
+	 * refactoring can be executed, as with
+	 * {@link IRefactoringHistoryService#readRefactoringHistory(InputStream, int)}.
+	 * Such an operation can only be run once. The input stream is not closed
+	 * by the operation.
+	 * </p>
+	 * <p>
+	 * Since the refactoring script is not validated before the first
+	 * refactoring is executed, a syntax error later in the script is only
+	 * detected after the refactorings preceding it have already been
+	 * performed. The operation then fails with a {@link CoreException}, and
+	 * the refactorings performed so far are not undone.
+	 * </p>
+	 *
+	 * @param stream
+	 *            an input stream containing a refactoring script
+	 * @param flags
+	 *            the refactoring descriptor flags which must be present in
+	 *            order to execute a refactoring, or
+	 *            <code>RefactoringDescriptor#NONE</code> to execute all
+	 *            refactorings
+	 *
+	 * @since 3.13
+	 */
+	public PerformRefactoringHistoryOperation(final InputStream stream, final int flags) {
+		Assert.isNotNull(stream);
+		Assert.isTrue(flags >= RefactoringDescriptor.NONE);
+		fRefactoringHistory= null;
+		fStream= stream;
+		fFlags= flags;
 	}
 
 	/**
@@ -208,9 +259,56 @@ public class PerformRefactoringHistoryOperation implements IWorkspaceRunnable {
 		// Do nothing
 	}
 
+	/**
+	 * Performs the refactoring described by the specified descriptor.
+	 *
+	 * @param descriptor
+	 *            the refactoring descriptor
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while performing the refactoring
+	 */
+	private void performRefactoring(final RefactoringDescriptor descriptor, final IProgressMonitor monitor) throws CoreException {
+		RefactoringContext context= null;
+		RefactoringStatus status= new RefactoringStatus();
+		try {
+			monitor.beginTask("", 160); //$NON-NLS-1$
+			try {
+				context= createRefactoringContext(descriptor, status, new SubProgressMonitor(monitor, 30, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			} catch (CoreException exception) {
+				status.merge(RefactoringStatus.create(exception.getStatus()));
+			}
+			if (context != null && !status.hasFatalError()) {
+				Refactoring refactoring= context.getRefactoring();
+				final PerformRefactoringOperation operation= new PerformRefactoringOperation(refactoring, CheckConditionsOperation.ALL_CONDITIONS);
+				try {
+					status.merge(aboutToPerformRefactoring(refactoring, descriptor, new SubProgressMonitor(monitor, 30, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)));
+					if (!status.hasFatalError()) {
+						ResourcesPlugin.getWorkspace().run(operation, new SubProgressMonitor(monitor, 90, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+						status.merge(operation.getConditionStatus());
+						if (!status.hasFatalError())
+							status.merge(operation.getValidationStatus());
+					}
+				} finally {
+					refactoringPerformed(refactoring, new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				}
+			}
+		} finally {
+			fExecutionStatus.merge(status);
+			if (context != null)
+				context.dispose();
+			monitor.done();
+		}
+	}
+
 	@Override
 	public void run(final IProgressMonitor monitor) throws CoreException {
 		fExecutionStatus= new RefactoringStatus();
+		if (fRefactoringHistory == null) {
+			runScript(monitor);
+			return;
+		}
 		final RefactoringDescriptorProxy[] proxies= fRefactoringHistory.getDescriptors();
 		monitor.beginTask(RefactoringCoreMessages.PerformRefactoringHistoryOperation_perform_refactorings, 170 * proxies.length);
 		final IRefactoringHistoryService service= RefactoringHistoryService.getInstance();
@@ -218,35 +316,38 @@ public class PerformRefactoringHistoryOperation implements IWorkspaceRunnable {
 			service.connect();
 			for (RefactoringDescriptorProxy proxie : proxies) {
 				final RefactoringDescriptor descriptor= proxie.requestDescriptor(new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
-				if (descriptor != null) {
-					RefactoringContext context= null;
-					RefactoringStatus status= new RefactoringStatus();
-					try {
-						try {
-							context= createRefactoringContext(descriptor, status, new SubProgressMonitor(monitor, 30, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
-						} catch (CoreException exception) {
-							status.merge(RefactoringStatus.create(exception.getStatus()));
-						}
-						if (context != null && !status.hasFatalError()) {
-							Refactoring refactoring= context.getRefactoring();
-							final PerformRefactoringOperation operation= new PerformRefactoringOperation(refactoring, CheckConditionsOperation.ALL_CONDITIONS);
-							try {
-								status.merge(aboutToPerformRefactoring(refactoring, descriptor, new SubProgressMonitor(monitor, 30, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)));
-								if (!status.hasFatalError()) {
-									ResourcesPlugin.getWorkspace().run(operation, new SubProgressMonitor(monitor, 90, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
-									status.merge(operation.getConditionStatus());
-									if (!status.hasFatalError())
-										status.merge(operation.getValidationStatus());
-								}
-							} finally {
-								refactoringPerformed(refactoring, new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
-							}
-						}
-					} finally {
-						fExecutionStatus.merge(status);
-						if (context != null)
-							context.dispose();
-					}
+				if (descriptor != null)
+					performRefactoring(descriptor, new SubProgressMonitor(monitor, 160, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			}
+		} finally {
+			service.disconnect();
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Executes the refactorings of the refactoring script while it is being
+	 * read.
+	 *
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while reading the refactoring script
+	 */
+	private void runScript(final IProgressMonitor monitor) throws CoreException {
+		Assert.isNotNull(fStream, "Refactoring script has already been performed"); //$NON-NLS-1$
+		final InputStream stream= fStream;
+		fStream= null;
+		monitor.beginTask(RefactoringCoreMessages.PerformRefactoringHistoryOperation_perform_refactorings, IProgressMonitor.UNKNOWN);
+		final IRefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		try {
+			service.connect();
+			try (RefactoringSessionStreamReader reader= new RefactoringSessionStreamReader(new InputSource(stream), false, null)) {
+				RefactoringDescriptor descriptor= null;
+				while ((descriptor= reader.next()) != null) {
+					final int current= descriptor.getFlags();
+					if ((current | fFlags) == current)
+						performRefactoring(descriptor, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
 				}
 			}
 		} finally {
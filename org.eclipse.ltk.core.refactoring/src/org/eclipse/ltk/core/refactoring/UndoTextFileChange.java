@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -41,6 +41,7 @@ import org.eclipse.ltk.internal.core.refactoring.Changes;
 import org.eclipse.ltk.internal.core.refactoring.ContentStamps;
 import org.eclipse.ltk.internal.core.refactoring.Lock;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.UndoEditStore;
 
 /**
  * A change to perform the reverse change of a {@link TextFileChange}.
@@ -58,6 +59,7 @@ public class UndoTextFileChange extends Change {
 
 	private String fName;
 	private UndoEdit fUndo;
+	private UndoEditStore.Entry fStoredUndo;
 	private IFile fFile;
 	private ContentStamp fContentStampToRestore;
 	private int fSaveMode;
@@ -146,6 +148,11 @@ public class UndoTextFileChange extends Change {
 		pm.beginTask("", 1); //$NON-NLS-1$
 		try {
 			fValidationState= BufferValidationState.create(fFile);
+			// the change is kept for undo, so its edit may be spilled to disk
+			if (fUndo != null) {
+				fStoredUndo= UndoEditStore.getDefault().add(fUndo);
+				fUndo= null;
+			}
 		} finally {
 			pm.done();
 		}
@@ -267,7 +274,8 @@ public class UndoTextFileChange extends Change {
 	private UndoEdit doPerformEdits(IDocument document, boolean[] setContentStampSuccess) throws MalformedTreeException, BadLocationException, CoreException {
 		// perform the changes
 		LinkedModeModel.closeAllModels(document);
-		UndoEdit redo= fUndo.apply(document, TextEdit.CREATE_UNDO);
+		TextEdit undo= fUndo != null ? fUndo : fStoredUndo.getEdit();
+		UndoEdit redo= undo.apply(document, TextEdit.CREATE_UNDO);
 
 		// try to restore the document content stamp
 		setContentStampSuccess[0]= ContentStamps.set(document, fContentStampToRestore);
@@ -279,6 +287,10 @@ public class UndoTextFileChange extends Change {
 		if (fValidationState != null) {
 			fValidationState.dispose();
 		}
+		if (fStoredUndo != null) {
+			fStoredUndo.release();
+			fStoredUndo= null;
+		}
 	}
 
 	private boolean needsSaving() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,7 @@ package org.eclipse.ltk.core.refactoring.participants;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.expressions.EvaluationContext;
@@ -24,6 +24,8 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryChangeEvent;
+import org.eclipse.core.runtime.IRegistryChangeListener;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 
@@ -47,9 +49,13 @@ import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
 public class ParticipantExtensionPoint {
 
 	private String fParticipantID;
-	private List<ParticipantDescriptor> fParticipants;
+	/**
+	 * The unmodifiable descriptors, read without a lock. Removing descriptors publishes a copy.
+	 */
+	private volatile List<ParticipantDescriptor> fParticipants;
 	private Class<?> fParticipantClass;
 	private String fPluginId;
+	private IRegistryChangeListener fRegistryListener;
 
 	/**
 	 * Creates a {@link ParticipantExtensionPoint}.
@@ -81,19 +87,21 @@ public class ParticipantExtensionPoint {
 	 * @return an array of participants
 	 */
 	public RefactoringParticipant[] getParticipants(RefactoringStatus status, RefactoringProcessor processor, Object element, RefactoringArguments arguments, IParticipantDescriptorFilter filter, String[] affectedNatures, SharableParticipants shared) {
-		if (fParticipants == null)
-			init();
+		List<ParticipantDescriptor> participants= fParticipants;
+		if (participants == null)
+			participants= init();
 
 		EvaluationContext evalContext= createEvaluationContext(processor, element, affectedNatures);
+		Object evalKey= createEvaluationKey(processor, affectedNatures);
 		List<RefactoringParticipant> result= new ArrayList<>();
-		for (Iterator<ParticipantDescriptor> iter= fParticipants.iterator(); iter.hasNext();) {
-			ParticipantDescriptor descriptor= iter.next();
+		List<ParticipantDescriptor> removed= new ArrayList<>();
+		for (ParticipantDescriptor descriptor : participants) {
 			if (!descriptor.isEnabled()) {
-				iter.remove();
+				removed.add(descriptor);
 			} else {
 				try {
 					RefactoringStatus filterStatus= new RefactoringStatus();
-					if (descriptor.matches(evalContext, filter, filterStatus)) {
+					if (descriptor.matches(evalContext, element.getClass(), evalKey, filter, filterStatus)) {
 						RefactoringParticipant participant= shared.get(descriptor);
 						if (participant != null) {
 							((ISharableParticipant)participant).addElement(element, arguments);
@@ -114,7 +122,7 @@ public class ParticipantExtensionPoint {
 									Messages.format(
 										RefactoringCoreMessages.ParticipantExtensionPoint_wrong_type,
 										new String[] {descriptor.getName(), fParticipantClass.getName()}));
-								iter.remove();
+								removed.add(descriptor);
 							}
 						}
 					} else {
@@ -122,10 +130,12 @@ public class ParticipantExtensionPoint {
 					}
 				} catch (CoreException | RuntimeException e) {
 					logMalfunctioningParticipant(status, descriptor, e);
-					iter.remove();
+					removed.add(descriptor);
 				}
 			}
 		}
+		if (!removed.isEmpty())
+			removeParticipants(removed);
 
 		return result.toArray(new RefactoringParticipant[result.size()]);
 	}
@@ -137,10 +147,36 @@ public class ParticipantExtensionPoint {
 		RefactoringCorePlugin.logRemovedParticipant(descriptor, e);
 	}
 
-	private void init() {
+	/**
+	 * Publishes a copy of the descriptors without the removed ones, so that other threads
+	 * iterating over the current descriptors are not affected.
+	 *
+	 * @param removed the descriptors to remove
+	 */
+	private synchronized void removeParticipants(List<ParticipantDescriptor> removed) {
+		List<ParticipantDescriptor> participants= fParticipants;
+		if (participants == null)
+			return; // dropped on a registry change, the descriptors are created anew
+		List<ParticipantDescriptor> copy= new ArrayList<>(participants);
+		if (copy.removeAll(removed))
+			fParticipants= Collections.unmodifiableList(copy);
+	}
+
+	private synchronized List<ParticipantDescriptor> init() {
 		IExtensionRegistry registry= Platform.getExtensionRegistry();
+		if (fRegistryListener == null) {
+			// drop the descriptors and their cached enablement when participants are added or removed
+			fRegistryListener= new IRegistryChangeListener() {
+				@Override
+				public void registryChanged(IRegistryChangeEvent event) {
+					if (event.getExtensionDeltas(fPluginId, fParticipantID).length > 0)
+						fParticipants= null;
+				}
+			};
+			registry.addRegistryChangeListener(fRegistryListener, fPluginId);
+		}
 		IConfigurationElement[] ces= registry.getConfigurationElementsFor(fPluginId, fParticipantID);
-		fParticipants= new ArrayList<>(ces.length);
+		List<ParticipantDescriptor> participants= new ArrayList<>(ces.length);
 		for (IConfigurationElement ce : ces) {
 			ParticipantDescriptor descriptor= new ParticipantDescriptor(ce);
 			IStatus status= descriptor.checkSyntax();
@@ -151,12 +187,15 @@ public class ParticipantExtensionPoint {
 				case IStatus.WARNING:
 				case IStatus.INFO:
 					RefactoringCorePlugin.log(status);
-					fParticipants.add(descriptor);
+					participants.add(descriptor);
 					break;
 				default:
-					fParticipants.add(descriptor);
+					participants.add(descriptor);
 			}
 		}
+		List<ParticipantDescriptor> result= Collections.unmodifiableList(participants);
+		fParticipants= result;
+		return result;
 	}
 
 	//---- Helper methods ------------------------------------------------------------------
@@ -169,4 +208,20 @@ public class ParticipantExtensionPoint {
 		result.addVariable("processorIdentifier", processor.getIdentifier()); //$NON-NLS-1$
 		return result;
 	}
+
+	/**
+	 * Creates the key which, together with the type of the element, determines the
+	 * result of enablement expressions that only test the type of the element, the
+	 * affected natures and the processor. The key must not reference the element's
+	 * class, since descriptors only hold the classes weakly.
+	 *
+	 * @param processor the processor that will own the participants
+	 * @param affectedNatures the natures of the affected projects
+	 * @return the evaluation key
+	 */
+	private static Object createEvaluationKey(RefactoringProcessor processor, String[] affectedNatures) {
+		String[] natures= affectedNatures.clone();
+		Arrays.sort(natures);
+		return Arrays.asList(Arrays.asList(natures), processor.getIdentifier());
+	}
 }
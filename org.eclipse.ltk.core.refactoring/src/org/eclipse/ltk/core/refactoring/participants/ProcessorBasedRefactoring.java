@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -29,6 +36,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.PerformanceStats;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
@@ -46,6 +54,7 @@ import org.eclipse.ltk.internal.core.refactoring.Messages;
 import org.eclipse.ltk.internal.core.refactoring.ParticipantDescriptor;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
 
 /**
  * An base implementation for refactorings that are split into
@@ -65,6 +74,21 @@ public class ProcessorBasedRefactoring extends Refactoring {
 	private static final String PERF_CHECK_CONDITIONS= "org.eclipse.ltk.core.refactoring/perf/participants/checkConditions"; //$NON-NLS-1$
 	private static final String PERF_CREATE_CHANGES= "org.eclipse.ltk.core.refactoring/perf/participants/createChanges"; //$NON-NLS-1$
 
+	/** The default time in milliseconds a thread-safe participant may take to check its conditions */
+	private static final long CHECK_CONDITIONS_TIMEOUT= 60000;
+
+	/**
+	 * The maximal time in milliseconds a thread-safe participant is waited for after its monitor
+	 * has been canceled because of the timeout
+	 */
+	private static final long CHECK_CONDITIONS_GRACE_PERIOD= 10000;
+
+	/** The time in milliseconds from which on the time a participant took is reported */
+	private static final long CHECK_CONDITIONS_REPORT_THRESHOLD= 5000;
+
+	/** The interval in milliseconds in which concurrently checking participants are polled */
+	private static final long CHECK_CONDITIONS_POLL_INTERVAL= 100;
+
 	private RefactoringProcessor fProcessor;
 
 	private List<RefactoringParticipant> fParticipants;
@@ -75,6 +99,19 @@ public class ProcessorBasedRefactoring extends Refactoring {
 
 	private static final List<RefactoringParticipant> EMPTY_PARTICIPANTS= Collections.emptyList();
 
+	/** The threads checking the conditions of thread-safe participants */
+	private static final ExecutorService CHECK_CONDITIONS_EXECUTOR;
+	static {
+		int threads= Math.max(2, Runtime.getRuntime().availableProcessors());
+		ThreadPoolExecutor executor= new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread= new Thread(runnable, "Refactoring Participant Condition Checker"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		CHECK_CONDITIONS_EXECUTOR= executor;
+	}
+
 	private static class ProcessorChange extends CompositeChange {
 		private Map<Change, RefactoringParticipant> fParticipantMap;
 		private List<RefactoringParticipant> fPreChangeParticipants; // can be null
@@ -130,6 +167,53 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		}
 	}
 
+	/**
+	 * Progress monitor for a participant which checks its conditions
+	 * concurrently. The monitor is canceled if the participant exceeds its
+	 * timeout or if the monitor of the refactoring is canceled.
+	 */
+	private static class ParticipantMonitor extends NullProgressMonitor {
+		private final IProgressMonitor fParent;
+		private volatile boolean fCanceled;
+		private volatile long fStart;
+		private volatile long fDuration;
+
+		public ParticipantMonitor(IProgressMonitor parent) {
+			fParent= parent;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return fCanceled || fParent.isCanceled();
+		}
+
+		@Override
+		public void setCanceled(boolean canceled) {
+			fCanceled= canceled;
+		}
+
+		public void start() {
+			fStart= System.nanoTime();
+		}
+
+		public void end() {
+			fDuration= TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fStart);
+		}
+
+		/**
+		 * @param waitStart the time in nanoseconds from which on the caller waits for the participant
+		 * @return the time in milliseconds the participant is running, or is waited for if it has not started yet
+		 */
+		public long getElapsed(long waitStart) {
+			long start= fStart;
+			return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - (start != 0 ? start : waitStart));
+		}
+
+		public long getDuration() {
+			return fDuration;
+		}
+	}
+
 	/**
 	 * Creates a new processor based refactoring. Clients must override {@link #getProcessor()} to return a processor or set the
 	 * processor with {@link #setProcessor(RefactoringProcessor)}.
@@ -246,31 +330,56 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		IProgressMonitor sm= new SubProgressMonitor(pm, 2);
 
 		sm.beginTask("", fParticipants.size()); //$NON-NLS-1$
-		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext() && !result.hasFatalError(); ) {
-
-			RefactoringParticipant participant= iter.next();
+		List<RefactoringParticipant> participants= new ArrayList<>(fParticipants);
+		// the statuses are merged in the order of the participants, including the ones of the thread-safe
+		// participants which are checked after the others
+		RefactoringStatus[] statuses= new RefactoringStatus[participants.size()];
+		List<Integer> threadSafeIndices= new ArrayList<>();
+		boolean fatalError= false;
+		for (int index= 0; index < participants.size() && !fatalError; index++) {
+
+			RefactoringParticipant participant= participants.get(index);
+			if (isThreadSafe(participant)) {
+				threadSafeIndices.add(Integer.valueOf(index));
+				continue;
+			}
 
 			final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
 			stats.startRun();
 
+			RefactoringStatus status= new RefactoringStatus();
 			try {
-				result.merge(participant.checkConditions(new SubProgressMonitor(sm, 1), context));
+				long start= System.nanoTime();
+				status.merge(participant.checkConditions(new SubProgressMonitor(sm, 1), context));
+				reportDuration(participant, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), status);
 			} catch (OperationCanceledException e) {
 				throw e;
 			} catch (RuntimeException e) {
 				// remove the participant so that it will be ignored during change execution.
 				RefactoringCorePlugin.log(e);
-				result.merge(RefactoringStatus.createErrorStatus(Messages.format(
+				status.merge(RefactoringStatus.createErrorStatus(Messages.format(
 					RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_failed,
 					participant.getName())));
-				iter.remove();
+				fParticipants.remove(participant);
 			}
+			statuses[index]= status;
+			fatalError= status.hasFatalError();
 
 			stats.endRun();
 
 			if (sm.isCanceled())
 				throw new OperationCanceledException();
 		}
+		if (!threadSafeIndices.isEmpty() && !fatalError)
+			checkConditionsConcurrently(participants, threadSafeIndices, context, statuses, sm);
+		for (RefactoringStatus status : statuses) {
+			if (status == null)
+				continue;
+			result.merge(status);
+			// like a sequential check, ignore the participants following the first fatal error
+			if (result.hasFatalError())
+				break;
+		}
 		sm.done();
 		if (result.hasFatalError()) {
 			pm.done();
@@ -415,6 +524,137 @@ public class ProcessorBasedRefactoring extends Refactoring {
 	}
 
 
+	private static boolean isThreadSafe(RefactoringParticipant participant) {
+		ParticipantDescriptor descriptor= participant.getDescriptor();
+		return descriptor != null && descriptor.isThreadSafe();
+	}
+
+	/**
+	 * Checks the conditions of participants which are declared as thread-safe
+	 * concurrently. Participants which fail or exceed their timeout are removed
+	 * so that they will be ignored during change execution.
+	 * <p>
+	 * A participant which exceeds its timeout gets its monitor canceled. If it
+	 * does not return within a grace period after that, it is no longer waited
+	 * for and keeps running in the background.
+	 * </p>
+	 *
+	 * @param participants all participants, in their declared order
+	 * @param indices the indices of the thread-safe participants
+	 * @param context the condition checking context
+	 * @param statuses the statuses of all participants, receiving the ones of the
+	 *            thread-safe participants at their indices
+	 * @param pm the progress monitor to use, already started with one tick per participant
+	 * @throws OperationCanceledException if the condition checking got canceled
+	 */
+	private void checkConditionsConcurrently(List<RefactoringParticipant> participants, List<Integer> indices, CheckConditionsContext context, RefactoringStatus[] statuses, IProgressMonitor pm) throws OperationCanceledException {
+		int size= indices.size();
+		long timeout= getCheckConditionsTimeout();
+		long gracePeriod= Math.min(timeout, CHECK_CONDITIONS_GRACE_PERIOD);
+		ParticipantMonitor[] monitors= new ParticipantMonitor[size];
+		List<Future<RefactoringStatus>> futures= new ArrayList<>(size);
+		for (int index= 0; index < size; index++) {
+			final RefactoringParticipant participant= participants.get(indices.get(index).intValue());
+			final ParticipantMonitor monitor= new ParticipantMonitor(pm);
+			final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
+			monitors[index]= monitor;
+			futures.add(CHECK_CONDITIONS_EXECUTOR.submit(() -> {
+				monitor.start();
+				stats.startRun();
+				try {
+					return participant.checkConditions(monitor, context);
+				} finally {
+					monitor.end();
+					stats.endRun();
+				}
+			}));
+		}
+		boolean canceled= false;
+		// wait for all participants, so that none of them is still running once the conditions are checked,
+		// unless it ignores its canceled monitor
+		for (int index= 0; index < size; index++) {
+			RefactoringParticipant participant= participants.get(indices.get(index).intValue());
+			RefactoringStatus result= new RefactoringStatus();
+			statuses[indices.get(index).intValue()]= result;
+			ParticipantMonitor monitor= monitors[index];
+			Future<RefactoringStatus> future= futures.get(index);
+			RefactoringStatus status= null;
+			Throwable failure= null;
+			boolean timedOut= false;
+			boolean done= false;
+			long waitStart= System.nanoTime();
+			while (!done) {
+				try {
+					status= future.get(CHECK_CONDITIONS_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+					done= true;
+				} catch (TimeoutException e) {
+					long elapsed= monitor.getElapsed(waitStart);
+					if (!timedOut && elapsed > timeout) {
+						// let the participant stop at its next cancellation check
+						timedOut= true;
+						monitor.setCanceled(true);
+					}
+					if (elapsed > timeout + gracePeriod) {
+						// abandon the participant
+						future.cancel(true);
+						done= true;
+					}
+				} catch (ExecutionException e) {
+					failure= e.getCause();
+					done= true;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					for (int other= 0; other < size; other++) {
+						monitors[other].setCanceled(true);
+						futures.get(other).cancel(true);
+					}
+					throw new OperationCanceledException();
+				}
+			}
+			if (failure instanceof Error)
+				throw (Error) failure;
+			if (timedOut) {
+				result.merge(RefactoringStatus.createErrorStatus(Messages.format(
+					RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_timeout,
+					new Object[] { participant.getName(), Long.valueOf(timeout) })));
+				// remove the participant so that it will be ignored during change execution.
+				fParticipants.remove(participant);
+			} else if (failure instanceof OperationCanceledException) {
+				canceled= true;
+			} else if (failure != null) {
+				RefactoringCorePlugin.log(failure);
+				result.merge(RefactoringStatus.createErrorStatus(Messages.format(
+					RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_failed,
+					participant.getName())));
+				fParticipants.remove(participant);
+			} else {
+				result.merge(status);
+				reportDuration(participant, monitor.getDuration(), result);
+			}
+			pm.worked(1);
+		}
+		if (canceled || pm.isCanceled())
+			throw new OperationCanceledException();
+	}
+
+	private static long getCheckConditionsTimeout() {
+		return Platform.getPreferencesService().getLong(RefactoringCorePlugin.getPluginId(), RefactoringPreferenceConstants.PREFERENCE_PARTICIPANT_TIMEOUT, CHECK_CONDITIONS_TIMEOUT, null);
+	}
+
+	/**
+	 * Adds an info entry stating the time a participant took to check its
+	 * conditions, if that time exceeds the report threshold.
+	 *
+	 * @param participant the participant
+	 * @param duration the time in milliseconds
+	 * @param result the status to add the entry to
+	 */
+	private static void reportDuration(RefactoringParticipant participant, long duration, RefactoringStatus result) {
+		if (duration >= CHECK_CONDITIONS_REPORT_THRESHOLD)
+			result.addInfo(Messages.format(RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_duration,
+				new Object[] { participant.getName(), Long.valueOf(duration) }));
+	}
+
 	private static void disableParticipant(final RefactoringParticipant participant, Throwable e) {
 		ParticipantDescriptor descriptor= participant.getDescriptor();
 		descriptor.disable();
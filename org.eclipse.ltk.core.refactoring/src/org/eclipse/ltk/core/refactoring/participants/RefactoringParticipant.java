@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -155,6 +155,13 @@ public abstract class RefactoringParticipant extends PlatformObject {
 	 * <p>
 	 * This method can be called more than once.
 	 * </p>
+	 * <p>
+	 * Since 3.13, participants declared with <code>threadSafe="true"</code> check their
+	 * conditions concurrently with other such participants, in a thread other than the
+	 * caller's. They must synchronize on the passed context while accessing it or its
+	 * checkers, and are canceled through the passed progress monitor if they exceed
+	 * their timeout.
+	 * </p>
 	 *
 	 * @param pm a progress monitor to report progress
 	 * @param context a condition checking context to collect shared condition checks
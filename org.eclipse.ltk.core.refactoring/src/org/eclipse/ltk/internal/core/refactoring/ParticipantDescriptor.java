@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,11 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionConverter;
@@ -23,6 +28,7 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Status;
 
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
@@ -34,10 +40,29 @@ public class ParticipantDescriptor {
 	private IConfigurationElement fConfigurationElement;
 	private boolean fEnabled;
 
+	/** The converted enablement expression, or <code>null</code> if not yet converted */
+	private volatile Expression fExpression;
+
+	/**
+	 * The cached results of the enablement expression by element type and evaluation
+	 * key, or <code>null</code> if the expression depends on more than these. The
+	 * element types are held weakly, so that they do not keep the classes of
+	 * uninstalled contributors alive.
+	 */
+	private volatile Map<Class<?>, Map<Object, Boolean>> fDecisions;
+
 	private static final String ID= "id"; //$NON-NLS-1$
 	private static final String NAME= "name";  //$NON-NLS-1$
 	private static final String CLASS= "class"; //$NON-NLS-1$
 	private static final String PROCESS_ON_CANCEL= "processOnCancel";  //$NON-NLS-1$
+	private static final String THREAD_SAFE= "threadSafe";  //$NON-NLS-1$
+
+	private static final String PERF_ENABLEMENT= "org.eclipse.ltk.core.refactoring/perf/participants/enablement"; //$NON-NLS-1$
+
+	private static final String VARIABLE= "variable"; //$NON-NLS-1$
+	private static final String VARIABLE_ELEMENT= "element"; //$NON-NLS-1$
+	private static final String VARIABLE_AFFECTED_NATURES= "affectedNatures"; //$NON-NLS-1$
+	private static final String VARIABLE_PROCESSOR_IDENTIFIER= "processorIdentifier"; //$NON-NLS-1$
 
 	public ParticipantDescriptor(IConfigurationElement element) {
 		fConfigurationElement= element;
@@ -70,13 +95,23 @@ public class ParticipantDescriptor {
 		return Status.OK_STATUS;
 	}
 
-	public boolean matches(IEvaluationContext context, IParticipantDescriptorFilter filter, RefactoringStatus status) throws CoreException {
-		IConfigurationElement[] elements= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
-		if (elements.length == 0)
-			return false;
-		Assert.isTrue(elements.length == 1);
-		Expression exp= ExpressionConverter.getDefault().perform(elements[0]);
-		if (!convert(exp.evaluate(context)))
+	/**
+	 * Returns whether the participant is enabled in the given context and
+	 * selected by the given filter.
+	 *
+	 * @param context the evaluation context
+	 * @param type the type of the element to be refactored, or <code>null</code> to always
+	 *  evaluate the expression
+	 * @param key a key which, together with the element type, determines the result of the
+	 *  enablement expression if it only tests the type of the element, the affected natures
+	 *  and the processor identifier, or <code>null</code> to always evaluate the expression
+	 * @param filter the participant filter, or <code>null</code>
+	 * @param status the status to report filter problems
+	 * @return <code>true</code> if the participant matches
+	 * @throws CoreException if the enablement expression cannot be evaluated
+	 */
+	public boolean matches(IEvaluationContext context, Class<?> type, Object key, IParticipantDescriptorFilter filter, RefactoringStatus status) throws CoreException {
+		if (!isEnabled(context, type, key))
 			return false;
 		if (filter != null && !filter.select(fConfigurationElement, status))
 			return false;
@@ -84,6 +119,74 @@ public class ParticipantDescriptor {
 		return true;
 	}
 
+	private boolean isEnabled(IEvaluationContext context, Class<?> type, Object key) throws CoreException {
+		Map<Class<?>, Map<Object, Boolean>> decisions= fDecisions;
+		if (type != null && key != null && decisions != null) {
+			Map<Object, Boolean> typeDecisions= decisions.get(type);
+			Boolean decision= typeDecisions != null ? typeDecisions.get(key) : null;
+			if (decision != null)
+				return decision.booleanValue();
+		}
+		final PerformanceStats stats= PerformanceStats.getStats(PERF_ENABLEMENT, getId());
+		stats.startRun();
+		try {
+			if (fExpression == null) {
+				IConfigurationElement[] elements= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
+				if (elements.length == 0)
+					return false;
+				Assert.isTrue(elements.length == 1);
+				if (isCacheable(elements[0], true))
+					fDecisions= decisions= Collections.synchronizedMap(new WeakHashMap<>());
+				fExpression= ExpressionConverter.getDefault().perform(elements[0]);
+			}
+			boolean decision= convert(fExpression.evaluate(context));
+			if (type != null && key != null && decisions != null)
+				decisions.computeIfAbsent(type, t -> new ConcurrentHashMap<>()).put(key, Boolean.valueOf(decision));
+			return decision;
+		} finally {
+			stats.endRun();
+		}
+	}
+
+	/**
+	 * Returns whether the result of the given expression element only depends on
+	 * the type of the element to be refactored, the affected natures and the processor
+	 * identifier.
+	 *
+	 * @param element the expression element
+	 * @param elementIsDefault <code>true</code> if the element to be refactored is the
+	 *  default variable of the expression
+	 * @return <code>true</code> if the result of the expression can be cached
+	 */
+	private static boolean isCacheable(IConfigurationElement element, boolean elementIsDefault) {
+		String name= element.getName();
+		if (ExpressionTagNames.INSTANCEOF.equals(name))
+			return true;
+		if (ExpressionTagNames.WITH.equals(name)) {
+			String variable= element.getAttribute(VARIABLE);
+			if (VARIABLE_ELEMENT.equals(variable))
+				elementIsDefault= true;
+			else if (VARIABLE_AFFECTED_NATURES.equals(variable) || VARIABLE_PROCESSOR_IDENTIFIER.equals(variable))
+				elementIsDefault= false;
+			else
+				return false;
+		} else if (ExpressionTagNames.EQUALS.equals(name)) {
+			return !elementIsDefault;
+		} else if (ExpressionTagNames.ITERATE.equals(name) || ExpressionTagNames.COUNT.equals(name)) {
+			if (elementIsDefault)
+				return false;
+		} else if (!ExpressionTagNames.ENABLEMENT.equals(name) && !ExpressionTagNames.AND.equals(name)
+				&& !ExpressionTagNames.OR.equals(name) && !ExpressionTagNames.NOT.equals(name)) {
+			// property testers, adaptation and system properties depend on more than the key
+			return false;
+		}
+		for (IConfigurationElement child : element.getChildren()) {
+			if (!isCacheable(child, elementIsDefault))
+				return false;
+		}
+		return true;
+	}
+
 	public RefactoringParticipant createParticipant() throws CoreException {
 		return (RefactoringParticipant)fConfigurationElement.createExecutableExtension(CLASS);
 	}
@@ -103,6 +206,13 @@ public class ParticipantDescriptor {
 		return Boolean.parseBoolean(attr);
 	}
 
+	public boolean isThreadSafe() {
+		String attr= fConfigurationElement.getAttribute(THREAD_SAFE);
+		if (attr == null)
+			return false;
+		return Boolean.parseBoolean(attr);
+	}
+
 	private boolean convert(EvaluationResult eval) {
 		if (eval == EvaluationResult.FALSE)
 			return false;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -143,8 +143,12 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String PerformRefactoringHistoryOperation_perform_refactorings;
 
+	public static String ProcessorBasedRefactoring_check_condition_participant_duration;
+
 	public static String ProcessorBasedRefactoring_check_condition_participant_failed;
 
+	public static String ProcessorBasedRefactoring_check_condition_participant_timeout;
+
 	public static String ProcessorBasedRefactoring_create_change;
 
 	public static String ProcessorBasedRefactoring_final_conditions;
@@ -261,6 +265,10 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String UndoDeleteResourceChange_already_exists;
 
+	public static String UndoEditStore_entry_released;
+
+	public static String UndoEditStore_error_reading_undo;
+
 	public static String UndoDeleteResourceChange_cannot_restore;
 
 	public static String UndoDeleteResourceChange_change_name;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2008 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,22 @@ public final class RefactoringPreferenceConstants {
 	/** The shared refactoring history preference */
 	public static final String PREFERENCE_SHARED_REFACTORING_HISTORY= "org.eclipse.ltk.core.refactoring.enable.project.refactoring.history"; //$NON-NLS-1$
 
+	/**
+	 * The preference for the number of bytes of undo edits to keep in memory
+	 * before older ones are spilled to disk
+	 *
+	 * @since 3.13
+	 */
+	public static final String PREFERENCE_UNDO_MEMORY_BUDGET= "org.eclipse.ltk.core.refactoring.undo.memory.budget"; //$NON-NLS-1$
+
+	/**
+	 * The preference for the time in milliseconds a thread-safe participant may
+	 * take to check its conditions
+	 *
+	 * @since 3.13
+	 */
+	public static final String PREFERENCE_PARTICIPANT_TIMEOUT= "org.eclipse.ltk.core.refactoring.participant.timeout"; //$NON-NLS-1$
+
 	private RefactoringPreferenceConstants() {
 		// Not for instantiation
 	}
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.InputSource;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.ltk.core.refactoring.IRefactoringCoreStatusCodes;
+import org.eclipse.ltk.core.refactoring.RefactoringContribution;
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
+import org.eclipse.ltk.internal.core.refactoring.history.DefaultRefactoringDescriptor;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringContributionManager;
+
+/**
+ * Streaming reader for XML-based refactoring sessions.
+ * <p>
+ * The refactoring descriptors are created one at a time while the input is
+ * parsed, so that clients can process a refactoring script before it has been
+ * read completely, and never need to hold all of its descriptors in memory.
+ * </p>
+ * <p>
+ * Closing the reader does not close the underlying input.
+ * </p>
+ *
+ * @since 3.13
+ */
+public final class RefactoringSessionStreamReader implements AutoCloseable {
+
+	/** The comment of the refactoring session, or <code>null</code> */
+	private String fComment= null;
+
+	private final boolean fCreateDefaultDescriptors;
+
+	/**
+	 * The project of the refactoring descriptors, or <code>null</code>
+	 * if the project should be read from the descriptors.
+	 */
+	private final String fProject;
+
+	/** The underlying XML stream reader */
+	private final XMLStreamReader fReader;
+
+	/** Has a session been found during parsing? */
+	private boolean fSessionFound= false;
+
+	/** The current version of the refactoring script, or <code>null</code> */
+	private String fVersion= null;
+
+	/**
+	 * Creates a new refactoring session stream reader.
+	 *
+	 * @param source
+	 *            the input source, which must provide a byte or a character
+	 *            stream
+	 * @param createDefaultDescriptors
+	 *            <code>true</code> iff {@link DefaultRefactoringDescriptor}s should be created,
+	 *            <code>false</code> if {@link RefactoringContribution#createDescriptor(String, String, String, String, Map, int)}
+	 *            should be used to create contribution-specific descriptors.
+	 * @param project
+	 *            the project of the refactoring descriptors, or <code>null</code>
+	 *            if the project should be read from the descriptors. This parameter is not used
+	 *            if <code>createDefaultDescriptors</code> is <code>true</code>.
+	 * @throws CoreException
+	 *             if the input source cannot be read
+	 */
+	public RefactoringSessionStreamReader(final InputSource source, final boolean createDefaultDescriptors, final String project) throws CoreException {
+		Assert.isNotNull(source);
+		fCreateDefaultDescriptors= createDefaultDescriptors;
+		fProject= project;
+		final XMLInputFactory factory= XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		try {
+			if (source.getCharacterStream() != null)
+				fReader= factory.createXMLStreamReader(source.getCharacterStream());
+			else if (source.getEncoding() != null)
+				fReader= factory.createXMLStreamReader(source.getByteStream(), source.getEncoding());
+			else
+				fReader= factory.createXMLStreamReader(source.getByteStream());
+		} catch (XMLStreamException exception) {
+			throw createCoreException(exception);
+		}
+	}
+
+	/**
+	 * Checks that a refactoring descriptor belongs to a session of the
+	 * current version.
+	 *
+	 * @throws CoreException
+	 *             if no session has been found, or the session has no or an
+	 *             unsupported version
+	 */
+	private void checkSession() throws CoreException {
+		if (!fSessionFound)
+			throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IRefactoringCoreStatusCodes.REFACTORING_HISTORY_FORMAT_ERROR, RefactoringCoreMessages.RefactoringSessionReader_no_session, null));
+		if (fVersion == null || "".equals(fVersion)) //$NON-NLS-1$
+			throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IRefactoringCoreStatusCodes.MISSING_REFACTORING_HISTORY_VERSION, RefactoringCoreMessages.RefactoringSessionReader_missing_version_information, null));
+		if (!IRefactoringSerializationConstants.CURRENT_VERSION.equals(fVersion))
+			throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IRefactoringCoreStatusCodes.UNSUPPORTED_REFACTORING_HISTORY_VERSION, RefactoringCoreMessages.RefactoringSessionReader_unsupported_version_information, null));
+	}
+
+	@Override
+	public void close() {
+		try {
+			fReader.close();
+		} catch (XMLStreamException exception) {
+			// Do nothing
+		}
+	}
+
+	private CoreException createCoreException(final XMLStreamException exception) {
+		final String message;
+		final Location location= exception.getLocation();
+		if (exception.getNestedException() instanceof IOException)
+			message= exception.getNestedException().getLocalizedMessage();
+		else if (location != null)
+			message= Messages.format(RefactoringCoreMessages.RefactoringSessionReader_invalid_contents_at, new Object[] { Integer.toString(location.getLineNumber()), Integer.toString(location.getColumnNumber()) });
+		else
+			message= exception.getLocalizedMessage();
+		return new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IRefactoringCoreStatusCodes.REFACTORING_HISTORY_IO_ERROR, message, exception));
+	}
+
+	/**
+	 * Creates a refactoring descriptor from the current refactoring element.
+	 *
+	 * @return the refactoring descriptor
+	 * @throws XMLStreamException
+	 *             if the element contains invalid values
+	 */
+	private RefactoringDescriptor createDescriptor() throws XMLStreamException {
+		final int length= fReader.getAttributeCount();
+		final Map<String, String> map= new HashMap<>(length);
+		String id= ""; //$NON-NLS-1$
+		String stamp= ""; //$NON-NLS-1$
+		String description= ""; //$NON-NLS-1$
+		String comment= null;
+		String flags= "0"; //$NON-NLS-1$
+		String project= null;
+		for (int index= 0; index < length; index++) {
+			final String name= fReader.getAttributeLocalName(index);
+			final String value= fReader.getAttributeValue(index);
+			if (IRefactoringSerializationConstants.ATTRIBUTE_ID.equals(name)) {
+				id= value;
+			} else if (IRefactoringSerializationConstants.ATTRIBUTE_STAMP.equals(name)) {
+				stamp= value;
+			} else if (IRefactoringSerializationConstants.ATTRIBUTE_DESCRIPTION.equals(name)) {
+				description= value;
+			} else if (IRefactoringSerializationConstants.ATTRIBUTE_FLAGS.equals(name)) {
+				flags= value;
+			} else if (IRefactoringSerializationConstants.ATTRIBUTE_COMMENT.equals(name)) {
+				if (!"".equals(value)) //$NON-NLS-1$
+					comment= value;
+			} else if (IRefactoringSerializationConstants.ATTRIBUTE_PROJECT.equals(name)) {
+				project= value;
+			} else if (!"".equals(name)) { //$NON-NLS-1$
+				map.put(name, value);
+			}
+		}
+		int flag= 0;
+		try {
+			flag= Integer.parseInt(flags);
+		} catch (NumberFormatException exception) {
+			// Do nothing
+		}
+
+		RefactoringDescriptor descriptor= null;
+		if (fCreateDefaultDescriptors) {
+			descriptor= new DefaultRefactoringDescriptor(id, project, description, comment, map, flag);
+		} else {
+			if (fProject != null && project == null) {
+				project= fProject; // override project from file if fProject != null
+			}
+			try {
+				descriptor= RefactoringContributionManager.getInstance().createDescriptor(id, project, description, comment, map, flag);
+			} catch (RuntimeException e) {
+				throw new XMLStreamException(RefactoringCoreMessages.RefactoringSessionReader_invalid_values_in_xml, fReader.getLocation(), e);
+			}
+		}
+		try {
+			descriptor.setTimeStamp(Long.parseLong(stamp));
+		} catch (NumberFormatException exception) {
+			// Do nothing
+		}
+		return descriptor;
+	}
+
+	/**
+	 * Returns the comment of the refactoring session.
+	 *
+	 * @return the comment, or <code>null</code>
+	 */
+	public String getComment() {
+		return fComment;
+	}
+
+	/**
+	 * Returns the version of the refactoring session.
+	 *
+	 * @return the version, or <code>null</code>
+	 */
+	public String getVersion() {
+		return fVersion;
+	}
+
+	/**
+	 * Reads the next refactoring descriptor.
+	 *
+	 * @return the next refactoring descriptor, or <code>null</code> if the
+	 *         session contains no further descriptors
+	 * @throws CoreException
+	 *             if an error occurs while reading from the input source, or if
+	 *             the input is not a refactoring session of the current version
+	 */
+	public RefactoringDescriptor next() throws CoreException {
+		try {
+			while (fReader.hasNext()) {
+				if (fReader.next() == XMLStreamConstants.START_ELEMENT) {
+					final String name= fReader.getLocalName();
+					if (IRefactoringSerializationConstants.ELEMENT_REFACTORING.equals(name)) {
+						checkSession();
+						return createDescriptor();
+					} else if (IRefactoringSerializationConstants.ELEMENT_SESSION.equals(name)) {
+						fSessionFound= true;
+						final String version= fReader.getAttributeValue(null, IRefactoringSerializationConstants.ATTRIBUTE_VERSION);
+						if (version != null && !"".equals(version)) //$NON-NLS-1$
+							fVersion= version;
+						fComment= fReader.getAttributeValue(null, IRefactoringSerializationConstants.ATTRIBUTE_COMMENT);
+					}
+				}
+			}
+		} catch (XMLStreamException exception) {
+			throw createCoreException(exception);
+		}
+		if (!fSessionFound)
+			throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IRefactoringCoreStatusCodes.REFACTORING_HISTORY_FORMAT_ERROR, RefactoringCoreMessages.RefactoringSessionReader_no_session, null));
+		return null;
+	}
+}
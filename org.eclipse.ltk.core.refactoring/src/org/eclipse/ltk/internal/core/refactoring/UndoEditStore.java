@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.UndoEdit;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+
+/**
+ * Keeps the undo edits of text file changes which are waiting on the undo
+ * stack.
+ * <p>
+ * Undo edits are held in memory up to a budget, which is configured by
+ * {@link RefactoringPreferenceConstants#PREFERENCE_UNDO_MEMORY_BUDGET}. When the
+ * budget is exceeded, the oldest undo edits are written to compressed files in
+ * the plug-in's state location and read back only when they are performed. Undo
+ * edits whose replacements cannot be reproduced exactly by a flat
+ * {@link MultiTextEdit} always stay in memory.
+ * </p>
+ *
+ * @since 3.13
+ */
+public final class UndoEditStore {
+
+	/**
+	 * A handle to an undo edit kept by the store.
+	 */
+	public final class Entry {
+
+		/** The undo edit, or <code>null</code> if spilled or released */
+		private UndoEdit fEdit;
+
+		/** The spill file, or <code>null</code> */
+		private File fFile;
+
+		/** The estimated size of the undo edit in bytes */
+		private final long fSize;
+
+		/** Can the undo edit be spilled to disk? */
+		private boolean fSpillable= true;
+
+		private Entry(UndoEdit edit, long size) {
+			fEdit= edit;
+			fSize= size;
+		}
+
+		/**
+		 * Returns the undo edit of this entry, reading it back if it has been
+		 * spilled to disk.
+		 *
+		 * @return the undo edit to apply
+		 * @throws CoreException
+		 *             if the entry has been released, or the spill file
+		 *             cannot be read
+		 */
+		public TextEdit getEdit() throws CoreException {
+			synchronized (UndoEditStore.this) {
+				if (fEdit != null)
+					return fEdit;
+				if (fFile == null)
+					throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IStatus.ERROR, RefactoringCoreMessages.UndoEditStore_entry_released, null));
+				try {
+					return read(fFile);
+				} catch (IOException exception) {
+					throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IStatus.ERROR, RefactoringCoreMessages.UndoEditStore_error_reading_undo, exception));
+				}
+			}
+		}
+
+		/**
+		 * Returns whether the undo edit of this entry has been spilled to disk.
+		 *
+		 * @return <code>true</code> if the undo edit has been spilled,
+		 *         <code>false</code> otherwise
+		 */
+		public boolean isSpilled() {
+			synchronized (UndoEditStore.this) {
+				return fFile != null;
+			}
+		}
+
+		/**
+		 * Releases this entry. The undo edit can no longer be retrieved.
+		 */
+		public void release() {
+			synchronized (UndoEditStore.this) {
+				if (fInMemory.remove(this))
+					fMemorySize-= fSize;
+				if (fFile != null) {
+					fFile.delete();
+					fFile= null;
+				}
+				fEdit= null;
+			}
+		}
+	}
+
+	/** The default memory budget in bytes */
+	public static final long DEFAULT_MEMORY_BUDGET= 16 * 1024 * 1024;
+
+	/** The estimated overhead of a single edit in bytes */
+	private static final int EDIT_OVERHEAD= 64;
+
+	/** The maximal length of the scratch document used to verify spilled edits */
+	private static final int MAX_VERIFICATION_LENGTH= 4 * 1024 * 1024;
+
+	/** The name of the spill folder in the plug-in's state location */
+	private static final String NAME_SPILL_FOLDER= ".undo"; //$NON-NLS-1$
+
+	/** The default store, or <code>null</code> */
+	private static UndoEditStore fgDefault= null;
+
+	/**
+	 * Returns the default undo edit store.
+	 *
+	 * @return the default store
+	 */
+	public static synchronized UndoEditStore getDefault() {
+		if (fgDefault == null)
+			fgDefault= new UndoEditStore(RefactoringCorePlugin.getDefault().getStateLocation().append(NAME_SPILL_FOLDER).toFile(), -1);
+		return fgDefault;
+	}
+
+	/**
+	 * Disposes the default undo edit store, if it has been created.
+	 */
+	public static synchronized void disposeDefault() {
+		if (fgDefault != null) {
+			fgDefault.dispose();
+			fgDefault= null;
+		}
+	}
+
+	/**
+	 * Estimates the memory used by the specified undo edit.
+	 *
+	 * @param edit
+	 *            the undo edit
+	 * @return the estimated size in bytes
+	 */
+	private static long estimate(TextEdit edit) {
+		long size= EDIT_OVERHEAD;
+		if (edit instanceof ReplaceEdit)
+			size+= 2L * ((ReplaceEdit) edit).getText().length();
+		for (TextEdit child : edit.getChildren())
+			size+= estimate(child);
+		return size;
+	}
+
+	private static MultiTextEdit read(File file) throws IOException {
+		try (DataInputStream stream= new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+			final int count= stream.readInt();
+			final MultiTextEdit edit= new MultiTextEdit();
+			for (int index= 0; index < count; index++) {
+				final int offset= stream.readInt();
+				final int length= stream.readInt();
+				final char[] text= new char[stream.readInt()];
+				for (int position= 0; position < text.length; position++)
+					text[position]= stream.readChar();
+				edit.addChild(new ReplaceEdit(offset, length, new String(text)));
+			}
+			return edit;
+		} catch (MalformedTreeException exception) {
+			throw new IOException(exception.getMessage(), exception);
+		}
+	}
+
+	/**
+	 * Converts an undo edit into replacements which can be applied as a flat
+	 * {@link MultiTextEdit}, and verifies that they produce the same result as
+	 * the undo edit itself.
+	 *
+	 * @param edit
+	 *            the undo edit
+	 * @return the verified replacements, or <code>null</code> if the undo edit
+	 *         cannot be reproduced exactly
+	 */
+	private static ReplaceEdit[] toReplacements(UndoEdit edit) {
+		final TextEdit[] children= edit.getChildren();
+		long end= 0;
+		long growth= 0;
+		for (TextEdit child : children) {
+			if (!(child instanceof ReplaceEdit) || child.hasChildren())
+				return null;
+			end= Math.max(end, child.getExclusiveEnd());
+			growth+= child.getLength() + ((ReplaceEdit) child).getText().length();
+		}
+		final long size= end + growth;
+		if (size > MAX_VERIFICATION_LENGTH)
+			return null;
+		final String content= createScratchContent((int) size);
+		String expected= null;
+		try {
+			final Document document= new Document(content);
+			edit.copy().apply(document, TextEdit.NONE);
+			expected= document.get();
+		} catch (MalformedTreeException | BadLocationException exception) {
+			return null;
+		}
+		// The children either share the coordinates of the document the undo is
+		// applied to, or are relative to the document after the preceding ones
+		// have been applied, in either order
+		final ReplaceEdit[][] candidates= { toAbsolute(children, false, false), toAbsolute(children, true, true), toAbsolute(children, true, false) };
+		for (ReplaceEdit[] candidate : candidates) {
+			if (candidate != null && matches(candidate, content, expected))
+				return candidate;
+		}
+		return null;
+	}
+
+	private static ReplaceEdit[] toAbsolute(TextEdit[] children, boolean sequential, boolean reverse) {
+		final ReplaceEdit[] result= new ReplaceEdit[children.length];
+		int delta= 0;
+		for (int index= 0; index < children.length; index++) {
+			final int position= reverse ? children.length - 1 - index : index;
+			final ReplaceEdit child= (ReplaceEdit) children[position];
+			final String text= child.getText();
+			final int offset= child.getOffset() - delta;
+			if (offset < 0)
+				return null;
+			result[position]= new ReplaceEdit(offset, child.getLength(), text);
+			if (sequential)
+				delta+= text.length() - child.getLength();
+		}
+		return result;
+	}
+
+	private static String createScratchContent(int length) {
+		final char[] characters= new char[length];
+		for (int index= 0; index < length; index++)
+			characters[index]= (char) ('\u4e00' + index % 0x5000);
+		return new String(characters);
+	}
+
+	private static boolean matches(ReplaceEdit[] replacements, String content, String expected) {
+		try {
+			final MultiTextEdit edit= new MultiTextEdit();
+			for (ReplaceEdit replacement : replacements)
+				edit.addChild(replacement.copy());
+			final Document document= new Document(content);
+			edit.apply(document, TextEdit.NONE);
+			return expected.equals(document.get());
+		} catch (MalformedTreeException | BadLocationException exception) {
+			return false;
+		}
+	}
+
+	/** The budget in bytes, or a negative value to use the preference */
+	private final long fBudget;
+
+	/** The spill directory */
+	private final File fDirectory;
+
+	/** The entries held in memory, oldest first */
+	private final Set<Entry> fInMemory= new LinkedHashSet<>();
+
+	/** The estimated size of the entries held in memory */
+	private long fMemorySize= 0;
+
+	/**
+	 * Creates a new undo edit store. Files left over in the spill directory
+	 * are deleted.
+	 *
+	 * @param directory
+	 *            the spill directory
+	 * @param budget
+	 *            the memory budget in bytes, or a negative value to use the
+	 *            preference
+	 */
+	public UndoEditStore(File directory, long budget) {
+		Assert.isNotNull(directory);
+		fDirectory= directory;
+		fBudget= budget;
+		clearDirectory();
+	}
+
+	/**
+	 * Adds an undo edit to the store. Older entries are spilled to disk if the
+	 * memory budget is exceeded.
+	 *
+	 * @param edit
+	 *            the undo edit
+	 * @return the entry of the undo edit
+	 */
+	public synchronized Entry add(UndoEdit edit) {
+		Assert.isNotNull(edit);
+		final Entry entry= new Entry(edit, estimate(edit));
+		fInMemory.add(entry);
+		fMemorySize+= entry.fSize;
+		trim();
+		return entry;
+	}
+
+	private void clearDirectory() {
+		final File[] files= fDirectory.listFiles();
+		if (files != null) {
+			for (File file : files)
+				file.delete();
+		}
+	}
+
+	private synchronized void dispose() {
+		for (Entry entry : fInMemory)
+			entry.fEdit= null;
+		fInMemory.clear();
+		fMemorySize= 0;
+		clearDirectory();
+		fDirectory.delete();
+	}
+
+	private long getBudget() {
+		if (fBudget >= 0)
+			return fBudget;
+		return Platform.getPreferencesService().getLong(RefactoringCorePlugin.getPluginId(), RefactoringPreferenceConstants.PREFERENCE_UNDO_MEMORY_BUDGET, DEFAULT_MEMORY_BUDGET, null);
+	}
+
+	/**
+	 * Returns the estimated size of the undo edits held in memory.
+	 *
+	 * @return the size in bytes
+	 */
+	public synchronized long getMemorySize() {
+		return fMemorySize;
+	}
+
+	/**
+	 * Writes the undo edit of an entry to a spill file.
+	 *
+	 * @param entry
+	 *            the entry to spill
+	 * @return <code>true</code> if the undo edit has been spilled,
+	 *         <code>false</code> if it cannot be reproduced from a spill file
+	 * @throws IOException
+	 *             if the spill file cannot be written
+	 */
+	private boolean spill(Entry entry) throws IOException {
+		final ReplaceEdit[] replacements= toReplacements(entry.fEdit);
+		if (replacements == null)
+			return false;
+		fDirectory.mkdirs();
+		final File file= File.createTempFile("undo", ".edits", fDirectory); //$NON-NLS-1$ //$NON-NLS-2$
+		try (DataOutputStream stream= new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))))) {
+			stream.writeInt(replacements.length);
+			for (ReplaceEdit replacement : replacements) {
+				// raw chars, since undo text may contain unpaired surrogates
+				final String text= replacement.getText();
+				stream.writeInt(replacement.getOffset());
+				stream.writeInt(replacement.getLength());
+				stream.writeInt(text.length());
+				stream.writeChars(text);
+			}
+		} catch (IOException exception) {
+			file.delete();
+			throw exception;
+		}
+		entry.fFile= file;
+		entry.fEdit= null;
+		return true;
+	}
+
+	private void trim() {
+		final long budget= getBudget();
+		for (final Iterator<Entry> iterator= fInMemory.iterator(); fMemorySize > budget && iterator.hasNext();) {
+			final Entry entry= iterator.next();
+			if (!entry.fSpillable)
+				continue;
+			try {
+				if (spill(entry)) {
+					iterator.remove();
+					fMemorySize-= entry.fSize;
+				} else {
+					// The undo edit stays in memory, and keeps counting against the budget
+					entry.fSpillable= false;
+				}
+			} catch (IOException exception) {
+				RefactoringCorePlugin.log(exception);
+				return;
+			}
+		}
+	}
+}
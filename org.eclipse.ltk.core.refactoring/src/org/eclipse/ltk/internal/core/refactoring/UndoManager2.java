@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -270,7 +270,8 @@ public class UndoManager2 implements IUndoManager {
 
 	@Override
 	public void shutdown() {
-		// nothing to do since we have a shared undo manager anyways.
+		// the operation history is shared, but spilled undo edits belong to us
+		UndoEditStore.disposeDefault();
 	}
 
 	private void handleException(ExecutionException e) throws CoreException {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,8 @@ package org.eclipse.ltk.internal.core.refactoring.history;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -32,11 +34,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -146,6 +150,71 @@ public final class RefactoringHistoryManager {
 		return new CoreException(new Status(IStatus.ERROR, RefactoringCore.ID_PLUGIN, IRefactoringCoreStatusCodes.REFACTORING_HISTORY_IO_ERROR, exception.getLocalizedMessage(), exception));
 	}
 
+	/**
+	 * Exports a history from the store of the local refactoring histories
+	 * into the history index tree spanned by the specified file store.
+	 *
+	 * @param source
+	 *            the store of the local refactoring histories
+	 * @param key
+	 *            the key of the history to export
+	 * @param store
+	 *            the file store spanning the history index tree
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while exporting the history
+	 */
+	static void exportRefactoringHistory(final RefactoringHistoryStore source, final String key, final IFileStore store, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 100);
+			final List<RefactoringDescriptorProxy> proxies= new ArrayList<>();
+			source.readDescriptorProxies(key, null, 0, Long.MAX_VALUE, proxies);
+			final DocumentBuilder parser= DocumentBuilderFactory.newInstance().newDocumentBuilder();
+			parser.setErrorHandler(new DefaultHandler());
+			final Map<IPath, Document> documents= new LinkedHashMap<>();
+			final Map<IPath, List<RefactoringDescriptorProxy>> indexes= new HashMap<>();
+			for (RefactoringDescriptorProxy proxy : proxies) {
+				final byte[] bytes= source.readDescriptor(key, proxy.getTimeStamp());
+				if (bytes == null)
+					continue;
+				final Document document= parser.parse(new InputSource(new ByteArrayInputStream(bytes)));
+				final IPath path= stampToPath(proxy.getTimeStamp());
+				final Document history= documents.get(path);
+				if (history == null) {
+					documents.put(path, document);
+					indexes.put(path, new ArrayList<>());
+				} else {
+					final NodeList list= document.getElementsByTagName(IRefactoringSerializationConstants.ELEMENT_REFACTORING);
+					final int length= list.getLength();
+					for (int offset= 0; offset < length; offset++)
+						history.getDocumentElement().appendChild(history.importNode(list.item(offset), true));
+				}
+				indexes.get(path).add(proxy);
+			}
+			monitor.worked(20);
+			final IProgressMonitor subMonitor= new SubProgressMonitor(monitor, 80);
+			try {
+				subMonitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, documents.size() * 3);
+				for (Entry<IPath, Document> entry : documents.entrySet()) {
+					final IFileStore folder= store.getFileStore(entry.getKey());
+					folder.mkdir(EFS.NONE, new SubProgressMonitor(subMonitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+					try (OutputStream output= new BufferedOutputStream(folder.getChild(RefactoringHistoryService.NAME_HISTORY_FILE).openOutputStream(EFS.NONE, new SubProgressMonitor(subMonitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)))) {
+						writeNode(output, entry.getValue());
+					}
+					final List<RefactoringDescriptorProxy> index= indexes.get(entry.getKey());
+					writeIndexEntry(folder.getChild(RefactoringHistoryService.NAME_INDEX_FILE), index.toArray(new RefactoringDescriptorProxy[index.size()]), EFS.NONE, new SubProgressMonitor(subMonitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL), RefactoringCoreMessages.RefactoringHistoryService_updating_history);
+				}
+			} finally {
+				subMonitor.done();
+			}
+		} catch (ParserConfigurationException | IOException | SAXException exception) {
+			throw createCoreException(exception);
+		} finally {
+			monitor.done();
+		}
+	}
+
 	/**
 	 * Escapes the specified string for the history index.
 	 *
@@ -185,6 +254,68 @@ public final class RefactoringHistoryManager {
 		return arguments;
 	}
 
+	/**
+	 * Imports the history index tree spanned by the specified file store into
+	 * the store of the local refactoring histories.
+	 *
+	 * @param store
+	 *            the file store spanning the history index tree
+	 * @param key
+	 *            the key of the history to import into
+	 * @param target
+	 *            the store of the local refactoring histories
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while importing the history
+	 */
+	static void importRefactoringHistory(final IFileStore store, final String key, final RefactoringHistoryStore target, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 12);
+			final IFileInfo info= store.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			if (info.isDirectory()) {
+				final IFileStore[] stores= store.childStores(EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				final IProgressMonitor subMonitor= new SubProgressMonitor(monitor, 10);
+				try {
+					subMonitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, stores.length);
+					for (IFileStore s : stores) {
+						importRefactoringHistory(s, key, target, new SubProgressMonitor(subMonitor, 1));
+					}
+				} finally {
+					subMonitor.done();
+				}
+			} else if (info.exists() && RefactoringHistoryService.NAME_HISTORY_FILE.equalsIgnoreCase(store.getName())) {
+				try (InputStream input= new BufferedInputStream(store.openInputStream(EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)))) {
+					final DocumentBuilder parser= DocumentBuilderFactory.newInstance().newDocumentBuilder();
+					parser.setErrorHandler(new DefaultHandler());
+					final Document document= parser.parse(new InputSource(input));
+					final Element root= document.getDocumentElement();
+					final NodeList list= document.getElementsByTagName(IRefactoringSerializationConstants.ELEMENT_REFACTORING);
+					final int length= list.getLength();
+					for (int offset= 0; offset < length; offset++) {
+						final Element element= (Element) list.item(offset);
+						final String description= element.getAttribute(IRefactoringSerializationConstants.ATTRIBUTE_DESCRIPTION);
+						try {
+							final long stamp= Long.parseLong(element.getAttribute(IRefactoringSerializationConstants.ATTRIBUTE_STAMP));
+							if (stamp >= 0 && !"".equals(description)) { //$NON-NLS-1$
+								final Document result= parser.newDocument();
+								final Node session= result.appendChild(result.importNode(root, false));
+								session.appendChild(result.importNode(element, true));
+								target.addDescriptor(key, stamp, description, toByteArray(result));
+							}
+						} catch (NumberFormatException exception) {
+							// Just skip
+						}
+					}
+				} catch (ParserConfigurationException | IOException | SAXException exception) {
+					throw createCoreException(exception);
+				}
+			}
+		} finally {
+			monitor.done();
+		}
+	}
+
 	/**
 	 * Reads refactoring descriptor proxies.
 	 *
@@ -416,6 +547,19 @@ public final class RefactoringHistoryManager {
 		return new Path(buffer.toString());
 	}
 
+	/**
+	 * Serializes the specified document.
+	 *
+	 * @param document
+	 *            the document to serialize
+	 * @return the serialized document
+	 */
+	private static byte[] toByteArray(final Document document) {
+		final ByteArrayOutputStream stream= new ByteArrayOutputStream(512);
+		writeNode(stream, document);
+		return stream.toByteArray();
+	}
+
 	/**
 	 * Transforms the specified refactoring descriptor into a DOM node.
 	 *
@@ -557,10 +701,14 @@ public final class RefactoringHistoryManager {
 		}
 
 		public void printDocument(Document doc) {
-			println(XML_VERSION);
+			printHeader();
 			printElement(doc.getDocumentElement());
 		}
 
+		public void printHeader() {
+			println(XML_VERSION);
+		}
+
 		/**
 		 * Prints the given element.
 		 *
@@ -602,23 +750,51 @@ public final class RefactoringHistoryManager {
 			NamedNodeMap attributes= element.getAttributes();
 			for (int i= 0; i < attributes.getLength(); i++) {
 				Attr attribute= (Attr) attributes.item(i);
-				sb.append(" "); //$NON-NLS-1$
-				sb.append(attribute.getName());
-				sb.append("=\""); //$NON-NLS-1$
-				sb.append(getEscaped(String.valueOf(attribute.getValue())));
-				sb.append("\""); //$NON-NLS-1$
+				appendAttribute(sb, attribute.getName(), attribute.getValue());
 			}
 			sb.append(hasChildren ? ">" : "/>"); //$NON-NLS-1$ //$NON-NLS-2$
 			print(sb.toString());
 		}
 
+		/**
+		 * Prints the start tag of an element which is not backed by a DOM
+		 * node.
+		 *
+		 * @param name the name of the element
+		 * @param attributes the attributes of the element, in the order to print
+		 * @param hasChildren <code>true</code> if the element has children and
+		 *            is ended with {@link #endTag(String)}, <code>false</code>
+		 *            otherwise
+		 */
+		public void startTag(String name, Map<String, String> attributes, boolean hasChildren) {
+			StringBuilder sb= new StringBuilder();
+			sb.append("<"); //$NON-NLS-1$
+			sb.append(name);
+			for (Entry<String, String> attribute : attributes.entrySet())
+				appendAttribute(sb, attribute.getKey(), attribute.getValue());
+			sb.append(hasChildren ? ">" : "/>"); //$NON-NLS-1$ //$NON-NLS-2$
+			print(sb.toString());
+		}
+
+		private static void appendAttribute(StringBuilder buffer, String name, String value) {
+			buffer.append(" "); //$NON-NLS-1$
+			buffer.append(name);
+			buffer.append("=\""); //$NON-NLS-1$
+			buffer.append(getEscaped(String.valueOf(value)));
+			buffer.append("\""); //$NON-NLS-1$
+		}
+
 		private void endTag(Element element) {
+			endTag(element.getNodeName());
+		}
+
+		public void endTag(String name) {
 			StringBuilder sb= new StringBuilder();
 			sb.append("</"); //$NON-NLS-1$
-			sb.append(element.getNodeName());
+			sb.append(name);
 			sb.append(">"); //$NON-NLS-1$
 			print(sb.toString());
-	}
+		}
 
 		private static void appendEscapedChar(StringBuilder buffer, char c) {
 			String replacement= getReplacement(c);
@@ -669,6 +845,11 @@ public final class RefactoringHistoryManager {
 
 	/**
 	 * Writes refactoring session descriptor to the specified output stream.
+	 * <p>
+	 * The refactoring descriptors are written one after the other, without
+	 * building a document of the whole session first. If an error occurs, the
+	 * refactorings written so far remain in the output stream.
+	 * </p>
 	 *
 	 * @param stream
 	 *            the output stream where to write to
@@ -682,33 +863,80 @@ public final class RefactoringHistoryManager {
 	 *             descriptor
 	 */
 	public static void writeRefactoringSession(final OutputStream stream, final RefactoringSessionDescriptor descriptor, final boolean stamps) throws CoreException {
-		final RefactoringSessionTransformer transformer= new RefactoringSessionTransformer(true);
 		final RefactoringDescriptor[] descriptors= descriptor.getRefactorings();
+		boolean children= false;
+		for (RefactoringDescriptor current : descriptors) {
+			if (current != null) {
+				children= true;
+				break;
+			}
+		}
+		// attributes are written in ascending order of their names, as a document would do
+		final Map<String, String> attributes= new TreeMap<>();
+		attributes.put(IRefactoringSerializationConstants.ATTRIBUTE_VERSION, descriptor.getVersion());
+		final String comment= descriptor.getComment();
+		if (comment != null && !"".equals(comment)) //$NON-NLS-1$
+			attributes.put(IRefactoringSerializationConstants.ATTRIBUTE_COMMENT, comment);
+		OutputStreamWriter outputStreamWriter= new OutputStreamWriter(stream, Charset.forName("UTF-8")); //$NON-NLS-1$
+		@SuppressWarnings("resource")
+		DOMWriter writer= new DOMWriter(outputStreamWriter);
 		try {
-			transformer.beginSession(descriptor.getComment(), descriptor.getVersion());
+			writer.printHeader();
+			writer.startTag(IRefactoringSerializationConstants.ELEMENT_SESSION, attributes, children);
 			for (RefactoringDescriptor current : descriptors) {
 				if (current != null) {
-					try {
-						long stamp= stamps ? current.getTimeStamp() : -1;
-						transformer.beginRefactoring(current.getID(), stamp, current.getProject(), current.getDescription(), current.getComment(), current.getFlags());
-						final Map<String, String> arguments= getArgumentMap(current);
-						if (arguments != null) {
-							checkArgumentMap(arguments);
-							for (Entry<String, String> entry : arguments.entrySet()) {
-								transformer.createArgument(entry.getKey(), entry.getValue());
-							}
-						}
-					} finally {
-						transformer.endRefactoring();
+					attributes.clear();
+					putRefactoringAttributes(attributes, current, stamps);
+					final Map<String, String> arguments= getArgumentMap(current);
+					if (arguments != null) {
+						checkArgumentMap(arguments);
+						attributes.putAll(arguments);
 					}
+					writer.println();
+					writer.startTag(IRefactoringSerializationConstants.ELEMENT_REFACTORING, attributes, false);
 				}
 			}
+			if (children) {
+				writer.println();
+				writer.endTag(IRefactoringSerializationConstants.ELEMENT_SESSION);
+			}
 		} finally {
-			transformer.endSession();
+			writer.flush();
 		}
-		final Document result= transformer.getResult();
-		writeNode(stream, result);
-			}
+	}
+
+	/**
+	 * Puts the attributes common to all refactorings into the specified map.
+	 *
+	 * @param attributes
+	 *            the attributes of the refactoring element
+	 * @param descriptor
+	 *            the refactoring descriptor
+	 * @param stamps
+	 *            <code>true</code> to put the time stamp as well,
+	 *            <code>false</code> otherwise
+	 */
+	private static void putRefactoringAttributes(final Map<String, String> attributes, final RefactoringDescriptor descriptor, final boolean stamps) {
+		final String id= descriptor.getID();
+		final String description= descriptor.getDescription();
+		final int flags= descriptor.getFlags();
+		Assert.isNotNull(id);
+		Assert.isNotNull(description);
+		Assert.isTrue(flags >= RefactoringDescriptor.NONE);
+		attributes.put(IRefactoringSerializationConstants.ATTRIBUTE_ID, id);
+		final long stamp= descriptor.getTimeStamp();
+		if (stamps && stamp >= 0)
+			attributes.put(IRefactoringSerializationConstants.ATTRIBUTE_STAMP, Long.toString(stamp));
+		if (flags != RefactoringDescriptor.NONE)
+			attributes.put(IRefactoringSerializationConstants.ATTRIBUTE_FLAGS, String.valueOf(flags));
+		attributes.put(IRefactoringSerializationConstants.ATTRIBUTE_DESCRIPTION, description);
+		final String comment= descriptor.getComment();
+		if (comment != null && !"".equals(comment)) //$NON-NLS-1$
+			attributes.put(IRefactoringSerializationConstants.ATTRIBUTE_COMMENT, comment);
+		final String project= descriptor.getProject();
+		if (project != null)
+			attributes.put(IRefactoringSerializationConstants.ATTRIBUTE_PROJECT, project);
+	}
 
 	private static void writeNode(final OutputStream stream, Document document) {
 		OutputStreamWriter outputStreamWriter= new OutputStreamWriter(stream, Charset.forName("UTF-8")); //$NON-NLS-1$
@@ -730,9 +958,15 @@ public final class RefactoringHistoryManager {
 	/** The cached file store, or <code>null</code> */
 	private IFileStore fCachedStore= null;
 
-	/** The history file store */
+	/**
+	 * The history file store, or <code>null</code> if the history is kept in
+	 * the local store
+	 */
 	private final IFileStore fHistoryStore;
 
+	/** The store of the refactoring histories in the workspace metadata */
+	private final RefactoringHistoryStore fLocalStore;
+
 	/**
 	 * The non-empty name of the managed project, or <code>null</code> for the
 	 * workspace
@@ -743,16 +977,21 @@ public final class RefactoringHistoryManager {
 	 * Creates a new refactoring history manager.
 	 *
 	 * @param store
-	 *            the history file store
+	 *            the history file store of a shared history, or
+	 *            <code>null</code> to keep the history in the local store
 	 * @param name
 	 *            the non-empty name of the managed project, or
 	 *            <code>null</code> for the workspace
+	 * @param localStore
+	 *            the store of the refactoring histories in the workspace
+	 *            metadata
 	 */
-	RefactoringHistoryManager(final IFileStore store, final String name) {
-		Assert.isNotNull(store);
+	RefactoringHistoryManager(final IFileStore store, final String name, final RefactoringHistoryStore localStore) {
+		Assert.isNotNull(localStore);
 		Assert.isTrue(name == null || !"".equals(name)); //$NON-NLS-1$
 		fHistoryStore= store;
 		fProjectName= name;
+		fLocalStore= localStore;
 	}
 
 	/**
@@ -774,7 +1013,13 @@ public final class RefactoringHistoryManager {
 		try {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 18);
 			final long stamp= descriptor.getTimeStamp();
-			if (stamp >= 0) {
+			if (stamp >= 0 && fHistoryStore == null) {
+				try {
+					fLocalStore.addDescriptor(getHistoryKey(), stamp, descriptor.getDescription(), toByteArray(transformDescriptor(descriptor, false)));
+				} catch (IOException exception) {
+					throw createCoreException(exception);
+				}
+			} else if (stamp >= 0) {
 				final IPath path= stampToPath(stamp);
 				final IFileStore folder= fHistoryStore.getFileStore(path);
 				final IFileStore history= folder.getChild(RefactoringHistoryService.NAME_HISTORY_FILE);
@@ -848,6 +1093,15 @@ public final class RefactoringHistoryManager {
 		}
 	}
 
+	/**
+	 * Returns the key of the managed history in the local store.
+	 *
+	 * @return the key of the history
+	 */
+	private String getHistoryKey() {
+		return fProjectName != null ? fProjectName : RefactoringHistoryService.NAME_WORKSPACE_PROJECT;
+	}
+
 	/**
 	 * Returns the cached refactoring history document.
 	 *
@@ -922,12 +1176,13 @@ public final class RefactoringHistoryManager {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 200);
 			final Set<RefactoringDescriptorProxy> set= new HashSet<>();
 			try {
-				if (fHistoryStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					readRefactoringDescriptorProxies(fHistoryStore, fProjectName, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
-				final IFileStore store= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation()).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER).getChild(RefactoringHistoryService.NAME_WORKSPACE_PROJECT);
-				if (store.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					readRefactoringDescriptorProxies(store, null, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
-			} catch (CoreException exception) {
+				if (fHistoryStore != null) {
+					if (fHistoryStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
+						readRefactoringDescriptorProxies(fHistoryStore, fProjectName, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
+				} else if (fProjectName != null)
+					fLocalStore.readDescriptorProxies(fProjectName, fProjectName, start, end, set);
+				fLocalStore.readDescriptorProxies(RefactoringHistoryService.NAME_WORKSPACE_PROJECT, null, start, end, set);
+			} catch (CoreException | IOException exception) {
 				RefactoringCorePlugin.log(exception);
 			}
 			final RefactoringDescriptorProxy[] proxies= new RefactoringDescriptorProxy[set.size()];
@@ -1037,6 +1292,20 @@ public final class RefactoringHistoryManager {
 	 *             if an error occurs
 	 */
 	void removeRefactoringDescriptors(final RefactoringDescriptorProxy[] proxies, final IProgressMonitor monitor, final String task) throws CoreException {
+		if (fHistoryStore == null) {
+			try {
+				monitor.beginTask(task, 1);
+				final long[] stamps= new long[proxies.length];
+				for (int index= 0; index < proxies.length; index++)
+					stamps[index]= proxies[index].getTimeStamp();
+				fLocalStore.removeDescriptors(getHistoryKey(), stamps);
+			} catch (IOException exception) {
+				throw createCoreException(exception);
+			} finally {
+				monitor.done();
+			}
+			return;
+		}
 		try {
 			final Map<IPath, Collection<RefactoringDescriptorProxy>> paths= new HashMap<>();
 			monitor.beginTask(task, proxies.length + 300);
@@ -1079,7 +1348,22 @@ public final class RefactoringHistoryManager {
 		try {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_resolving_information, 2);
 			final long stamp= proxy.getTimeStamp();
-			if (stamp >= 0) {
+			if (stamp >= 0 && fHistoryStore == null) {
+				try {
+					final byte[] bytes= fLocalStore.readDescriptor(getHistoryKey(), stamp);
+					if (bytes != null) {
+						final RefactoringSessionDescriptor descriptor= new RefactoringSessionReader(false, fProjectName).readSession(new InputSource(new ByteArrayInputStream(bytes)));
+						if (descriptor != null) {
+							for (RefactoringDescriptor refactoringDescriptor : descriptor.getRefactorings()) {
+								if (refactoringDescriptor.getTimeStamp() == stamp)
+									return refactoringDescriptor;
+							}
+						}
+					}
+				} catch (CoreException | IOException exception) {
+					RefactoringCorePlugin.log(exception);
+				}
+			} else if (stamp >= 0) {
 				InputStream input= null;
 				try {
 					final IFileStore folder= fHistoryStore.getFileStore(stampToPath(stamp));
@@ -1129,7 +1413,23 @@ public final class RefactoringHistoryManager {
 		try {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 100);
 			final long stamp= proxy.getTimeStamp();
-			if (stamp >= 0) {
+			if (stamp >= 0 && fHistoryStore == null) {
+				try {
+					final byte[] bytes= fLocalStore.readDescriptor(getHistoryKey(), stamp);
+					if (bytes != null) {
+						final DocumentBuilder parser= DocumentBuilderFactory.newInstance().newDocumentBuilder();
+						parser.setErrorHandler(new DefaultHandler());
+						final Document document= parser.parse(new InputSource(new ByteArrayInputStream(bytes)));
+						final NodeList list= document.getElementsByTagName(IRefactoringSerializationConstants.ELEMENT_REFACTORING);
+						if (list.getLength() > 0) {
+							((Element) list.item(0)).setAttribute(IRefactoringSerializationConstants.ATTRIBUTE_COMMENT, comment);
+							fLocalStore.addDescriptor(getHistoryKey(), stamp, proxy.getDescription(), toByteArray(document));
+						}
+					}
+				} catch (ParserConfigurationException | IOException | SAXException exception) {
+					throw createCoreException(exception);
+				}
+			} else if (stamp >= 0) {
 				final IPath path= stampToPath(stamp);
 				final IFileStore folder= fHistoryStore.getFileStore(path);
 				final IFileStore history= folder.getChild(RefactoringHistoryService.NAME_HISTORY_FILE);
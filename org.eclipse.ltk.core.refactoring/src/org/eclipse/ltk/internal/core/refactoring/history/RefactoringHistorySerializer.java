@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2008 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -52,7 +52,6 @@ public final class RefactoringHistorySerializer implements IRefactoringHistoryLi
 				final long stamp= proxy.getTimeStamp();
 				if (stamp >= 0) {
 					final String name= proxy.getProject();
-					final IFileStore store= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation()).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER);
 					if (name != null && !"".equals(name)) { //$NON-NLS-1$
 						final IProject project= ResourcesPlugin.getWorkspace().getRoot().getProject(name);
 						if (project.isAccessible()) {
@@ -73,7 +72,7 @@ public final class RefactoringHistorySerializer implements IRefactoringHistoryLi
 								}
 							} else {
 								try {
-									processHistoryNotification(store.getChild(name), event, name);
+									processHistoryNotification(null, event, name);
 								} catch (CoreException exception) {
 									RefactoringCorePlugin.log(exception);
 								}
@@ -81,7 +80,7 @@ public final class RefactoringHistorySerializer implements IRefactoringHistoryLi
 						}
 					} else {
 						try {
-							processHistoryNotification(store.getChild(RefactoringHistoryService.NAME_WORKSPACE_PROJECT), event, name);
+							processHistoryNotification(null, event, name);
 						} catch (CoreException exception) {
 							RefactoringCorePlugin.log(exception);
 						}
@@ -95,7 +94,8 @@ public final class RefactoringHistorySerializer implements IRefactoringHistoryLi
 	 * Processes the history event.
 	 *
 	 * @param store
-	 *            the file store
+	 *            the file store of a shared history, or <code>null</code> if
+	 *            the history is kept in the local store
 	 * @param event
 	 *            the history event
 	 * @param name
@@ -106,7 +106,7 @@ public final class RefactoringHistorySerializer implements IRefactoringHistoryLi
 	private void processHistoryNotification(final IFileStore store, final RefactoringHistoryEvent event, final String name) throws CoreException {
 		final RefactoringDescriptorProxy proxy= event.getDescriptor();
 		final int type= event.getEventType();
-		final RefactoringHistoryManager manager= new RefactoringHistoryManager(store, name);
+		final RefactoringHistoryManager manager= new RefactoringHistoryManager(store, name, RefactoringHistoryService.getLocalHistoryStore());
 		final NullProgressMonitor monitor= new NullProgressMonitor();
 		if (type == RefactoringHistoryEvent.PUSHED || type == RefactoringHistoryEvent.ADDED) {
 			final RefactoringDescriptor descriptor= proxy.requestDescriptor(monitor);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -124,12 +124,29 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 	/** The refactoring history index file name */
 	public static final String NAME_INDEX_FILE= "refactorings.index"; //$NON-NLS-1$
 
+	/** The refactoring history store file */
+	public static final String NAME_STORE_FILE= "refactorings.store"; //$NON-NLS-1$
+
 	/** The name of the special workspace project */
 	public static final String NAME_WORKSPACE_PROJECT= ".workspace"; //$NON-NLS-1$
 
 	/** The no history constant */
 	private static final NullRefactoringHistory NO_HISTORY= new NullRefactoringHistory();
 
+	/** The store of the local refactoring histories, or <code>null</code> */
+	private static RefactoringHistoryStore fgLocalStore= null;
+
+	/**
+	 * Creates a new core exception representing an I/O error.
+	 *
+	 * @param exception
+	 *            the throwable to wrap
+	 * @return the core exception
+	 */
+	private static CoreException createCoreException(final IOException exception) {
+		return new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IRefactoringCoreStatusCodes.REFACTORING_HISTORY_IO_ERROR, exception.getLocalizedMessage(), exception));
+	}
+
 	/**
 	 * Filters the given array of refactoring proxies and returns the result in
 	 * the specified refactoring descriptor proxy set.
@@ -175,6 +192,43 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 		}
 	}
 
+	/**
+	 * Migrates the index trees below the refactoring history folder of the
+	 * workspace metadata into the local refactoring history store.
+	 * <p>
+	 * The index tree of a history is deleted once it has been migrated. Index
+	 * trees which could not be migrated are kept, and migrating them is tried
+	 * again the next time the store is used. Since descriptors with the same
+	 * time stamp replace each other, a partially migrated history is completed
+	 * then.
+	 * </p>
+	 *
+	 * @param location
+	 *            the state location
+	 * @param store
+	 *            the local refactoring history store
+	 */
+	private static void migrateRefactoringHistories(final IPath location, final RefactoringHistoryStore store) {
+		try {
+			final IFileStore history= EFS.getLocalFileSystem().getStore(location).getChild(NAME_HISTORY_FOLDER);
+			if (history.fetchInfo().isDirectory()) {
+				for (IFileStore child : history.childStores(EFS.NONE, null)) {
+					if (child.fetchInfo().isDirectory()) {
+						try {
+							RefactoringHistoryManager.importRefactoringHistory(child, child.getName(), store, new NullProgressMonitor());
+							child.delete(EFS.NONE, null);
+						} catch (CoreException exception) {
+							RefactoringCorePlugin.log(exception);
+						}
+					}
+				}
+			}
+			store.create();
+		} catch (CoreException | IOException exception) {
+			RefactoringCorePlugin.log(exception);
+		}
+	}
+
 	/**
 	 * Returns the singleton instance of the refactoring history.
 	 *
@@ -186,6 +240,27 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 		return fInstance;
 	}
 
+	/**
+	 * Returns the store of the refactoring histories which are kept in the
+	 * workspace metadata.
+	 * <p>
+	 * Histories which are still kept in index trees below the refactoring
+	 * history folder of the workspace metadata are migrated into the store when
+	 * it is first used in a session.
+	 * </p>
+	 *
+	 * @return the local refactoring history store
+	 */
+	public static synchronized RefactoringHistoryStore getLocalHistoryStore() {
+		if (fgLocalStore == null) {
+			final IPath location= RefactoringCorePlugin.getDefault().getStateLocation();
+			final RefactoringHistoryStore store= new RefactoringHistoryStore(location.append(NAME_STORE_FILE).toFile());
+			migrateRefactoringHistories(location, store);
+			fgLocalStore= store;
+		}
+		return fgLocalStore;
+	}
+
 	/**
 	 * Returns whether a project has a shared refactoring history.
 	 *
@@ -213,8 +288,9 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 	 * plugin-specific way without altering the project.
 	 * </p>
 	 * <p>
-	 * Note: this method simply copies the content of the refactoring history
-	 * folder to the location corresponding to the shared history setting.
+	 * Note: this method simply moves the refactoring history between the local
+	 * history store and the refactoring history folder of the project,
+	 * according to the shared history setting.
 	 * Clients wishing to programmatically change the refactoring history
 	 * location have to update the preference
 	 * {@link RefactoringPreferenceConstants#PREFERENCE_SHARED_REFACTORING_HISTORY}
@@ -248,28 +324,24 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 			final URI uri= project.getLocationURI();
 			if (uri != null) {
 				try {
-					final IFileStore history= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation()).getChild(NAME_HISTORY_FOLDER);
+					final RefactoringHistoryStore store= getLocalHistoryStore();
+					final IFileStore folder= EFS.getStore(uri).getChild(NAME_HISTORY_FOLDER);
 					if (enable) {
-						final IFileStore source= history.getChild(name);
-						if (source.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20)).exists()) {
-							IFileStore destination= EFS.getStore(uri).getChild(NAME_HISTORY_FOLDER);
-							if (destination.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20)).exists())
-								destination.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
-							destination.mkdir(EFS.NONE, new SubProgressMonitor(monitor, 20));
-							source.copy(destination, EFS.OVERWRITE, new SubProgressMonitor(monitor, 20));
-							source.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
+						if (store.hasHistory(name)) {
+							if (folder.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20)).exists())
+								folder.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
+							RefactoringHistoryManager.exportRefactoringHistory(store, name, folder, new SubProgressMonitor(monitor, 60));
+							store.removeHistory(name);
 						}
 					} else {
-						final IFileStore source= EFS.getStore(uri).getChild(NAME_HISTORY_FOLDER);
-						if (source.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20)).exists()) {
-							IFileStore destination= history.getChild(name);
-							if (destination.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20)).exists())
-								destination.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
-							destination.mkdir(EFS.NONE, new SubProgressMonitor(monitor, 20));
-							source.copy(destination, EFS.OVERWRITE, new SubProgressMonitor(monitor, 20));
-							source.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
+						if (folder.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20)).exists()) {
+							store.removeHistory(name);
+							RefactoringHistoryManager.importRefactoringHistory(folder, name, store, new SubProgressMonitor(monitor, 60));
+							folder.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
 						}
 					}
+				} catch (IOException exception) {
+					throw createCoreException(exception);
 				} finally {
 					if (enable)
 						project.refreshLocal(IResource.DEPTH_INFINITE, new SubProgressMonitor(monitor, 30));
@@ -512,6 +584,11 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 		try {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_deleting_refactorings, 100);
 			final String name= project.getName();
+			try {
+				getLocalHistoryStore().removeHistory(name);
+			} catch (IOException exception) {
+				throw createCoreException(exception);
+			}
 			final IFileStore stateStore= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation());
 			if (NAME_WORKSPACE_PROJECT.equals(name)) {
 				final IFileStore metaStore= stateStore.getChild(NAME_HISTORY_FOLDER).getChild(name);
@@ -844,18 +921,9 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 	 */
 	private void moveHistory(final IProject oldProject, final IProject newProject, final IProgressMonitor monitor) {
 		try {
-			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 60);
-			final IFileStore historyStore= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation()).getChild(NAME_HISTORY_FOLDER);
-			final String oldName= oldProject.getName();
-			final String newName= newProject.getName();
-			final IFileStore oldStore= historyStore.getChild(oldName);
-			if (oldStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists()) {
-				final IFileStore newStore= historyStore.getChild(newName);
-				if (newStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					newStore.delete(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
-				oldStore.move(newStore, EFS.OVERWRITE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
-			}
-		} catch (CoreException exception) {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 1);
+			getLocalHistoryStore().moveHistory(oldProject.getName(), newProject.getName());
+		} catch (IOException exception) {
 			RefactoringCorePlugin.log(exception);
 		} finally {
 			monitor.done();
@@ -963,15 +1031,15 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 					if (hasSharedRefactoringHistory(project)) {
 						final URI uri= project.getLocationURI();
 						if (uri != null)
-							return getManager(EFS.getStore(uri).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER), name);
+							return getManager(EFS.getStore(uri).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER), name, true);
 					} else
-						return getManager(store.getChild(name), name);
+						return getManager(store.getChild(name), name, false);
 				}
 			} catch (CoreException exception) {
 				// Do nothing
 			}
 		} else
-			return getManager(store.getChild(NAME_WORKSPACE_PROJECT), null);
+			return getManager(store.getChild(NAME_WORKSPACE_PROJECT), null, false);
 		return null;
 	}
 
@@ -984,13 +1052,17 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 	 * @param name
 	 *            the non-empty project name, or <code>null</code> for the
 	 *            workspace
+	 * @param shared
+	 *            <code>true</code> if the history location is a shared
+	 *            history, <code>false</code> if the history is kept in the
+	 *            local store
 	 * @return the refactoring history manager
 	 */
-	private RefactoringHistoryManager getManager(final IFileStore store, final String name) {
+	private RefactoringHistoryManager getManager(final IFileStore store, final String name, final boolean shared) {
 		Assert.isNotNull(store);
 		RefactoringHistoryManager manager= fManagerCache.get(store);
 		if (manager == null) {
-			manager= new RefactoringHistoryManager(store, name);
+			manager= new RefactoringHistoryManager(shared ? store : null, name, getLocalHistoryStore());
 			fManagerCache.put(store, manager);
 		}
 		return manager;
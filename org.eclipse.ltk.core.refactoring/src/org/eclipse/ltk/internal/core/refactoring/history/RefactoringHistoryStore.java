@@ -0,0 +1,659 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring.history;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.core.runtime.Assert;
+
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
+
+/**
+ * Append-only store for the refactoring histories which are kept in the
+ * workspace metadata.
+ * <p>
+ * All histories live in one file. Every change to a history is appended as a
+ * record; the serialized refactoring descriptors are never rewritten in place.
+ * When the store is loaded, the records are replayed into one index per
+ * history, which keeps the time stamps in ascending order together with the
+ * file offsets of the serialized descriptors. Range queries are answered by
+ * binary search on these indexes, and descriptors are read on demand.
+ * Superseded records are dropped by compacting the file while loading it.
+ * </p>
+ * <p>
+ * File layout:
+ * <pre>
+ * int magic, int version
+ * record*
+ *   byte ADD, string key, long stamp, string description, int length, byte[length] descriptor
+ *   byte REMOVE, string key, int count, long[count] stamps
+ *   byte REMOVE_HISTORY, string key
+ *   byte MOVE_HISTORY, string from, string to
+ * string: int length, byte[length] UTF-8
+ * </pre>
+ * A record which has been written only partially is cut off when the store is
+ * loaded. A store file which is corrupted otherwise is not loaded and left
+ * untouched.
+ * </p>
+ *
+ * @since 3.13
+ */
+public final class RefactoringHistoryStore {
+
+	/** The index of one refactoring history, sorted by time stamp */
+	private static final class HistoryIndex {
+
+		/** The descriptions */
+		private String[] fDescriptions= new String[16];
+
+		/** The lengths of the serialized descriptors */
+		private int[] fLengths= new int[16];
+
+		/** The file offsets of the serialized descriptors */
+		private long[] fOffsets= new long[16];
+
+		/** The number of entries */
+		private int fSize= 0;
+
+		/** The time stamps in ascending order */
+		private long[] fStamps= new long[16];
+
+		/**
+		 * Returns the index of the first entry whose time stamp is greater
+		 * than or equal to the specified one.
+		 *
+		 * @param stamp
+		 *            the time stamp
+		 * @return the index, or the number of entries
+		 */
+		int lowerBound(final long stamp) {
+			int low= 0;
+			int high= fSize;
+			while (low < high) {
+				final int middle= (low + high) >>> 1;
+				if (fStamps[middle] < stamp)
+					low= middle + 1;
+				else
+					high= middle;
+			}
+			return low;
+		}
+
+		/**
+		 * Returns the index of the entry with the specified time stamp.
+		 *
+		 * @param stamp
+		 *            the time stamp
+		 * @return the index, or a negative value
+		 */
+		int indexOf(final long stamp) {
+			final int index= lowerBound(stamp);
+			return index < fSize && fStamps[index] == stamp ? index : -1;
+		}
+
+		void put(final long stamp, final String description, final long offset, final int length) {
+			int index= lowerBound(stamp);
+			if (index == fSize || fStamps[index] != stamp) {
+				if (fSize == fStamps.length) {
+					final int capacity= fSize * 2;
+					fStamps= Arrays.copyOf(fStamps, capacity);
+					fDescriptions= Arrays.copyOf(fDescriptions, capacity);
+					fOffsets= Arrays.copyOf(fOffsets, capacity);
+					fLengths= Arrays.copyOf(fLengths, capacity);
+				}
+				final int moved= fSize - index;
+				System.arraycopy(fStamps, index, fStamps, index + 1, moved);
+				System.arraycopy(fDescriptions, index, fDescriptions, index + 1, moved);
+				System.arraycopy(fOffsets, index, fOffsets, index + 1, moved);
+				System.arraycopy(fLengths, index, fLengths, index + 1, moved);
+				fSize++;
+			}
+			fStamps[index]= stamp;
+			fDescriptions[index]= description;
+			fOffsets[index]= offset;
+			fLengths[index]= length;
+		}
+
+		void remove(final long stamp) {
+			final int index= indexOf(stamp);
+			if (index >= 0) {
+				final int moved= fSize - index - 1;
+				System.arraycopy(fStamps, index + 1, fStamps, index, moved);
+				System.arraycopy(fDescriptions, index + 1, fDescriptions, index, moved);
+				System.arraycopy(fOffsets, index + 1, fOffsets, index, moved);
+				System.arraycopy(fLengths, index + 1, fLengths, index, moved);
+				fSize--;
+				fDescriptions[fSize]= null;
+			}
+		}
+	}
+
+	/** Input stream which keeps track of the number of bytes read */
+	private static final class PositionInputStream extends FilterInputStream {
+
+		/** The current position */
+		long fPosition= 0;
+
+		PositionInputStream(final InputStream stream) {
+			super(stream);
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int result= super.read();
+			if (result >= 0)
+				fPosition++;
+			return result;
+		}
+
+		@Override
+		public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+			final int result= super.read(buffer, offset, length);
+			if (result > 0)
+				fPosition+= result;
+			return result;
+		}
+
+		@Override
+		public long skip(final long length) throws IOException {
+			final long result= super.skip(length);
+			fPosition+= result;
+			return result;
+		}
+	}
+
+	/** The magic number of the store file */
+	public static final int MAGIC= 0x52485354;
+
+	/** The version of the store file */
+	public static final int VERSION= 1;
+
+	/** The length of the file header */
+	private static final int HEADER_LENGTH= 8;
+
+	/** The minimal number of records before the file is compacted */
+	private static final int MIN_COMPACT_RECORDS= 256;
+
+	private static final byte RECORD_ADD= 1;
+
+	private static final byte RECORD_REMOVE= 2;
+
+	private static final byte RECORD_REMOVE_HISTORY= 3;
+
+	private static final byte RECORD_MOVE_HISTORY= 4;
+
+	/**
+	 * Reads the length of a string or descriptor.
+	 *
+	 * @param input
+	 *            the input stream
+	 * @param stream
+	 *            the underlying stream
+	 * @param end
+	 *            the length of the store file
+	 * @return the length
+	 * @throws EOFException
+	 *             if the data would extend beyond the end of the store file,
+	 *             that is, if the record has been written only partially
+	 * @throws IOException
+	 *             if the length is invalid, or if an input/output error occurs
+	 */
+	private static int readLength(final DataInputStream input, final PositionInputStream stream, final long end) throws IOException {
+		final int length= input.readInt();
+		if (length < 0)
+			throw new IOException("Invalid length " + length + " at offset " + (stream.fPosition - 4)); //$NON-NLS-1$ //$NON-NLS-2$
+		if (length > end - stream.fPosition)
+			throw new EOFException();
+		return length;
+	}
+
+	private static String readString(final DataInputStream input, final PositionInputStream stream, final long end) throws IOException {
+		final byte[] bytes= new byte[readLength(input, stream, end)];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void skipFully(final DataInputStream input, final int length) throws IOException {
+		int remaining= length;
+		while (remaining > 0) {
+			final int skipped= input.skipBytes(remaining);
+			if (skipped <= 0) {
+				input.readByte();
+				remaining--;
+			} else
+				remaining-= skipped;
+		}
+	}
+
+	private static void writeString(final DataOutputStream output, final String string) throws IOException {
+		final byte[] bytes= string.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	/** The store file */
+	private final File fFile;
+
+	/** The length of the valid part of the store file */
+	private long fLength= 0;
+
+	/** The histories indexed by key, or <code>null</code> if not yet loaded */
+	private Map<String, HistoryIndex> fHistories= null;
+
+	/** The number of records in the store file */
+	private int fRecords= 0;
+
+	/**
+	 * Creates a new refactoring history store.
+	 *
+	 * @param file
+	 *            the store file, which need not exist yet
+	 */
+	public RefactoringHistoryStore(final File file) {
+		Assert.isNotNull(file);
+		fFile= file;
+	}
+
+	/**
+	 * Adds the specified refactoring descriptor to a history, replacing any
+	 * descriptor with the same time stamp.
+	 *
+	 * @param key
+	 *            the key of the history
+	 * @param stamp
+	 *            the time stamp of the descriptor
+	 * @param description
+	 *            the description of the descriptor
+	 * @param descriptor
+	 *            the serialized refactoring session containing the descriptor
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	public synchronized void addDescriptor(final String key, final long stamp, final String description, final byte[] descriptor) throws IOException {
+		load();
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(descriptor.length + 64);
+		final DataOutputStream output= new DataOutputStream(bytes);
+		output.writeByte(RECORD_ADD);
+		writeString(output, key);
+		output.writeLong(stamp);
+		writeString(output, description);
+		output.writeInt(descriptor.length);
+		final int header= output.size();
+		output.write(descriptor);
+		final long offset= append(bytes.toByteArray());
+		getIndex(key).put(stamp, description, offset + header, descriptor.length);
+	}
+
+	/**
+	 * Creates the store file, unless it exists.
+	 *
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	public synchronized void create() throws IOException {
+		load();
+		if (fLength == 0) {
+			final File parent= fFile.getParentFile();
+			if (parent != null)
+				parent.mkdirs();
+			try (RandomAccessFile file= new RandomAccessFile(fFile, "rw")) { //$NON-NLS-1$
+				file.setLength(0);
+				file.writeInt(MAGIC);
+				file.writeInt(VERSION);
+			}
+			fLength= HEADER_LENGTH;
+		}
+	}
+
+	/**
+	 * Returns whether the store file exists.
+	 *
+	 * @return <code>true</code> if it exists, <code>false</code> otherwise
+	 */
+	public boolean exists() {
+		return fFile.isFile();
+	}
+
+	/**
+	 * Returns whether the specified history contains descriptors.
+	 *
+	 * @param key
+	 *            the key of the history
+	 * @return <code>true</code> if it is not empty, <code>false</code> otherwise
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	public synchronized boolean hasHistory(final String key) throws IOException {
+		load();
+		final HistoryIndex index= fHistories.get(key);
+		return index != null && index.fSize > 0;
+	}
+
+	/**
+	 * Moves a history to another key, replacing any history stored there.
+	 *
+	 * @param from
+	 *            the current key of the history
+	 * @param to
+	 *            the new key of the history
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	public synchronized void moveHistory(final String from, final String to) throws IOException {
+		load();
+		if (!fHistories.containsKey(from) || from.equals(to))
+			return;
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(64);
+		final DataOutputStream output= new DataOutputStream(bytes);
+		output.writeByte(RECORD_MOVE_HISTORY);
+		writeString(output, from);
+		writeString(output, to);
+		append(bytes.toByteArray());
+		fHistories.put(to, fHistories.remove(from));
+	}
+
+	/**
+	 * Reads the serialized refactoring session containing the descriptor with
+	 * the specified time stamp.
+	 *
+	 * @param key
+	 *            the key of the history
+	 * @param stamp
+	 *            the time stamp of the descriptor
+	 * @return the serialized refactoring session, or <code>null</code>
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	public synchronized byte[] readDescriptor(final String key, final long stamp) throws IOException {
+		load();
+		final HistoryIndex index= fHistories.get(key);
+		if (index == null)
+			return null;
+		final int position= index.indexOf(stamp);
+		if (position < 0)
+			return null;
+		final byte[] bytes= new byte[index.fLengths[position]];
+		try (RandomAccessFile file= new RandomAccessFile(fFile, "r")) { //$NON-NLS-1$
+			file.seek(index.fOffsets[position]);
+			file.readFully(bytes);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Reads refactoring descriptor proxies from a history.
+	 *
+	 * @param key
+	 *            the key of the history
+	 * @param project
+	 *            the name of the project of the proxies, or <code>null</code>
+	 *            for the workspace
+	 * @param start
+	 *            the start time stamp, inclusive
+	 * @param end
+	 *            the end time stamp, inclusive
+	 * @param collection
+	 *            the collection of proxies to fill in
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	public synchronized void readDescriptorProxies(final String key, final String project, final long start, final long end, final Collection<RefactoringDescriptorProxy> collection) throws IOException {
+		load();
+		final HistoryIndex index= fHistories.get(key);
+		if (index == null || start > end)
+			return;
+		final int last= end == Long.MAX_VALUE ? index.fSize : index.lowerBound(end + 1);
+		for (int position= index.lowerBound(start); position < last; position++)
+			collection.add(new DefaultRefactoringDescriptorProxy(index.fDescriptions[position], project, index.fStamps[position]));
+	}
+
+	/**
+	 * Removes the descriptors with the specified time stamps from a history.
+	 *
+	 * @param key
+	 *            the key of the history
+	 * @param stamps
+	 *            the time stamps of the descriptors to remove
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	public synchronized void removeDescriptors(final String key, final long[] stamps) throws IOException {
+		load();
+		final HistoryIndex index= fHistories.get(key);
+		if (index == null || stamps.length == 0)
+			return;
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(64 + stamps.length * 8);
+		final DataOutputStream output= new DataOutputStream(bytes);
+		output.writeByte(RECORD_REMOVE);
+		writeString(output, key);
+		output.writeInt(stamps.length);
+		for (long stamp : stamps)
+			output.writeLong(stamp);
+		append(bytes.toByteArray());
+		for (long stamp : stamps)
+			index.remove(stamp);
+	}
+
+	/**
+	 * Removes a history.
+	 *
+	 * @param key
+	 *            the key of the history
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	public synchronized void removeHistory(final String key) throws IOException {
+		load();
+		if (!fHistories.containsKey(key))
+			return;
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(64);
+		final DataOutputStream output= new DataOutputStream(bytes);
+		output.writeByte(RECORD_REMOVE_HISTORY);
+		writeString(output, key);
+		append(bytes.toByteArray());
+		fHistories.remove(key);
+	}
+
+	/**
+	 * Appends the specified record to the store file.
+	 *
+	 * @param record
+	 *            the record
+	 * @return the file offset of the record
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private long append(final byte[] record) throws IOException {
+		create();
+		try (RandomAccessFile file= new RandomAccessFile(fFile, "rw")) { //$NON-NLS-1$
+			file.seek(fLength);
+			file.write(record);
+		}
+		final long offset= fLength;
+		fLength+= record.length;
+		fRecords++;
+		return offset;
+	}
+
+	/**
+	 * Rewrites the store file so that it only contains the current
+	 * descriptors.
+	 *
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private void compact() throws IOException {
+		final File temporary= new File(fFile.getPath() + ".tmp"); //$NON-NLS-1$
+		final Map<String, HistoryIndex> histories= new HashMap<>();
+		long length= HEADER_LENGTH;
+		int records= 0;
+		try {
+			try (RandomAccessFile input= new RandomAccessFile(fFile, "r"); //$NON-NLS-1$
+					DataOutputStream output= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				for (Entry<String, HistoryIndex> entry : fHistories.entrySet()) {
+					final String key= entry.getKey();
+					final HistoryIndex index= entry.getValue();
+					if (index.fSize == 0)
+						continue;
+					final HistoryIndex compacted= new HistoryIndex();
+					for (int position= 0; position < index.fSize; position++) {
+						final byte[] descriptor= new byte[index.fLengths[position]];
+						input.seek(index.fOffsets[position]);
+						input.readFully(descriptor);
+						final ByteArrayOutputStream bytes= new ByteArrayOutputStream(descriptor.length + 64);
+						final DataOutputStream record= new DataOutputStream(bytes);
+						record.writeByte(RECORD_ADD);
+						writeString(record, key);
+						record.writeLong(index.fStamps[position]);
+						writeString(record, index.fDescriptions[position]);
+						record.writeInt(descriptor.length);
+						compacted.put(index.fStamps[position], index.fDescriptions[position], length + record.size(), descriptor.length);
+						record.write(descriptor);
+						bytes.writeTo(output);
+						length+= bytes.size();
+						records++;
+					}
+					histories.put(key, compacted);
+				}
+			}
+			Files.move(temporary.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException exception) {
+			temporary.delete();
+			throw exception;
+		}
+		fHistories= histories;
+		fLength= length;
+		fRecords= records;
+	}
+
+	private HistoryIndex getIndex(final String key) {
+		HistoryIndex index= fHistories.get(key);
+		if (index == null) {
+			index= new HistoryIndex();
+			fHistories.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Loads the indexes from the store file, unless already done.
+	 *
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private void load() throws IOException {
+		if (fHistories != null)
+			return;
+		final Map<String, HistoryIndex> histories= new HashMap<>();
+		long length= 0;
+		int records= 0;
+		final long end= fFile.length();
+		if (fFile.isFile() && end >= HEADER_LENGTH) {
+			try (PositionInputStream stream= new PositionInputStream(new BufferedInputStream(new FileInputStream(fFile)))) {
+				final DataInputStream input= new DataInputStream(stream);
+				if (input.readInt() != MAGIC)
+					throw new IOException("Not a refactoring history store: " + fFile); //$NON-NLS-1$
+				final int version= input.readInt();
+				if (version != VERSION)
+					throw new IOException("Unsupported refactoring history store version " + version + ": " + fFile); //$NON-NLS-1$ //$NON-NLS-2$
+				length= HEADER_LENGTH;
+				try {
+					for (int kind= input.read(); kind >= 0; kind= input.read()) {
+						if (kind == RECORD_ADD) {
+							final String key= readString(input, stream, end);
+							final long stamp= input.readLong();
+							final String description= readString(input, stream, end);
+							final int size= readLength(input, stream, end);
+							final long offset= stream.fPosition;
+							skipFully(input, size);
+							HistoryIndex index= histories.get(key);
+							if (index == null) {
+								index= new HistoryIndex();
+								histories.put(key, index);
+							}
+							index.put(stamp, description, offset, size);
+						} else if (kind == RECORD_REMOVE) {
+							final HistoryIndex index= histories.get(readString(input, stream, end));
+							final int count= input.readInt();
+							if (count < 0)
+								throw new IOException("Invalid count " + count + " at offset " + (stream.fPosition - 4)); //$NON-NLS-1$ //$NON-NLS-2$
+							for (int position= 0; position < count; position++) {
+								final long stamp= input.readLong();
+								if (index != null)
+									index.remove(stamp);
+							}
+						} else if (kind == RECORD_REMOVE_HISTORY) {
+							histories.remove(readString(input, stream, end));
+						} else if (kind == RECORD_MOVE_HISTORY) {
+							final String from= readString(input, stream, end);
+							final String to= readString(input, stream, end);
+							final HistoryIndex index= histories.remove(from);
+							if (index != null)
+								histories.put(to, index);
+						} else
+							throw new IOException("Unknown record kind " + kind + " at offset " + length); //$NON-NLS-1$ //$NON-NLS-2$
+						length= stream.fPosition;
+						records++;
+					}
+				} catch (EOFException exception) {
+					// Partially written tail record, cut off below
+				} catch (IOException exception) {
+					throw new IOException("Corrupted refactoring history store: " + fFile, exception); //$NON-NLS-1$
+				}
+			}
+			if (end > length) {
+				try (RandomAccessFile file= new RandomAccessFile(fFile, "rw")) { //$NON-NLS-1$
+					file.setLength(length);
+				}
+			}
+		}
+		fHistories= histories;
+		fLength= length;
+		fRecords= records;
+		if (fRecords >= MIN_COMPACT_RECORDS) {
+			int live= 0;
+			for (HistoryIndex index : histories.values())
+				live+= index.fSize;
+			if (fRecords > 2 * live) {
+				try {
+					compact();
+				} catch (IOException exception) {
+					// Keep the store file as it is
+				}
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,20 +13,18 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.ui.refactoring.history;
 
+import java.io.IOException;
 import java.net.URI;
 
 import org.eclipse.core.expressions.PropertyTester;
 import org.eclipse.core.filesystem.EFS;
-import org.eclipse.core.filesystem.IFileStore;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
-import org.eclipse.core.runtime.IPath;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 
-import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
 
 /**
@@ -39,22 +37,20 @@ public final class RefactoringPropertyPageTester extends PropertyTester {
 	/** The property name */
 	public static final String PROPERTY_NAME= "refactoringPropertiesEnabled"; //$NON-NLS-1$
 
-	private IFileStore getHistoryStore(final IProject project) {
-		final IPath location= RefactoringCorePlugin.getDefault().getStateLocation();
-		final IFileStore store= EFS.getLocalFileSystem().getStore(location).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER);
+	private boolean hasHistory(final IProject project) {
 		try {
 			if (project.isAccessible()) {
 				if (RefactoringHistoryService.hasSharedRefactoringHistory(project)) {
 					final URI uri= project.getLocationURI();
 					if (uri != null)
-						return EFS.getStore(uri).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER);
+						return EFS.getStore(uri).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER).fetchInfo().exists();
 				} else
-					return store.getChild(project.getName());
+					return RefactoringHistoryService.getLocalHistoryStore().hasHistory(project.getName());
 			}
-		} catch (CoreException exception) {
+		} catch (CoreException | IOException exception) {
 			// Do nothing
 		}
-		return null;
+		return false;
 	}
 
 	@Override
@@ -64,10 +60,7 @@ public final class RefactoringPropertyPageTester extends PropertyTester {
 				final IAdaptable adaptable= (IAdaptable) receiver;
 				final IResource resource= adaptable.getAdapter(IResource.class);
 				if (resource instanceof IProject) {
-					final IProject project= (IProject) resource;
-					final IFileStore store= getHistoryStore(project);
-					if (store != null)
-						return store.fetchInfo().exists();
+					return hasHistory((IProject) resource);
 				}
 			}
 		}
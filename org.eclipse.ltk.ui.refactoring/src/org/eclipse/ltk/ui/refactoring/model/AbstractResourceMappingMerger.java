@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,10 +15,14 @@ package org.eclipse.ltk.ui.refactoring.model;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.xml.sax.InputSource;
+
 import org.eclipse.team.core.diff.IDiff;
 import org.eclipse.team.core.diff.IThreeWayDiff;
 import org.eclipse.team.core.diff.ITwoWayDiff;
@@ -58,6 +62,7 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
 import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
 import org.eclipse.ltk.core.refactoring.history.RefactoringHistory;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringSessionStreamReader;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryImplementation;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
 import org.eclipse.ltk.internal.ui.refactoring.RefactoringUIMessages;
@@ -367,10 +372,16 @@ public abstract class AbstractResourceMappingMerger extends ResourceMappingMerge
 				InputStream stream= null;
 				try {
 					stream= storage.getContents();
-					final RefactoringHistory history= RefactoringHistoryService.getInstance().readRefactoringHistory(stream, RefactoringDescriptor.MULTI_CHANGE);
-					for (RefactoringDescriptorProxy proxy : history.getDescriptors()) {
-						descriptors.add(proxy.requestDescriptor(null));
+					final List<RefactoringDescriptor> list= new ArrayList<>();
+					try (RefactoringSessionStreamReader reader= new RefactoringSessionStreamReader(new InputSource(stream), false, null)) {
+						RefactoringDescriptor descriptor= null;
+						while ((descriptor= reader.next()) != null) {
+							final int flags= descriptor.getFlags();
+							if ((flags | RefactoringDescriptor.MULTI_CHANGE) == flags)
+								list.add(descriptor);
+						}
 					}
+					descriptors.addAll(list);
 				} catch (CoreException exception) {
 					RefactoringUIPlugin.log(exception);
 				} finally {